@@ -0,0 +1,155 @@
+package com.example.barcodescanner;
+
+import com.google.zxing.Binarizer;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.common.HybridBinarizer;
+
+/**
+ * Picks a tone curve and binarizer for a frame from its luminance histogram,
+ * so a single well-chosen decode attempt replaces several blind ones.
+ *
+ * Rules, tuned against {@link SyntheticCorpus} at several noise levels:
+ * - Dark frames get a gamma curve that lifts the mean towards mid-grey. Bright frames
+ *   are left alone; darkening stretches the light end and amplifies background noise.
+ * - Noisy frames (large median neighbour step) with a usable spread use GlobalHistogramBinarizer,
+ *   whose single threshold does not chase noise the way HybridBinarizer's 8x8 blocks do.
+ * - No global contrast stretch: HybridBinarizer is already locally adaptive, and a stretch
+ *   driven by whole-frame percentiles only amplified the background in every test.
+ */
+public class AdaptivePreprocessor {
+
+    static final double DARK_MEAN = 120;
+    static final double MIN_GAMMA = 0.6;
+    static final double NOISY_STEP = 5;
+    static final int GLOBAL_MIN_SPREAD = 50;
+
+    // Gamma curves precomputed in 0.05 steps from MIN_GAMMA up to 1.0
+    private static final double GAMMA_STEP = 0.05;
+    private static final byte[][] GAMMA_LUTS = new byte[(int) Math.round((1.0 - MIN_GAMMA) / GAMMA_STEP)][];
+    // The same curves turned light-for-dark, for inverted codes
+    private static final byte[][] INVERTED_GAMMA_LUTS = new byte[GAMMA_LUTS.length][];
+    private static final byte[] INVERTED_IDENTITY = LutLuminanceSource.invert(null);
+
+    static {
+        for (int i = 0; i < GAMMA_LUTS.length; i++) {
+            GAMMA_LUTS[i] = gammaLut(MIN_GAMMA + i * GAMMA_STEP);
+            INVERTED_GAMMA_LUTS[i] = LutLuminanceSource.invert(GAMMA_LUTS[i]);
+        }
+    }
+
+    /**
+     * Tone curve to apply before binarization
+     */
+    public enum ToneCurve {
+        IDENTITY, BRIGHTEN
+    }
+
+    /**
+     * Binarizer to decode with
+     */
+    public enum BinarizerChoice {
+        HYBRID, GLOBAL_HISTOGRAM
+    }
+
+    /**
+     * Preprocessing chosen for one frame
+     */
+    public static class Plan {
+        private final ToneCurve toneCurve;
+        private final BinarizerChoice binarizer;
+        private final byte[] lut;
+        private final byte[] invertedLut;
+        private final boolean inverted;
+
+        Plan(ToneCurve toneCurve, BinarizerChoice binarizer, byte[] lut, byte[] invertedLut, boolean inverted) {
+            this.toneCurve = toneCurve;
+            this.binarizer = binarizer;
+            this.lut = lut;
+            this.invertedLut = invertedLut;
+            this.inverted = inverted;
+        }
+
+        public ToneCurve getToneCurve() { return toneCurve; }
+        public BinarizerChoice getBinarizer() { return binarizer; }
+
+        /**
+         * True if the frame is decoded light-for-dark
+         */
+        public boolean isInverted() { return inverted; }
+
+        /**
+         * The same plan for a light code on a dark background. The inversion is folded into
+         * the tone curve's lookup table, so it costs no copy of the frame: the binarizer maps
+         * luma through the table into its reusable buffer as it does for any tone curve.
+         */
+        public Plan inverted() {
+            return inverted ? this : new Plan(toneCurve, binarizer, invertedLut, lut, true);
+        }
+
+        /**
+         * Wrap the frame's luminance in the tone curve and the chosen binarizer
+         */
+        public Binarizer createBinarizer(LuminanceSource source) {
+            LuminanceSource mapped = lut != null ? new LutLuminanceSource(source, lut) : source;
+            return binarizer == BinarizerChoice.GLOBAL_HISTOGRAM
+                    ? new GlobalHistogramBinarizer(mapped)
+                    : new HybridBinarizer(mapped);
+        }
+
+        /**
+         * As {@link #createBinarizer(LuminanceSource)}, binarizing into the workspace's buffers
+         */
+        public Binarizer createBinarizer(LuminanceSource source, ReusableBinarizer.Workspace workspace) {
+            LuminanceSource mapped = lut != null ? new LutLuminanceSource(source, lut) : source;
+            return new ReusableBinarizer(mapped, workspace, binarizer);
+        }
+
+        /**
+         * Short label for logs and the results table, e.g. "Brighten/Hybrid"
+         */
+        public String describe() {
+            String curve = toneCurve.name().charAt(0) + toneCurve.name().substring(1).toLowerCase();
+            return curve + "/" + (binarizer == BinarizerChoice.HYBRID ? "Hybrid" : "Global")
+                    + (inverted ? "/Inverted" : "");
+        }
+    }
+
+    /**
+     * Choose preprocessing from a quality estimate of the frame
+     */
+    public Plan plan(FrameQualityEstimator.FrameQuality quality) {
+        int spread = quality.getHistogramSpread();
+        BinarizerChoice binarizer = quality.getNoise() >= NOISY_STEP && spread >= GLOBAL_MIN_SPREAD
+                ? BinarizerChoice.GLOBAL_HISTOGRAM
+                : BinarizerChoice.HYBRID;
+
+        ToneCurve curve;
+        byte[] lut;
+        byte[] invertedLut;
+        double mean = quality.getBrightness();
+        if (mean < DARK_MEAN) {
+            // Gamma that maps the mean luma to mid-grey, limited so shadows aren't blown into noise
+            double gamma = Math.log(0.5) / Math.log(Math.max(1.0, mean) / 255.0);
+            int index = Math.min((int) Math.round((Math.max(MIN_GAMMA, gamma) - MIN_GAMMA) / GAMMA_STEP),
+                    GAMMA_LUTS.length - 1);
+            curve = ToneCurve.BRIGHTEN;
+            lut = GAMMA_LUTS[index];
+            invertedLut = INVERTED_GAMMA_LUTS[index];
+        } else {
+            curve = ToneCurve.IDENTITY;
+            lut = null;
+            invertedLut = INVERTED_IDENTITY;
+        }
+
+        return new Plan(curve, binarizer, lut, invertedLut, false);
+    }
+
+    static byte[] gammaLut(double gamma) {
+        byte[] lut = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            lut[i] = (byte) Math.round(255 * Math.pow(i / 255.0, gamma));
+        }
+        return lut;
+    }
+}
@@ -1,58 +1,433 @@
 package com.example.barcodescanner;
 
 import com.google.zxing.*;
-import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
-import com.google.zxing.common.HybridBinarizer;
 import com.google.zxing.multi.GenericMultipleBarcodeReader;
 
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
- * Service for detecting and decoding barcodes from camera frames
+ * Service for detecting and decoding barcodes from camera frames.
+ *
+ * A small pool of decode workers serves every camera open in the {@link CameraService}.
+ * Workers take turns across cameras round-robin and each camera is decoded at most once
+ * per decode interval, so one busy camera cannot starve the others. Readers and other
+ * per-frame state are per worker thread.
  */
-public class BarcodeDetector {
+public class BarcodeDetector implements AutoCloseable {
     
-    private final MultiFormatReader reader;
-    private final GenericMultipleBarcodeReader multiReader;
     private final AtomicBoolean isDetecting = new AtomicBoolean(false);
-    private Thread detectionThread;
+    private final List<Thread> decodeThreads = new ArrayList<>();
     private CameraService cameraService;
-    private BiConsumer<String, String> barcodeDetectedCallback;
+    private final ThreadLocal<DecodeContext> decodeContext = ThreadLocal.withInitial(DecodeContext::new);
+    // Virtual threads are short-lived, so they borrow contexts instead of building one each
+    private final Deque<DecodeContext> sharedContexts = new ConcurrentLinkedDeque<>();
     
-    // Track last detected barcode to avoid duplicates
-    private String lastDetectedBarcode = "";
-    private long lastDetectionTime = 0;
+    // Decode pool scheduling
+    private static final long DEFAULT_DECODE_INTERVAL_MS = 100;
+    private static final long IDLE_POLL_MS = 5;
+    private static final long STOP_TIMEOUT_MS = 2000;
+    private int decodeThreadCount = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    private volatile long decodeIntervalNanos = DEFAULT_DECODE_INTERVAL_MS * 1_000_000L;
+    private final AtomicInteger nextChannel = new AtomicInteger();
+    
+    // Optional per-frame CPU and allocation accounting on the decode workers
+    private volatile boolean frameCostAccounting = false;
+    private final FrameCostStats frameCosts = new FrameCostStats();
+    
+    private final ResultBus resultBus = new ResultBus();
+    private ResultBus.Subscriber callbackSubscriber;
+    private ScanJournal journal;
+    
+    // Per-code duplicate suppression
     private static final long DETECTION_COOLDOWN_MS = 2000; // 2 seconds
+    private final ScanDedupCache dedupCache = new ScanDedupCache(DETECTION_COOLDOWN_MS);
+    
+    /**
+     * Decode settings: ACCURATE relies on TRY_HARDER to avoid misreads, FAST skips it
+     * and relies on multi-frame consensus (or EAN/UPC checksums) instead
+     */
+    public enum DecodeProfile {
+        ACCURATE,
+        FAST
+    }
+    
+    private static final int FAST_PROFILE_VOTES = 2;
+    private static final long FAST_PROFILE_WINDOW_MS = 500;
+    
+    private volatile DecodeProfile decodeProfile = DecodeProfile.ACCURATE;
+    private final AtomicReference<Map<DecodeHintType, Object>> pendingHints = new AtomicReference<>();
+    private volatile ConsensusFilter consensusFilter;
+    
+    // Always-on frame quality telemetry; warnings must persist this many frames before being reported
+    private static final int WARNING_PERSIST_FRAMES = 10;
+    private static final String NO_CAMERA = "";
+    private static final Result[] NO_RESULTS = new Result[0];
+    private volatile FrameQualityEstimator.FrameQuality latestQuality;
+    private volatile Consumer<FrameQualityEstimator.FrameQuality> qualityListener;
+    private final Map<String, WarningDebounce> warningDebounce = new ConcurrentHashMap<>();
+    
+    // Rotated 1D codes: ZXing's TRY_HARDER retry only tries a quarter turn, so failed frames
+    // get one decode of their most barcode-like region turned upright as well
+    private volatile boolean orientationEstimation = true;
+    private final AtomicLong rotatedDecodes = new AtomicLong();
+    private final AtomicLong rotatedReads = new AtomicLong();
+    
+    // Inverted codes: polarity is judged up front, so a frame is still decoded only once
+    private volatile boolean invertedCodes = false;
+    private final AtomicLong invertedFrames = new AtomicLong();
+    
+    // A frame that looks like its camera's last one reuses that decode instead of running ZXing
+    private volatile boolean resultCaching = true;
+    private final FrameResultCache resultCache = new FrameResultCache();
+    
+    // Set on each context's reader when it changes; see DecodeContext.useHints
+    private volatile Map<DecodeHintType, Object> activeHints;
+    
+    /**
+     * Per-thread decode state; ZXing readers are not thread-safe
+     */
+    private static class DecodeContext {
+        final MultiFormatReader reader = new MultiFormatReader();
+        // MultiFormatReader.decode(image, hints) rebuilds its format readers on every call,
+        // so the multi reader's per-region decodes go through decodeWithState instead
+        final GenericMultipleBarcodeReader multiReader = new GenericMultipleBarcodeReader(new Reader() {
+            @Override
+            public Result decode(BinaryBitmap image) throws NotFoundException {
+                return reader.decodeWithState(image);
+            }
+
+            @Override
+            public Result decode(BinaryBitmap image, Map<DecodeHintType, ?> hints) throws NotFoundException {
+                return reader.decodeWithState(image);
+            }
+
+            @Override
+            public void reset() {
+                reader.reset();
+            }
+        });
+        Map<DecodeHintType, Object> hints;
+        final FrameQualityEstimator qualityEstimator = new FrameQualityEstimator();
+        final AdaptivePreprocessor preprocessor = new AdaptivePreprocessor();
+        final LumaBuffer luma = new LumaBuffer();
+        final ReusableBinarizer.Workspace binarizer = new ReusableBinarizer.Workspace();
+        final OrientationEstimator orientation = new OrientationEstimator();
+        // The upright region is a different size from the frame, so it keeps its own buffers
+        final ReusableBinarizer.Workspace regionBinarizer = new ReusableBinarizer.Workspace();
+        final PolarityDetector polarity = new PolarityDetector();
+        final FrameResultCache.Signature signature = new FrameResultCache.Signature();
+        // How the last frame was decoded, for the scan event's timing
+        AdaptivePreprocessor.Plan lastPlan;
+        boolean lastMulti;
+        boolean lastRotated;
+
+        /**
+         * Build the readers for these hints, unless they are the ones already in use
+         */
+        void useHints(Map<DecodeHintType, Object> hints) {
+            if (hints != this.hints) {
+                reader.setHints(hints);
+                this.hints = hints;
+            }
+        }
+    }
+    
+    /**
+     * Per-camera warning state, so one camera's lighting doesn't flap another's warning
+     */
+    private static class WarningDebounce {
+        Set<FrameQualityEstimator.Warning> candidateWarnings = EnumSet.noneOf(FrameQualityEstimator.Warning.class);
+        Set<FrameQualityEstimator.Warning> reportedWarnings = EnumSet.noneOf(FrameQualityEstimator.Warning.class);
+        int candidateWarningFrames = 0;
+        
+        /**
+         * Returns true when the persisted warning set has just changed
+         */
+        synchronized boolean update(Set<FrameQualityEstimator.Warning> warnings) {
+            if (!warnings.equals(candidateWarnings)) {
+                candidateWarnings = EnumSet.noneOf(FrameQualityEstimator.Warning.class);
+                candidateWarnings.addAll(warnings);
+                candidateWarningFrames = 0;
+            }
+            candidateWarningFrames++;
+            
+            if (candidateWarningFrames == WARNING_PERSIST_FRAMES && !candidateWarnings.equals(reportedWarnings)) {
+                reportedWarnings = candidateWarnings;
+                return true;
+            }
+            return false;
+        }
+    }
     
     public BarcodeDetector() {
-        // Initialize barcode reader
-        reader = new MultiFormatReader();
-        multiReader = new GenericMultipleBarcodeReader(reader);
+        activeHints = buildHints(DecodeProfile.ACCURATE);
         
-        // Configure hints for better detection
+        // Console logging is just another subscriber so it never blocks detection
+        resultBus.subscribe(events -> {
+            for (ScanEvent event : events) {
+                System.out.println("Barcode detected: " + event);
+            }
+        });
+    }
+    
+    /**
+     * Build the decode hints for a profile
+     */
+    static Map<DecodeHintType, Object> buildHints(DecodeProfile profile) {
         Map<DecodeHintType, Object> hints = new HashMap<>();
-        hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
-        hints.put(DecodeHintType.POSSIBLE_FORMATS, BarcodeFormat.values());
+        if (profile == DecodeProfile.ACCURATE) {
+            hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+        }
+        hints.put(DecodeHintType.POSSIBLE_FORMATS, Arrays.asList(BarcodeFormat.values()));
         hints.put(DecodeHintType.PURE_BARCODE, Boolean.FALSE);
-        
-        reader.setHints(hints);
+        return hints;
+    }
+    
+    /**
+     * Switch decode profile. FAST also installs a consensus filter; ACCURATE removes it.
+     * The new hints take effect from the next frame.
+     */
+    public void setDecodeProfile(DecodeProfile profile) {
+        this.decodeProfile = profile;
+        this.consensusFilter = profile == DecodeProfile.FAST
+                ? new ConsensusFilter(FAST_PROFILE_VOTES, FAST_PROFILE_WINDOW_MS)
+                : null;
+        pendingHints.set(buildHints(profile));
+    }
+    
+    public DecodeProfile getDecodeProfile() {
+        return decodeProfile;
+    }
+    
+    /**
+     * Install a custom consensus stage, or null to emit every read immediately
+     */
+    public void setConsensusFilter(ConsensusFilter filter) {
+        this.consensusFilter = filter;
+    }
+    
+    public ConsensusFilter getConsensusFilter() {
+        return consensusFilter;
+    }
+    
+    /**
+     * Set the callback function to be called when a barcode is detected.
+     * Subscribe to {@link #getResultBus()} instead for the full event with its timestamps.
+     */
+    public synchronized void setBarcodeDetectedCallback(BiConsumer<String, String> callback) {
+        if (callbackSubscriber != null) {
+            resultBus.unsubscribe(callbackSubscriber);
+            callbackSubscriber = null;
+        }
+        if (callback != null) {
+            callbackSubscriber = events -> {
+                for (ScanEvent event : events) {
+                    callback.accept(event.getText(), event.getFormat());
+                }
+            };
+            resultBus.subscribe(callbackSubscriber);
+        }
+    }
+    
+    /**
+     * Bus that delivers scan events asynchronously; subscribe here for batched delivery
+     */
+    public ResultBus getResultBus() {
+        return resultBus;
+    }
+    
+    /**
+     * Journal every published read to segment files in this directory, or null to stop.
+     * Off by default; {@link #close()} closes the journal.
+     */
+    public synchronized void setJournalDirectory(Path directory) throws IOException {
+        if (journal != null) {
+            resultBus.unsubscribe(journal);
+            journal.close();
+            journal = null;
+        }
+        if (directory != null) {
+            journal = new ScanJournal(directory);
+            resultBus.subscribe(journal);
+        }
+    }
+    
+    /**
+     * The scan journal, or null unless a journal directory is set
+     */
+    public synchronized ScanJournal getJournal() {
+        return journal;
+    }
+    
+    /**
+     * Set how long a code must be out of view before it is reported again
+     */
+    public void setDetectionCooldown(long cooldownMillis) {
+        dedupCache.setCooldownMillis(cooldownMillis);
+    }
+    
+    /**
+     * Duplicate filter, exposed for its accepted/suppressed counters
+     */
+    public ScanDedupCache getDedupCache() {
+        return dedupCache;
+    }
+    
+    /**
+     * Called when the set of image-quality warnings changes (empty set once conditions recover)
+     */
+    public void setQualityWarningListener(Consumer<FrameQualityEstimator.FrameQuality> listener) {
+        this.qualityListener = listener;
+    }
+    
+    /**
+     * Quality estimate of the most recently processed frame, or null before the first frame
+     */
+    public FrameQualityEstimator.FrameQuality getLatestFrameQuality() {
+        return latestQuality;
+    }
+    
+    /**
+     * When a frame yields nothing, estimate the dominant bar orientation and decode the
+     * candidate region once, turned upright. On by default.
+     */
+    public void setOrientationEstimation(boolean enabled) {
+        this.orientationEstimation = enabled;
+        resultCache.clear();
+    }
+    
+    public boolean isOrientationEstimation() {
+        return orientationEstimation;
+    }
+    
+    /**
+     * Upright regions decoded after the full frame found nothing
+     */
+    public long getRotatedDecodes() {
+        return rotatedDecodes.get();
+    }
+    
+    /**
+     * Frames read only thanks to the upright region
+     */
+    public long getRotatedReads() {
+        return rotatedReads.get();
+    }
+    
+    /**
+     * Also read light codes on a dark background. Each frame's polarity is judged before
+     * decoding and an inverted frame is decoded inverted instead of as printed, so unlike
+     * ZXing's ALSO_INVERTED a frame with no code is not decoded twice. Off by default.
+     */
+    public void setInvertedCodes(boolean enabled) {
+        this.invertedCodes = enabled;
+        resultCache.clear();
+    }
+    
+    public boolean isInvertedCodes() {
+        return invertedCodes;
+    }
+    
+    /**
+     * Frames judged to hold an inverted code, and so decoded inverted
+     */
+    public long getInvertedFrames() {
+        return invertedFrames.get();
+    }
+    
+    /**
+     * Reuse a camera's last decode, hit or miss, while its frames stay near-identical.
+     * Only the live path is cached; decodeFrame always decodes. A read is cached only once the
+     * consensus filter has confirmed it, since cached reads do not vote. On by default.
+     */
+    public void setResultCaching(boolean enabled) {
+        this.resultCaching = enabled;
+        resultCache.clear();
+    }
+    
+    public boolean isResultCaching() {
+        return resultCaching;
+    }
+    
+    /**
+     * The near-identical frame cache, for its hit rate
+     */
+    public FrameResultCache getResultCache() {
+        return resultCache;
+    }
+    
+    /**
+     * Number of decode workers shared by all cameras; takes effect on the next start
+     */
+    public void setDecodeThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.decodeThreadCount = threads;
+    }
+    
+    public int getDecodeThreads() {
+        return decodeThreadCount;
+    }
+    
+    /**
+     * Minimum time between decodes of the same camera
+     */
+    public void setDecodeInterval(long intervalMillis) {
+        this.decodeIntervalNanos = intervalMillis * 1_000_000L;
+    }
+    
+    /**
+     * Record CPU time and bytes allocated for every frame the decode workers process.
+     * Costs two ThreadMXBean reads per frame, so it is off by default.
+     */
+    public void setFrameCostAccounting(boolean enabled) {
+        this.frameCostAccounting = enabled && FrameCostStats.enable();
+    }
+    
+    public boolean isFrameCostAccounting() {
+        return frameCostAccounting;
     }
     
     /**
-     * Set the callback function to be called when a barcode is detected
+     * Per-frame decode cost across all cameras (empty unless accounting is on)
      */
-    public void setBarcodeDetectedCallback(BiConsumer<String, String> callback) {
-        this.barcodeDetectedCallback = callback;
+    public FrameCostStats getFrameCosts() {
+        return frameCosts;
     }
     
     /**
-     * Start barcode detection from camera frames
+     * Start barcode detection from the frames of every camera open in the service
      */
-    public void startDetection(CameraService cameraService) {
+    public synchronized void startDetection(CameraService cameraService) {
         if (isDetecting.get()) {
             return;
         }
@@ -60,38 +435,59 @@ public class BarcodeDetector {
         this.cameraService = cameraService;
         isDetecting.set(true);
         
-        detectionThread = new Thread(this::detectBarcodes);
-        detectionThread.setDaemon(true);
-        detectionThread.start();
+        for (int i = 0; i < decodeThreadCount; i++) {
+            Thread thread = ScannerThreads.newThread("BarcodeDetector-decode-" + i, this::decodeLoop);
+            decodeThreads.add(thread);
+            thread.start();
+        }
     }
     
     /**
-     * Stop barcode detection
+     * Stop barcode detection. Reads already published are delivered to subscribers
+     * before this returns, and the result bus thread stops until the next read.
      */
-    public void stopDetection() {
+    public synchronized void stopDetection() {
         isDetecting.set(false);
         
-        if (detectionThread != null) {
-            detectionThread.interrupt();
+        for (Thread thread : decodeThreads) {
+            thread.interrupt();
+        }
+        try {
+            for (Thread thread : decodeThreads) {
+                thread.join(STOP_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        decodeThreads.clear();
+        resultBus.shutdown();
+    }
+    
+    /**
+     * Stop detection, deliver the queued reads and close the scan journal
+     */
+    @Override
+    public synchronized void close() {
+        stopDetection();
+        try {
+            setJournalDirectory(null);
+        } catch (IOException e) {
+            System.err.println("Error closing scan journal: " + e.getMessage());
         }
     }
     
     /**
-     * Main detection loop
+     * Decode worker loop
      */
-    private void detectBarcodes() {
+    private void decodeLoop() {
+        // This worker's copy of the frame it is decoding, reused for every frame
+        FrameRing.Reader frames = new FrameRing.Reader();
         while (isDetecting.get() && !Thread.currentThread().isInterrupted()) {
             try {
-                if (cameraService != null && cameraService.isRunning()) {
-                    BufferedImage frame = cameraService.getCurrentFrame();
-                    if (frame != null) {
-                        detectBarcodesInFrame(frame);
-                    }
+                if (!decodeNextFrame(frames)) {
+                    // Nothing due on any camera
+                    Thread.sleep(IDLE_POLL_MS);
                 }
-                
-                // Control detection rate (check every 100ms)
-                Thread.sleep(100);
-                
             } catch (InterruptedException e) {
                 break;
             } catch (Exception e) {
@@ -100,75 +496,423 @@ public class BarcodeDetector {
         }
     }
     
+    /**
+     * Decode one due frame, starting the search at the next camera in round-robin order
+     */
+    private boolean decodeNextFrame(FrameRing.Reader frames) {
+        CameraService service = cameraService;
+        if (service == null) {
+            return false;
+        }
+        List<CameraChannel> channels = service.getChannels();
+        int count = channels.size();
+        if (count == 0) {
+            return false;
+        }
+        
+        int start = Math.floorMod(nextChannel.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            CameraChannel channel;
+            try {
+                channel = channels.get((start + i) % count);
+            } catch (IndexOutOfBoundsException e) {
+                return false; // camera closed while scanning
+            }
+            if (channel.pollFrame(decodeIntervalNanos, frames)) {
+                long started = System.nanoTime();
+                FrameCostStats.Probe probe = frameCostAccounting ? FrameCostStats.begin() : null;
+                detectBarcodesInFrame(frames.getImage(), channel, frames.getSequence(), frames.getCaptureNanos());
+                if (probe != null) {
+                    probe.end(frameCosts, channel.getName());
+                }
+                channel.recordDecode(System.nanoTime() - started);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Run a single frame through the same path as the live detection loop,
+     * including duplicate suppression and the callback (used for replay)
+     */
+    public void processFrame(BufferedImage frame) {
+        detectBarcodesInFrame(frame, null, -1, System.nanoTime());
+    }
+    
+    /**
+     * Decode one image with the live hints and preprocessing, but without consensus,
+     * duplicate suppression or publishing. Safe to call from any thread.
+     */
+    public Result[] decodeFrame(BufferedImage frame) {
+        applyPendingHints();
+        DecodeContext context = acquireContext();
+        try {
+            return decode(context, frame, context.qualityEstimator.estimate(frame), activeHints);
+        } finally {
+            releaseContext(context);
+        }
+    }
+    
     /**
      * Detect barcodes in a single frame
+     *
+     * @param sequence the frame's position in its camera's stream, or -1
+     * @param captureNanos when the frame was captured (System.nanoTime())
      */
-    private void detectBarcodesInFrame(BufferedImage frame) {
+    private void detectBarcodesInFrame(BufferedImage frame, CameraChannel channel, long sequence, long captureNanos) {
+        long decodeStart = System.nanoTime();
+        applyPendingHints();
+        DecodeContext context = acquireContext();
         try {
-            // Convert image to luminance source
-            LuminanceSource source = new BufferedImageLuminanceSource(frame);
-            BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
-            
-            // Try to detect multiple barcodes first
-            try {
-                Result[] results = multiReader.decodeMultiple(bitmap);
-                if (results != null && results.length > 0) {
-                    for (Result result : results) {
-                        processBarcodeResult(result);
-                    }
-                    return;
+            FrameQualityEstimator.FrameQuality quality = updateFrameQuality(context, frame, channel);
+            LuminanceSource source = context.luma.wrap(frame);
+            String camera = channel != null ? channel.getName() : NO_CAMERA;
+            boolean caching = resultCaching;
+            Result[] results = null;
+            if (caching) {
+                context.signature.compute(source.getMatrix(), source.getWidth(), source.getHeight());
+                results = resultCache.lookup(camera, context.signature, decodeStart);
+            }
+            boolean cached = results != null;
+            if (!cached) {
+                results = decode(context, source, quality, activeHints);
+            }
+            if (results.length > 0) {
+                // Only frames with reads pay for the timing record
+                ScanEvent.Timing timing = new ScanEvent.Timing(sequence, captureNanos, decodeStart, System.nanoTime(),
+                        cached ? "Cached" : context.lastPlan.describe() + strategy(context));
+                for (Result result : results) {
+                    processBarcodeResult(result, channel, timing, cached);
                 }
-            } catch (NotFoundException e) {
-                // No multiple barcodes found, try single barcode detection
             }
-            
-            // Try single barcode detection
-            try {
-                Result result = reader.decode(bitmap);
-                if (result != null) {
-                    processBarcodeResult(result);
+            if (caching && !cached) {
+                // A read still short of consensus is decoded again on later frames so they can vote
+                if (awaitingConsensus(results)) {
+                    resultCache.invalidate(camera);
+                } else {
+                    resultCache.store(camera, context.signature, results, decodeStart);
                 }
-            } catch (NotFoundException e) {
-                // No barcode found in this frame
             }
-            
         } catch (Exception e) {
             // Ignore detection errors for individual frames
+        } finally {
+            releaseContext(context);
+        }
+    }
+    
+    private boolean awaitingConsensus(Result[] results) {
+        ConsensusFilter consensus = consensusFilter;
+        if (consensus == null) {
+            return false;
+        }
+        long now = System.nanoTime();
+        for (Result result : results) {
+            if (!consensus.isConfirmed(result.getBarcodeFormat(), result.getText(), now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String strategy(DecodeContext context) {
+        return context.lastRotated ? " rotated" : (context.lastMulti ? " multi" : " single");
+    }
+    
+    private DecodeContext acquireContext() {
+        if (!ScannerThreads.isCurrentThreadVirtual()) {
+            return decodeContext.get();
+        }
+        DecodeContext context = sharedContexts.poll();
+        return context != null ? context : new DecodeContext();
+    }
+    
+    private void releaseContext(DecodeContext context) {
+        if (ScannerThreads.isCurrentThreadVirtual()) {
+            sharedContexts.push(context);
+        }
+    }
+    
+    private Result[] decode(DecodeContext context, BufferedImage frame,
+                            FrameQualityEstimator.FrameQuality quality, Map<DecodeHintType, Object> hints) {
+        return decode(context, context.luma.wrap(frame), quality, hints);
+    }
+    
+    private Result[] decode(DecodeContext context, LuminanceSource source,
+                            FrameQualityEstimator.FrameQuality quality, Map<DecodeHintType, Object> hints) {
+        // Preprocess the frame's luminance to suit its histogram
+        AdaptivePreprocessor.Plan plan = context.preprocessor.plan(quality);
+        if (invertedCodes && context.polarity.detect(source.getMatrix(), source.getWidth(), source.getHeight())
+                == PolarityDetector.Polarity.INVERTED) {
+            plan = plan.inverted();
+            invertedFrames.incrementAndGet();
+        }
+        BinaryBitmap bitmap = new BinaryBitmap(plan.createBinarizer(source, context.binarizer));
+        context.lastPlan = plan;
+        context.lastRotated = false;
+        context.useHints(hints);
+        
+        // Try to detect multiple barcodes first
+        try {
+            Result[] results = context.multiReader.decodeMultiple(bitmap);
+            if (results != null && results.length > 0) {
+                context.lastMulti = true;
+                return results;
+            }
+        } catch (NotFoundException e) {
+            // No multiple barcodes found, try single barcode detection
+        }
+        context.lastMulti = false;
+        
+        // Try single barcode detection
+        try {
+            return new Result[] {context.reader.decodeWithState(bitmap)};
+        } catch (NotFoundException e) {
+            // No barcode found in this frame
+        }
+        return orientationEstimation ? decodeRotated(context, source, plan) : NO_RESULTS;
+    }
+    
+    /**
+     * One decode of the frame's most barcode-like region turned upright, if it is turned
+     * far enough that the full-frame attempt could have missed it
+     */
+    private Result[] decodeRotated(DecodeContext context, LuminanceSource source, AdaptivePreprocessor.Plan plan) {
+        // Full-frame planar sources hand out their backing array, so this does not copy
+        byte[] luma = source.getMatrix();
+        int width = source.getWidth();
+        int height = source.getHeight();
+        OrientationEstimator.Candidate candidate = context.orientation.estimate(luma, width, height);
+        if (candidate == null || !candidate.needsRotation()) {
+            return NO_RESULTS;
+        }
+        
+        rotatedDecodes.incrementAndGet();
+        LuminanceSource upright = context.orientation.rotate(luma, width, height, candidate);
+        BinaryBitmap bitmap = new BinaryBitmap(plan.createBinarizer(upright, context.regionBinarizer));
+        try {
+            Result result = context.reader.decodeWithState(bitmap);
+            rotatedReads.incrementAndGet();
+            context.lastRotated = true;
+            return new Result[] {toFrame(result, candidate)};
+        } catch (NotFoundException e) {
+            return NO_RESULTS;
+        }
+    }
+    
+    /**
+     * The same result with its points moved from the upright region back into the frame
+     */
+    private static Result toFrame(Result result, OrientationEstimator.Candidate candidate) {
+        ResultPoint[] points = result.getResultPoints();
+        ResultPoint[] mapped = null;
+        if (points != null) {
+            mapped = new ResultPoint[points.length];
+            for (int i = 0; i < points.length; i++) {
+                mapped[i] = points[i] != null ? candidate.toFrame(points[i]) : null;
+            }
+        }
+        Result moved = new Result(result.getText(), result.getRawBytes(), result.getNumBits(), mapped,
+                result.getBarcodeFormat(), result.getTimestamp());
+        moved.putAllMetadata(result.getResultMetadata());
+        return moved;
+    }
+    
+    private FrameQualityEstimator.FrameQuality updateFrameQuality(DecodeContext context, BufferedImage frame,
+                                                                  CameraChannel channel) {
+        FrameQualityEstimator.FrameQuality quality = context.qualityEstimator.estimate(frame);
+        latestQuality = quality;
+        
+        // Debounce so a single odd frame doesn't flap the operator warning
+        String camera = channel != null ? channel.getName() : NO_CAMERA;
+        WarningDebounce debounce = warningDebounce.computeIfAbsent(camera, key -> new WarningDebounce());
+        if (debounce.update(quality.getWarnings())) {
+            Consumer<FrameQualityEstimator.FrameQuality> listener = qualityListener;
+            if (listener != null) {
+                listener.accept(quality);
+            }
+        }
+        return quality;
+    }
+    
+    private void applyPendingHints() {
+        Map<DecodeHintType, Object> hints = pendingHints.getAndSet(null);
+        if (hints != null) {
+            activeHints = hints;
+            resultCache.clear();
         }
     }
     
     /**
      * Process a detected barcode result
      */
-    private void processBarcodeResult(Result result) {
+    private void processBarcodeResult(Result result, CameraChannel channel, ScanEvent.Timing timing,
+                                      boolean cached) {
         String barcodeText = result.getText();
         String format = result.getBarcodeFormat().toString();
         
-        // Avoid duplicate detections
-        long currentTime = System.currentTimeMillis();
-        if (barcodeText.equals(lastDetectedBarcode) && 
-            (currentTime - lastDetectionTime) < DETECTION_COOLDOWN_MS) {
+        // Hold back reads that have not yet been confirmed by enough frames. A cached read is
+        // the same decode again, not another frame's agreement, so it does not vote; reads are
+        // only cached once confirmed, so this matters when the window lapses while one is held.
+        ConsensusFilter consensus = consensusFilter;
+        if (consensus != null && !(cached
+                ? consensus.isConfirmed(result.getBarcodeFormat(), barcodeText, System.nanoTime())
+                : consensus.accept(result.getBarcodeFormat(), barcodeText))) {
             return;
         }
         
-        lastDetectedBarcode = barcodeText;
-        lastDetectionTime = currentTime;
-        
-        // Call the callback if set
-        if (barcodeDetectedCallback != null) {
-            barcodeDetectedCallback.accept(barcodeText, format);
+        // Avoid duplicate detections
+        if (!dedupCache.tryAccept(format, barcodeText)) {
+            return;
         }
         
-        System.out.println("Barcode detected: " + format + " = " + barcodeText);
+        // Hand off to the result bus; subscribers run on its dispatcher thread
+        if (channel != null) {
+            channel.recordScan();
+        }
+        resultBus.publish(new ScanEvent(barcodeText, format, channel != null ? channel.getName() : null, timing));
     }
     
     /**
-     * Detect barcode from a static image (utility method)
+     * Detect barcode from a static image (utility method). Decoded as {@link #decodeFrame},
+     * so preprocessing, inverted codes and orientation estimation all apply.
      */
     public Result detectBarcodeFromImage(BufferedImage image) throws NotFoundException {
-        LuminanceSource source = new BufferedImageLuminanceSource(image);
-        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
-        return reader.decode(bitmap);
+        Result[] results = decodeFrame(image);
+        if (results.length == 0) {
+            throw NotFoundException.getNotFoundInstance();
+        }
+        return results[0];
+    }
+    
+    /**
+     * Decode many images in parallel on the common fork/join pool, or on virtual threads
+     * when {@link ScannerThreads#isVirtual()}. Results are in input order, with an empty
+     * array for images without a barcode.
+     */
+    public List<Result[]> decodeAll(Collection<BufferedImage> images) {
+        if (ScannerThreads.isVirtual()) {
+            List<Result[]> results = new ArrayList<>(images.size());
+            decodeOnVirtualThreads(images.iterator(), results::add, images.size());
+            return results;
+        }
+        return decodeAll(images, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Decode many images in parallel on the given pool, results in input order
+     */
+    public List<Result[]> decodeAll(Collection<BufferedImage> images, ForkJoinPool pool) {
+        BufferedImage[] frames = images.toArray(new BufferedImage[0]);
+        Result[][] results = new Result[frames.length][];
+        pool.invoke(new DecodeRangeTask(frames, results, 0, frames.length));
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * Streaming variant of {@link #decodeAll}: hands each image's results to the consumer
+     * in input order while later images are still decoding. At most twice the pool's
+     * parallelism is in flight, so arbitrarily long sequences run in bounded memory.
+     */
+    public void decodeStream(Iterator<BufferedImage> images, Consumer<Result[]> consumer, ForkJoinPool pool) {
+        int window = Math.max(1, pool.getParallelism() * 2);
+        Deque<ForkJoinTask<Result[]>> inFlight = new ArrayDeque<>(window);
+        while (images.hasNext()) {
+            BufferedImage image = images.next();
+            inFlight.add(pool.submit(() -> decodeFrame(image)));
+            if (inFlight.size() >= window) {
+                consumer.accept(inFlight.poll().join());
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            consumer.accept(inFlight.poll().join());
+        }
+    }
+    
+    public void decodeStream(Iterator<BufferedImage> images, Consumer<Result[]> consumer) {
+        if (ScannerThreads.isVirtual()) {
+            decodeOnVirtualThreads(images, consumer, Runtime.getRuntime().availableProcessors() * 2);
+            return;
+        }
+        decodeStream(images, consumer, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * One virtual thread per image, scoped to this call: every thread has finished (or been
+     * cancelled after a failure) before it returns. Decoding is CPU-bound, so a semaphore
+     * keeps only as many decodes running as there are cores; window bounds what is queued.
+     */
+    private void decodeOnVirtualThreads(Iterator<BufferedImage> images, Consumer<Result[]> consumer, int window) {
+        Semaphore cpu = new Semaphore(Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = ScannerThreads.newPerTaskExecutor("BarcodeDetector-batch");
+        Deque<Future<Result[]>> inFlight = new ArrayDeque<>();
+        try {
+            while (images.hasNext()) {
+                BufferedImage image = images.next();
+                inFlight.add(executor.submit(() -> {
+                    cpu.acquire();
+                    try {
+                        return decodeFrame(image);
+                    } finally {
+                        cpu.release();
+                    }
+                }));
+                if (inFlight.size() >= Math.max(1, window)) {
+                    consumer.accept(await(inFlight.poll()));
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                consumer.accept(await(inFlight.poll()));
+            }
+        } finally {
+            for (Future<Result[]> future : inFlight) {
+                future.cancel(true);
+            }
+            executor.shutdown();
+        }
+    }
+    
+    private static Result[] await(Future<Result[]> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while decoding batch", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Batch decode failed", e.getCause());
+        }
+    }
+    
+    /**
+     * Splits an index range in halves down to single images; each image is a few ms of work
+     */
+    private class DecodeRangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final BufferedImage[] images;
+        private final Result[][] results;
+        private final int from;
+        private final int to;
+        
+        DecodeRangeTask(BufferedImage[] images, Result[][] results, int from, int to) {
+            this.images = images;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) {
+                    results[from] = decodeFrame(images[from]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new DecodeRangeTask(images, results, from, mid),
+                    new DecodeRangeTask(images, results, mid, to));
+        }
     }
     
     /**
@@ -1,7 +1,9 @@
 package com.example.barcodescanner;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -10,6 +12,12 @@ import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Function;
+
 /**
  * Main JavaFX application for barcode scanning
  */
@@ -18,24 +26,41 @@ public class BarcodeScanner extends Application {
     private CameraService cameraService;
     private BarcodeDetector barcodeDetector;
     private ImageView cameraView;
-    private TextArea resultArea;
+    private final ScanHistory scanHistory = new ScanHistory();
+    private TableView<ScanHistory.Entry> historyTable;
+    private AnimationTimer historyRefresher;
     private Button scanButton;
     private Button stopButton;
     private Label statusLabel;
     
     @Override
     public void start(Stage primaryStage) {
+        long startNanos = System.nanoTime();
         primaryStage.setTitle("Barcode Scanner");
         
+        // Enumerate webcams in the background; the window doesn't wait for drivers
+        WebcamDiscovery.getInstance().discover();
+        
         // Initialize services
         cameraService = new CameraService();
+        // Frames are grey by default; -Dscanner.colorPreview=true captures RGB for the preview camera
+        if (Boolean.getBoolean("scanner.colorPreview")) {
+            cameraService.setPreviewFormat(FrameRecorder.PixelFormat.RGB);
+        }
         barcodeDetector = new BarcodeDetector();
+        // Per-frame CPU and allocation figures, printed when scanning stops: -Dscanner.frameCosts=true
+        barcodeDetector.setFrameCostAccounting(Boolean.getBoolean("scanner.frameCosts"));
         
         // Create UI components
         createUI(primaryStage);
         
-        // Set up barcode detection callback
-        barcodeDetector.setBarcodeDetectedCallback(this::onBarcodeDetected);
+        // Subscribe to scan events; the camera name goes in the Info column
+        barcodeDetector.getResultBus().subscribe(events -> {
+            for (ScanEvent event : events) {
+                onBarcodeDetected(event.getText(), event.getFormat(), event.getCamera());
+            }
+        });
+        barcodeDetector.setQualityWarningListener(this::onQualityWarning);
         
         primaryStage.setOnCloseRequest(e -> {
             cleanup();
@@ -43,6 +68,27 @@ public class BarcodeScanner extends Application {
         });
         
         primaryStage.show();
+        
+        scanButton.setDisable(true);
+        updateStatus("Looking for cameras...", "blue");
+        WebcamDiscovery.getInstance().addListener(this::onWebcamInventory);
+        System.out.printf("Barcode Scanner UI ready in %d ms%n", (System.nanoTime() - startNanos) / 1_000_000);
+    }
+    
+    private void onWebcamInventory(WebcamDiscovery.Inventory inventory) {
+        Platform.runLater(() -> {
+            if (cameraService.isRunning()) {
+                return;
+            }
+            scanButton.setDisable(inventory.isEmpty());
+            if (!inventory.isEmpty()) {
+                updateStatus("Ready to scan - " + inventory.getDevices().size() + " camera(s) found", "green");
+            } else if (inventory.getError() != null) {
+                updateStatus("Camera error: " + inventory.getError(), "red");
+            } else {
+                updateStatus("No camera found", "red");
+            }
+        });
     }
     
     private void createUI(Stage primaryStage) {
@@ -119,20 +165,57 @@ public class BarcodeScanner extends Application {
         Label resultLabel = new Label("Scan Results:");
         resultLabel.setStyle("-fx-font-weight: bold;");
         
-        resultArea = new TextArea();
-        resultArea.setPrefHeight(150);
-        resultArea.setEditable(false);
-        resultArea.setWrapText(true);
-        resultArea.setPromptText("Scanned barcodes will appear here...");
+        historyTable = new TableView<>();
+        historyTable.setPrefHeight(150);
+        historyTable.setPlaceholder(new Label("Scanned barcodes will appear here..."));
+        historyTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        historyTable.getColumns().add(historyColumn("Time", 80, entry ->
+                LocalTime.ofInstant(Instant.ofEpochMilli(entry.getTimestampMillis()), ZoneId.systemDefault())
+                        .format(DateTimeFormatter.ofPattern("HH:mm:ss"))));
+        historyTable.getColumns().add(historyColumn("Format", 120, ScanHistory.Entry::getFormat));
+        historyTable.getColumns().add(historyColumn("Value", 400, ScanHistory.Entry::getText));
         
-        resultPanel.getChildren().addAll(resultLabel, resultArea);
+        // Scans land in the ring buffer from any thread; the table catches up once per frame pulse
+        historyRefresher = new AnimationTimer() {
+            private long shownVersion = -1;
+            
+            @Override
+            public void handle(long now) {
+                long version = scanHistory.getVersion();
+                if (version != shownVersion) {
+                    shownVersion = version;
+                    historyTable.getItems().setAll(scanHistory.snapshot());
+                    historyTable.scrollTo(historyTable.getItems().size() - 1);
+                }
+            }
+        };
+        historyRefresher.start();
+        
+        resultPanel.getChildren().addAll(resultLabel, historyTable);
         return resultPanel;
     }
     
+    private TableColumn<ScanHistory.Entry, String> historyColumn(String title, double width,
+            Function<ScanHistory.Entry, String> value) {
+        TableColumn<ScanHistory.Entry, String> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setSortable(false);
+        column.setCellValueFactory(cell -> new ReadOnlyStringWrapper(value.apply(cell.getValue())));
+        return column;
+    }
+    
     private void startScanning() {
         try {
             updateStatus("Starting camera...", "blue");
             cameraService.startCamera(cameraView);
+            
+            // Extra station cameras, e.g. -Dscanner.cameras="Cam A,Cam B"
+            String extraCameras = System.getProperty("scanner.cameras");
+            if (extraCameras != null && !extraCameras.trim().isEmpty()) {
+                for (String name : extraCameras.split(",")) {
+                    cameraService.openCamera(name.trim());
+                }
+            }
             barcodeDetector.startDetection(cameraService);
             
             scanButton.setDisable(true);
@@ -147,26 +230,42 @@ public class BarcodeScanner extends Application {
     
     private void stopScanning() {
         barcodeDetector.stopDetection();
-        cameraService.stopCamera();
+        for (CameraChannel channel : cameraService.getChannels()) {
+            System.out.println(channel.summary());
+        }
+        if (barcodeDetector.isFrameCostAccounting()) {
+            System.out.println("Frame cost: " + barcodeDetector.getFrameCosts().summary());
+            for (FrameCostStats.Outlier outlier : barcodeDetector.getFrameCosts().getRecentOutliers()) {
+                System.out.println("  outlier " + outlier);
+            }
+        }
+        ScanLatencyReport latency = barcodeDetector.getResultBus().getLatencyReport();
+        if (latency.getEndToEnd().getCount() > 0) {
+            System.out.print(latency.format());
+        }
+        // Keep the devices open so the next Scan resumes immediately
+        cameraService.standby();
         
         scanButton.setDisable(false);
         stopButton.setDisable(true);
-        updateStatus("Scanning stopped", "orange");
+        updateStatus("Scanning paused", "orange");
     }
     
-    private void onBarcodeDetected(String barcodeValue, String format) {
-        Platform.runLater(() -> {
-            String timestamp = java.time.LocalDateTime.now().format(
-                java.time.format.DateTimeFormatter.ofPattern("HH:mm:ss")
-            );
-            String result = String.format("[%s] %s: %s\n", timestamp, format, barcodeValue);
-            resultArea.appendText(result);
-            updateStatus("Barcode detected: " + format, "green");
-        });
+    private void onBarcodeDetected(String barcodeValue, String format, String camera) {
+        scanHistory.addScan(format, barcodeValue, cameraService.getChannels().size() > 1 ? camera : null);
+        updateStatus("Barcode detected: " + format, "green");
+    }
+    
+    private void onQualityWarning(FrameQualityEstimator.FrameQuality quality) {
+        if (quality.isGood()) {
+            updateStatus("Image quality OK - Scanning for barcodes...", "green");
+        } else {
+            updateStatus(quality.getWarnings().iterator().next().getAdvice(), "orange");
+        }
     }
     
     private void clearResults() {
-        resultArea.clear();
+        scanHistory.clear();
         updateStatus("Results cleared", "blue");
     }
     
@@ -188,6 +287,9 @@ public class BarcodeScanner extends Application {
     }
     
     private void cleanup() {
+        if (historyRefresher != null) {
+            historyRefresher.stop();
+        }
         if (barcodeDetector != null) {
             barcodeDetector.stopDetection();
         }
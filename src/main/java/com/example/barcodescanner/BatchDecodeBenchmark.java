@@ -0,0 +1,84 @@
+package com.example.barcodescanner;
+
+import com.google.zxing.Result;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how BarcodeDetector.decodeAll scales from one worker to every core,
+ * against a plain sequential loop over decodeFrame (the same work per image).
+ *
+ * Usage: BatchDecodeBenchmark [images] [rounds]
+ */
+public class BatchDecodeBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 96;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("=== Batch Decode Benchmark ===");
+        System.out.println("Images: " + count + ", rounds: " + rounds + ", cores: " + cores);
+        System.out.println("Rendering corpus...");
+        List<BufferedImage> images = new ArrayList<>();
+        for (SyntheticCorpus.Sample sample : new SyntheticCorpus(2024).generate(count)) {
+            images.add(sample.getImage());
+        }
+
+        BarcodeDetector detector = new BarcodeDetector();
+        detector.setDecodeProfile(BarcodeDetector.DecodeProfile.FAST);
+
+        // Warm up the JIT and every thread's reader
+        detector.decodeAll(images);
+        for (BufferedImage image : images) {
+            detector.decodeFrame(image);
+        }
+
+        double sequential = best(rounds, () -> {
+            for (BufferedImage image : images) {
+                detector.decodeFrame(image);
+            }
+        });
+        System.out.printf("%nSequential loop:   %8.1f images/s%n", count / sequential);
+
+        double single = 0;
+        for (int parallelism = 1; parallelism <= cores; parallelism = nextParallelism(parallelism, cores)) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            int[] found = new int[1];
+            double seconds = best(rounds, () -> {
+                found[0] = 0;
+                for (Result[] results : detector.decodeAll(images, pool)) {
+                    if (results.length > 0) {
+                        found[0]++;
+                    }
+                }
+            });
+            pool.shutdown();
+            if (parallelism == 1) {
+                single = seconds;
+            }
+            System.out.printf("decodeAll x%-3d    %8.1f images/s  speedup %.2fx  (%d/%d read)%n",
+                    parallelism, count / seconds, single / seconds, found[0], count);
+        }
+    }
+
+    private static int nextParallelism(int parallelism, int cores) {
+        return parallelism == cores ? cores + 1 : Math.min(cores, parallelism * 2);
+    }
+
+    /**
+     * Best wall-clock seconds over several rounds
+     */
+    private static double best(int rounds, Runnable work) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            work.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e9;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.barcodescanner;
+
+import com.google.zxing.Binarizer;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.common.HybridBinarizer;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Time and allocation per 640x480 luma frame for ZXing's HybridBinarizer against
+ * {@link ReusableBinarizer}, binarizing alone and as part of a full decode.
+ *
+ * Usage: BinarizerBenchmark [frames]
+ */
+public class BinarizerBenchmark {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+
+        List<LuminanceSource> sources = new ArrayList<>();
+        for (SyntheticCorpus.Sample sample : new SyntheticCorpus(43).withFrameSize(WIDTH, HEIGHT).generate(16)) {
+            BufferedImage gray = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+            gray.getGraphics().drawImage(sample.getImage(), 0, 0, null);
+            sources.add(new LumaBuffer().wrap(gray));
+        }
+        ReusableBinarizer.Workspace workspace = new ReusableBinarizer.Workspace();
+        MultiFormatReader reader = new MultiFormatReader();
+
+        System.out.println("=== Binarizer Benchmark ===");
+        System.out.printf("Frame %dx%d, kernels: %s%n", WIDTH, HEIGHT, PixelKernels.get().describe());
+
+        run("HybridBinarizer", "binarize", frames, sources, HybridBinarizer::new, null);
+        run("ReusableBinarizer", "binarize", frames, sources, source -> new ReusableBinarizer(source, workspace), null);
+        run("HybridBinarizer", "decode", frames, sources, HybridBinarizer::new, reader);
+        run("ReusableBinarizer", "decode", frames, sources, source -> new ReusableBinarizer(source, workspace), reader);
+        System.out.printf("Workspace: %d frames, %d buffer allocations%n", workspace.getFrames(), workspace.getReshapes());
+    }
+
+    private static void run(String name, String phase, int frames, List<LuminanceSource> sources,
+                            Function<LuminanceSource, Binarizer> binarizers, MultiFormatReader reader) {
+        for (int i = 0; i < frames / 4; i++) {
+            frame(sources.get(i % sources.size()), binarizers, reader); // warm up
+        }
+        FrameCostStats costs = new FrameCostStats(frames);
+        int decoded = 0;
+        for (int i = 0; i < frames; i++) {
+            FrameCostStats.Probe probe = FrameCostStats.begin();
+            if (frame(sources.get(i % sources.size()), binarizers, reader)) {
+                decoded++;
+            }
+            probe.end(costs, null);
+        }
+        System.out.printf("%-18s %-9s %7.3f ms/frame  %8.1f KB allocated/frame  decoded %d/%d%n",
+                name, phase, costs.getMeanWallNanos() / 1e6, costs.getMeanAllocatedBytes() / 1024.0,
+                reader != null ? decoded : 0, reader != null ? frames : 0);
+    }
+
+    private static boolean frame(LuminanceSource source, Function<LuminanceSource, Binarizer> binarizers,
+                                 MultiFormatReader reader) {
+        BinaryBitmap bitmap = new BinaryBitmap(binarizers.apply(source));
+        try {
+            if (reader == null) {
+                return bitmap.getBlackMatrix() != null;
+            }
+            return reader.decode(bitmap) != null;
+        } catch (NotFoundException e) {
+            return false;
+        }
+    }
+}
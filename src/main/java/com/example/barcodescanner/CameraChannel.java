@@ -0,0 +1,416 @@
+package com.example.barcodescanner;
+
+import com.github.sarxos.webcam.Webcam;
+import com.github.sarxos.webcam.WebcamDevice;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * One open webcam: its capture thread, a {@link FrameRing} feeding the decode pool and per-camera metrics.
+ *
+ * The capture thread never waits for decoding. Each frame's luma plane is published to an
+ * off-heap ring and decode workers claim the newest one, so a slow decode costs stale
+ * frames, not latency, and the hand-off allocates nothing on the heap.
+ *
+ * Frames are recycled buffers from a {@link FramePool}; the current-frame slot and the
+ * frame listener each hold a reference and release it when done. The native format is
+ * 8-bit luma, converted on the capture thread straight from the driver's raw RGB bytes, so
+ * everything downstream moves a third of the data. A channel feeding a colour preview can
+ * capture RGB instead; its luma is still what goes to the ring.
+ *
+ * In standby the device stays open but only one frame a second is grabbed (to keep the
+ * driver's stream warm) and nothing is handed to the decode pool or the frame listener.
+ */
+public class CameraChannel {
+
+    private static final long CAPTURE_INTERVAL_MS = 33; // approximately 30 FPS
+    private static final long STANDBY_CAPTURE_INTERVAL_MS = 1000;
+    private static final long CLOSE_TIMEOUT_MS = 2000;
+    // Capture, current frame, a copy in progress and a couple of previews in flight
+    private static final int POOL_IDLE_FRAMES = 8;
+
+    private final String name;
+    private final Webcam webcam;
+    private final FrameRecorder.PixelFormat format;
+    private final Consumer<FramePool.Frame> frameListener;
+    private final AtomicBoolean isRunning = new AtomicBoolean(false);
+    private volatile boolean standby = false;
+    private Thread captureThread;
+
+    private FramePool framePool;
+    private boolean bufferAccess;
+    private ByteBuffer rawBytes = ByteBuffer.allocate(0);
+    private int[] convertRow = new int[0];
+    private byte[] ringLuma = new byte[0];
+    private final AtomicReference<FramePool.Frame> currentFrame = new AtomicReference<>();
+    private volatile FrameRing frameRing;
+    // When the next decode of this camera is due; workers claim it with a CAS
+    private final AtomicLong nextDecodeNanos = new AtomicLong(System.nanoTime());
+
+    // Metrics
+    private final AtomicLong framesCaptured = new AtomicLong();
+    private final AtomicLong framesDecoded = new AtomicLong();
+    private final AtomicLong framesSkipped = new AtomicLong();
+    private final AtomicLong captureErrors = new AtomicLong();
+    private final AtomicLong scansReported = new AtomicLong();
+    private final LatencyStats decodeTimes = new LatencyStats();
+
+    /**
+     * @param format LUMA, or RGB for a colour preview
+     * @param frameListener called on the capture thread; retain the frame to keep it past the call
+     */
+    CameraChannel(Webcam webcam, FrameRecorder.PixelFormat format, Consumer<FramePool.Frame> frameListener) {
+        this.name = webcam.getName();
+        this.webcam = webcam;
+        this.format = format;
+        this.frameListener = frameListener;
+    }
+
+    /**
+     * Open the device at 640x480 (when offered) and start its capture thread
+     */
+    void open() {
+        Dimension selectedSize = new Dimension(640, 480);
+        for (Dimension size : webcam.getViewSizes()) {
+            if (size.width == 640 && size.height == 480) {
+                selectedSize = size;
+                break;
+            }
+        }
+        webcam.setViewSize(selectedSize);
+
+        if (!webcam.open()) {
+            throw new RuntimeException("Failed to open webcam: " + name);
+        }
+        
+        // Raw driver bytes avoid an AWT image per frame; RGB frames need them to be pooled at all
+        Dimension size = webcam.getViewSize();
+        bufferAccess = webcam.getDevice() instanceof WebcamDevice.BufferAccess;
+        framePool = format == FrameRecorder.PixelFormat.LUMA || bufferAccess
+                ? new FramePool(size.width, size.height, format, POOL_IDLE_FRAMES) : null;
+        frameRing = new FrameRing(size.width, size.height);
+
+        isRunning.set(true);
+        captureThread = ScannerThreads.newThread("Camera-" + name, this::captureLoop);
+        captureThread.start();
+    }
+
+    /**
+     * Stop capturing and release the device. Waits for the capture thread to finish a grab
+     * in progress, so it cannot put a frame back in the current-frame slot once it is released.
+     */
+    void close() {
+        isRunning.set(false);
+        if (captureThread != null) {
+            captureThread.interrupt();
+            try {
+                captureThread.join(CLOSE_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (webcam.isOpen()) {
+            webcam.close();
+        }
+        releaseSlot(currentFrame);
+    }
+
+    private void captureLoop() {
+        while (isRunning.get()) {
+            try {
+                if (standby) {
+                    // Keep-alive grab only; not counted, decoded or previewed
+                    FramePool.Frame frame = captureFrame();
+                    if (frame != null) {
+                        replace(currentFrame, frame);
+                    }
+                    // Parked rather than sleeping so setStandby(false) can wake it without an interrupt
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(STANDBY_CAPTURE_INTERVAL_MS));
+                    continue;
+                }
+
+                FramePool.Frame frame = captureFrame();
+                if (frame != null && standby) {
+                    // Standby began during the grab, so this is a keep-alive frame
+                    replace(currentFrame, frame);
+                    continue;
+                }
+                if (frame != null) {
+                    framesCaptured.incrementAndGet();
+                    try {
+                        replace(currentFrame, frame.retain());
+                        publish(frame);
+                        if (frameListener != null) {
+                            frameListener.accept(frame);
+                        }
+                    } finally {
+                        frame.release();
+                    }
+                    // setStandby may have discarded the ring just before this publish
+                    FrameRing ring = frameRing;
+                    if (standby && ring != null) {
+                        ring.discard();
+                    }
+                }
+
+                Thread.sleep(CAPTURE_INTERVAL_MS);
+
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                captureErrors.incrementAndGet();
+                System.err.println("Error capturing frame from " + name + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Next frame with one reference owned by the caller, or null if the camera gave none
+     */
+    private FramePool.Frame captureFrame() {
+        FramePool pool = framePool;
+        if (pool == null) {
+            BufferedImage image = webcam.getImage();
+            return image != null ? FramePool.wrap(image) : null;
+        }
+        if (format == FrameRecorder.PixelFormat.RGB) {
+            FramePool.Frame frame = pool.acquire();
+            try {
+                webcam.getImageBytes(frame.prepareFill());
+                return frame;
+            } catch (RuntimeException e) {
+                frame.release();
+                throw e;
+            }
+        }
+        return bufferAccess ? captureLumaFromBytes(pool) : captureLumaFromImage(pool);
+    }
+
+    private FramePool.Frame captureLumaFromBytes(FramePool pool) {
+        int pixels = pool.getWidth() * pool.getHeight();
+        if (rawBytes.capacity() < pixels * 3) {
+            rawBytes = ByteBuffer.allocate(pixels * 3);
+        }
+        rawBytes.clear();
+        webcam.getImageBytes(rawBytes);
+        FramePool.Frame frame = pool.acquire();
+        LumaBuffer.rgbToLuma(rawBytes.array(), frame.getData(), pixels);
+        return frame;
+    }
+
+    /**
+     * Drivers without buffer access still allocate an image per frame, but only this thread sees it
+     */
+    private FramePool.Frame captureLumaFromImage(FramePool pool) {
+        BufferedImage image = webcam.getImage();
+        if (image == null) {
+            return null;
+        }
+        if (image.getWidth() != pool.getWidth() || image.getHeight() != pool.getHeight()) {
+            pool = new FramePool(image.getWidth(), image.getHeight(), format, POOL_IDLE_FRAMES);
+            framePool = pool;
+        }
+        FramePool.Frame frame = pool.acquire();
+        convertRow = LumaBuffer.convert(image, FrameRecorder.rawFormatOf(image), frame.getData(), convertRow);
+        return frame;
+    }
+
+    /**
+     * Copy the frame's luma plane into the decode ring, converting colour frames first
+     */
+    private void publish(FramePool.Frame frame) {
+        BufferedImage image = frame.getImage();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        FrameRing ring = frameRing;
+        if (ring == null || ring.getWidth() != width || ring.getHeight() != height) {
+            // The driver changed resolution under us; decode threads pick up the new ring on their next poll
+            if (ring != null) {
+                framesSkipped.addAndGet(ring.getSkipped());
+            }
+            ring = new FrameRing(width, height);
+            frameRing = ring;
+        }
+
+        FrameRecorder.PixelFormat raw = FrameRecorder.rawFormatOf(image);
+        byte[] luma;
+        if (raw == FrameRecorder.PixelFormat.LUMA) {
+            luma = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        } else {
+            if (ringLuma.length < width * height) {
+                ringLuma = new byte[width * height];
+            }
+            convertRow = LumaBuffer.convert(image, raw, ringLuma, convertRow);
+            luma = ringLuma;
+        }
+        ring.publish(luma, frame.getCaptureNanos());
+    }
+
+    /**
+     * Put a frame (whose reference the slot now owns) in a slot, releasing what it held.
+     */
+    private static void replace(AtomicReference<FramePool.Frame> slot, FramePool.Frame frame) {
+        FramePool.Frame previous = slot.getAndSet(frame);
+        if (previous != null) {
+            previous.release();
+        }
+    }
+
+    private static void releaseSlot(AtomicReference<FramePool.Frame> slot) {
+        FramePool.Frame previous = slot.getAndSet(null);
+        if (previous != null) {
+            previous.release();
+        }
+    }
+
+    /**
+     * Suspend or resume full-rate capture without closing the device
+     */
+    void setStandby(boolean standby) {
+        this.standby = standby;
+        FrameRing ring = frameRing;
+        if (standby) {
+            if (ring != null) {
+                ring.discard();
+            }
+        } else if (captureThread != null) {
+            // Cut the standby wait short so resume is immediate
+            LockSupport.unpark(captureThread);
+        }
+    }
+
+    public boolean isStandby() {
+        return standby;
+    }
+
+    /**
+     * Copy the newest undecoded frame into a decode worker's reader, at most once per interval.
+     * Returns false when nothing is due, so workers can move on to the next camera.
+     *
+     * The worker that advances the due time owns the slot; one that loses the race moves on
+     * rather than decoding the same camera twice in an interval. A claim with no new frame
+     * behind it is handed back.
+     */
+    boolean pollFrame(long minIntervalNanos, FrameRing.Reader reader) {
+        long now = System.nanoTime();
+        long due = nextDecodeNanos.get();
+        if (now - due < 0) {
+            return false;
+        }
+        long next = now + minIntervalNanos;
+        if (!nextDecodeNanos.compareAndSet(due, next)) {
+            return false;
+        }
+        FrameRing ring = frameRing;
+        if (ring == null || !ring.poll(reader)) {
+            nextDecodeNanos.compareAndSet(next, due);
+            return false;
+        }
+        return true;
+    }
+
+    void recordDecode(long nanos) {
+        framesDecoded.incrementAndGet();
+        decodeTimes.record(nanos);
+    }
+
+    void recordScan() {
+        scansReported.incrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Copy of the latest frame (pooled buffers are reused, so callers never see the original)
+     */
+    public BufferedImage getCurrentFrame() {
+        FramePool.Frame frame = currentFrame.get();
+        if (frame == null) {
+            return null;
+        }
+        try {
+            frame.retain();
+        } catch (IllegalStateException e) {
+            return null; // recycled between the read and the retain
+        }
+        // A buffer recycled and refilled in that window gives a torn copy, never a crash
+        try {
+            BufferedImage image = frame.getImage();
+            return new BufferedImage(image.getColorModel(), image.copyData(null), false, null);
+        } finally {
+            frame.release();
+        }
+    }
+
+    public FrameRecorder.PixelFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Buffer pool statistics, or null for RGB capture from a driver without buffer access
+     */
+    public FramePool getFramePool() {
+        return framePool;
+    }
+
+    /**
+     * The decode hand-off ring, or null before the camera is opened
+     */
+    public FrameRing getFrameRing() {
+        return frameRing;
+    }
+
+    public boolean isRunning() {
+        return isRunning.get();
+    }
+
+    public long getFramesCaptured() {
+        return framesCaptured.get();
+    }
+
+    public long getFramesDecoded() {
+        return framesDecoded.get();
+    }
+
+    /**
+     * Frames replaced by a newer one before any decode worker reached them
+     */
+    public long getFramesSkipped() {
+        FrameRing ring = frameRing;
+        return framesSkipped.get() + (ring != null ? ring.getSkipped() : 0);
+    }
+
+    public long getCaptureErrors() {
+        return captureErrors.get();
+    }
+
+    /**
+     * Scans from this camera that passed consensus and duplicate filtering
+     */
+    public long getScansReported() {
+        return scansReported.get();
+    }
+
+    public LatencyStats getDecodeTimes() {
+        return decodeTimes;
+    }
+
+    public String summary() {
+        return String.format("%s: captured=%d decoded=%d skipped=%d errors=%d scans=%d decode[%s]",
+                name, getFramesCaptured(), getFramesDecoded(), getFramesSkipped(),
+                getCaptureErrors(), getScansReported(), decodeTimes.summary())
+                + (framePool != null ? " " + framePool.summary() : "")
+                + (frameRing != null ? " " + frameRing.summary() : "");
+    }
+}
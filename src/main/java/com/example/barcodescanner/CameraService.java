@@ -2,148 +2,327 @@ package com.example.barcodescanner;
 
 import com.github.sarxos.webcam.Webcam;
 import javafx.application.Platform;
-import javafx.concurrent.Task;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
 
-import java.awt.Dimension;
 import java.awt.image.BufferedImage;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Service for managing camera capture and video streaming
+ * Service for managing camera capture and video streaming.
+ *
+ * Several webcams can be open at once, each with its own {@link CameraChannel} and
+ * capture thread. The first one opened is the primary camera: it feeds the preview
+ * and the frame recorder.
+ *
+ * Opening a webcam takes seconds on some devices, so pausing should use {@link #standby()}
+ * rather than {@link #stopCamera()}: the devices stay open with capture and decode
+ * suspended, {@link #startCamera(ImageView)} resumes them at once, and an idle timeout
+ * closes them if nobody comes back.
  */
 public class CameraService {
     
-    private Webcam webcam;
-    private Task<Void> cameraTask;
-    private final AtomicBoolean isRunning = new AtomicBoolean(false);
+    public static final long DEFAULT_STANDBY_TIMEOUT_MS = 5 * 60 * 1000;
+    
+    private static final ScheduledThreadPoolExecutor STANDBY_TIMER = createStandbyTimer();
+    // A busy FX thread drops preview frames rather than queueing (and pinning) buffers
+    private static final int MAX_PREVIEWS_IN_FLIGHT = 2;
+    
+    private final List<CameraChannel> channels = new CopyOnWriteArrayList<>();
+    private volatile CameraChannel primary;
     private ImageView imageView;
-    private volatile BufferedImage currentFrame;
+    private volatile FrameRecorder frameRecorder;
+    private volatile FrameRecorder.PixelFormat previewFormat = FrameRecorder.PixelFormat.LUMA;
+    private final AtomicInteger previewsInFlight = new AtomicInteger();
+    private volatile long standbyTimeoutMillis = DEFAULT_STANDBY_TIMEOUT_MS;
+    private ScheduledFuture<?> standbyExpiry;
     
     /**
-     * Start the camera and begin streaming to the provided ImageView
+     * Start the default camera and begin streaming to the provided ImageView.
+     * Cameras in standby are resumed instead of reopened.
      */
     public void startCamera(ImageView imageView) throws Exception {
-        if (isRunning.get()) {
+        if (isRunning()) {
+            return;
+        }
+        if (isStandby()) {
+            this.imageView = imageView;
+            resume();
             return;
         }
         
         this.imageView = imageView;
         
-        // Get default webcam
-        webcam = Webcam.getDefault();
+        // Get default webcam from the cached inventory
+        WebcamDiscovery.Inventory inventory = WebcamDiscovery.getInstance().awaitInventory();
+        Webcam webcam = inventory.getDefaultWebcam();
         if (webcam == null) {
-            throw new RuntimeException("No webcam found");
+            throw new RuntimeException(inventory.getError() != null ? inventory.getError() : "No webcam found");
         }
         
-        // Set camera resolution
-        Dimension[] sizes = webcam.getViewSizes();
-        Dimension selectedSize = new Dimension(640, 480);
-        
-        // Try to find a suitable resolution
-        for (Dimension size : sizes) {
-            if (size.width == 640 && size.height == 480) {
-                selectedSize = size;
-                break;
-            }
+        openChannel(webcam);
+    }
+    
+    /**
+     * Open a webcam by the name reported by {@link #getAvailableWebcams()}.
+     * Returns the existing channel if that camera is already open.
+     */
+    public synchronized CameraChannel openCamera(String name) {
+        CameraChannel existing = getChannel(name);
+        if (existing != null) {
+            return existing;
         }
         
-        webcam.setViewSize(selectedSize);
-        
-        // Open webcam
-        if (!webcam.open()) {
-            throw new RuntimeException("Failed to open webcam");
+        WebcamDiscovery.DeviceInfo device = WebcamDiscovery.getInstance().awaitInventory().getDevice(name);
+        if (device == null) {
+            throw new RuntimeException("Webcam not found: " + name);
+        }
+        return openChannel(device.getWebcam());
+    }
+    
+    /**
+     * Open several webcams by name, e.g. all the cameras at a packing station
+     */
+    public List<CameraChannel> openCameras(String... names) {
+        List<CameraChannel> opened = new ArrayList<>();
+        for (String name : names) {
+            opened.add(openCamera(name));
+        }
+        return opened;
+    }
+    
+    synchronized CameraChannel openChannel(Webcam webcam) {
+        boolean isPrimary = primary == null;
+        // Only the primary camera is previewed; the rest capture luma for decoding only
+        CameraChannel channel = isPrimary
+                ? new CameraChannel(webcam, previewFormat, this::onPrimaryFrame)
+                : new CameraChannel(webcam, FrameRecorder.PixelFormat.LUMA, null);
+        channel.open();
+        channels.add(channel);
+        if (isPrimary) {
+            primary = channel;
+        }
+        return channel;
+    }
+    
+    private void onPrimaryFrame(FramePool.Frame frame) {
+        FrameRecorder recorder = frameRecorder;
+        if (recorder != null) {
+            recordFrame(recorder, frame.getImage());
         }
         
-        isRunning.set(true);
-        
-        // Create camera streaming task
-        cameraTask = new Task<Void>() {
-            @Override
-            protected Void call() throws Exception {
-                while (isRunning.get() && !isCancelled()) {
-                    try {
-                        BufferedImage image = webcam.getImage();
-                        if (image != null) {
-                            currentFrame = image;
-                            
-                            // Update UI on JavaFX Application Thread
-                            Platform.runLater(() -> {
-                                if (imageView != null) {
-                                    imageView.setImage(SwingFXUtils.toFXImage(image, null));
-                                }
-                            });
-                        }
-                        
-                        // Control frame rate (approximately 30 FPS)
-                        Thread.sleep(33);
-                        
-                    } catch (InterruptedException e) {
-                        break;
-                    } catch (Exception e) {
-                        System.err.println("Error capturing frame: " + e.getMessage());
+        // Update UI on JavaFX Application Thread; the frame stays retained until painted
+        ImageView view = imageView;
+        if (view != null && previewsInFlight.get() < MAX_PREVIEWS_IN_FLIGHT) {
+            previewsInFlight.incrementAndGet();
+            frame.retain();
+            Platform.runLater(() -> {
+                try {
+                    // Repaint the displayed image in place when the size is unchanged
+                    WritableImage current = view.getImage() instanceof WritableImage ? (WritableImage) view.getImage() : null;
+                    WritableImage painted = SwingFXUtils.toFXImage(frame.getImage(), current);
+                    if (painted != current) {
+                        view.setImage(painted);
                     }
+                } finally {
+                    frame.release();
+                    previewsInFlight.decrementAndGet();
                 }
-                return null;
-            }
-        };
-        
-        // Start camera task in background thread
-        Thread cameraThread = new Thread(cameraTask);
-        cameraThread.setDaemon(true);
-        cameraThread.start();
+            });
+        }
     }
     
     /**
-     * Stop the camera and cleanup resources
+     * Close one camera. Closing the primary ends the preview and recording;
+     * the next camera opened becomes the new primary.
      */
-    public void stopCamera() {
-        isRunning.set(false);
-        
-        if (cameraTask != null) {
-            cameraTask.cancel(true);
+    public synchronized void closeCamera(String name) {
+        CameraChannel channel = getChannel(name);
+        if (channel == null) {
+            return;
         }
-        
-        if (webcam != null && webcam.isOpen()) {
-            webcam.close();
+        channel.close();
+        channels.remove(channel);
+        if (channel == primary) {
+            primary = null;
         }
-        
-        currentFrame = null;
+    }
+    
+    /**
+     * Suspend capture on every open camera but keep the devices open. They are closed
+     * if {@link #resume()} is not called within the standby timeout.
+     */
+    public synchronized void standby() {
+        if (channels.isEmpty() || isStandby()) {
+            return;
+        }
+        for (CameraChannel channel : channels) {
+            channel.setStandby(true);
+        }
+        long timeout = standbyTimeoutMillis;
+        if (timeout > 0) {
+            standbyExpiry = STANDBY_TIMER.schedule(this::onStandbyExpired, timeout, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Leave standby; returns false if there was nothing in standby (closed or already running)
+     */
+    public synchronized boolean resume() {
+        if (!isStandby()) {
+            return false;
+        }
+        cancelStandbyExpiry();
+        for (CameraChannel channel : channels) {
+            channel.setStandby(false);
+        }
+        return true;
+    }
+    
+    private synchronized void onStandbyExpired() {
+        if (isStandby()) {
+            System.out.println("Camera standby timed out after " + standbyTimeoutMillis + " ms, closing devices");
+            stopCamera();
+        }
+    }
+    
+    private void cancelStandbyExpiry() {
+        if (standbyExpiry != null) {
+            standbyExpiry.cancel(false);
+            standbyExpiry = null;
+        }
+    }
+    
+    /**
+     * How long cameras may sit in standby before they are closed; 0 keeps them open indefinitely.
+     * Applies from the next call to {@link #standby()}.
+     */
+    public void setStandbyTimeout(long millis) {
+        this.standbyTimeoutMillis = millis;
+    }
+    
+    /**
+     * Stop all cameras and cleanup resources
+     */
+    public synchronized void stopCamera() {
+        cancelStandbyExpiry();
+        for (CameraChannel channel : channels) {
+            channel.close();
+        }
+        channels.clear();
+        primary = null;
         
         // Clear the image view
         if (imageView != null) {
-            Platform.runLater(() -> imageView.setImage(null));
+            ImageView view = imageView;
+            Platform.runLater(() -> view.setImage(null));
+        }
+    }
+    
+    /**
+     * Open cameras, in the order they were opened
+     */
+    public List<CameraChannel> getChannels() {
+        return channels;
+    }
+    
+    public CameraChannel getChannel(String name) {
+        for (CameraChannel channel : channels) {
+            if (channel.getName().equals(name)) {
+                return channel;
+            }
         }
+        return null;
     }
     
     /**
-     * Get the current frame from the camera
+     * Capture format of the primary camera opened next: LUMA (default, grey preview)
+     * or RGB for a colour preview at three times the bytes per frame
+     */
+    public void setPreviewFormat(FrameRecorder.PixelFormat format) {
+        if (format == FrameRecorder.PixelFormat.BGR) {
+            throw new IllegalArgumentException("Preview format must be LUMA or RGB");
+        }
+        this.previewFormat = format;
+    }
+    
+    /**
+     * Record every frame from the primary camera with the given recorder (null to stop recording)
+     */
+    public void setFrameRecorder(FrameRecorder recorder) {
+        this.frameRecorder = recorder;
+    }
+    
+    private void recordFrame(FrameRecorder recorder, BufferedImage image) {
+        try {
+            recorder.record(image, System.nanoTime());
+        } catch (Exception e) {
+            // Stop recording rather than failing every subsequent frame
+            System.err.println("Frame recording stopped: " + e.getMessage());
+            frameRecorder = null;
+        }
+    }
+    
+    /**
+     * Get the current frame from the primary camera
      */
     public BufferedImage getCurrentFrame() {
-        return currentFrame;
+        CameraChannel channel = primary;
+        return channel != null ? channel.getCurrentFrame() : null;
     }
     
     /**
-     * Check if the camera is currently running
+     * Check if any camera is currently capturing (open cameras in standby do not count)
      */
     public boolean isRunning() {
-        return isRunning.get();
+        for (CameraChannel channel : channels) {
+            if (channel.isRunning() && !channel.isStandby()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Check if the cameras are open but suspended by {@link #standby()}
+     */
+    public boolean isStandby() {
+        for (CameraChannel channel : channels) {
+            if (channel.isStandby()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static ScheduledThreadPoolExecutor createStandbyTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "CameraService-standby");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
     }
     
     /**
-     * Get information about available webcams
+     * Get information about available webcams (from the cached inventory; waits for the first discovery)
      */
     public static String[] getAvailableWebcams() {
-        return Webcam.getWebcams().stream()
-                .map(Webcam::getName)
-                .toArray(String[]::new);
+        return WebcamDiscovery.getInstance().awaitInventory().getNames();
     }
     
     /**
-     * Check if any webcam is available
+     * Check if any webcam is available (from the cached inventory; waits for the first discovery)
      */
     public static boolean isWebcamAvailable() {
-        return Webcam.getDefault() != null;
+        return !WebcamDiscovery.getInstance().awaitInventory().isEmpty();
     }
 }
@@ -0,0 +1,101 @@
+package com.example.barcodescanner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measures the misread/throughput trade-off between the ACCURATE (TRY_HARDER)
+ * and FAST (consensus) decode profiles on a synthetic corpus.
+ *
+ * Each simulated scan is a code held in front of the camera for a few frames;
+ * the scan counts as read if the first emitted event matches the ground truth,
+ * and as a misread if any emitted event does not.
+ */
+public class ConsensusBenchmark {
+
+    public static void main(String[] args) {
+        int scans = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        int framesPerScan = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        double noise = args.length > 2 ? Double.parseDouble(args[2]) : 4.0;
+
+        System.out.println("=== Consensus Benchmark ===");
+        System.out.println("Scans: " + scans + ", frames per scan: " + framesPerScan + ", noise: " + noise);
+        System.out.println("Rendering corpus...");
+
+        SyntheticCorpus corpus = new SyntheticCorpus(42).withNoise(noise);
+        List<List<SyntheticCorpus.Sample>> scanFrames = new ArrayList<>();
+        for (int i = 0; i < scans; i++) {
+            List<SyntheticCorpus.Sample> frames = new ArrayList<>();
+            SyntheticCorpus.Sample first = corpus.next();
+            frames.add(first);
+            for (int f = 1; f < framesPerScan; f++) {
+                frames.add(corpus.reshoot(first));
+            }
+            scanFrames.add(frames);
+        }
+
+        for (BarcodeDetector.DecodeProfile profile : BarcodeDetector.DecodeProfile.values()) {
+            System.out.println();
+            run(profile, scanFrames);
+        }
+    }
+
+    private static void run(BarcodeDetector.DecodeProfile profile, List<List<SyntheticCorpus.Sample>> scanFrames) {
+        BarcodeDetector detector = new BarcodeDetector();
+        detector.setDecodeProfile(profile);
+
+        List<String[]> emitted = Collections.synchronizedList(new ArrayList<>());
+        detector.setBarcodeDetectedCallback((text, format) -> emitted.add(new String[] {text, format}));
+
+        int read = 0;
+        int misreads = 0;
+        long frames = 0;
+        long decodeNanos = 0;
+
+        for (List<SyntheticCorpus.Sample> scan : scanFrames) {
+            emitted.clear();
+            detector.getDedupCache().clear();
+            if (detector.getConsensusFilter() != null) {
+                detector.getConsensusFilter().reset();
+            }
+
+            SyntheticCorpus.Sample truth = scan.get(0);
+            for (SyntheticCorpus.Sample frame : scan) {
+                long start = System.nanoTime();
+                detector.processFrame(frame.getImage());
+                decodeNanos += System.nanoTime() - start;
+                frames++;
+            }
+
+            try {
+                detector.getResultBus().flush(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            boolean correct = false;
+            for (String[] event : new ArrayList<>(emitted)) {
+                if (event[0].equals(truth.getText()) && event[1].equals(truth.getFormat().toString())) {
+                    correct = true;
+                } else {
+                    misreads++;
+                    System.out.println("  misread: expected " + truth.getFormat() + " '" + truth.getText()
+                            + "', got " + event[1] + " '" + event[0] + "'");
+                }
+            }
+            if (correct) {
+                read++;
+            }
+        }
+        detector.close();
+
+        int scans = scanFrames.size();
+        System.out.println(profile + ":");
+        System.out.printf("  Scans read:      %d/%d (%.1f%%)%n", read, scans, read * 100.0 / scans);
+        System.out.printf("  Misreads:        %d%n", misreads);
+        System.out.printf("  Avg decode time: %.2f ms/frame%n", decodeNanos / 1_000_000.0 / frames);
+        System.out.printf("  Throughput:      %.1f frames/s%n", frames * 1_000_000_000.0 / decodeNanos);
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.barcodescanner;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.oned.UPCEReader;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Multi-frame voting stage that lets the detector run cheaper decode settings
+ * without letting single-frame misreads through.
+ *
+ * A read is accepted once the same (format, text) has been seen in at least
+ * {@code requiredVotes} frames within the voting window. EAN/UPC reads whose
+ * GS1 check digit is valid are accepted on a single read, since a misread that
+ * also satisfies the checksum is rare enough to match TRY_HARDER behaviour.
+ */
+public class ConsensusFilter {
+
+    private static final int MAX_CANDIDATES = 64;
+
+    private final int requiredVotes;
+    private final long windowNanos;
+    private final boolean checksumShortcut;
+    private final Map<String, Candidate> candidates = new LinkedHashMap<>();
+    private long accepted = 0;
+    private long pending = 0;
+    private long rejectedChecksums = 0;
+
+    private static final class Candidate {
+        long firstSeen;
+        int votes;
+    }
+
+    public ConsensusFilter(int requiredVotes, long windowMillis) {
+        this(requiredVotes, windowMillis, true);
+    }
+
+    public ConsensusFilter(int requiredVotes, long windowMillis, boolean checksumShortcut) {
+        if (requiredVotes < 1) {
+            throw new IllegalArgumentException("requiredVotes must be at least 1");
+        }
+        this.requiredVotes = requiredVotes;
+        this.windowNanos = windowMillis * 1_000_000L;
+        this.checksumShortcut = checksumShortcut;
+    }
+
+    /**
+     * Cast a vote for a read; returns true once the read has reached consensus
+     */
+    public boolean accept(BarcodeFormat format, String text) {
+        return accept(format, text, System.nanoTime());
+    }
+
+    /**
+     * Cast a vote at the given System.nanoTime() timestamp
+     */
+    public synchronized boolean accept(BarcodeFormat format, String text, long nowNanos) {
+        if (isGtinFormat(format)) {
+            if (!isValidGtin(format, text)) {
+                rejectedChecksums++;
+                return false;
+            }
+            if (checksumShortcut) {
+                accepted++;
+                return true;
+            }
+        }
+
+        expire(nowNanos);
+
+        String key = format + ":" + text;
+        Candidate candidate = candidates.get(key);
+        if (candidate == null) {
+            if (candidates.size() >= MAX_CANDIDATES) {
+                Iterator<Candidate> oldest = candidates.values().iterator();
+                oldest.next();
+                oldest.remove();
+            }
+            candidate = new Candidate();
+            candidate.firstSeen = nowNanos;
+            candidates.put(key, candidate);
+        }
+        candidate.votes++;
+
+        if (candidate.votes >= requiredVotes) {
+            accepted++;
+            return true;
+        }
+        pending++;
+        return false;
+    }
+
+    /**
+     * Whether a read has already reached consensus, without casting a vote. For reads
+     * replayed from a cache rather than seen in a new frame, which must not count twice.
+     */
+    public synchronized boolean isConfirmed(BarcodeFormat format, String text, long nowNanos) {
+        if (isGtinFormat(format)) {
+            return checksumShortcut && isValidGtin(format, text)
+                    || isValidGtin(format, text) && hasVotes(format, text, nowNanos);
+        }
+        return hasVotes(format, text, nowNanos);
+    }
+
+    private boolean hasVotes(BarcodeFormat format, String text, long nowNanos) {
+        expire(nowNanos);
+        Candidate candidate = candidates.get(format + ":" + text);
+        return candidate != null && candidate.votes >= requiredVotes;
+    }
+
+    public synchronized void reset() {
+        candidates.clear();
+    }
+
+    public int getRequiredVotes() {
+        return requiredVotes;
+    }
+
+    public synchronized long getAcceptedCount() {
+        return accepted;
+    }
+
+    /**
+     * Reads held back because they had not yet reached consensus
+     */
+    public synchronized long getPendingCount() {
+        return pending;
+    }
+
+    public synchronized long getRejectedChecksumCount() {
+        return rejectedChecksums;
+    }
+
+    private void expire(long nowNanos) {
+        // Candidates are in insertion order, so the oldest windows are at the front
+        Iterator<Candidate> it = candidates.values().iterator();
+        while (it.hasNext()) {
+            if (nowNanos - it.next().firstSeen > windowNanos) {
+                it.remove();
+            } else {
+                break;
+            }
+        }
+    }
+
+    static boolean isGtinFormat(BarcodeFormat format) {
+        return format == BarcodeFormat.EAN_13 || format == BarcodeFormat.EAN_8
+                || format == BarcodeFormat.UPC_A || format == BarcodeFormat.UPC_E;
+    }
+
+    /**
+     * Validate the GS1 check digit of an EAN/UPC string
+     */
+    static boolean isValidGtin(BarcodeFormat format, String text) {
+        if (text == null || text.length() < 2) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        // UPC-E is reported in compressed form; the check digit applies to the expanded UPC-A
+        if (format == BarcodeFormat.UPC_E) {
+            text = UPCEReader.convertUPCEtoUPCA(text);
+        }
+        int check = text.charAt(text.length() - 1) - '0';
+        return gtinCheckDigit(text.substring(0, text.length() - 1)) == check;
+    }
+
+    /**
+     * GS1 mod-10 check digit for the given digits (without check digit)
+     */
+    static int gtinCheckDigit(String digits) {
+        int sum = 0;
+        for (int i = digits.length() - 1, weight = 3; i >= 0; i--, weight = 4 - weight) {
+            sum += (digits.charAt(i) - '0') * weight;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
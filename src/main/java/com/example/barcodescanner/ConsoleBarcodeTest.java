@@ -1,145 +1,338 @@
 package com.example.barcodescanner;
 
-import com.github.sarxos.webcam.Webcam;
-import com.google.zxing.*;
-import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
-import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.Result;
 
-import java.awt.Dimension;
 import java.awt.image.BufferedImage;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Console-based barcode scanner for testing without JavaFX
+ * Headless scanning benchmark. Decodes frames from any {@link FrameSource} through the
+ * detector's live decode path (hints, adaptive preprocessing, reusable buffers) on one
+ * thread, unthrottled unless a frame rate is given, and reports FPS, decode hit rate,
+ * latency percentiles and allocation: as text, and as one JSON object for comparing builds.
+ *
+ * Usage: ConsoleBarcodeTest [--source webcam|replay:DIR|synthetic[:FRAMES]] [--seconds N]
+ *                           [--frames N] [--fps N] [--profile accurate|fast] [--json FILE|-]
+ *
+ * Stops at the time limit, the frame limit or the end of the source, whichever comes first
+ * (0 means no limit). Defaults: webcam, 30 seconds, unthrottled, accurate profile.
  */
 public class ConsoleBarcodeTest {
-    
-    private static final MultiFormatReader reader = new MultiFormatReader();
-    
-    static {
-        // Configure barcode reader
-        Map<DecodeHintType, Object> hints = new HashMap<>();
-        hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
-        hints.put(DecodeHintType.POSSIBLE_FORMATS, BarcodeFormat.values());
-        reader.setHints(hints);
+
+    /**
+     * Command-line settings
+     */
+    public static class Options {
+        String source = "webcam";
+        long seconds = 30;
+        long frames = 0;
+        int fps = 0;
+        BarcodeDetector.DecodeProfile profile = BarcodeDetector.DecodeProfile.ACCURATE;
+        String json;
+
+        public static Options parse(String... args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String value = i + 1 < args.length ? args[i + 1] : null;
+                switch (args[i]) {
+                    case "--source": options.source = require(args[i], value); i++; break;
+                    case "--seconds": options.seconds = Long.parseLong(require(args[i], value)); i++; break;
+                    case "--frames": options.frames = Long.parseLong(require(args[i], value)); i++; break;
+                    case "--fps": options.fps = Integer.parseInt(require(args[i], value)); i++; break;
+                    case "--profile":
+                        options.profile = BarcodeDetector.DecodeProfile.valueOf(require(args[i], value).toUpperCase());
+                        i++;
+                        break;
+                    case "--json": options.json = require(args[i], value); i++; break;
+                    default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            return options;
+        }
+
+        private static String require(String option, String value) {
+            if (value == null) {
+                throw new IllegalArgumentException(option + " needs a value");
+            }
+            return value;
+        }
+
+        public String getSource() { return source; }
+        public long getSeconds() { return seconds; }
+        public long getFrames() { return frames; }
+        public int getFps() { return fps; }
+        public BarcodeDetector.DecodeProfile getProfile() { return profile; }
     }
-    
-    public static void main(String[] args) {
-        System.out.println("=== Barcode Scanner Console Test ===");
-        System.out.println();
-        
-        // Test 1: Check if webcam is available
-        System.out.println("1. Testing webcam availability...");
-        Webcam webcam = Webcam.getDefault();
-        if (webcam == null) {
-            System.out.println("❌ ERROR: No webcam found!");
-            System.out.println("Please ensure your webcam is connected and not being used by another application.");
-            return;
+
+    /**
+     * Results of one run
+     */
+    public static class Report {
+        private final String source;
+        private final BarcodeDetector.DecodeProfile profile;
+        private long frames = 0;
+        private long elapsedNanos = 0;
+        private long framesWithReads = 0;
+        private long framesWithTruth = 0;
+        private long correct = 0;
+        private long misreads = 0;
+        private long gcCount = 0;
+        private long gcMillis = 0;
+        private final LatencyStats decodeTimes = new LatencyStats();
+        private final ScanLatencyReport readLatency = new ScanLatencyReport();
+        private final FrameCostStats costs = new FrameCostStats();
+
+        Report(String source, BarcodeDetector.DecodeProfile profile) {
+            this.source = source;
+            this.profile = profile;
         }
-        System.out.println("✅ Webcam found: " + webcam.getName());
-        
-        // Test 2: Check webcam capabilities
-        System.out.println("\n2. Testing webcam capabilities...");
-        Dimension[] sizes = webcam.getViewSizes();
-        System.out.println("Available resolutions:");
-        for (Dimension size : sizes) {
-            System.out.println("   - " + size.width + "x" + size.height);
-        }
-        
-        // Test 3: Try to open webcam
-        System.out.println("\n3. Testing webcam access...");
-        try {
-            webcam.setViewSize(new Dimension(640, 480));
-            if (!webcam.open()) {
-                System.out.println("❌ ERROR: Failed to open webcam!");
-                return;
+
+        public long getFrames() { return frames; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public long getFramesWithReads() { return framesWithReads; }
+        public long getCorrect() { return correct; }
+        public long getMisreads() { return misreads; }
+
+        /**
+         * Decode time of every frame, hit or miss
+         */
+        public LatencyStats getDecodeTimes() { return decodeTimes; }
+
+        /**
+         * Capture-to-result stages of the frames that produced a read
+         */
+        public ScanLatencyReport getReadLatency() { return readLatency; }
+
+        public FrameCostStats getCosts() { return costs; }
+
+        public double getFramesPerSecond() {
+            return elapsedNanos > 0 ? frames * 1e9 / elapsedNanos : 0.0;
+        }
+
+        /**
+         * Fraction of frames with at least one read
+         */
+        public double getHitRate() {
+            return frames > 0 ? (double) framesWithReads / frames : 0.0;
+        }
+
+        /**
+         * Fraction of frames with known content that were read correctly, or -1 without ground truth
+         */
+        public double getAccuracy() {
+            return framesWithTruth > 0 ? (double) correct / framesWithTruth : -1;
+        }
+
+        public String toText() {
+            StringBuilder text = new StringBuilder();
+            String newline = System.lineSeparator();
+            text.append(String.format("Source %s, profile %s%n", source, profile));
+            text.append(String.format("Frames: %d in %.1fs (%.1f FPS)%n", frames, elapsedNanos / 1e9, getFramesPerSecond()));
+            text.append(String.format("Frames with reads: %d (%.1f%%)%n", framesWithReads, getHitRate() * 100));
+            if (framesWithTruth > 0) {
+                text.append(String.format("Correct: %d of %d (%.1f%%), misreads: %d%n",
+                        correct, framesWithTruth, getAccuracy() * 100, misreads));
             }
-            System.out.println("✅ Webcam opened successfully");
-        } catch (Exception e) {
-            System.out.println("❌ ERROR: Exception opening webcam: " + e.getMessage());
-            return;
+            text.append("Decode time per frame: ").append(decodeTimes.summary()).append(newline);
+            text.append("Decode cost: ").append(costs.summary()).append(newline);
+            text.append(String.format("Allocation: %.1f MB/s, GCs: %d (%d ms)%n",
+                    getAllocationBytesPerSecond() / (1024.0 * 1024.0), gcCount, gcMillis));
+            if (readLatency.getEndToEnd().getCount() > 0) {
+                text.append(newline).append(readLatency.format());
+            }
+            return text.toString();
+        }
+
+        private double getAllocationBytesPerSecond() {
+            return costs.getMeanAllocatedBytes() * getFramesPerSecond();
+        }
+
+        /**
+         * One JSON object; times in milliseconds, allocation in bytes
+         */
+        public String toJson() {
+            StringBuilder json = new StringBuilder("{");
+            field(json, "source", quote(source));
+            field(json, "profile", quote(profile.name()));
+            field(json, "java", quote(System.getProperty("java.version")));
+            field(json, "kernels", quote(PixelKernels.get().describe()));
+            field(json, "frames", frames);
+            field(json, "elapsedMs", elapsedNanos / 1e6);
+            field(json, "fps", getFramesPerSecond());
+            field(json, "framesWithReads", framesWithReads);
+            field(json, "hitRate", getHitRate());
+            if (framesWithTruth > 0) {
+                field(json, "correct", correct);
+                field(json, "misreads", misreads);
+                field(json, "accuracy", getAccuracy());
+            }
+            field(json, "decodeMs", latencies(decodeTimes));
+            field(json, "captureToResultMs", latencies(readLatency.getEndToEnd()));
+            field(json, "cpuMsPerFrame", costs.getMeanCpuNanos() / 1e6);
+            field(json, "allocatedBytesPerFrame", Math.round(costs.getMeanAllocatedBytes()));
+            field(json, "allocatedBytesPerSecond", Math.round(getAllocationBytesPerSecond()));
+            field(json, "gcCount", gcCount);
+            field(json, "gcMs", gcMillis);
+            json.setLength(json.length() - 1);
+            return json.append('}').toString();
+        }
+
+        private static String latencies(LatencyStats stats) {
+            return String.format(Locale.ROOT, "{\"n\":%d,\"mean\":%.3f,\"p50\":%.3f,\"p90\":%.3f,\"p99\":%.3f,\"max\":%.3f}",
+                    stats.getCount(), stats.getMeanNanos() / 1e6, stats.getPercentileNanos(50) / 1e6,
+                    stats.getPercentileNanos(90) / 1e6, stats.getPercentileNanos(99) / 1e6, stats.getMaxNanos() / 1e6);
+        }
+
+        private static void field(StringBuilder json, String name, Object value) {
+            if (value instanceof Double) {
+                value = String.format(Locale.ROOT, "%.3f", (Double) value);
+            }
+            json.append('"').append(name).append("\":").append(value).append(',');
         }
-        
-        // Test 4: Capture and analyze frames
-        System.out.println("\n4. Testing barcode detection...");
-        System.out.println("Point a barcode at your camera. Scanning for 30 seconds...");
-        System.out.println("Press Ctrl+C to stop early.");
-        
-        long startTime = System.currentTimeMillis();
-        long lastDetectionTime = 0;
-        String lastDetectedBarcode = "";
-        int frameCount = 0;
-        int detectionCount = 0;
-        
+
+        private static String quote(String value) {
+            StringBuilder quoted = new StringBuilder("\"");
+            for (char c : value.toCharArray()) {
+                if (c == '"' || c == '\\') {
+                    quoted.append('\\').append(c);
+                } else if (c < 0x20) {
+                    quoted.append(String.format("\\u%04x", (int) c));
+                } else {
+                    quoted.append(c);
+                }
+            }
+            return quoted.append('"').toString();
+        }
+    }
+
+    /**
+     * Decode frames from the source until a limit is reached or it runs out
+     */
+    public static Report run(FrameSource source, Options options) throws IOException {
+        BarcodeDetector detector = new BarcodeDetector();
         try {
-            while (System.currentTimeMillis() - startTime < 30000) { // 30 seconds
-                BufferedImage image = webcam.getImage();
-                if (image != null) {
-                    frameCount++;
-                    
-                    // Try to detect barcode
-                    try {
-                        LuminanceSource source = new BufferedImageLuminanceSource(image);
-                        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
-                        Result result = reader.decode(bitmap);
-                        
-                        String barcodeText = result.getText();
-                        String format = result.getBarcodeFormat().toString();
-                        
-                        // Avoid duplicate detections
-                        long currentTime = System.currentTimeMillis();
-                        if (!barcodeText.equals(lastDetectedBarcode) || 
-                            (currentTime - lastDetectionTime) > 3000) {
-                            
-                            detectionCount++;
-                            lastDetectedBarcode = barcodeText;
-                            lastDetectionTime = currentTime;
-                            
-                            System.out.println("\n🎯 BARCODE DETECTED!");
-                            System.out.println("   Format: " + format);
-                            System.out.println("   Value:  " + barcodeText);
-                            System.out.println("   Time:   " + new java.util.Date());
-                            System.out.println();
-                        }
-                        
-                    } catch (NotFoundException e) {
-                        // No barcode found in this frame - this is normal
-                    }
+            detector.setDecodeProfile(options.profile);
+            Report report = new Report(source.describe(), options.profile);
+
+            long intervalNanos = options.fps > 0 ? TimeUnit.SECONDS.toNanos(1) / options.fps : 0;
+            long deadline = options.seconds > 0 ? TimeUnit.SECONDS.toNanos(options.seconds) : Long.MAX_VALUE;
+            long gcCount = gcCount();
+            long gcMillis = gcMillis();
+            long start = System.nanoTime();
+            long next = start;
+
+            while ((options.frames <= 0 || report.frames < options.frames) && System.nanoTime() - start < deadline) {
+                BufferedImage frame = source.nextFrame();
+                if (frame == null) {
+                    break;
                 }
-                
-                // Show progress every 5 seconds
-                if (frameCount % 150 == 0) { // Approximately every 5 seconds at 30fps
-                    long elapsed = (System.currentTimeMillis() - startTime) / 1000;
-                    System.out.println("Scanning... " + elapsed + "s elapsed, " + frameCount + " frames processed");
+                long captureNanos = source.getCaptureNanos();
+                String expected = source.getExpectedText();
+
+                FrameCostStats.Probe probe = FrameCostStats.begin();
+                long decodeStart = System.nanoTime();
+                Result[] results = detector.decodeFrame(frame);
+                long decodeEnd = System.nanoTime();
+                probe.end(report.costs, null);
+                report.decodeTimes.record(decodeEnd - decodeStart);
+
+                long sequence = report.frames++;
+                if (results.length > 0) {
+                    report.framesWithReads++;
+                    ScanEvent.Timing timing = new ScanEvent.Timing(sequence, captureNanos, decodeStart, decodeEnd, null);
+                    Result result = results[0];
+                    report.readLatency.record(new ScanEvent(result.getText(), result.getBarcodeFormat().toString(),
+                            null, System.currentTimeMillis(), decodeEnd, timing), System.nanoTime());
+                }
+                if (expected != null) {
+                    score(report, expected, results);
+                }
+
+                if (intervalNanos > 0) {
+                    next += intervalNanos;
+                    LockSupport.parkNanos(next - System.nanoTime());
                 }
-                
-                Thread.sleep(33); // ~30 FPS
             }
-            
-        } catch (InterruptedException e) {
-            System.out.println("\nScan interrupted by user.");
-        } catch (Exception e) {
-            System.out.println("❌ ERROR during scanning: " + e.getMessage());
+
+            report.elapsedNanos = System.nanoTime() - start;
+            report.gcCount = gcCount() - gcCount;
+            report.gcMillis = gcMillis() - gcMillis;
+            return report;
         } finally {
-            webcam.close();
-        }
-        
-        // Test results
-        System.out.println("\n=== TEST RESULTS ===");
-        System.out.println("Frames processed: " + frameCount);
-        System.out.println("Barcodes detected: " + detectionCount);
-        System.out.println("Webcam: ✅ Working");
-        System.out.println("Barcode detection: " + (detectionCount > 0 ? "✅ Working" : "⚠️  No barcodes detected"));
-        
-        if (detectionCount == 0) {
-            System.out.println("\nTips for better detection:");
-            System.out.println("- Ensure good lighting");
-            System.out.println("- Hold barcode steady and at proper distance");
-            System.out.println("- Try different angles");
-            System.out.println("- Use high-contrast barcodes (black on white)");
-        }
-        
-        System.out.println("\nTest completed!");
+            detector.close();
+        }
+    }
+
+    /**
+     * Blank frames count as correct when nothing is read
+     */
+    private static void score(Report report, String expected, Result[] results) {
+        report.framesWithTruth++;
+        boolean found = false;
+        for (Result result : results) {
+            if (result.getText().equals(expected)) {
+                found = true;
+            } else {
+                report.misreads++;
+            }
+        }
+        if (found || (expected.isEmpty() && results.length == 0)) {
+            report.correct++;
+        }
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: ConsoleBarcodeTest [--source webcam|replay:DIR|synthetic[:FRAMES]] [--seconds N]"
+                    + " [--frames N] [--fps N] [--profile accurate|fast] [--json FILE|-]");
+            System.exit(2);
+            return;
+        }
+
+        System.out.println("=== Headless Scan Benchmark ===");
+        try (FrameSource source = FrameSource.parse(options.source)) {
+            System.out.println("Running " + source.describe() + "...");
+            Report report = run(source, options);
+            System.out.println();
+            System.out.print(report.toText());
+
+            if ("-".equals(options.json)) {
+                System.out.println(report.toJson());
+            } else if (options.json != null) {
+                Files.write(Paths.get(options.json), (report.toJson() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+                System.out.println("Report written to " + options.json);
+            }
+        } catch (Exception e) {
+            System.err.println("Benchmark failed: " + e.getMessage());
+            System.exit(1);
+        }
     }
 }
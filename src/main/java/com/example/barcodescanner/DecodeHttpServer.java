@@ -0,0 +1,430 @@
+package com.example.barcodescanner;
+
+import com.google.zxing.Result;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local HTTP front end to the decoder, so other processes on the host can use it without embedding it.
+ *
+ * Endpoints (bound to the loopback interface only):
+ * - POST /decode?budgetMs=N  image bytes (PNG, JPEG, BMP...) in, JSON results out
+ * - GET  /events             newline-delimited JSON stream of scan events from the result bus
+ * - GET  /stats              server counters and latency percentiles as JSON
+ *
+ * HTTP threads only parse and queue requests. A fixed pool of decode workers drains
+ * the queue in batches of up to {@code maxBatch}, so one wakeup serves a burst of requests
+ * and requests whose time budget has already run out are shed before costing a decode.
+ */
+public class DecodeHttpServer {
+
+    public static final int DEFAULT_PORT = 8765;
+    public static final long DEFAULT_BUDGET_MS = 500;
+    public static final long MAX_BUDGET_MS = 10_000;
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+    public static final int DEFAULT_MAX_BATCH = 8;
+
+    private static final int EVENT_STREAM_BUFFER = 256;
+    private static final long EVENT_KEEPALIVE_MS = 10_000;
+
+    private final BarcodeDetector detector;
+    private final int workerCount;
+    private final int maxBatch;
+    private final BlockingQueue<DecodeRequest> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private HttpServer server;
+    private ExecutorService httpExecutor;
+
+    // Metrics
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong decoded = new AtomicLong();
+    private final AtomicLong found = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicInteger eventStreams = new AtomicInteger();
+    private final LatencyStats requestLatency = new LatencyStats();
+    private final LatencyStats queueWait = new LatencyStats();
+
+    /**
+     * One queued decode with its deadline
+     */
+    private static class DecodeRequest {
+        final BufferedImage image;
+        final long receivedNanos;
+        final long deadlineNanos;
+        final CompletableFuture<Result[]> result = new CompletableFuture<>();
+
+        DecodeRequest(BufferedImage image, long receivedNanos, long budgetNanos) {
+            this.image = image;
+            this.receivedNanos = receivedNanos;
+            this.deadlineNanos = receivedNanos + budgetNanos;
+        }
+    }
+
+    public DecodeHttpServer(BarcodeDetector detector) {
+        this(detector, Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+                DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_BATCH);
+    }
+
+    public DecodeHttpServer(BarcodeDetector detector, int workerCount, int queueCapacity, int maxBatch) {
+        if (workerCount <= 0 || queueCapacity <= 0 || maxBatch <= 0) {
+            throw new IllegalArgumentException("workerCount, queueCapacity and maxBatch must be positive");
+        }
+        this.detector = detector;
+        this.workerCount = workerCount;
+        this.maxBatch = maxBatch;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Bind to localhost and start serving; port 0 picks a free port (see {@link #getPort()})
+     */
+    public synchronized void start(int port) throws IOException {
+        if (running.get()) {
+            return;
+        }
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/decode", this::handleDecode);
+        server.createContext("/events", this::handleEvents);
+        server.createContext("/stats", this::handleStats);
+
+        // Event streams hold their thread for the life of the connection, hence a thread per connection
+        httpExecutor = ScannerThreads.newPerTaskExecutor("DecodeHttpServer-http");
+        server.setExecutor(httpExecutor);
+
+        running.set(true);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = ScannerThreads.newThread("DecodeHttpServer-decode-" + i, this::workerLoop);
+            workers.add(worker);
+            worker.start();
+        }
+        server.start();
+    }
+
+    public synchronized void stop() {
+        if (!running.getAndSet(false)) {
+            return;
+        }
+        server.stop(0);
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        workers.clear();
+        httpExecutor.shutdownNow();
+
+        DecodeRequest request;
+        while ((request = queue.poll()) != null) {
+            request.result.completeExceptionally(new IllegalStateException("Server stopped"));
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void workerLoop() {
+        List<DecodeRequest> batch = new ArrayList<>(maxBatch);
+        while (running.get()) {
+            try {
+                DecodeRequest first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                batches.incrementAndGet();
+
+                for (DecodeRequest request : batch) {
+                    long now = System.nanoTime();
+                    queueWait.record(now - request.receivedNanos);
+                    if (now - request.deadlineNanos >= 0) {
+                        // The caller has already been told it timed out
+                        expired.incrementAndGet();
+                        request.result.completeExceptionally(new TimeoutException());
+                        continue;
+                    }
+                    try {
+                        request.result.complete(detector.decodeFrame(request.image));
+                    } catch (Exception e) {
+                        request.result.completeExceptionally(e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void handleDecode(HttpExchange exchange) throws IOException {
+        long receivedNanos = System.nanoTime();
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendJson(exchange, 405, error("POST image bytes to /decode"));
+                return;
+            }
+            requests.incrementAndGet();
+
+            long budgetMs = parseBudget(exchange.getRequestURI());
+            BufferedImage image;
+            try (InputStream body = exchange.getRequestBody()) {
+                image = ImageIO.read(new ByteArrayInputStream(body.readAllBytes()));
+            }
+            if (image == null) {
+                sendJson(exchange, 400, error("Unsupported or empty image"));
+                return;
+            }
+
+            DecodeRequest request = new DecodeRequest(image, receivedNanos, TimeUnit.MILLISECONDS.toNanos(budgetMs));
+            if (!queue.offer(request)) {
+                rejected.incrementAndGet();
+                sendJson(exchange, 503, error("Decode queue full"));
+                return;
+            }
+
+            Result[] results;
+            try {
+                long remaining = request.deadlineNanos - System.nanoTime();
+                results = request.result.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                sendJson(exchange, 504, error("Decode time budget of " + budgetMs + " ms exceeded"));
+                return;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof TimeoutException) {
+                    sendJson(exchange, 504, error("Decode time budget of " + budgetMs + " ms exceeded"));
+                } else {
+                    sendJson(exchange, 500, error("Decode failed: " + cause.getMessage()));
+                }
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                sendJson(exchange, 503, error("Server stopping"));
+                return;
+            }
+
+            decoded.incrementAndGet();
+            if (results.length > 0) {
+                found.incrementAndGet();
+            }
+            long elapsed = System.nanoTime() - receivedNanos;
+            requestLatency.record(elapsed);
+            sendJson(exchange, 200, resultsJson(results, elapsed));
+
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleEvents(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendJson(exchange, 405, error("GET /events"));
+            exchange.close();
+            return;
+        }
+
+        // Per-connection buffer so a slow reader drops its own events, not the bus's
+        BlockingQueue<ScanEvent> buffer = new ArrayBlockingQueue<>(EVENT_STREAM_BUFFER);
+        ResultBus.Subscriber subscriber = events -> {
+            for (ScanEvent event : events) {
+                buffer.offer(event);
+            }
+        };
+
+        ResultBus bus = detector.getResultBus();
+        bus.subscribe(subscriber);
+        eventStreams.incrementAndGet();
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            long lastWrite = System.currentTimeMillis();
+            while (running.get()) {
+                ScanEvent event = buffer.poll(1, TimeUnit.SECONDS);
+                if (event != null) {
+                    out.write((eventJson(event) + "\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    lastWrite = System.currentTimeMillis();
+                } else if (System.currentTimeMillis() - lastWrite >= EVENT_KEEPALIVE_MS) {
+                    // Blank line keeps proxies happy and detects clients that went away
+                    out.write('\n');
+                    out.flush();
+                    lastWrite = System.currentTimeMillis();
+                }
+            }
+        } catch (IOException e) {
+            // Client disconnected
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            bus.unsubscribe(subscriber);
+            eventStreams.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            sendJson(exchange, 200, statsJson());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    static long parseBudget(URI uri) {
+        String query = uri.getRawQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                if (param.startsWith("budgetMs=")) {
+                    try {
+                        long budget = Long.parseLong(param.substring("budgetMs=".length()));
+                        return Math.max(1, Math.min(MAX_BUDGET_MS, budget));
+                    } catch (NumberFormatException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        return DEFAULT_BUDGET_MS;
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String resultsJson(Result[] results, long elapsedNanos) {
+        StringBuilder json = new StringBuilder("{\"results\":[");
+        for (int i = 0; i < results.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"format\":").append(quote(results[i].getBarcodeFormat().toString()))
+                    .append(",\"text\":").append(quote(results[i].getText())).append('}');
+        }
+        return json.append("],\"elapsedMs\":").append(String.format("%.2f", elapsedNanos / 1e6)).append('}').toString();
+    }
+
+    private static String eventJson(ScanEvent event) {
+        return "{\"format\":" + quote(event.getFormat())
+                + ",\"text\":" + quote(event.getText())
+                + ",\"camera\":" + (event.getCamera() != null ? quote(event.getCamera()) : "null")
+                + ",\"timestamp\":" + event.getTimestampMillis() + "}";
+    }
+
+    private String statsJson() {
+        return "{\"requests\":" + requests.get()
+                + ",\"decoded\":" + decoded.get()
+                + ",\"found\":" + found.get()
+                + ",\"expired\":" + expired.get()
+                + ",\"rejected\":" + rejected.get()
+                + ",\"batches\":" + batches.get()
+                + ",\"queueDepth\":" + queue.size()
+                + ",\"eventStreams\":" + eventStreams.get()
+                + ",\"latency\":" + quote(requestLatency.summary())
+                + ",\"queueWait\":" + quote(queueWait.summary()) + "}";
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    static String quote(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    public long getRequestCount() { return requests.get(); }
+    public long getExpiredCount() { return expired.get(); }
+    public long getRejectedCount() { return rejected.get(); }
+    public long getBatchCount() { return batches.get(); }
+    public LatencyStats getRequestLatency() { return requestLatency; }
+
+    /**
+     * Usage: DecodeHttpServer [port] [--workers N] [--camera] [--journal DIR]
+     * With --camera the default webcam is scanned too and its reads appear on /events;
+     * --journal also records them in a ScanJournal under DIR.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = DEFAULT_PORT;
+        int workers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        boolean camera = false;
+        Path journalDir = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--workers".equals(args[i]) && i + 1 < args.length) {
+                workers = Integer.parseInt(args[++i]);
+            } else if ("--camera".equals(args[i])) {
+                camera = true;
+            } else if ("--journal".equals(args[i]) && i + 1 < args.length) {
+                journalDir = Paths.get(args[++i]);
+            } else {
+                port = Integer.parseInt(args[i]);
+            }
+        }
+
+        BarcodeDetector detector = new BarcodeDetector();
+        detector.setJournalDirectory(journalDir);
+        DecodeHttpServer server = new DecodeHttpServer(detector, workers, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_BATCH);
+        server.start(port);
+        System.out.println("Decode service listening on http://localhost:" + server.getPort()
+                + " (" + workers + " decode workers)");
+
+        if (camera) {
+            CameraService cameraService = new CameraService();
+            cameraService.startCamera(null);
+            detector.startDetection(cameraService);
+            System.out.println("Scanning default webcam; reads stream on /events"
+                    + (journalDir != null ? " and are journaled to " + journalDir : ""));
+        }
+
+        Thread.currentThread().join();
+    }
+}
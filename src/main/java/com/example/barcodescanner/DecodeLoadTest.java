@@ -0,0 +1,131 @@
+package com.example.barcodescanner;
+
+import javax.imageio.ImageIO;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load-test client for {@link DecodeHttpServer}: closed-loop clients POSTing images for a fixed time,
+ * reporting requests/sec and latency percentiles.
+ *
+ * Usage: DecodeLoadTest [url] [clients] [seconds] [budgetMs] [image files...]
+ * Without image files it renders a set of frames from {@link SyntheticCorpus}.
+ * With url "embedded" it starts a server in this JVM first.
+ */
+public class DecodeLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "http://localhost:" + DecodeHttpServer.DEFAULT_PORT;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long budgetMs = args.length > 3 ? Long.parseLong(args[3]) : DecodeHttpServer.DEFAULT_BUDGET_MS;
+
+        List<byte[]> images = new ArrayList<>();
+        for (int i = 4; i < args.length; i++) {
+            images.add(Files.readAllBytes(Paths.get(args[i])));
+        }
+        if (images.isEmpty()) {
+            for (SyntheticCorpus.Sample sample : new SyntheticCorpus(1234).generate(32)) {
+                ByteArrayOutputStream png = new ByteArrayOutputStream();
+                ImageIO.write(sample.getImage(), "png", png);
+                images.add(png.toByteArray());
+            }
+        }
+
+        DecodeHttpServer embedded = null;
+        if ("embedded".equals(url)) {
+            embedded = new DecodeHttpServer(new BarcodeDetector());
+            embedded.start(0);
+            url = "http://localhost:" + embedded.getPort();
+        }
+
+        System.out.println("=== Decode Service Load Test ===");
+        System.out.println("Target: " + url + ", clients: " + clients + ", duration: " + seconds
+                + " s, budget: " + budgetMs + " ms, images: " + images.size());
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        URI decodeUri = URI.create(url + "/decode?budgetMs=" + budgetMs);
+        LatencyStats latency = new LatencyStats(1 << 16);
+        AtomicLong ok = new AtomicLong();
+        AtomicLong withCode = new AtomicLong();
+        AtomicLong timedOut = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+
+        long endNanos = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int offset = c;
+            Thread thread = ScannerThreads.newThread("DecodeLoadTest-" + c, () -> {
+                int next = offset;
+                while (System.nanoTime() < endNanos) {
+                    byte[] image = images.get(next++ % images.size());
+                    HttpRequest request = HttpRequest.newBuilder(decodeUri)
+                            .POST(HttpRequest.BodyPublishers.ofByteArray(image))
+                            .header("Content-Type", "application/octet-stream")
+                            .build();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        latency.record(System.nanoTime() - start);
+                        switch (response.statusCode()) {
+                            case 200:
+                                ok.incrementAndGet();
+                                if (!response.body().contains("\"results\":[]")) {
+                                    withCode.incrementAndGet();
+                                }
+                                break;
+                            case 504:
+                                timedOut.incrementAndGet();
+                                break;
+                            case 503:
+                                rejected.incrementAndGet();
+                                break;
+                            default:
+                                failed.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long total = latency.getCount();
+        System.out.println();
+        System.out.printf("Requests:      %d (%.1f req/s)%n", total, total / (double) seconds);
+        System.out.printf("OK:            %d (%d with a barcode)%n", ok.get(), withCode.get());
+        System.out.printf("Timed out:     %d%n", timedOut.get());
+        System.out.printf("Rejected:      %d%n", rejected.get());
+        System.out.printf("Failed:        %d%n", failed.get());
+        System.out.printf("Latency:       p50=%.2f ms  p95=%.2f ms  p99=%.2f ms  max=%.2f ms%n",
+                latency.getPercentileNanos(50) / 1e6, latency.getPercentileNanos(95) / 1e6,
+                latency.getPercentileNanos(99) / 1e6, latency.getMaxNanos() / 1e6);
+
+        try {
+            HttpResponse<String> stats = client.send(HttpRequest.newBuilder(URI.create(url + "/stats")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            System.out.println("Server stats:  " + stats.body());
+        } catch (Exception e) {
+            System.out.println("Server stats unavailable: " + e.getMessage());
+        }
+
+        if (embedded != null) {
+            embedded.stop();
+        }
+    }
+}
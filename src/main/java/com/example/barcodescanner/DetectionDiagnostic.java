@@ -26,6 +26,7 @@ public class DetectionDiagnostic extends JFrame {
     private JButton captureButton;
     private Timer cameraTimer;
     private MultiFormatReader barcodeReader;
+    private final FrameQualityEstimator qualityEstimator = new FrameQualityEstimator();
     private boolean isRunning = false;
     private int frameCount = 0;
     private int detectionAttempts = 0;
@@ -314,29 +315,24 @@ public class DetectionDiagnostic extends JFrame {
     }
     
     private void analyzeImageQuality(BufferedImage image, String prefix) {
-        // Check image brightness
-        long totalBrightness = 0;
-        int pixelCount = image.getWidth() * image.getHeight();
-        
-        for (int x = 0; x < image.getWidth(); x++) {
-            for (int y = 0; y < image.getHeight(); y++) {
-                Color color = new Color(image.getRGB(x, y));
-                totalBrightness += (color.getRed() + color.getGreen() + color.getBlue()) / 3;
-            }
-        }
-        
-        int avgBrightness = (int) (totalBrightness / pixelCount);
+        FrameQualityEstimator.FrameQuality quality = qualityEstimator.estimate(image);
         
         log(prefix + "📊 Image quality analysis:");
         log(prefix + "   Resolution: " + image.getWidth() + "x" + image.getHeight());
-        log(prefix + "   Average brightness: " + avgBrightness + "/255");
+        log(prefix + String.format("   Average brightness: %.0f/255", quality.getBrightness()));
+        log(prefix + String.format("   Contrast (std dev): %.1f", quality.getContrast()));
+        log(prefix + "   Histogram spread (p1-p99): " + quality.getHistogramSpread());
+        log(prefix + String.format("   Sharpness: %.2f", quality.getSharpness()));
+        log(prefix + String.format("   Noise: %.0f", quality.getNoise()));
+        log(prefix + String.format("   Estimated from %d samples in %.2f ms",
+                quality.getSamples(), quality.getEstimateNanos() / 1_000_000.0));
         
-        if (avgBrightness < 50) {
-            log(prefix + "⚠️  Image too dark - try better lighting");
-        } else if (avgBrightness > 200) {
-            log(prefix + "⚠️  Image too bright - reduce lighting");
+        if (quality.isGood()) {
+            log(prefix + "✅ Brightness, contrast and focus look good");
         } else {
-            log(prefix + "✅ Brightness looks good");
+            for (FrameQualityEstimator.Warning warning : quality.getWarnings()) {
+                log(prefix + "⚠️  " + warning.getAdvice());
+            }
         }
         
         log(prefix + "💡 Tips for better detection:");
@@ -3,8 +3,6 @@ package com.example.barcodescanner;
 import com.github.sarxos.webcam.Webcam;
 import com.google.zxing.*;
 import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
-import com.google.zxing.common.HybridBinarizer;
-import com.google.zxing.common.GlobalHistogramBinarizer;
 
 import javax.swing.*;
 import java.awt.*;
@@ -13,8 +11,6 @@ import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -26,12 +22,15 @@ public class EnhancedWebcamScanner extends JFrame {
     
     private Webcam webcam;
     private JLabel cameraLabel;
-    private JTextArea resultArea;
+    private ScanHistoryPanel historyPanel;
     private JButton startButton;
     private JButton stopButton;
     private JLabel statusLabel;
     private Timer cameraTimer;
     private MultiFormatReader barcodeReader;
+    private final ReusableBinarizer.Workspace binarizerWorkspace = new ReusableBinarizer.Workspace();
+    private final FrameQualityEstimator qualityEstimator = new FrameQualityEstimator();
+    private final AdaptivePreprocessor preprocessor = new AdaptivePreprocessor();
     
     private final AtomicBoolean isScanning = new AtomicBoolean(false);
     private String lastDetectedBarcode = "";
@@ -42,6 +41,7 @@ public class EnhancedWebcamScanner extends JFrame {
     private int successfulDetections = 0;
     
     public EnhancedWebcamScanner() {
+        long startNanos = System.nanoTime();
         System.out.println("Initializing Enhanced Webcam Barcode Scanner...");
         
         initializeComponents();
@@ -50,7 +50,7 @@ public class EnhancedWebcamScanner extends JFrame {
         setupEventHandlers();
         checkWebcamAvailability();
         
-        System.out.println("Enhanced GUI initialization complete!");
+        System.out.printf("Enhanced GUI initialization complete in %d ms%n", (System.nanoTime() - startNanos) / 1_000_000);
     }
     
     private void initializeComponents() {
@@ -158,7 +158,7 @@ public class EnhancedWebcamScanner extends JFrame {
         statsPanel.setBorder(BorderFactory.createTitledBorder("📊 Detection Stats"));
         
         JLabel stats1 = new JLabel("⚡ 20 FPS processing");
-        JLabel stats2 = new JLabel("🎯 Multi-algorithm detection");
+        JLabel stats2 = new JLabel("🎯 Adaptive preprocessing");
         JLabel stats3 = new JLabel("📊 16+ barcode formats");
         JLabel stats4 = new JLabel("🔧 Auto image enhancement");
         
@@ -198,22 +198,17 @@ public class EnhancedWebcamScanner extends JFrame {
         resultPanel.setBorder(BorderFactory.createTitledBorder("🎯 Enhanced Detection Results"));
         resultPanel.setPreferredSize(new java.awt.Dimension(0, 150));
         
-        resultArea = new JTextArea();
-        resultArea.setEditable(false);
-        resultArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
-        resultArea.setText("🚀 Enhanced Webcam Barcode Scanner Ready!\n\n");
-        resultArea.append("🎯 ENHANCED FEATURES:\n");
-        resultArea.append("• 20 FPS high-speed processing\n");
-        resultArea.append("• Multi-algorithm detection (3 methods per frame)\n");
-        resultArea.append("• Auto image enhancement and preprocessing\n");
-        resultArea.append("• 16+ barcode format support\n");
-        resultArea.append("• Improved low-light detection\n\n");
-        resultArea.append("Click 'Start Enhanced Scanning' to begin!\n");
+        historyPanel = new ScanHistoryPanel();
+        historyPanel.setText("🚀 Enhanced Webcam Barcode Scanner Ready!\n\n");
+        historyPanel.appendText("🎯 ENHANCED FEATURES:\n");
+        historyPanel.appendText("• 20 FPS high-speed processing\n");
+        historyPanel.appendText("• Histogram-driven preprocessing (1 tuned attempt per frame)\n");
+        historyPanel.appendText("• Auto contrast/gamma and binarizer selection\n");
+        historyPanel.appendText("• 16+ barcode format support\n");
+        historyPanel.appendText("• Improved low-light detection\n\n");
+        historyPanel.appendText("Click 'Start Enhanced Scanning' to begin!\n");
         
-        JScrollPane scrollPane = new JScrollPane(resultArea);
-        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
-        
-        resultPanel.add(scrollPane, BorderLayout.CENTER);
+        resultPanel.add(historyPanel, BorderLayout.CENTER);
         
         // Layout
         add(cameraPanel, BorderLayout.CENTER);
@@ -222,7 +217,7 @@ public class EnhancedWebcamScanner extends JFrame {
         
         // Event handlers for buttons
         clearButton.addActionListener(e -> {
-            resultArea.setText("Results cleared.\nReady for enhanced scanning...\n");
+            historyPanel.setText("Results cleared.\nReady for enhanced scanning...\n");
             frameCount = 0;
             detectionAttempts = 0;
             successfulDetections = 0;
@@ -250,24 +245,36 @@ public class EnhancedWebcamScanner extends JFrame {
     }
     
     private void checkWebcamAvailability() {
-        try {
-            webcam = Webcam.getDefault();
-            
-            if (webcam != null) {
-                updateStatus("✅ Enhanced scanner ready: " + webcam.getName(), Color.GREEN);
-                resultArea.append("✅ Camera detected: " + webcam.getName() + "\n");
-                resultArea.append("🎯 Ready for enhanced barcode detection!\n");
-            } else {
-                updateStatus("❌ No camera found", Color.RED);
-                resultArea.append("❌ No camera detected\n");
-                startButton.setText("❌ No Camera");
-                startButton.setEnabled(false);
-            }
-        } catch (Exception e) {
-            updateStatus("❌ Camera error: " + e.getMessage(), Color.RED);
-            resultArea.append("❌ Camera error: " + e.getMessage() + "\n");
+        // Enumerate in the background so the window comes up without waiting for drivers
+        updateStatus("🔍 Looking for cameras...", Color.BLUE);
+        startButton.setEnabled(false);
+        WebcamDiscovery.getInstance().addListener(inventory ->
+                SwingUtilities.invokeLater(() -> onWebcamInventory(inventory)));
+        WebcamDiscovery.getInstance().discover();
+    }
+    
+    private void onWebcamInventory(WebcamDiscovery.Inventory inventory) {
+        if (isScanning.get()) {
+            return;
+        }
+        webcam = inventory.getDefaultWebcam();
+        
+        if (webcam != null) {
+            updateStatus("✅ Enhanced scanner ready: " + inventory.getDefaultDevice().getName(), Color.GREEN);
+            historyPanel.appendText("✅ Camera detected: " + inventory.getDefaultDevice().getName() + "\n");
+            historyPanel.appendText("🎯 Ready for enhanced barcode detection!\n");
+            startButton.setText("🎯 Start Enhanced Scanning");
+            startButton.setEnabled(true);
+        } else if (inventory.getError() != null) {
+            updateStatus("❌ Camera error: " + inventory.getError(), Color.RED);
+            historyPanel.appendText("❌ Camera error: " + inventory.getError() + "\n");
             startButton.setText("❌ Camera Error");
             startButton.setEnabled(false);
+        } else {
+            updateStatus("❌ No camera found", Color.RED);
+            historyPanel.appendText("❌ No camera detected\n");
+            startButton.setText("❌ No Camera");
+            startButton.setEnabled(false);
         }
     }
     
@@ -305,10 +312,9 @@ public class EnhancedWebcamScanner extends JFrame {
             updateStatus("🎯 Enhanced scanning active - 20 FPS processing!", Color.GREEN);
             cameraLabel.setText("📹 Enhanced camera starting...");
             
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-            resultArea.append("[" + timestamp + "] 🚀 Enhanced scanning started\n");
-            resultArea.append("Resolution: " + bestSize.width + "x" + bestSize.height + "\n");
-            resultArea.append("Processing: 20 FPS with 3 detection algorithms\n\n");
+            historyPanel.appendText("🚀 Enhanced scanning started\n");
+            historyPanel.appendText("Resolution: " + bestSize.width + "x" + bestSize.height + "\n");
+            historyPanel.appendText("Processing: 20 FPS with 3 detection algorithms\n\n");
             
         } catch (Exception ex) {
             updateStatus("❌ Error: " + ex.getMessage(), Color.RED);
@@ -342,11 +348,10 @@ public class EnhancedWebcamScanner extends JFrame {
         
         updateStatus("⏹ Enhanced scanning stopped", Color.ORANGE);
         
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-        resultArea.append("[" + timestamp + "] ⏹ Enhanced scanning stopped\n");
+        historyPanel.appendText("⏹ Enhanced scanning stopped\n");
         
         if (frameCount > 0) {
-            resultArea.append("📊 Session stats: " + frameCount + " frames, " + 
+            historyPanel.appendText("📊 Session stats: " + frameCount + " frames, " + 
                              detectionAttempts + " attempts, " + successfulDetections + " detections\n");
         }
     }
@@ -377,26 +382,11 @@ public class EnhancedWebcamScanner extends JFrame {
         detectionAttempts++;
         
         try {
-            // Method 1: Standard detection with HybridBinarizer
-            Result result = tryDetection(image, new HybridBinarizer(new BufferedImageLuminanceSource(image)));
-            if (result != null) {
-                handleDetection(result, "Standard");
-                return;
-            }
-            
-            // Method 2: Global histogram binarizer
-            result = tryDetection(image, new GlobalHistogramBinarizer(new BufferedImageLuminanceSource(image)));
-            if (result != null) {
-                handleDetection(result, "Global");
-                return;
-            }
-            
-            // Method 3: Enhanced preprocessing
-            BufferedImage enhancedImage = enhanceImage(image);
-            result = tryDetection(enhancedImage, new HybridBinarizer(new BufferedImageLuminanceSource(enhancedImage)));
+            // One attempt with the tone curve and binarizer chosen from the frame histogram
+            AdaptivePreprocessor.Plan plan = preprocessor.plan(qualityEstimator.estimate(image));
+            Result result = tryDetection(plan.createBinarizer(new BufferedImageLuminanceSource(image), binarizerWorkspace));
             if (result != null) {
-                handleDetection(result, "Enhanced");
-                return;
+                handleDetection(result, plan.describe());
             }
             
         } catch (Exception e) {
@@ -404,7 +394,7 @@ public class EnhancedWebcamScanner extends JFrame {
         }
     }
     
-    private Result tryDetection(BufferedImage image, Binarizer binarizer) {
+    private Result tryDetection(Binarizer binarizer) {
         try {
             BinaryBitmap bitmap = new BinaryBitmap(binarizer);
             return barcodeReader.decode(bitmap);
@@ -415,30 +405,6 @@ public class EnhancedWebcamScanner extends JFrame {
         }
     }
     
-    private BufferedImage enhanceImage(BufferedImage original) {
-        // Create enhanced version with better contrast
-        BufferedImage enhanced = new BufferedImage(original.getWidth(), original.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
-        Graphics2D g2d = enhanced.createGraphics();
-        g2d.drawImage(original, 0, 0, null);
-        g2d.dispose();
-        
-        // Simple contrast enhancement
-        for (int x = 0; x < enhanced.getWidth(); x++) {
-            for (int y = 0; y < enhanced.getHeight(); y++) {
-                Color color = new Color(enhanced.getRGB(x, y));
-                int gray = color.getRed(); // Already grayscale
-                
-                // Enhance contrast
-                gray = Math.min(255, Math.max(0, (int) ((gray - 128) * 1.5 + 128)));
-                
-                Color newColor = new Color(gray, gray, gray);
-                enhanced.setRGB(x, y, newColor.getRGB());
-            }
-        }
-        
-        return enhanced;
-    }
-    
     private void handleDetection(Result result, String method) {
         String barcodeText = result.getText();
         String format = result.getBarcodeFormat().toString();
@@ -453,10 +419,7 @@ public class EnhancedWebcamScanner extends JFrame {
             successfulDetections++;
             
             // Add to results
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-            String resultText = String.format("[%s] 🎯 %s (%s): %s\n", timestamp, format, method, barcodeText);
-            resultArea.append(resultText);
-            resultArea.setCaretPosition(resultArea.getDocument().getLength());
+            historyPanel.addScan(format, barcodeText, method);
             
             updateStatus("🎉 DETECTED with " + method + ": " + format, Color.GREEN);
             
@@ -497,7 +460,7 @@ public class EnhancedWebcamScanner extends JFrame {
         String helpText = "🎯 Enhanced Webcam Barcode Scanner Help\n\n" +
                          "🚀 ENHANCED FEATURES:\n" +
                          "• 20 FPS high-speed processing\n" +
-                         "• 3 detection algorithms per frame\n" +
+                         "• Preprocessing tuned per frame from its histogram\n" +
                          "• Auto image enhancement\n" +
                          "• 16+ barcode format support\n" +
                          "• Improved low-light detection\n\n" +
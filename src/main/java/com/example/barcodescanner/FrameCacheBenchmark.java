@@ -0,0 +1,91 @@
+package com.example.barcodescanner;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Codes held in front of the camera: each corpus scene is repeated for a number of frames
+ * with fresh sensor noise, then the next scene (perhaps blank) replaces it. The live
+ * detection path runs with and without the near-identical frame cache; reports time per
+ * frame, the cache's hit rate and the scan events published, split into codes that were
+ * in the scenes and misreads; the cache should not lose any of the former.
+ *
+ * Usage: FrameCacheBenchmark [scenes] [framesPerScene]
+ */
+public class FrameCacheBenchmark {
+
+    private static final double SENSOR_NOISE = 4.0;
+
+    public static void main(String[] args) throws InterruptedException {
+        int scenes = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        int hold = args.length > 1 ? Integer.parseInt(args[1]) : 15;
+
+        Random random = new Random(49);
+        List<BufferedImage> frames = new ArrayList<>();
+        Set<String> texts = new HashSet<>();
+        for (SyntheticCorpus.Sample sample : new SyntheticCorpus(49).withBlankRatio(0.25).generate(scenes)) {
+            if (sample.getText() != null) {
+                texts.add(sample.getText());
+            }
+            for (int i = 0; i < hold; i++) {
+                frames.add(withNoise(sample.getImage(), random));
+            }
+        }
+
+        System.out.println("=== Frame Cache Benchmark ===");
+        System.out.printf("%d scenes held for %d frames each%n", scenes, hold);
+        run("No cache", frames, texts, false);
+        run("Frame result cache", frames, texts, true);
+    }
+
+    private static void run(String name, List<BufferedImage> frames, Set<String> texts, boolean caching)
+            throws InterruptedException {
+        BarcodeDetector detector = new BarcodeDetector();
+        detector.setResultCaching(caching);
+        AtomicInteger correct = new AtomicInteger();
+        AtomicInteger misreads = new AtomicInteger();
+        detector.getResultBus().subscribe(batch -> {
+            for (ScanEvent event : batch) {
+                (texts.contains(event.getText()) ? correct : misreads).incrementAndGet();
+            }
+        });
+        for (int i = 0; i < Math.min(50, frames.size()); i++) {
+            detector.decodeFrame(frames.get(i)); // warm up without touching the cache
+        }
+
+        LatencyStats times = new LatencyStats();
+        for (BufferedImage frame : frames) {
+            long start = System.nanoTime();
+            detector.processFrame(frame);
+            times.record(System.nanoTime() - start);
+        }
+        detector.getResultBus().flush(5000);
+        System.out.printf("%-18s mean %6.2f ms  p99 %6.2f ms  hit rate %5.1f%%  codes %d  misreads %d%n", name,
+                times.getMeanNanos() / 1e6, times.getPercentileNanos(99) / 1e6,
+                detector.getResultCache().getHitRate() * 100, correct.get(), misreads.get());
+        detector.close();
+    }
+
+    /**
+     * A copy of a grey corpus frame with another draw of sensor noise
+     */
+    private static BufferedImage withNoise(BufferedImage image, Random random) {
+        BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
+        byte[] source = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        byte[] target = ((DataBufferByte) copy.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < source.length; i += 3) {
+            int value = (source[i] & 0xFF) + (int) Math.round(random.nextGaussian() * SENSOR_NOISE);
+            byte b = (byte) Math.max(0, Math.min(255, value));
+            target[i] = b;
+            target[i + 1] = b;
+            target[i + 2] = b;
+        }
+        return copy;
+    }
+}
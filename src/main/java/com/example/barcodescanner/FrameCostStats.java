@@ -0,0 +1,294 @@
+package com.example.barcodescanner;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rolling per-frame cost of decoding: wall time, thread CPU time and bytes allocated,
+ * with the frames that cost far more than the rolling average kept as outliers.
+ *
+ * CPU and allocation come from the HotSpot ThreadMXBean extension and are read on the
+ * decoding thread itself via {@link #begin()} / {@link Probe#end}. On JVMs (or virtual
+ * threads) that cannot report them the corresponding figures stay at zero. The JVM-wide
+ * counters are switched on by the first {@link #enable()} or {@link #begin()}, never just
+ * by creating a stats window.
+ */
+public class FrameCostStats {
+
+    public static final int DEFAULT_WINDOW = 512;
+    // A frame is an outlier when it costs this many times the rolling mean...
+    static final double OUTLIER_FACTOR = 4.0;
+    // ...once the window holds enough frames for the mean to mean something
+    static final int OUTLIER_MIN_SAMPLES = 32;
+    private static final int OUTLIERS_KEPT = 16;
+
+    // Looked up on first use
+    private static class Hotspot {
+        static final com.sun.management.ThreadMXBean THREADS = hotspotThreads();
+    }
+
+    private static volatile boolean enabled = false;
+
+    /**
+     * One unusually expensive frame
+     */
+    public static class Outlier {
+        private final long frame;
+        private final String camera;
+        private final long wallNanos;
+        private final long cpuNanos;
+        private final long allocatedBytes;
+
+        Outlier(long frame, String camera, long wallNanos, long cpuNanos, long allocatedBytes) {
+            this.frame = frame;
+            this.camera = camera;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public long getFrame() { return frame; }
+        public String getCamera() { return camera; }
+        public long getWallNanos() { return wallNanos; }
+        public long getCpuNanos() { return cpuNanos; }
+        public long getAllocatedBytes() { return allocatedBytes; }
+
+        @Override
+        public String toString() {
+            return String.format("#%d%s wall=%.2fms cpu=%.2fms alloc=%.1fKB", frame,
+                    camera != null ? " [" + camera + "]" : "", wallNanos / 1e6, cpuNanos / 1e6, allocatedBytes / 1024.0);
+        }
+    }
+
+    /**
+     * Counters at the start of one frame; finish on the same thread
+     */
+    public static class Probe {
+        private final long wallStart;
+        private final long cpuStart;
+        private final long allocStart;
+
+        Probe() {
+            wallStart = System.nanoTime();
+            cpuStart = cpuTime();
+            allocStart = allocatedBytes();
+        }
+
+        public void end(FrameCostStats stats, String camera) {
+            long cpu = cpuStart >= 0 ? Math.max(0, cpuTime() - cpuStart) : 0;
+            long alloc = allocStart >= 0 ? Math.max(0, allocatedBytes() - allocStart) : 0;
+            stats.record(System.nanoTime() - wallStart, cpu, alloc, camera);
+        }
+    }
+
+    private final long[] wall;
+    private final long[] cpu;
+    private final long[] alloc;
+    private long count = 0;
+    private long wallSum = 0;
+    private long cpuSum = 0;
+    private long allocSum = 0;
+    private long outlierCount = 0;
+    private final Outlier[] outliers = new Outlier[OUTLIERS_KEPT];
+
+    public FrameCostStats() {
+        this(DEFAULT_WINDOW);
+    }
+
+    public FrameCostStats(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        wall = new long[window];
+        cpu = new long[window];
+        alloc = new long[window];
+    }
+
+    /**
+     * Whether this JVM reports per-thread CPU time and allocation
+     */
+    public static boolean isSupported() {
+        return Hotspot.THREADS != null;
+    }
+
+    /**
+     * Switch on the JVM's per-thread CPU time and allocation counters, which then stay on
+     * for every thread. Returns whether they are supported.
+     */
+    public static boolean enable() {
+        if (!enabled) {
+            synchronized (FrameCostStats.class) {
+                if (!enabled) {
+                    com.sun.management.ThreadMXBean threads = Hotspot.THREADS;
+                    if (threads != null) {
+                        try {
+                            threads.setThreadCpuTimeEnabled(true);
+                            threads.setThreadAllocatedMemoryEnabled(true);
+                        } catch (Exception e) {
+                            System.err.println("Could not enable thread accounting: " + e.getMessage());
+                        }
+                    }
+                    enabled = true;
+                }
+            }
+        }
+        return isSupported();
+    }
+
+    /**
+     * Start measuring a frame on the current thread
+     */
+    public static Probe begin() {
+        enable();
+        return new Probe();
+    }
+
+    public synchronized void record(long wallNanos, long cpuNanos, long allocatedBytes, String camera) {
+        int size = (int) Math.min(count, wall.length);
+        if (size >= OUTLIER_MIN_SAMPLES
+                && (wallNanos > OUTLIER_FACTOR * wallSum / size
+                    || cpuNanos > OUTLIER_FACTOR * cpuSum / size
+                    || allocatedBytes > OUTLIER_FACTOR * allocSum / size)) {
+            outliers[(int) (outlierCount % outliers.length)] =
+                    new Outlier(count, camera, wallNanos, cpuNanos, allocatedBytes);
+            outlierCount++;
+        }
+
+        int slot = (int) (count % wall.length);
+        if (count >= wall.length) {
+            wallSum -= wall[slot];
+            cpuSum -= cpu[slot];
+            allocSum -= alloc[slot];
+        }
+        wall[slot] = wallNanos;
+        cpu[slot] = cpuNanos;
+        alloc[slot] = allocatedBytes;
+        wallSum += wallNanos;
+        cpuSum += cpuNanos;
+        allocSum += allocatedBytes;
+        count++;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    private int windowSize() {
+        return (int) Math.min(count, wall.length);
+    }
+
+    /**
+     * Mean over the frames currently in the window
+     */
+    public synchronized double getMeanWallNanos() {
+        return count > 0 ? (double) wallSum / windowSize() : 0.0;
+    }
+
+    public synchronized double getMeanCpuNanos() {
+        return count > 0 ? (double) cpuSum / windowSize() : 0.0;
+    }
+
+    public synchronized double getMeanAllocatedBytes() {
+        return count > 0 ? (double) allocSum / windowSize() : 0.0;
+    }
+
+    public synchronized long getCpuPercentileNanos(double percentile) {
+        return percentile(cpu, percentile);
+    }
+
+    public synchronized long getAllocatedPercentileBytes(double percentile) {
+        return percentile(alloc, percentile);
+    }
+
+    private long percentile(long[] samples, double percentile) {
+        int size = windowSize();
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+
+    /**
+     * Frames flagged as outliers since the start, including those no longer kept
+     */
+    public synchronized long getOutlierCount() {
+        return outlierCount;
+    }
+
+    /**
+     * The most recent outliers, oldest first
+     */
+    public synchronized List<Outlier> getRecentOutliers() {
+        List<Outlier> recent = new ArrayList<>();
+        long first = Math.max(0, outlierCount - outliers.length);
+        for (long i = first; i < outlierCount; i++) {
+            recent.add(outliers[(int) (i % outliers.length)]);
+        }
+        return recent;
+    }
+
+    public synchronized void reset() {
+        count = 0;
+        wallSum = 0;
+        cpuSum = 0;
+        allocSum = 0;
+        outlierCount = 0;
+        Arrays.fill(outliers, null);
+    }
+
+    /**
+     * One-line summary: rolling means, p99 and outlier count
+     */
+    public synchronized String summary() {
+        return String.format("n=%d wall=%.2fms cpu=%.2fms (p99 %.2fms) alloc=%.1fKB (p99 %.1fKB) outliers=%d",
+                count, getMeanWallNanos() / 1e6, getMeanCpuNanos() / 1e6, getCpuPercentileNanos(99) / 1e6,
+                getMeanAllocatedBytes() / 1024.0, getAllocatedPercentileBytes(99) / 1024.0, outlierCount);
+    }
+
+    private static long cpuTime() {
+        com.sun.management.ThreadMXBean threads = Hotspot.THREADS;
+        if (threads == null) {
+            return -1;
+        }
+        try {
+            return threads.getCurrentThreadCpuTime();
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = Hotspot.THREADS;
+        if (threads == null) {
+            return -1;
+        }
+        try {
+            return threads.getCurrentThreadAllocatedBytes();
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean hotspotThreads() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+                return null;
+            }
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (!threads.isCurrentThreadCpuTimeSupported() || !threads.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+            // getCurrentThreadAllocatedBytes is JDK 14+; an older runtime counts as unsupported
+            threads.getCurrentThreadAllocatedBytes();
+            return threads;
+        } catch (Exception | LinkageError e) {
+            return null;
+        }
+    }
+}
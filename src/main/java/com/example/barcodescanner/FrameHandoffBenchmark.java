@@ -0,0 +1,221 @@
+package com.example.barcodescanner;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Capture-to-decode hand-off of luma frames, one producer and one consumer, three ways:
+ * a new heap image per frame in a latest-frame slot (how capture used to work), a pooled
+ * frame in the same slot, and the off-heap {@link FrameRing}. Reports hand-off latency,
+ * heap allocated per frame on both threads and garbage collections during the run.
+ *
+ * Usage: FrameHandoffBenchmark [width] [height] [fps] [seconds]
+ */
+public class FrameHandoffBenchmark {
+
+    private static final long WARM_UP_MS = 1000;
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * One way of moving frames from the producer to the consumer
+     */
+    private interface Handoff {
+        void publish(byte[] luma, long captureNanos);
+
+        /**
+         * Capture time of the frame taken, or -1 if none was waiting
+         */
+        long consume();
+    }
+
+    private static int sink;
+
+    public static void main(String[] args) throws Exception {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 1920;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : 1080;
+        int fps = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        System.out.println("=== Frame Hand-off Benchmark ===");
+        System.out.printf("%dx%d luma at %d FPS for %ds per mode%n", width, height, fps, seconds);
+
+        run("New image per frame", width, height, fps, seconds, imageSlot(width, height));
+        run("Pooled frame slot", width, height, fps, seconds, pooledSlot(width, height));
+        run("Off-heap frame ring", width, height, fps, seconds, ring(width, height));
+    }
+
+    private static Handoff imageSlot(int width, int height) {
+        AtomicReference<BufferedImage> slot = new AtomicReference<>();
+        AtomicLong captured = new AtomicLong();
+        return new Handoff() {
+            @Override
+            public void publish(byte[] luma, long captureNanos) {
+                BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+                System.arraycopy(luma, 0, ((DataBufferByte) image.getRaster().getDataBuffer()).getData(), 0, luma.length);
+                captured.set(captureNanos);
+                slot.set(image);
+            }
+
+            @Override
+            public long consume() {
+                BufferedImage image = slot.getAndSet(null);
+                if (image == null) {
+                    return -1;
+                }
+                touch(((DataBufferByte) image.getRaster().getDataBuffer()).getData());
+                return captured.get();
+            }
+        };
+    }
+
+    private static Handoff pooledSlot(int width, int height) {
+        FramePool pool = new FramePool(width, height, FrameRecorder.PixelFormat.LUMA, 4);
+        AtomicReference<FramePool.Frame> slot = new AtomicReference<>();
+        return new Handoff() {
+            @Override
+            public void publish(byte[] luma, long captureNanos) {
+                FramePool.Frame frame = pool.acquire();
+                System.arraycopy(luma, 0, frame.getData(), 0, luma.length);
+                FramePool.Frame previous = slot.getAndSet(frame);
+                if (previous != null) {
+                    previous.release();
+                }
+            }
+
+            @Override
+            public long consume() {
+                FramePool.Frame frame = slot.getAndSet(null);
+                if (frame == null) {
+                    return -1;
+                }
+                try {
+                    touch(frame.getData());
+                    return frame.getCaptureNanos();
+                } finally {
+                    frame.release();
+                }
+            }
+        };
+    }
+
+    private static Handoff ring(int width, int height) {
+        FrameRing ring = new FrameRing(width, height);
+        FrameRing.Reader reader = new FrameRing.Reader();
+        return new Handoff() {
+            @Override
+            public void publish(byte[] luma, long captureNanos) {
+                ring.publish(luma, captureNanos);
+            }
+
+            @Override
+            public long consume() {
+                if (!ring.poll(reader)) {
+                    return -1;
+                }
+                touch(((DataBufferByte) reader.getImage().getRaster().getDataBuffer()).getData());
+                return reader.getCaptureNanos();
+            }
+        };
+    }
+
+    private static void touch(byte[] data) {
+        for (int i = 0; i < data.length; i += 4096) {
+            sink += data[i];
+        }
+    }
+
+    private static void run(String name, int width, int height, int fps, int seconds, Handoff handoff)
+            throws InterruptedException {
+        byte[] luma = new byte[width * height];
+        new Random(44).nextBytes(luma);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / fps;
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong published = new AtomicLong();
+        AtomicLong consumed = new AtomicLong();
+        LatencyStats latency = new LatencyStats();
+        // Each thread reports its own allocation counter
+        AtomicLong producerAllocated = new AtomicLong();
+        AtomicLong consumerAllocated = new AtomicLong();
+
+        Thread producer = ScannerThreads.newThread("Handoff-producer", () -> {
+            long next = System.nanoTime();
+            while (running.get()) {
+                handoff.publish(luma, System.nanoTime());
+                published.incrementAndGet();
+                producerAllocated.set(allocated());
+                next += intervalNanos;
+                LockSupport.parkNanos(next - System.nanoTime());
+            }
+        });
+        Thread consumer = ScannerThreads.newThread("Handoff-consumer", () -> {
+            while (running.get()) {
+                long captured = handoff.consume();
+                consumerAllocated.set(allocated());
+                if (captured >= 0) {
+                    latency.record(System.nanoTime() - captured);
+                    consumed.incrementAndGet();
+                } else {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                }
+            }
+        });
+
+        producer.start();
+        consumer.start();
+        Thread.sleep(WARM_UP_MS);
+
+        latency.reset();
+        long publishedBefore = published.get();
+        long consumedBefore = consumed.get();
+        long gcCount = gcCount();
+        long gcMillis = gcMillis();
+        long producerAlloc = producerAllocated.get();
+        long consumerAlloc = consumerAllocated.get();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        long allocatedBytes = producerAllocated.get() - producerAlloc + consumerAllocated.get() - consumerAlloc;
+        long frames = published.get() - publishedBefore;
+        long delivered = consumed.get() - consumedBefore;
+        long collections = gcCount() - gcCount;
+        long collectionMillis = gcMillis() - gcMillis;
+        running.set(false);
+        producer.join();
+        consumer.join();
+
+        System.out.printf("%-22s frames=%d delivered=%d  hand-off mean %.1fus p99 %.1fus  "
+                        + "%.1f KB heap/frame  GCs=%d (%d ms)%n",
+                name, frames, delivered, latency.getMeanNanos() / 1e3, latency.getPercentileNanos(99) / 1e3,
+                allocatedBytes / 1024.0 / Math.max(1, frames), collections, collectionMillis);
+    }
+
+    /**
+     * Bytes allocated so far by the calling thread
+     */
+    private static long allocated() {
+        return Math.max(0, THREADS.getCurrentThreadAllocatedBytes());
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+}
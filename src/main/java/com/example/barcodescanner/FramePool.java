@@ -0,0 +1,218 @@
+package com.example.barcodescanner;
+
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recycled, reference-counted frame buffers for one camera resolution and pixel format:
+ * 8-bit luma (the native format for decoding) or 3-byte RGB (for a colour preview).
+ *
+ * Capture fills a pooled frame in place from the driver's raw bytes, then hands
+ * references to the decode slot and the preview. Each holder calls {@link Frame#release()}
+ * when done, and the last release puts the buffer back, so a running camera allocates
+ * no new frames once the pool has warmed up.
+ */
+public class FramePool {
+
+    static final int[] RGB_BAND_OFFSETS = {0, 1, 2};
+
+    private static final ColorModel RGB_COLOR_MODEL = new ComponentColorModel(
+            ColorSpace.getInstance(ColorSpace.CS_sRGB), false, false, Transparency.OPAQUE, DataBuffer.TYPE_BYTE);
+
+    /**
+     * One frame buffer. Starts with a single reference owned by whoever acquired it.
+     */
+    public static class Frame {
+        private final FramePool pool;
+        private final BufferedImage image;
+        private final byte[] data;
+        private final ByteBuffer bytes;
+        private final AtomicInteger refs = new AtomicInteger();
+        private volatile long captureNanos;
+
+        Frame(FramePool pool, BufferedImage image) {
+            this.pool = pool;
+            this.image = image;
+            DataBuffer buffer = image.getRaster().getDataBuffer();
+            this.data = buffer instanceof DataBufferByte ? ((DataBufferByte) buffer).getData() : null;
+            this.bytes = data != null ? ByteBuffer.wrap(data) : null;
+        }
+
+        /**
+         * Add a reference for another holder; returns this frame
+         */
+        public Frame retain() {
+            if (refs.getAndIncrement() <= 0) {
+                refs.decrementAndGet();
+                throw new IllegalStateException("Frame retained after it was released");
+            }
+            return this;
+        }
+
+        /**
+         * Drop one reference; the last one returns the buffer to its pool
+         */
+        public void release() {
+            int remaining = refs.decrementAndGet();
+            if (remaining == 0) {
+                if (pool != null) {
+                    pool.recycle(this);
+                }
+            } else if (remaining < 0) {
+                refs.incrementAndGet();
+                throw new IllegalStateException("Frame released more often than retained");
+            }
+        }
+
+        /**
+         * The pixels; only valid while the caller holds a reference
+         */
+        public BufferedImage getImage() {
+            return image;
+        }
+
+        public long getCaptureNanos() {
+            return captureNanos;
+        }
+
+        int getRefCount() {
+            return refs.get();
+        }
+
+        /**
+         * Backing bytes of a pooled frame (luma or RGB, row-major)
+         */
+        byte[] getData() {
+            return data;
+        }
+
+        /**
+         * Backing bytes rewound for the driver to fill (RGB frames, row-major)
+         */
+        ByteBuffer prepareFill() {
+            bytes.clear();
+            return bytes;
+        }
+    }
+
+    private final int width;
+    private final int height;
+    private final FrameRecorder.PixelFormat format;
+    private final int maxIdle;
+    private final Queue<Frame> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    // Metrics
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong allocated = new AtomicLong();
+
+    /**
+     * RGB pool
+     */
+    public FramePool(int width, int height, int maxIdle) {
+        this(width, height, FrameRecorder.PixelFormat.RGB, maxIdle);
+    }
+
+    /**
+     * @param format LUMA or RGB
+     * @param maxIdle how many released buffers to keep; extra ones are left to the GC
+     */
+    public FramePool(int width, int height, FrameRecorder.PixelFormat format, int maxIdle) {
+        if (format == FrameRecorder.PixelFormat.BGR) {
+            throw new IllegalArgumentException("Frame pools hold LUMA or RGB frames");
+        }
+        this.width = width;
+        this.height = height;
+        this.format = format;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * A recycled (or, while warming up, new) frame with one reference
+     */
+    public Frame acquire() {
+        acquired.incrementAndGet();
+        Frame frame = idle.poll();
+        if (frame != null) {
+            idleCount.decrementAndGet();
+        } else {
+            allocated.incrementAndGet();
+            frame = new Frame(this, format == FrameRecorder.PixelFormat.LUMA
+                    ? new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY)
+                    : newRgbImage(width, height));
+        }
+        frame.refs.set(1);
+        frame.captureNanos = System.nanoTime();
+        return frame;
+    }
+
+    /**
+     * Wrap an image the pool does not own (e.g. from a driver without buffer access);
+     * releasing it just drops it
+     */
+    public static Frame wrap(BufferedImage image) {
+        Frame frame = new Frame(null, image);
+        frame.refs.set(1);
+        frame.captureNanos = System.nanoTime();
+        return frame;
+    }
+
+    private void recycle(Frame frame) {
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offer(frame);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public FrameRecorder.PixelFormat getFormat() {
+        return format;
+    }
+
+    public long getAcquired() {
+        return acquired.get();
+    }
+
+    /**
+     * Buffers created because none was free; flat once the pool is warm
+     */
+    public long getAllocated() {
+        return allocated.get();
+    }
+
+    public String summary() {
+        return String.format("%s frames acquired=%d allocated=%d idle=%d",
+                format, getAcquired(), getAllocated(), idleCount.get());
+    }
+
+    /**
+     * 3-byte interleaved image in R, G, B order, matching the driver's raw bytes
+     */
+    static BufferedImage newRgbImage(int width, int height) {
+        WritableRaster raster = Raster.createWritableRaster(
+                new PixelInterleavedSampleModel(DataBuffer.TYPE_BYTE, width, height, 3, width * 3, RGB_BAND_OFFSETS),
+                new DataBufferByte(width * height * 3), null);
+        return new BufferedImage(RGB_COLOR_MODEL, raster, false, null);
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.barcodescanner;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Cheap image-quality estimate from a sparse pixel sample.
+ *
+ * Reads roughly {@value #TARGET_SAMPLES} pixels on a regular grid (plus each sample's
+ * right and lower neighbours) straight from the raster, so it costs well under a
+ * millisecond per frame and can run on every frame in the pipeline.
+ *
+ * Blur and noise both show up in the steps between neighbouring pixels, in opposite
+ * directions, so they are measured separately. Most neighbours sit on flat background,
+ * so the median step is the noise. Sharpness comes from the strongest steps, the edges,
+ * less what noise alone would give, as a fraction of the histogram spread: a crisp edge
+ * crosses most of the spread in one pixel, a blurred one spreads it over several.
+ * Not thread-safe: use one instance per thread.
+ */
+public class FrameQualityEstimator {
+
+    static final int TARGET_SAMPLES = 4800;
+
+    static final int DARK_THRESHOLD = 50;
+    static final int BRIGHT_THRESHOLD = 200;
+    static final int LOW_SPREAD_THRESHOLD = 40;
+    static final double BLUR_THRESHOLD = 0.4;
+    // Edges are judged by this many of the strongest neighbour steps, so a small code still counts
+    static final int EDGE_STEPS = 48;
+    // Strongest steps pure noise reaches, in multiples of the median step
+    static final int NOISE_EDGE_FACTOR = 3;
+
+    /**
+     * Conditions operators can fix at the lane
+     */
+    public enum Warning {
+        TOO_DARK("Image too dark - improve lighting"),
+        TOO_BRIGHT("Image too bright - reduce lighting or glare"),
+        LOW_CONTRAST("Low contrast - check lighting and barcode print quality"),
+        BLURRY("Image blurry - hold barcode steady or refocus camera");
+
+        private final String advice;
+
+        Warning(String advice) {
+            this.advice = advice;
+        }
+
+        public String getAdvice() {
+            return advice;
+        }
+    }
+
+    /**
+     * Result of a single estimate
+     */
+    public static class FrameQuality {
+        private final double brightness;
+        private final double contrast;
+        private final int histogramSpread;
+        private final double sharpness;
+        private final double noise;
+        private final int samples;
+        private final long estimateNanos;
+        private final Set<Warning> warnings;
+
+        FrameQuality(double brightness, double contrast, int histogramSpread, double sharpness, double noise,
+                     int samples, long estimateNanos, Set<Warning> warnings) {
+            this.brightness = brightness;
+            this.contrast = contrast;
+            this.histogramSpread = histogramSpread;
+            this.sharpness = sharpness;
+            this.noise = noise;
+            this.samples = samples;
+            this.estimateNanos = estimateNanos;
+            this.warnings = Collections.unmodifiableSet(warnings);
+        }
+
+        /** Mean luma, 0-255 */
+        public double getBrightness() { return brightness; }
+        /** Standard deviation of luma */
+        public double getContrast() { return contrast; }
+        /** Luma range between the 1st and 99th percentiles */
+        public int getHistogramSpread() { return histogramSpread; }
+        /** Edge steepness, 0-1: near 1 for crisp edges, low when they are smeared over several pixels */
+        public double getSharpness() { return sharpness; }
+        /** Median absolute difference between neighbouring pixels; grows with sensor noise */
+        public double getNoise() { return noise; }
+        public int getSamples() { return samples; }
+        public long getEstimateNanos() { return estimateNanos; }
+        public Set<Warning> getWarnings() { return warnings; }
+
+        public boolean isGood() {
+            return warnings.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("brightness=%.0f contrast=%.1f spread=%d sharpness=%.2f noise=%.0f warnings=%s",
+                    brightness, contrast, histogramSpread, sharpness, noise, warnings);
+        }
+    }
+
+    private final int[] histogram = new int[256];
+    // Absolute differences between each sample and its right and lower neighbours
+    private final int[] steps = new int[256];
+
+    /**
+     * Estimate quality of a camera frame
+     */
+    public FrameQuality estimate(BufferedImage image) {
+        long start = System.nanoTime();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Arrays.fill(histogram, 0);
+        Arrays.fill(steps, 0);
+
+        PixelReader pixels = pixelReaderFor(image);
+        int step = Math.max(1, (int) Math.sqrt((double) width * height / TARGET_SAMPLES));
+
+        long sum = 0;
+        long sumSquares = 0;
+        int samples = 0;
+        int stepSamples = 0;
+
+        for (int y = step / 2; y < height; y += step) {
+            for (int x = step / 2; x < width; x += step) {
+                int luma = pixels.luma(x, y);
+                histogram[luma]++;
+                sum += luma;
+                sumSquares += luma * luma;
+                samples++;
+
+                if (x + 1 < width && y + 1 < height) {
+                    steps[Math.abs(pixels.luma(x + 1, y) - luma)]++;
+                    steps[Math.abs(pixels.luma(x, y + 1) - luma)]++;
+                    stepSamples += 2;
+                }
+            }
+        }
+
+        double mean = samples > 0 ? (double) sum / samples : 0;
+        double variance = samples > 0 ? (double) sumSquares / samples - mean * mean : 0;
+        double contrast = Math.sqrt(Math.max(0, variance));
+        int spread = percentile(histogram, samples, 0.99) - percentile(histogram, samples, 0.01);
+        int noise = stepSamples > 0 ? percentile(steps, stepSamples, 0.5) : 0;
+        double sharpness = spread > 0
+                ? Math.min(1.0, Math.max(0, strongestStepMean() - NOISE_EDGE_FACTOR * noise) / spread)
+                : 0;
+
+        Set<Warning> warnings = EnumSet.noneOf(Warning.class);
+        if (mean < DARK_THRESHOLD) {
+            warnings.add(Warning.TOO_DARK);
+        } else if (mean > BRIGHT_THRESHOLD) {
+            warnings.add(Warning.TOO_BRIGHT);
+        }
+        if (spread < LOW_SPREAD_THRESHOLD) {
+            warnings.add(Warning.LOW_CONTRAST);
+        } else if (sharpness < BLUR_THRESHOLD) {
+            warnings.add(Warning.BLURRY);
+        }
+
+        return new FrameQuality(mean, contrast, spread, sharpness, noise, samples, System.nanoTime() - start, warnings);
+    }
+
+    private static int percentile(int[] histogram, int samples, double fraction) {
+        int target = (int) (samples * fraction);
+        int seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen > target) {
+                return i;
+            }
+        }
+        return 255;
+    }
+
+    /**
+     * Mean of the {@value #EDGE_STEPS} largest neighbour steps
+     */
+    private double strongestStepMean() {
+        long sum = 0;
+        int taken = 0;
+        for (int step = steps.length - 1; step >= 0 && taken < EDGE_STEPS; step--) {
+            int count = Math.min(steps[step], EDGE_STEPS - taken);
+            sum += (long) step * count;
+            taken += count;
+        }
+        return taken > 0 ? (double) sum / taken : 0;
+    }
+
+    private interface PixelReader {
+        int luma(int x, int y);
+    }
+
+    private static PixelReader pixelReaderFor(BufferedImage image) {
+        FrameRecorder.PixelFormat format = FrameRecorder.rawFormatOf(image);
+        int width = image.getWidth();
+        if (format == FrameRecorder.PixelFormat.LUMA) {
+            byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            return (x, y) -> data[y * width + x] & 0xFF;
+        }
+        if (format == FrameRecorder.PixelFormat.BGR) {
+            byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            return (x, y) -> {
+                int i = (y * width + x) * 3;
+                return ((data[i + 2] & 0xFF) * 306 + (data[i + 1] & 0xFF) * 601 + (data[i] & 0xFF) * 117 + 0x200) >> 10;
+            };
+        }
+        if (format == FrameRecorder.PixelFormat.RGB) {
+            byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            return (x, y) -> {
+                int i = (y * width + x) * 3;
+                return ((data[i] & 0xFF) * 306 + (data[i + 1] & 0xFF) * 601 + (data[i + 2] & 0xFF) * 117 + 0x200) >> 10;
+            };
+        }
+        return (x, y) -> {
+            int rgb = image.getRGB(x, y);
+            return (((rgb >> 16) & 0xFF) * 306 + ((rgb >> 8) & 0xFF) * 601 + (rgb & 0xFF) * 117 + 0x200) >> 10;
+        };
+    }
+}
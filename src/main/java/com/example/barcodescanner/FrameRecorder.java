@@ -0,0 +1,240 @@
+package com.example.barcodescanner;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Records raw camera frames into memory-mapped segment files for later replay.
+ *
+ * Each record is a fixed header followed by the pixel bytes:
+ * marker, capture timestamp (System.nanoTime), sequence, width, height, format, length.
+ * A zero marker terminates a segment, which is why freshly mapped (zeroed) space needs no footer.
+ * Each recording gets a directory of its own.
+ */
+public class FrameRecorder implements Closeable {
+
+    static final int RECORD_MARKER = 0x46524D31; // "FRM1"
+    static final int HEADER_BYTES = 4 + 8 + 8 + 4 + 4 + 1 + 4;
+    static final String SEGMENT_PREFIX = "frames-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    public static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    /** Pixel layout of a recorded frame */
+    public enum PixelFormat {
+        LUMA(1), BGR(3), RGB(3);
+
+        private final int bytesPerPixel;
+
+        PixelFormat(int bytesPerPixel) {
+            this.bytesPerPixel = bytesPerPixel;
+        }
+
+        public int getBytesPerPixel() {
+            return bytesPerPixel;
+        }
+    }
+
+    private final Path directory;
+    private final long segmentBytes;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int segmentIndex = -1;
+    private long sequence = 0;
+    private long bytesWritten = 0;
+    private byte[] rowBuffer = new byte[0];
+    private int[] rgbRow = new int[0];
+    private boolean closed = false;
+
+    public FrameRecorder(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public FrameRecorder(Path directory, long segmentBytes) throws IOException {
+        if (segmentBytes <= HEADER_BYTES || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid segment size: " + segmentBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+
+        // One recording per directory: another session's sequence numbers and nanoTime
+        // timestamps would start over from an unrelated origin and garble the replay
+        try (var files = Files.list(directory)) {
+            if (files.map(p -> p.getFileName().toString())
+                    .anyMatch(n -> n.startsWith(SEGMENT_PREFIX) && n.endsWith(SEGMENT_SUFFIX))) {
+                throw new IOException("Directory already holds a recording: " + directory);
+            }
+        }
+        openNextSegment();
+    }
+
+    /**
+     * Record a captured frame. Byte-backed gray and BGR images are copied as-is,
+     * anything else is converted to RGB.
+     */
+    public synchronized void record(BufferedImage image, long timestampNanos) throws IOException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        PixelFormat format = rawFormatOf(image);
+        if (format != null) {
+            byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            record(data, format, width, height, timestampNanos);
+            return;
+        }
+
+        int length = width * height * 3;
+        ensureCapacity(length);
+        writeHeader(timestampNanos, width, height, PixelFormat.RGB, length);
+
+        if (rgbRow.length < width) {
+            rgbRow = new int[width];
+            rowBuffer = new byte[width * 3];
+        }
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, rgbRow, 0, width);
+            for (int x = 0, i = 0; x < width; x++) {
+                int pixel = rgbRow[x];
+                rowBuffer[i++] = (byte) (pixel >> 16);
+                rowBuffer[i++] = (byte) (pixel >> 8);
+                rowBuffer[i++] = (byte) pixel;
+            }
+            segment.put(rowBuffer, 0, width * 3);
+        }
+        bytesWritten += HEADER_BYTES + length;
+    }
+
+    /**
+     * Record a frame that is already in one of the raw pixel formats
+     */
+    public synchronized void record(byte[] data, PixelFormat format, int width, int height,
+                                    long timestampNanos) throws IOException {
+        int length = width * height * format.getBytesPerPixel();
+        if (data.length < length) {
+            throw new IllegalArgumentException("Frame data too short: " + data.length + " < " + length);
+        }
+        ensureCapacity(length);
+        writeHeader(timestampNanos, width, height, format, length);
+        segment.put(data, 0, length);
+        bytesWritten += HEADER_BYTES + length;
+    }
+
+    /**
+     * Number of frames recorded so far
+     */
+    public synchronized long getFrameCount() {
+        return sequence;
+    }
+
+    /**
+     * Number of header and pixel bytes recorded so far
+     */
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (segment != null) {
+            segment.force();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void writeHeader(long timestampNanos, int width, int height, PixelFormat format, int length) {
+        segment.putInt(RECORD_MARKER);
+        segment.putLong(timestampNanos);
+        segment.putLong(sequence++);
+        segment.putInt(width);
+        segment.putInt(height);
+        segment.put((byte) format.ordinal());
+        segment.putInt(length);
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (closed) {
+            throw new IOException("Recorder is closed");
+        }
+        long needed = (long) HEADER_BYTES + length;
+        if (needed + 4 > segmentBytes) {
+            throw new IOException("Frame of " + length + " bytes does not fit in a " + segmentBytes + " byte segment");
+        }
+        // Keep room for the terminating zero marker
+        if (segment.remaining() < needed + 4) {
+            openNextSegment();
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+        segmentIndex++;
+        Path file = directory.resolve(segmentName(segmentIndex));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+    }
+
+    /**
+     * Raw format for images whose backing array can be copied directly, or null
+     */
+    static PixelFormat rawFormatOf(BufferedImage image) {
+        if (!(image.getRaster().getDataBuffer() instanceof DataBufferByte)
+                || !(image.getSampleModel() instanceof ComponentSampleModel)) {
+            return null;
+        }
+        ComponentSampleModel model = (ComponentSampleModel) image.getSampleModel();
+        if (image.getRaster().getParent() != null
+                || model.getScanlineStride() != image.getWidth() * model.getPixelStride()) {
+            return null;
+        }
+        switch (image.getType()) {
+            case BufferedImage.TYPE_BYTE_GRAY:
+                return PixelFormat.LUMA;
+            case BufferedImage.TYPE_3BYTE_BGR:
+                return PixelFormat.BGR;
+            case BufferedImage.TYPE_CUSTOM:
+                // Pooled camera frames (see FramePool)
+                return model.getPixelStride() == 3 && Arrays.equals(model.getBandOffsets(), FramePool.RGB_BAND_OFFSETS)
+                        ? PixelFormat.RGB : null;
+            default:
+                return null;
+        }
+    }
+
+    static String segmentName(int index) {
+        return String.format("%s%05d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    static int parseSegmentIndex(String name) {
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
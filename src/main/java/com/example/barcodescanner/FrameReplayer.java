@@ -0,0 +1,260 @@
+package com.example.barcodescanner;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+/**
+ * Replays frames written by {@link FrameRecorder} into a {@link BarcodeDetector},
+ * either at the original capture timing or as fast as possible for benchmarking.
+ */
+public class FrameReplayer {
+
+    /**
+     * A single recorded frame
+     */
+    public static class RecordedFrame {
+        private final long timestampNanos;
+        private final long sequence;
+        private final int width;
+        private final int height;
+        private final FrameRecorder.PixelFormat format;
+        private final byte[] data;
+
+        RecordedFrame(long timestampNanos, long sequence, int width, int height,
+                      FrameRecorder.PixelFormat format, byte[] data) {
+            this.timestampNanos = timestampNanos;
+            this.sequence = sequence;
+            this.width = width;
+            this.height = height;
+            this.format = format;
+            this.data = data;
+        }
+
+        public long getTimestampNanos() { return timestampNanos; }
+        public long getSequence() { return sequence; }
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+        public FrameRecorder.PixelFormat getFormat() { return format; }
+        public byte[] getData() { return data; }
+
+        /**
+         * Wrap the frame bytes in a BufferedImage without converting pixels where possible
+         */
+        public BufferedImage toBufferedImage() {
+            switch (format) {
+                case LUMA: {
+                    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+                    byte[] target = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+                    System.arraycopy(data, 0, target, 0, width * height);
+                    return image;
+                }
+                case BGR: {
+                    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+                    byte[] target = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+                    System.arraycopy(data, 0, target, 0, width * height * 3);
+                    return image;
+                }
+                default: {
+                    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                    int[] row = new int[width];
+                    for (int y = 0, i = 0; y < height; y++) {
+                        for (int x = 0; x < width; x++, i += 3) {
+                            row[x] = (data[i] & 0xFF) << 16 | (data[i + 1] & 0xFF) << 8 | (data[i + 2] & 0xFF);
+                        }
+                        image.setRGB(0, y, width, 1, row, 0, width);
+                    }
+                    return image;
+                }
+            }
+        }
+    }
+
+    /**
+     * Summary of a replay run
+     */
+    public static class ReplayStats {
+        private final long frames;
+        private final long elapsedNanos;
+
+        ReplayStats(long frames, long elapsedNanos) {
+            this.frames = frames;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getFrames() { return frames; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public double getFramesPerSecond() {
+            return elapsedNanos > 0 ? frames * 1_000_000_000.0 / elapsedNanos : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d frames in %.1f ms (%.1f FPS)",
+                    frames, elapsedNanos / 1_000_000.0, getFramesPerSecond());
+        }
+    }
+
+    private final List<Path> segments;
+
+    public FrameReplayer(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            segments = files
+                    .filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(FrameRecorder.SEGMENT_PREFIX)
+                                && name.endsWith(FrameRecorder.SEGMENT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparingInt(p -> FrameRecorder.parseSegmentIndex(p.getFileName().toString())))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Read every recorded frame into memory, in recording order
+     */
+    public List<RecordedFrame> readAll() throws IOException {
+        List<RecordedFrame> frames = new ArrayList<>();
+        try (FrameCursor cursor = open()) {
+            while (cursor.hasNext()) {
+                frames.add(cursor.next());
+            }
+        }
+        return frames;
+    }
+
+    /**
+     * Open a cursor that streams frames segment by segment
+     */
+    public FrameCursor open() {
+        return new FrameCursor(segments);
+    }
+
+    /**
+     * Feed every frame into the detector. With realTime the original inter-frame
+     * gaps are reproduced; otherwise frames are pushed as fast as the detector accepts them.
+     */
+    public ReplayStats replay(BarcodeDetector detector, boolean realTime) throws IOException, InterruptedException {
+        long frames = 0;
+        long start = System.nanoTime();
+        long firstCapture = -1;
+
+        try (FrameCursor cursor = open()) {
+            while (cursor.hasNext()) {
+                RecordedFrame frame = cursor.next();
+
+                if (realTime) {
+                    if (firstCapture < 0) {
+                        firstCapture = frame.getTimestampNanos();
+                    }
+                    long due = start + (frame.getTimestampNanos() - firstCapture);
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                    }
+                }
+
+                detector.processFrame(frame.toBufferedImage());
+                frames++;
+            }
+        }
+        return new ReplayStats(frames, System.nanoTime() - start);
+    }
+
+    /**
+     * Sequential reader over the mapped segments
+     */
+    public static class FrameCursor implements AutoCloseable {
+        private final List<Path> segments;
+        private int nextSegment = 0;
+        private MappedByteBuffer buffer;
+        private RecordedFrame pending;
+
+        FrameCursor(List<Path> segments) {
+            this.segments = segments;
+        }
+
+        public boolean hasNext() throws IOException {
+            if (pending == null) {
+                pending = readNext();
+            }
+            return pending != null;
+        }
+
+        public RecordedFrame next() throws IOException {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            RecordedFrame frame = pending;
+            pending = null;
+            return frame;
+        }
+
+        private RecordedFrame readNext() throws IOException {
+            while (true) {
+                if (buffer != null && buffer.remaining() >= FrameRecorder.HEADER_BYTES
+                        && buffer.getInt(buffer.position()) == FrameRecorder.RECORD_MARKER) {
+                    buffer.getInt();
+                    long timestamp = buffer.getLong();
+                    long sequence = buffer.getLong();
+                    int width = buffer.getInt();
+                    int height = buffer.getInt();
+                    FrameRecorder.PixelFormat format = FrameRecorder.PixelFormat.values()[buffer.get()];
+                    int length = buffer.getInt();
+                    if (length > buffer.remaining()) {
+                        throw new IOException("Truncated frame record " + sequence);
+                    }
+                    byte[] data = new byte[length];
+                    buffer.get(data);
+                    return new RecordedFrame(timestamp, sequence, width, height, format, data);
+                }
+
+                if (nextSegment >= segments.size()) {
+                    buffer = null;
+                    return null;
+                }
+                try (FileChannel channel = FileChannel.open(segments.get(nextSegment++), StandardOpenOption.READ)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            buffer = null;
+            pending = null;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: FrameReplayer <recording-dir> [--fast]");
+            return;
+        }
+
+        boolean realTime = !(args.length > 1 && "--fast".equals(args[1]));
+
+        try {
+            BarcodeDetector detector = new BarcodeDetector();
+            FrameReplayer replayer = new FrameReplayer(Paths.get(args[0]));
+            System.out.println("Replaying " + args[0] + (realTime ? " at original timing" : " at max speed") + "...");
+            ReplayStats stats = replayer.replay(detector, realTime);
+            detector.close();
+            System.out.println("Replay complete: " + stats);
+        } catch (Exception e) {
+            System.err.println("Replay failed: " + e.getMessage());
+        }
+    }
+}
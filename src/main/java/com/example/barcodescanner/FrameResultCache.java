@@ -0,0 +1,195 @@
+package com.example.barcodescanner;
+
+import com.google.zxing.Result;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-camera cache of the last decode, so a frame that looks the same as the one before
+ * reuses its results (or its miss) instead of running ZXing again. A code held in front of
+ * the camera is otherwise decoded many times a second only for the duplicate filter to
+ * throw the read away.
+ *
+ * Frames are compared by a perceptual hash: the mean luma of each 16x16 block, less the
+ * frame's overall mean so exposure drift does not count as a change. Two frames match only
+ * if no block differs by more than the tolerance. Swapping one code for another in the
+ * same spot moves whole modules within a block, which is far beyond it, while sensor
+ * noise averaged over a block stays well inside it.
+ *
+ * As a safeguard against a change the hash cannot see, an entry is reused at most a fixed
+ * number of times in a row and for a limited time before the frame is decoded again. A miss
+ * is reused fewer times than a read: a code on the edge of readability needs the extra
+ * attempts, and a frame with a code in view seldom matches a blank one anyway.
+ */
+public class FrameResultCache {
+
+    public static final int DEFAULT_TOLERANCE = 8;
+    public static final int DEFAULT_MAX_REUSES = 10;
+    public static final int DEFAULT_MAX_MISS_REUSES = 3;
+    public static final long DEFAULT_MAX_AGE_MILLIS = 500;
+
+    static final int BLOCK_SIZE = 16;
+    static final int SAMPLE_STEP = 2;
+
+    /**
+     * Perceptual hash of one frame; one per decoding thread, reused from frame to frame
+     */
+    public static class Signature {
+        private int[] blocks = new int[0];
+        private int count;
+        private int width;
+        private int height;
+
+        /**
+         * Hash a row-major luma plane
+         */
+        public void compute(byte[] luma, int width, int height) {
+            int blocksX = Math.max(1, width / BLOCK_SIZE);
+            int blocksY = Math.max(1, height / BLOCK_SIZE);
+            count = blocksX * blocksY;
+            if (blocks.length < count) {
+                blocks = new int[count];
+            }
+            this.width = width;
+            this.height = height;
+
+            long total = 0;
+            for (int by = 0, block = 0; by < blocksY; by++) {
+                int y1 = by == blocksY - 1 ? height : (by + 1) * BLOCK_SIZE;
+                for (int bx = 0; bx < blocksX; bx++, block++) {
+                    int x1 = bx == blocksX - 1 ? width : (bx + 1) * BLOCK_SIZE;
+                    int sum = 0, samples = 0;
+                    for (int y = by * BLOCK_SIZE; y < y1; y += SAMPLE_STEP) {
+                        int offset = y * width;
+                        for (int x = bx * BLOCK_SIZE; x < x1; x += SAMPLE_STEP, samples++) {
+                            sum += luma[offset + x] & 0xFF;
+                        }
+                    }
+                    blocks[block] = sum / Math.max(1, samples);
+                    total += blocks[block];
+                }
+            }
+            int mean = (int) (total / count);
+            for (int block = 0; block < count; block++) {
+                blocks[block] -= mean;
+            }
+        }
+
+        /**
+         * True if the two frames are the same size and no block differs by more than tolerance
+         */
+        public boolean matches(Signature other, int tolerance) {
+            if (width != other.width || height != other.height || count != other.count) {
+                return false;
+            }
+            for (int block = 0; block < count; block++) {
+                if (Math.abs(blocks[block] - other.blocks[block]) > tolerance) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void copyFrom(Signature other) {
+            if (blocks.length < other.count) {
+                blocks = new int[other.count];
+            }
+            System.arraycopy(other.blocks, 0, blocks, 0, other.count);
+            count = other.count;
+            width = other.width;
+            height = other.height;
+        }
+    }
+
+    /**
+     * The last decoded frame of one camera
+     */
+    private static class Entry {
+        final Signature signature = new Signature();
+        Result[] results;
+        long decodedNanos;
+        int reuses;
+    }
+
+    private final int tolerance;
+    private final int maxReuses;
+    private final int maxMissReuses;
+    private final long maxAgeNanos;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    // Metrics
+    private long lookups = 0;
+    private long hits = 0;
+
+    public FrameResultCache() {
+        this(DEFAULT_TOLERANCE, DEFAULT_MAX_REUSES, DEFAULT_MAX_MISS_REUSES, DEFAULT_MAX_AGE_MILLIS);
+    }
+
+    public FrameResultCache(int tolerance, int maxReuses, int maxMissReuses, long maxAgeMillis) {
+        if (tolerance < 0 || maxReuses < 0 || maxMissReuses < 0 || maxAgeMillis < 0) {
+            throw new IllegalArgumentException("Cache limits must not be negative");
+        }
+        this.tolerance = tolerance;
+        this.maxReuses = maxReuses;
+        this.maxMissReuses = maxMissReuses;
+        this.maxAgeNanos = maxAgeMillis * 1_000_000L;
+    }
+
+    /**
+     * The results of the camera's last decode if this frame matches it and the entry may
+     * still be reused, otherwise null; an empty array is a cached miss
+     */
+    public synchronized Result[] lookup(String camera, Signature signature, long nowNanos) {
+        lookups++;
+        Entry entry = entries.get(camera);
+        if (entry == null || entry.reuses >= (entry.results.length > 0 ? maxReuses : maxMissReuses)
+                || nowNanos - entry.decodedNanos >= maxAgeNanos
+                || !entry.signature.matches(signature, tolerance)) {
+            return null;
+        }
+        entry.reuses++;
+        hits++;
+        return entry.results;
+    }
+
+    /**
+     * Remember the outcome of a full decode of the frame with this signature
+     */
+    public synchronized void store(String camera, Signature signature, Result[] results, long nowNanos) {
+        Entry entry = entries.computeIfAbsent(camera, key -> new Entry());
+        entry.signature.copyFrom(signature);
+        entry.results = results;
+        entry.decodedNanos = nowNanos;
+        entry.reuses = 0;
+    }
+
+    /**
+     * Forget one camera's last decode, so its next frame is decoded in full
+     */
+    public synchronized void invalidate(String camera) {
+        entries.remove(camera);
+    }
+
+    /**
+     * Forget every camera's last decode, e.g. after the decode settings change
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized long getLookups() {
+        return lookups;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Fraction of lookups answered from the cache
+     */
+    public synchronized double getHitRate() {
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.barcodescanner;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed ring of luma frame slots in direct memory, handing frames from one capture thread
+ * to any number of decode threads with no locks and no heap allocation per frame.
+ *
+ * Each slot is a small header (sequence stamp, capture and publish time) followed by the
+ * luma plane, aligned to a cache line. The producer writes a slot seqlock-style: it marks
+ * the stamp busy, writes the pixels, then stores the frame's sequence number. A consumer
+ * claims the newest published sequence with a CAS on the shared read cursor (older
+ * unclaimed frames are skipped: decoding wants the freshest frame, not a backlog), copies
+ * the slot into its own {@link Reader} and re-checks the stamp. If the producer lapped the
+ * slot mid-copy the frame is dropped and the consumer tries the next one.
+ */
+public class FrameRing {
+
+    public static final int DEFAULT_SLOTS = 4;
+
+    private static final int CACHE_LINE = 64;
+    private static final int STAMP = 0;
+    private static final int CAPTURE_NANOS = 8;
+    private static final int PUBLISH_NANOS = 16;
+    private static final int HEADER_BYTES = CACHE_LINE;
+    private static final long BUSY = -1;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /**
+     * A consumer's copy of one frame. Keep one per decode thread; the buffer is reused, so
+     * the image is only valid until the next poll with this reader.
+     */
+    public static class Reader {
+        private BufferedImage image;
+        private byte[] data;
+        private long sequence = -1;
+        private long captureNanos;
+        private long publishNanos;
+
+        private void prepare(int width, int height) {
+            if (image == null || image.getWidth() != width || image.getHeight() != height) {
+                image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+                data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            }
+        }
+
+        /**
+         * The frame as a TYPE_BYTE_GRAY image backed by this reader's buffer
+         */
+        public BufferedImage getImage() {
+            return image;
+        }
+
+        /**
+         * Position of the frame in the producer's stream, starting at 0
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        public long getCaptureNanos() {
+            return captureNanos;
+        }
+
+        /**
+         * When the frame entered the ring; poll time minus this is the hand-off latency
+         */
+        public long getPublishNanos() {
+            return publishNanos;
+        }
+    }
+
+    private final int width;
+    private final int height;
+    private final int frameBytes;
+    private final int slotBytes;
+    private final int slots;
+    private final ByteBuffer memory;
+    // Bulk copies move the position, so every thread gets its own view of the memory
+    private final ThreadLocal<ByteBuffer> views;
+
+    // Sequence of the newest published frame, and the next one not yet handed to a consumer
+    private final AtomicLong published = new AtomicLong(-1);
+    private final AtomicLong nextRead = new AtomicLong(0);
+
+    // Metrics
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong lapped = new AtomicLong();
+
+    public FrameRing(int width, int height) {
+        this(width, height, DEFAULT_SLOTS);
+    }
+
+    /**
+     * @param slots frames the producer can publish while a consumer is still copying one; at least 2
+     */
+    public FrameRing(int width, int height, int slots) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Frame size must be positive");
+        }
+        if (slots < 2) {
+            throw new IllegalArgumentException("A frame ring needs at least 2 slots");
+        }
+        long slotSize = align((long) HEADER_BYTES + (long) width * height);
+        if (slotSize * slots > Integer.MAX_VALUE - CACHE_LINE) {
+            throw new IllegalArgumentException("Frame ring too large: " + slots + " x " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.frameBytes = width * height;
+        this.slotBytes = (int) slotSize;
+        this.slots = slots;
+        this.memory = ByteBuffer.allocateDirect(slotBytes * slots + CACHE_LINE).alignedSlice(CACHE_LINE);
+        this.views = ThreadLocal.withInitial(memory::duplicate);
+        for (int slot = 0; slot < slots; slot++) {
+            LONGS.setVolatile(memory, slot * slotBytes + STAMP, BUSY);
+        }
+    }
+
+    /**
+     * Copy a luma plane (width * height bytes, row-major) into the next slot and publish it.
+     * Only one thread may publish.
+     */
+    public void publish(byte[] luma, long captureNanos) {
+        if (luma.length < frameBytes) {
+            throw new IllegalArgumentException("Luma plane smaller than " + width + "x" + height);
+        }
+        long sequence = published.get() + 1;
+        int offset = offset(sequence);
+
+        LONGS.setOpaque(memory, offset + STAMP, BUSY);
+        VarHandle.storeStoreFence();
+        ByteBuffer view = views.get();
+        view.clear().position(offset + HEADER_BYTES);
+        view.put(luma, 0, frameBytes);
+        LONGS.set(memory, offset + CAPTURE_NANOS, captureNanos);
+        LONGS.set(memory, offset + PUBLISH_NANOS, System.nanoTime());
+        LONGS.setRelease(memory, offset + STAMP, sequence);
+
+        published.set(sequence);
+    }
+
+    /**
+     * Claim the newest frame no other consumer has taken and copy it into the reader.
+     * Returns false when nothing new has been published.
+     */
+    public boolean poll(Reader reader) {
+        while (true) {
+            long latest = published.get();
+            long next = nextRead.get();
+            if (latest < next) {
+                return false;
+            }
+            if (!nextRead.compareAndSet(next, latest + 1)) {
+                continue; // another consumer claimed it first
+            }
+            if (latest > next) {
+                skipped.addAndGet(latest - next);
+            }
+            if (read(latest, reader)) {
+                return true;
+            }
+            lapped.incrementAndGet();
+        }
+    }
+
+    private boolean read(long sequence, Reader reader) {
+        int offset = offset(sequence);
+        if ((long) LONGS.getAcquire(memory, offset + STAMP) != sequence) {
+            return false;
+        }
+        long captureNanos = (long) LONGS.get(memory, offset + CAPTURE_NANOS);
+        long publishNanos = (long) LONGS.get(memory, offset + PUBLISH_NANOS);
+        reader.prepare(width, height);
+        ByteBuffer view = views.get();
+        view.clear().position(offset + HEADER_BYTES);
+        view.get(reader.data, 0, frameBytes);
+
+        // The copy only counts if the producer did not start rewriting the slot meanwhile
+        VarHandle.acquireFence();
+        if ((long) LONGS.getVolatile(memory, offset + STAMP) != sequence) {
+            return false;
+        }
+        reader.sequence = sequence;
+        reader.captureNanos = captureNanos;
+        reader.publishNanos = publishNanos;
+        return true;
+    }
+
+    /**
+     * Drop every frame published so far, e.g. so a paused camera is not decoded on resume
+     */
+    public void discard() {
+        long latest = published.get();
+        nextRead.accumulateAndGet(latest + 1, Math::max);
+    }
+
+    private int offset(long sequence) {
+        return (int) (sequence % slots) * slotBytes;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + CACHE_LINE - 1) & -CACHE_LINE;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    /**
+     * Direct memory held by the slots
+     */
+    public long getCapacityBytes() {
+        return (long) slotBytes * slots;
+    }
+
+    public long getPublished() {
+        return published.get() + 1;
+    }
+
+    /**
+     * Frames replaced by a newer one before any consumer claimed them
+     */
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    /**
+     * Frames overwritten by the producer while a consumer was copying them
+     */
+    public long getLapped() {
+        return lapped.get();
+    }
+
+    public String summary() {
+        return String.format("ring %dx%d slots=%d (%d KB off-heap) published=%d skipped=%d lapped=%d",
+                width, height, slots, getCapacityBytes() / 1024, getPublished(), getSkipped(), getLapped());
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.barcodescanner;
+
+import com.github.sarxos.webcam.Webcam;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Somewhere frames come from for a headless run: a webcam, a {@link FrameRecorder}
+ * recording or a {@link SyntheticCorpus}. Sources hand out frames as fast as they are
+ * asked for; pacing is up to the caller.
+ */
+public interface FrameSource extends AutoCloseable {
+
+    /**
+     * The next frame, or null when the source is exhausted
+     */
+    BufferedImage nextFrame() throws IOException;
+
+    /**
+     * When the frame last returned was captured, on this JVM's System.nanoTime clock
+     */
+    long getCaptureNanos();
+
+    /**
+     * Text of the code in the frame last returned: null if unknown, empty if it has none
+     */
+    default String getExpectedText() {
+        return null;
+    }
+
+    /**
+     * Short label for reports, e.g. "synthetic:64"
+     */
+    String describe();
+
+    @Override
+    void close();
+
+    /**
+     * Parse a source spec: "webcam", "replay:&lt;dir&gt;" or "synthetic[:frames]"
+     */
+    static FrameSource parse(String spec) throws IOException {
+        if ("webcam".equals(spec)) {
+            return new WebcamSource(Webcam.getDefault());
+        }
+        if (spec.startsWith("replay:")) {
+            return new ReplaySource(Paths.get(spec.substring("replay:".length())));
+        }
+        if (spec.equals("synthetic") || spec.startsWith("synthetic:")) {
+            int frames = spec.contains(":") ? Integer.parseInt(spec.substring(spec.indexOf(':') + 1))
+                    : SyntheticSource.DEFAULT_FRAMES;
+            return new SyntheticSource(new SyntheticCorpus(46), frames);
+        }
+        throw new IllegalArgumentException("Unknown frame source: " + spec);
+    }
+
+    /**
+     * Live frames from a webcam at 640x480, waiting for each new frame from the driver
+     */
+    class WebcamSource implements FrameSource {
+        private final Webcam webcam;
+        private long captureNanos;
+
+        public WebcamSource(Webcam webcam) {
+            if (webcam == null) {
+                throw new IllegalStateException("No webcam found");
+            }
+            this.webcam = webcam;
+            webcam.setViewSize(new Dimension(640, 480));
+            if (!webcam.open()) {
+                throw new IllegalStateException("Failed to open webcam: " + webcam.getName());
+            }
+        }
+
+        @Override
+        public BufferedImage nextFrame() {
+            BufferedImage image = webcam.getImage();
+            captureNanos = System.nanoTime();
+            return image;
+        }
+
+        @Override
+        public long getCaptureNanos() {
+            return captureNanos;
+        }
+
+        @Override
+        public String describe() {
+            Dimension size = webcam.getViewSize();
+            return "webcam:" + webcam.getName() + "@" + size.width + "x" + size.height;
+        }
+
+        @Override
+        public void close() {
+            webcam.close();
+        }
+    }
+
+    /**
+     * Frames from a recording directory, in order, once. Capture times keep the recorded
+     * spacing, moved onto this run's clock: the first frame counts as captured when it is
+     * read, and the clock moves forward whenever frames are read faster than they were
+     * recorded, so no frame is captured after it is read.
+     */
+    class ReplaySource implements FrameSource {
+        private final Path directory;
+        private final FrameReplayer.FrameCursor cursor;
+        private boolean started = false;
+        // Added to recorded timestamps to get this run's nanoTime
+        private long clockOffset;
+        private long captureNanos;
+
+        public ReplaySource(Path directory) throws IOException {
+            this.directory = directory;
+            this.cursor = new FrameReplayer(directory).open();
+        }
+
+        @Override
+        public BufferedImage nextFrame() throws IOException {
+            if (!cursor.hasNext()) {
+                return null;
+            }
+            FrameReplayer.RecordedFrame frame = cursor.next();
+            long now = System.nanoTime();
+            if (!started || frame.getTimestampNanos() + clockOffset > now) {
+                clockOffset = now - frame.getTimestampNanos();
+                started = true;
+            }
+            captureNanos = frame.getTimestampNanos() + clockOffset;
+            return frame.toBufferedImage();
+        }
+
+        @Override
+        public long getCaptureNanos() {
+            return captureNanos;
+        }
+
+        @Override
+        public String describe() {
+            return "replay:" + directory;
+        }
+
+        @Override
+        public void close() {
+            cursor.close();
+        }
+    }
+
+    /**
+     * A fixed set of rendered corpus frames, cycled forever, so rendering stays out of the measurement
+     */
+    class SyntheticSource implements FrameSource {
+        public static final int DEFAULT_FRAMES = 64;
+
+        private final List<SyntheticCorpus.Sample> samples;
+        private int next = 0;
+        private SyntheticCorpus.Sample current;
+        private long captureNanos;
+
+        public SyntheticSource(SyntheticCorpus corpus, int frames) {
+            this.samples = new ArrayList<>(corpus.generate(frames));
+        }
+
+        @Override
+        public BufferedImage nextFrame() {
+            current = samples.get(next);
+            next = (next + 1) % samples.size();
+            captureNanos = System.nanoTime();
+            return current.getImage();
+        }
+
+        @Override
+        public long getCaptureNanos() {
+            return captureNanos;
+        }
+
+        @Override
+        public String getExpectedText() {
+            if (current == null) {
+                return null;
+            }
+            return current.getText() != null ? current.getText() : "";
+        }
+
+        @Override
+        public String describe() {
+            return "synthetic:" + samples.size();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
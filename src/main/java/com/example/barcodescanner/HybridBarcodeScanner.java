@@ -11,8 +11,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 import javax.imageio.ImageIO;
@@ -25,13 +23,14 @@ public class HybridBarcodeScanner extends JFrame {
     
     private Object webcam;
     private JLabel displayLabel;
-    private JTextArea resultArea;
+    private ScanHistoryPanel historyPanel;
     private JButton webcamButton;
     private JButton imageButton;
     private JButton stopButton;
     private JLabel statusLabel;
     private Timer cameraTimer;
     private MultiFormatReader barcodeReader;
+    private final ReusableBinarizer.Workspace binarizerWorkspace = new ReusableBinarizer.Workspace();
     private BufferedImage currentImage;
     
     private boolean isWebcamMode = false;
@@ -42,6 +41,7 @@ public class HybridBarcodeScanner extends JFrame {
     private static final long DETECTION_COOLDOWN_MS = 2000;
     
     public HybridBarcodeScanner() {
+        long startNanos = System.nanoTime();
         System.out.println("Initializing Hybrid Barcode Scanner...");
         
         initializeComponents();
@@ -50,7 +50,7 @@ public class HybridBarcodeScanner extends JFrame {
         setupEventHandlers();
         checkWebcamAvailability();
         
-        System.out.println("GUI initialization complete!");
+        System.out.printf("GUI initialization complete in %d ms%n", (System.nanoTime() - startNanos) / 1_000_000);
     }
     
     private void initializeComponents() {
@@ -177,18 +177,13 @@ public class HybridBarcodeScanner extends JFrame {
         resultPanel.setBorder(BorderFactory.createTitledBorder("Scan Results"));
         resultPanel.setPreferredSize(new java.awt.Dimension(0, 150));
         
-        resultArea = new JTextArea();
-        resultArea.setEditable(false);
-        resultArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
-        resultArea.setText("🎯 Hybrid Barcode Scanner Ready!\n\n");
-        resultArea.append("📹 WEBCAM MODE: Live camera scanning\n");
-        resultArea.append("📁 IMAGE MODE: Scan barcode image files\n\n");
-        resultArea.append("Supported formats: QR Code, Code 128, EAN-13, UPC-A, and more!\n");
+        historyPanel = new ScanHistoryPanel();
+        historyPanel.setText("🎯 Hybrid Barcode Scanner Ready!\n\n");
+        historyPanel.appendText("📹 WEBCAM MODE: Live camera scanning\n");
+        historyPanel.appendText("📁 IMAGE MODE: Scan barcode image files\n\n");
+        historyPanel.appendText("Supported formats: QR Code, Code 128, EAN-13, UPC-A, and more!\n");
         
-        JScrollPane scrollPane = new JScrollPane(resultArea);
-        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
-        
-        resultPanel.add(scrollPane, BorderLayout.CENTER);
+        resultPanel.add(historyPanel, BorderLayout.CENTER);
         
         // Layout
         add(displayPanel, BorderLayout.CENTER);
@@ -197,7 +192,7 @@ public class HybridBarcodeScanner extends JFrame {
         
         // Event handlers for buttons
         clearButton.addActionListener(e -> {
-            resultArea.setText("Results cleared.\nReady for scanning...\n");
+            historyPanel.setText("Results cleared.\nReady for scanning...\n");
             updateStatus("Results cleared", Color.BLUE);
         });
         
@@ -215,28 +210,39 @@ public class HybridBarcodeScanner extends JFrame {
     }
     
     private void checkWebcamAvailability() {
-        try {
-            Class<?> webcamClass = Class.forName("com.github.sarxos.webcam.Webcam");
-            webcam = webcamClass.getMethod("getDefault").invoke(null);
-            
-            if (webcam != null) {
-                webcamAvailable = true;
-                updateStatus("Camera detected - Both modes available", Color.GREEN);
-                resultArea.append("✅ Webcam available\n");
-            } else {
-                webcamAvailable = false;
-                updateStatus("No camera - Image mode only", Color.ORANGE);
-                resultArea.append("⚠️ No webcam detected - Image mode available\n");
-                webcamButton.setText("📹 No Camera Found");
-                webcamButton.setEnabled(false);
-            }
-        } catch (Exception e) {
+        // Enumerate in the background so the window comes up without waiting for drivers
+        updateStatus("Looking for cameras...", Color.BLUE);
+        webcamButton.setEnabled(false);
+        WebcamDiscovery.getInstance().addListener(inventory ->
+                SwingUtilities.invokeLater(() -> onWebcamInventory(inventory)));
+        WebcamDiscovery.getInstance().discover();
+    }
+    
+    private void onWebcamInventory(WebcamDiscovery.Inventory inventory) {
+        if (isScanning) {
+            return;
+        }
+        webcam = inventory.getDefaultWebcam();
+        
+        if (webcam != null) {
+            webcamAvailable = true;
+            updateStatus("Camera detected - Both modes available", Color.GREEN);
+            historyPanel.appendText("✅ Webcam available\n");
+            webcamButton.setText("📹 Start Webcam");
+            webcamButton.setEnabled(true);
+        } else if (inventory.getError() != null) {
             webcamAvailable = false;
             updateStatus("Camera error - Image mode only", Color.ORANGE);
-            resultArea.append("❌ Camera error: " + e.getMessage() + "\n");
-            resultArea.append("📁 Image file mode is still available\n");
+            historyPanel.appendText("❌ Camera error: " + inventory.getError() + "\n");
+            historyPanel.appendText("📁 Image file mode is still available\n");
             webcamButton.setText("📹 Camera Error");
             webcamButton.setEnabled(false);
+        } else {
+            webcamAvailable = false;
+            updateStatus("No camera - Image mode only", Color.ORANGE);
+            historyPanel.appendText("⚠️ No webcam detected - Image mode available\n");
+            webcamButton.setText("📹 No Camera Found");
+            webcamButton.setEnabled(false);
         }
     }
     
@@ -278,8 +284,7 @@ public class HybridBarcodeScanner extends JFrame {
             updateStatus("Webcam active - Point at barcode", Color.GREEN);
             displayLabel.setText("Webcam starting...");
             
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-            resultArea.append("[" + timestamp + "] 📹 Webcam mode started\n");
+            historyPanel.appendText("📹 Webcam mode started\n");
             
         } catch (Exception ex) {
             updateStatus("Webcam error: " + ex.getMessage(), Color.RED);
@@ -316,8 +321,7 @@ public class HybridBarcodeScanner extends JFrame {
                     
                     updateStatus("Image loaded - Scanning...", Color.BLUE);
                     
-                    String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-                    resultArea.append("[" + timestamp + "] 📁 Image loaded: " + selectedFile.getName() + "\n");
+                    historyPanel.appendText("📁 Image loaded: " + selectedFile.getName() + "\n");
                     
                     // Automatically scan the loaded image
                     scanCurrentImage();
@@ -347,10 +351,7 @@ public class HybridBarcodeScanner extends JFrame {
             String format = result.getBarcodeFormat().toString();
             
             // Add to results
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-            String resultText = String.format("[%s] %s: %s\n", timestamp, format, barcodeText);
-            resultArea.append(resultText);
-            resultArea.setCaretPosition(resultArea.getDocument().getLength());
+            historyPanel.addScan(format, barcodeText, null);
             
             updateStatus("DETECTED: " + format, Color.GREEN);
             
@@ -372,8 +373,7 @@ public class HybridBarcodeScanner extends JFrame {
             
         } catch (NotFoundException e) {
             updateStatus("No barcode found in image", Color.ORANGE);
-            resultArea.append("[" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss")) + 
-                             "] ❌ No barcode detected in image\n");
+            historyPanel.appendText("❌ No barcode detected in image\n");
             
             JOptionPane.showMessageDialog(this, 
                 "No barcode found in the image.\n\n" +
@@ -410,7 +410,7 @@ public class HybridBarcodeScanner extends JFrame {
     private void detectBarcodeInFrame(BufferedImage image) {
         try {
             LuminanceSource source = new BufferedImageLuminanceSource(image);
-            BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
+            BinaryBitmap bitmap = new BinaryBitmap(new ReusableBinarizer(source, binarizerWorkspace));
             
             Result result = barcodeReader.decode(bitmap);
             String barcodeText = result.getText();
@@ -424,10 +424,7 @@ public class HybridBarcodeScanner extends JFrame {
                 lastDetectedBarcode = barcodeText;
                 lastDetectionTime = currentTime;
                 
-                String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-                String resultText = String.format("[%s] %s: %s\n", timestamp, format, barcodeText);
-                resultArea.append(resultText);
-                resultArea.setCaretPosition(resultArea.getDocument().getLength());
+                historyPanel.addScan(format, barcodeText, null);
                 
                 updateStatus("DETECTED: " + format, Color.GREEN);
                 
@@ -474,8 +471,7 @@ public class HybridBarcodeScanner extends JFrame {
         
         updateStatus("Scanning stopped", Color.ORANGE);
         
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-        resultArea.append("[" + timestamp + "] ⏹ Scanning stopped\n");
+        historyPanel.appendText("⏹ Scanning stopped\n");
     }
     
     private void showHelp() {
@@ -0,0 +1,83 @@
+package com.example.barcodescanner;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Result;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Half-inverted codes and blank frames, decoded three ways: ZXing with ALSO_INVERTED (a
+ * second decode on a flipped matrix after every miss), the detector as printed only, and
+ * the detector judging polarity up front. Reports correct reads and time per frame.
+ *
+ * Usage: InversionBenchmark [frames] [invertedRatio]
+ */
+public class InversionBenchmark {
+
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        double ratio = args.length > 1 ? Double.parseDouble(args[1]) : 0.5;
+
+        List<SyntheticCorpus.Sample> mixed = new SyntheticCorpus(48).withInvertedRatio(ratio).generate(frames);
+        List<SyntheticCorpus.Sample> blank = new SyntheticCorpus(49).withBlankRatio(1.0).generate(frames);
+
+        MultiFormatReader reader = new MultiFormatReader();
+        Map<DecodeHintType, Object> hints =
+                new HashMap<>(BarcodeDetector.buildHints(BarcodeDetector.DecodeProfile.ACCURATE));
+        hints.put(DecodeHintType.ALSO_INVERTED, Boolean.TRUE);
+        Function<BufferedImage, Result> zxingInverted = image -> {
+            try {
+                return reader.decode(new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image))), hints);
+            } catch (NotFoundException e) {
+                return null;
+            }
+        };
+        BarcodeDetector plain = new BarcodeDetector();
+        BarcodeDetector polarity = new BarcodeDetector();
+        polarity.setInvertedCodes(true);
+
+        System.out.println("=== Inversion Benchmark ===");
+        System.out.printf("%d codes, %.0f%% inverted, %d blank frames%n", frames, ratio * 100, frames);
+        for (List<SyntheticCorpus.Sample> samples : List.of(mixed, blank)) {
+            String set = samples == mixed ? "mixed" : "blank";
+            run("ZXing ALSO_INVERTED", set, samples, zxingInverted);
+            run("Detector, as printed", set, samples, image -> first(plain.decodeFrame(image)));
+            run("Detector, polarity", set, samples, image -> first(polarity.decodeFrame(image)));
+        }
+        System.out.printf("Polarity: %d frames decoded inverted%n", polarity.getInvertedFrames());
+        plain.close();
+        polarity.close();
+    }
+
+    private static Result first(Result[] results) {
+        return results.length > 0 ? results[0] : null;
+    }
+
+    private static void run(String name, String set, List<SyntheticCorpus.Sample> samples,
+                            Function<BufferedImage, Result> decoder) {
+        for (int i = 0; i < Math.min(50, samples.size()); i++) {
+            decoder.apply(samples.get(i).getImage()); // warm up
+        }
+        LatencyStats times = new LatencyStats();
+        int correct = 0;
+        for (SyntheticCorpus.Sample sample : samples) {
+            long start = System.nanoTime();
+            Result result = decoder.apply(sample.getImage());
+            times.record(System.nanoTime() - start);
+            if (sample.getText() == null ? result == null : result != null && sample.getText().equals(result.getText())) {
+                correct++;
+            }
+        }
+        System.out.printf("%-21s %-5s correct %3d/%d  mean %6.2f ms  p99 %6.2f ms%n", name, set, correct, samples.size(),
+                times.getMeanNanos() / 1e6, times.getPercentileNanos(99) / 1e6);
+    }
+}
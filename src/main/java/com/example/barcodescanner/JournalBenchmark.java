@@ -0,0 +1,94 @@
+package com.example.barcodescanner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Scan events published at a steady rate through the detector's default result bus with a
+ * ScanJournal subscribed. Reports what publishing costs the decode thread, events dropped,
+ * commits and events per commit (group commit), then lookup times by code and by time
+ * range, the index rebuild on reopen and a compaction.
+ *
+ * Usage: JournalBenchmark [eventsPerSecond] [seconds] [directory]
+ */
+public class JournalBenchmark {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int rate = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        Path directory = args.length > 2 ? Paths.get(args[2]) : Files.createTempDirectory("scan-journal");
+        int total = rate * seconds;
+        int codes = 1000;
+
+        System.out.println("=== Journal Benchmark ===");
+        System.out.printf("%d events/s for %d s into %s%n", rate, seconds, directory);
+
+        ResultBus bus = new ResultBus();
+        LatencyStats publishTimes = new LatencyStats();
+        long runStart = System.currentTimeMillis();
+        try (ScanJournal journal = new ScanJournal(directory)) {
+            bus.subscribe(journal);
+            bus.start();
+            long start = System.nanoTime();
+            for (int i = 0; i < total; i++) {
+                long due = start + (long) i * 1_000_000_000L / rate;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait); // not a spin, which would starve the dispatcher on one core
+                }
+                ScanEvent.Timing timing = new ScanEvent.Timing(i, due, due, due, "Identity/Hybrid single");
+                ScanEvent event = new ScanEvent("SKU-" + (i % codes), "CODE_128", "lane-" + (i % 4), timing);
+                long published = System.nanoTime();
+                bus.publish(event);
+                publishTimes.record(System.nanoTime() - published);
+            }
+            bus.flush(10_000);
+            long elapsed = System.nanoTime() - start;
+
+            System.out.printf("Journaled %d events in %.2f s (%.0f/s), %d dropped%n", journal.getEventCount(),
+                    elapsed / 1e9, journal.getEventCount() * 1e9 / elapsed, bus.getDroppedCount());
+            System.out.printf("Publish   mean %6.2f us  p99 %6.2f us%n",
+                    publishTimes.getMeanNanos() / 1e3, publishTimes.getPercentileNanos(99) / 1e3);
+            System.out.printf("Commits   %d (%.1f events each)  mean %6.3f ms  p99 %6.3f ms%n", journal.getCommitCount(),
+                    (double) journal.getEventCount() / Math.max(1, journal.getCommitCount()),
+                    journal.getCommitTimes().getMeanNanos() / 1e6, journal.getCommitTimes().getPercentileNanos(99) / 1e6);
+            System.out.printf("Written   %.1f MB in %d segments%n", journal.getBytesWritten() / 1e6,
+                    journal.getSegmentCount());
+        } finally {
+            bus.shutdown();
+        }
+
+        long reopened = System.nanoTime();
+        try (ScanJournal journal = new ScanJournal(directory)) {
+            System.out.printf("Reopen    %.1f ms to index %d records%n", (System.nanoTime() - reopened) / 1e6,
+                    journal.getSequence());
+
+            LatencyStats byCode = new LatencyStats();
+            for (int i = 0; i < codes; i++) {
+                long start = System.nanoTime();
+                journal.findByCode("SKU-" + i);
+                byCode.record(System.nanoTime() - start);
+            }
+            LatencyStats byTime = new LatencyStats();
+            long span = Math.max(1, System.currentTimeMillis() - runStart);
+            for (int i = 0; i < 100; i++) {
+                long from = runStart + span * i / 100;
+                long start = System.nanoTime();
+                journal.findByTime(from, from + 100);
+                byTime.record(System.nanoTime() - start);
+            }
+            System.out.printf("By code   mean %7.1f us  p99 %7.1f us  (%d records each)%n",
+                    byCode.getMeanNanos() / 1e3, byCode.getPercentileNanos(99) / 1e3, total / codes);
+            System.out.printf("By time   mean %7.1f us  p99 %7.1f us  (100 ms windows)%n",
+                    byTime.getMeanNanos() / 1e3, byTime.getPercentileNanos(99) / 1e3);
+
+            long compacting = System.nanoTime();
+            long freed = journal.compact(Long.MIN_VALUE);
+            System.out.printf("Compact   %.1f ms, %.1f MB freed, %d segments left%n",
+                    (System.nanoTime() - compacting) / 1e6, freed / 1e6, journal.getSegmentCount());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.barcodescanner;
+
+import java.util.Arrays;
+
+/**
+ * Rolling window of latency samples (in nanoseconds) with percentile queries.
+ * Recording is a single array store, so it is cheap enough for per-event use.
+ */
+public class LatencyStats {
+
+    public static final int DEFAULT_WINDOW = 4096;
+
+    private final long[] samples;
+    private long count = 0;
+    private long max = 0;
+    private long total = 0;
+
+    public LatencyStats() {
+        this(DEFAULT_WINDOW);
+    }
+
+    public LatencyStats(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        this.samples = new long[window];
+    }
+
+    public synchronized void record(long nanos) {
+        samples[(int) (count % samples.length)] = nanos;
+        count++;
+        total += nanos;
+        if (nanos > max) {
+            max = nanos;
+        }
+    }
+
+    /**
+     * Total number of samples recorded, including those rolled out of the window
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Largest sample ever recorded
+     */
+    public synchronized long getMaxNanos() {
+        return max;
+    }
+
+    /**
+     * Mean over all samples ever recorded
+     */
+    public synchronized double getMeanNanos() {
+        return count > 0 ? (double) total / count : 0.0;
+    }
+
+    /**
+     * Percentile (0-100) over the samples currently in the window
+     */
+    public synchronized long getPercentileNanos(double percentile) {
+        int size = (int) Math.min(count, samples.length);
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+
+    public synchronized void reset() {
+        count = 0;
+        max = 0;
+        total = 0;
+    }
+
+    /**
+     * One-line summary in milliseconds
+     */
+    public String summary() {
+        return String.format("n=%d mean=%.2fms p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms",
+                getCount(), getMeanNanos() / 1e6,
+                getPercentileNanos(50) / 1e6, getPercentileNanos(95) / 1e6,
+                getPercentileNanos(99) / 1e6, getMaxNanos() / 1e6);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.barcodescanner;
+
+import com.google.zxing.LuminanceSource;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+/**
+ * Reusable luma plane for turning frames into a {@link LuminanceSource}.
+ *
+ * BufferedImageLuminanceSource allocates and paints a fresh grey image for every frame.
+ * This converts straight from the raster into a buffer kept per decode thread (same
+ * integer weights and transparent-is-white rule as ZXing), and wraps grey frames with
+ * no copy at all. Not thread-safe: the returned source is only valid until the next wrap.
+ *
+ * The source supports 90-degree rotation, as BufferedImageLuminanceSource does, so
+ * TRY_HARDER still retries 1D codes turned on their side.
+ *
+ * The static kernels are also used by capture to turn raw camera bytes into luma frames.
+ */
+class LumaBuffer {
+
+    private byte[] luma = new byte[0];
+    private int[] row = new int[0];
+
+    LuminanceSource wrap(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        FrameRecorder.PixelFormat format = FrameRecorder.rawFormatOf(image);
+
+        if (format == FrameRecorder.PixelFormat.LUMA) {
+            byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            return new Source(data, width, height, 0, 0, width, height);
+        }
+
+        int size = width * height;
+        if (luma.length < size) {
+            luma = new byte[size];
+        }
+        row = convert(image, format, luma, row);
+        return new Source(luma, width, height, 0, 0, width, height);
+    }
+
+    /**
+     * A window onto a row-major luma plane. Like PlanarYUVLuminanceSource, the full plane
+     * hands out its backing array from getMatrix; unlike it (it is final and cannot be
+     * extended), it can rotate.
+     */
+    static final class Source extends LuminanceSource {
+        private final byte[] luma;
+        private final int dataWidth;
+        private final int dataHeight;
+        private final int left;
+        private final int top;
+
+        Source(byte[] luma, int dataWidth, int dataHeight, int left, int top, int width, int height) {
+            super(width, height);
+            if (left + width > dataWidth || top + height > dataHeight) {
+                throw new IllegalArgumentException("Crop rectangle does not fit within image data.");
+            }
+            this.luma = luma;
+            this.dataWidth = dataWidth;
+            this.dataHeight = dataHeight;
+            this.left = left;
+            this.top = top;
+        }
+
+        @Override
+        public byte[] getRow(int y, byte[] row) {
+            if (y < 0 || y >= getHeight()) {
+                throw new IllegalArgumentException("Requested row is outside the image: " + y);
+            }
+            int width = getWidth();
+            if (row == null || row.length < width) {
+                row = new byte[width];
+            }
+            System.arraycopy(luma, (y + top) * dataWidth + left, row, 0, width);
+            return row;
+        }
+
+        @Override
+        public byte[] getMatrix() {
+            int width = getWidth();
+            int height = getHeight();
+            if (width == dataWidth && height == dataHeight) {
+                return luma;
+            }
+            byte[] matrix = new byte[width * height];
+            for (int y = 0; y < height; y++) {
+                System.arraycopy(luma, (y + top) * dataWidth + left, matrix, y * width, width);
+            }
+            return matrix;
+        }
+
+        @Override
+        public boolean isCropSupported() {
+            return true;
+        }
+
+        @Override
+        public LuminanceSource crop(int left, int top, int width, int height) {
+            return new Source(luma, dataWidth, dataHeight, this.left + left, this.top + top, width, height);
+        }
+
+        @Override
+        public boolean isRotateSupported() {
+            return true;
+        }
+
+        /**
+         * A copy turned a quarter turn anticlockwise; only a TRY_HARDER miss pays for it
+         */
+        @Override
+        public LuminanceSource rotateCounterClockwise() {
+            int width = getWidth();
+            int height = getHeight();
+            byte[] rotated = new byte[width * height];
+            for (int y = 0; y < height; y++) {
+                int offset = (y + top) * dataWidth + left;
+                for (int x = 0; x < width; x++) {
+                    rotated[(width - 1 - x) * height + y] = luma[offset + x];
+                }
+            }
+            return new Source(rotated, height, width, 0, 0, height, width);
+        }
+    }
+
+    /**
+     * Write the image's luma into dst (row-major, width * height bytes).
+     * Returns the scratch row, grown if the generic path needed a bigger one.
+     */
+    static int[] convert(BufferedImage image, FrameRecorder.PixelFormat format, byte[] dst, int[] row) {
+        int size = image.getWidth() * image.getHeight();
+        if (format == FrameRecorder.PixelFormat.LUMA) {
+            System.arraycopy(((DataBufferByte) image.getRaster().getDataBuffer()).getData(), 0, dst, 0, size);
+        } else if (format == FrameRecorder.PixelFormat.BGR) {
+            bgrToLuma(((DataBufferByte) image.getRaster().getDataBuffer()).getData(), dst, size);
+        } else if (format == FrameRecorder.PixelFormat.RGB) {
+            rgbToLuma(((DataBufferByte) image.getRaster().getDataBuffer()).getData(), dst, size);
+        } else {
+            row = argbToLuma(image, dst, row);
+        }
+        return row;
+    }
+
+    static void bgrToLuma(byte[] bgr, byte[] dst, int size) {
+        PixelKernels.get().bgrToLuma(bgr, dst, size);
+    }
+
+    static void rgbToLuma(byte[] rgb, byte[] dst, int size) {
+        PixelKernels.get().rgbToLuma(rgb, dst, size);
+    }
+
+    private static int[] argbToLuma(BufferedImage image, byte[] dst, int[] row) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (row.length < width) {
+            row = new int[width];
+        }
+        for (int y = 0, offset = 0; y < height; y++, offset += width) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                int pixel = row[x];
+                dst[offset + x] = (pixel & 0xFF000000) == 0
+                        ? (byte) 0xFF // fully transparent reads as white, as in BufferedImageLuminanceSource
+                        : (byte) ((306 * ((pixel >> 16) & 0xFF) + 601 * ((pixel >> 8) & 0xFF) + 117 * (pixel & 0xFF) + 0x200) >> 10);
+            }
+        }
+        return row;
+    }
+}
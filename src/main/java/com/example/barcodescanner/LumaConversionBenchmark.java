@@ -0,0 +1,60 @@
+package com.example.barcodescanner;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+/**
+ * Cost of getting a 640x480 camera frame into a LuminanceSource, per path:
+ * ZXing's BufferedImageLuminanceSource on the driver's RGB image, LumaBuffer on the
+ * same image, the capture-side kernel on raw RGB bytes, and wrapping a native luma frame.
+ *
+ * Usage: LumaConversionBenchmark [frames]
+ */
+public class LumaConversionBenchmark {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+
+        BufferedImage source = new SyntheticCorpus(41).generate(1).get(0).getImage();
+        BufferedImage rgb = FramePool.newRgbImage(WIDTH, HEIGHT);
+        rgb.getGraphics().drawImage(source, 0, 0, WIDTH, HEIGHT, null);
+        byte[] raw = ((DataBufferByte) rgb.getRaster().getDataBuffer()).getData();
+        BufferedImage gray = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] luma = ((DataBufferByte) gray.getRaster().getDataBuffer()).getData();
+        LumaBuffer buffer = new LumaBuffer();
+
+        System.out.println("=== Luma Conversion Benchmark ===");
+        System.out.printf("Frame %dx%d: RGB %d KB, luma %d KB%n", WIDTH, HEIGHT, raw.length / 1024, luma.length / 1024);
+
+        run("BufferedImageLuminanceSource", frames, () -> touch(new BufferedImageLuminanceSource(rgb)));
+        run("LumaBuffer on RGB image", frames, () -> touch(buffer.wrap(rgb)));
+        run("Capture kernel on raw bytes", frames, () -> LumaBuffer.rgbToLuma(raw, luma, WIDTH * HEIGHT));
+        run("LumaBuffer on luma frame", frames, () -> touch(buffer.wrap(gray)));
+    }
+
+    private static int sink;
+
+    private static void touch(LuminanceSource source) {
+        sink += source.getMatrix()[source.getWidth() * source.getHeight() / 2];
+    }
+
+    private static void run(String name, int frames, Runnable conversion) {
+        for (int i = 0; i < frames / 4; i++) {
+            conversion.run(); // warm up
+        }
+        FrameCostStats costs = new FrameCostStats(frames);
+        for (int i = 0; i < frames; i++) {
+            FrameCostStats.Probe probe = FrameCostStats.begin();
+            conversion.run();
+            probe.end(costs, null);
+        }
+        System.out.printf("%-30s %7.3f ms/frame  %8.1f KB allocated/frame%n",
+                name, costs.getMeanWallNanos() / 1e6, costs.getMeanAllocatedBytes() / 1024.0);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.barcodescanner;
+
+import com.google.zxing.LuminanceSource;
+
+/**
+ * Luminance source that maps every luma value of a delegate through a 256-entry lookup table
+ */
+public class LutLuminanceSource extends LuminanceSource {
+
+    private final LuminanceSource delegate;
+    private final byte[] lut;
+
+    public LutLuminanceSource(LuminanceSource delegate, byte[] lut) {
+        super(delegate.getWidth(), delegate.getHeight());
+        if (lut.length != 256) {
+            throw new IllegalArgumentException("LUT must have 256 entries");
+        }
+        this.delegate = delegate;
+        this.lut = lut;
+    }
+
+    @Override
+    public byte[] getRow(int y, byte[] row) {
+        row = delegate.getRow(y, row);
+        int width = getWidth();
+        for (int x = 0; x < width; x++) {
+            row[x] = lut[row[x] & 0xFF];
+        }
+        return row;
+    }
+
+    @Override
+    public byte[] getMatrix() {
+        // The delegate may hand out its own backing array, so map into a copy
+        return getMatrix(new byte[getWidth() * getHeight()]);
+    }
+
+    /**
+     * Map the whole frame into a caller-owned buffer of at least width * height bytes
+     */
+    byte[] getMatrix(byte[] matrix) {
+        byte[] source = delegate.getMatrix();
+        int length = getWidth() * getHeight();
+        for (int i = 0; i < length; i++) {
+            matrix[i] = lut[source[i] & 0xFF];
+        }
+        return matrix;
+    }
+
+    @Override
+    public boolean isCropSupported() {
+        return delegate.isCropSupported();
+    }
+
+    @Override
+    public LuminanceSource crop(int left, int top, int width, int height) {
+        return new LutLuminanceSource(delegate.crop(left, top, width, height), lut);
+    }
+
+    /**
+     * Inverted view through the same delegate, unlike ZXing's InvertedLuminanceSource,
+     * which copies the whole frame whenever the matrix is read
+     */
+    @Override
+    public LuminanceSource invert() {
+        return new LutLuminanceSource(delegate, invert(lut));
+    }
+
+    /**
+     * A table mapping through lut (or nothing, if null) and then light-for-dark
+     */
+    static byte[] invert(byte[] lut) {
+        byte[] inverted = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            inverted[i] = (byte) (255 - (lut != null ? lut[i] & 0xFF : i));
+        }
+        return inverted;
+    }
+
+    @Override
+    public boolean isRotateSupported() {
+        return delegate.isRotateSupported();
+    }
+
+    @Override
+    public LuminanceSource rotateCounterClockwise() {
+        return new LutLuminanceSource(delegate.rotateCounterClockwise(), lut);
+    }
+
+    @Override
+    public LuminanceSource rotateCounterClockwise45() {
+        return new LutLuminanceSource(delegate.rotateCounterClockwise45(), lut);
+    }
+}
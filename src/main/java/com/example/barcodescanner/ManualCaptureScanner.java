@@ -13,8 +13,6 @@ import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -26,18 +24,18 @@ public class ManualCaptureScanner extends JFrame {
     
     private Webcam webcam;
     private JLabel cameraLabel;
-    private JTextArea resultArea;
+    private ScanHistoryPanel historyPanel;
     private JButton startButton;
     private JButton stopButton;
     private JButton captureButton;
     private JLabel statusLabel;
     private Timer cameraTimer;
     private MultiFormatReader barcodeReader;
-    private BufferedImage lastCapturedImage;
     
     private final AtomicBoolean isScanning = new AtomicBoolean(false);
     
     public ManualCaptureScanner() {
+        long startNanos = System.nanoTime();
         System.out.println("Initializing Manual Capture Barcode Scanner...");
         
         initializeComponents();
@@ -46,7 +44,7 @@ public class ManualCaptureScanner extends JFrame {
         setupEventHandlers();
         checkWebcamAvailability();
         
-        System.out.println("Manual Capture Scanner initialization complete!");
+        System.out.printf("Manual Capture Scanner initialization complete in %d ms%n", (System.nanoTime() - startNanos) / 1_000_000);
     }
     
     private void initializeComponents() {
@@ -150,12 +148,9 @@ public class ManualCaptureScanner extends JFrame {
         JPanel resultPanel = new JPanel(new BorderLayout());
         resultPanel.setBorder(BorderFactory.createTitledBorder("🎯 Scan Results"));
         
-        resultArea = new JTextArea();
-        resultArea.setEditable(false);
-        resultArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
-        JScrollPane scrollPane = new JScrollPane(resultArea);
+        historyPanel = new ScanHistoryPanel();
         
-        resultPanel.add(scrollPane);
+        resultPanel.add(historyPanel);
         resultPanel.setPreferredSize(new java.awt.Dimension(0, 150));
         
         // Main layout
@@ -199,9 +194,9 @@ public class ManualCaptureScanner extends JFrame {
     private void captureAndScan() {
         if (webcam != null && webcam.isOpen()) {
             try {
-                // Capture image
-                lastCapturedImage = webcam.getImage();
-                if (lastCapturedImage != null) {
+                // Capture image; not kept once analysed
+                BufferedImage capturedImage = webcam.getImage();
+                if (capturedImage != null) {
                     // Visual feedback
                     cameraLabel.setBorder(BorderFactory.createLineBorder(Color.YELLOW, 3));
                     Timer flashTimer = new Timer(500, e -> {
@@ -214,7 +209,7 @@ public class ManualCaptureScanner extends JFrame {
                     Toolkit.getDefaultToolkit().beep();
                     
                     // Try to detect barcode
-                    detectBarcodeInImage(lastCapturedImage);
+                    detectBarcodeInImage(capturedImage);
                 }
             } catch (Exception e) {
                 updateStatus("Capture error: " + e.getMessage(), Color.RED);
@@ -250,10 +245,7 @@ public class ManualCaptureScanner extends JFrame {
                 String format = result.getBarcodeFormat().toString();
                 
                 // Update results
-                String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-                String resultText = String.format("[%s] 🎯 %s: %s\n", timestamp, format, barcodeText);
-                resultArea.append(resultText);
-                resultArea.setCaretPosition(resultArea.getDocument().getLength());
+                historyPanel.addScan(format, barcodeText, null);
                 
                 // Visual feedback
                 cameraLabel.setBorder(BorderFactory.createLineBorder(Color.GREEN, 3));
@@ -287,7 +279,7 @@ public class ManualCaptureScanner extends JFrame {
             updateStatus("Starting camera...", Color.BLUE);
             
             if (webcam == null) {
-                webcam = Webcam.getDefault();
+                webcam = WebcamDiscovery.getInstance().awaitInventory().getDefaultWebcam();
                 if (webcam == null) {
                     throw new RuntimeException("No camera available");
                 }
@@ -297,9 +289,9 @@ public class ManualCaptureScanner extends JFrame {
             java.awt.Dimension[] sizes = webcam.getViewSizes();
             
             // Print available resolutions
-            resultArea.append("\nAvailable camera resolutions:\n");
+            historyPanel.appendText("\nAvailable camera resolutions:\n");
             for (java.awt.Dimension size : sizes) {
-                resultArea.append(String.format("- %dx%d\n", size.width, size.height));
+                historyPanel.appendText(String.format("- %dx%d\n", size.width, size.height));
             }
             
             // Find the highest resolution available
@@ -310,7 +302,7 @@ public class ManualCaptureScanner extends JFrame {
                 }
             }
             
-            resultArea.append(String.format("\nSetting resolution to: %dx%d\n", bestSize.width, bestSize.height));
+            historyPanel.appendText(String.format("\nSetting resolution to: %dx%d\n", bestSize.width, bestSize.height));
             webcam.setViewSize(bestSize);
             
             if (!webcam.open()) {
@@ -366,20 +358,31 @@ public class ManualCaptureScanner extends JFrame {
     }
     
     private void checkWebcamAvailability() {
-        try {
-            webcam = Webcam.getDefault();
-            
-            if (webcam != null) {
-                updateStatus("✅ Camera detected: " + webcam.getName(), Color.GREEN);
-                resultArea.append("✅ Camera found: " + webcam.getName() + "\n");
-            } else {
-                updateStatus("❌ No camera found", Color.RED);
-                resultArea.append("❌ No camera detected\n");
-                startButton.setEnabled(false);
-            }
-        } catch (Exception e) {
-            updateStatus("❌ Camera error: " + e.getMessage(), Color.RED);
-            resultArea.append("❌ Camera error: " + e.getMessage() + "\n");
+        // Enumerate in the background so the window comes up without waiting for drivers
+        updateStatus("🔍 Looking for cameras...", Color.BLUE);
+        startButton.setEnabled(false);
+        WebcamDiscovery.getInstance().addListener(inventory ->
+                SwingUtilities.invokeLater(() -> onWebcamInventory(inventory)));
+        WebcamDiscovery.getInstance().discover();
+    }
+    
+    private void onWebcamInventory(WebcamDiscovery.Inventory inventory) {
+        if (isScanning.get()) {
+            return;
+        }
+        webcam = inventory.getDefaultWebcam();
+        
+        if (webcam != null) {
+            updateStatus("✅ Camera detected: " + inventory.getDefaultDevice().getName(), Color.GREEN);
+            historyPanel.appendText("✅ Camera found: " + inventory.getDefaultDevice().getName() + "\n");
+            startButton.setEnabled(true);
+        } else if (inventory.getError() != null) {
+            updateStatus("❌ Camera error: " + inventory.getError(), Color.RED);
+            historyPanel.appendText("❌ Camera error: " + inventory.getError() + "\n");
+            startButton.setEnabled(false);
+        } else {
+            updateStatus("❌ No camera found", Color.RED);
+            historyPanel.appendText("❌ No camera detected\n");
             startButton.setEnabled(false);
         }
     }
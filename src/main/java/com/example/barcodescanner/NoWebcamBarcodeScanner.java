@@ -11,8 +11,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 import javax.imageio.ImageIO;
@@ -23,7 +21,7 @@ import javax.imageio.ImageIO;
 public class NoWebcamBarcodeScanner extends JFrame {
     
     private JLabel imageLabel;
-    private JTextArea resultArea;
+    private ScanHistoryPanel historyPanel;
     private JButton loadImageButton;
     private JButton scanButton;
     private JLabel statusLabel;
@@ -116,19 +114,14 @@ public class NoWebcamBarcodeScanner extends JFrame {
         resultPanel.setBorder(BorderFactory.createTitledBorder("Scan Results"));
         resultPanel.setPreferredSize(new java.awt.Dimension(0, 150));
         
-        resultArea = new JTextArea();
-        resultArea.setEditable(false);
-        resultArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
-        resultArea.setText("Barcode Scanner Ready!\n");
-        resultArea.append("1. Click 'Load Image' to select a barcode image\n");
-        resultArea.append("2. Click 'Scan Barcode' to detect barcodes\n");
-        resultArea.append("3. Results will appear here\n\n");
-        resultArea.append("Supported formats: QR Code, Code 128, EAN-13, UPC-A, and more!\n");
+        historyPanel = new ScanHistoryPanel();
+        historyPanel.setText("Barcode Scanner Ready!\n");
+        historyPanel.appendText("1. Click 'Load Image' to select a barcode image\n");
+        historyPanel.appendText("2. Click 'Scan Barcode' to detect barcodes\n");
+        historyPanel.appendText("3. Results will appear here\n\n");
+        historyPanel.appendText("Supported formats: QR Code, Code 128, EAN-13, UPC-A, and more!\n");
         
-        JScrollPane scrollPane = new JScrollPane(resultArea);
-        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
-        
-        resultPanel.add(scrollPane, BorderLayout.CENTER);
+        resultPanel.add(historyPanel, BorderLayout.CENTER);
         
         // Layout
         add(imagePanel, BorderLayout.CENTER);
@@ -137,7 +130,7 @@ public class NoWebcamBarcodeScanner extends JFrame {
         
         // Event handlers for buttons
         clearButton.addActionListener(e -> {
-            resultArea.setText("Results cleared.\nReady for new scans...\n");
+            historyPanel.setText("Results cleared.\nReady for new scans...\n");
             updateStatus("Results cleared", Color.BLUE);
         });
         
@@ -176,8 +169,7 @@ public class NoWebcamBarcodeScanner extends JFrame {
                     scanButton.setEnabled(true);
                     updateStatus("Image loaded: " + selectedFile.getName(), Color.GREEN);
                     
-                    String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-                    resultArea.append("[" + timestamp + "] Image loaded: " + selectedFile.getName() + "\n");
+                    historyPanel.appendText("Image loaded: " + selectedFile.getName() + "\n");
                 } else {
                     throw new Exception("Could not read image file");
                 }
@@ -208,10 +200,7 @@ public class NoWebcamBarcodeScanner extends JFrame {
             String format = result.getBarcodeFormat().toString();
             
             // Add to results
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-            String resultText = String.format("[%s] %s: %s\n", timestamp, format, barcodeText);
-            resultArea.append(resultText);
-            resultArea.setCaretPosition(resultArea.getDocument().getLength());
+            historyPanel.addScan(format, barcodeText, null);
             
             updateStatus("Barcode detected: " + format, Color.GREEN);
             
@@ -233,8 +222,7 @@ public class NoWebcamBarcodeScanner extends JFrame {
             
         } catch (NotFoundException e) {
             updateStatus("No barcode found in image", Color.ORANGE);
-            resultArea.append("[" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss")) + 
-                             "] No barcode detected in image\n");
+            historyPanel.appendText("No barcode detected in image\n");
             
             JOptionPane.showMessageDialog(this, 
                 "No barcode found in the image.\n\n" +
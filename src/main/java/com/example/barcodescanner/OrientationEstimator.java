@@ -0,0 +1,393 @@
+package com.example.barcodescanner;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.ResultPoint;
+
+import java.util.Arrays;
+
+/**
+ * Finds the strongest barcode-like region of a luma frame and the angle its bars run at,
+ * so a rotated or skewed 1D code can be turned upright and decoded in one attempt.
+ *
+ * The frame is cut into 16x16 cells and each cell's structure tensor (sums of gx*gx, gy*gy
+ * and gx*gy of Scharr gradients at every other pixel) gives its dominant gradient direction and how coherent
+ * it is. Bars make cells with strong, coherent gradients all pointing the same way; flat
+ * background, noise and 2D codes do not. The dominant direction is the peak of a weighted
+ * histogram of cell angles, and the candidate region is the heaviest connected group of
+ * cells that agree with it.
+ *
+ * One estimator per decoding thread: the cell statistics and rotated region are reused
+ * from frame to frame, and the source returned by {@link #rotate} is only valid until the
+ * next call.
+ */
+public class OrientationEstimator {
+
+    static final int CELL_SIZE = 16;
+    static final int SAMPLE_STEP = 2;
+    // RMS gradient a cell needs to count as textured at all, in grey levels per two pixels
+    static final int MIN_GRADIENT = 20;
+    // Scharr weights sum to 16 times a plain central difference
+    private static final int SCHARR_SCALE = 16;
+    // Anisotropy over energy: 1 for perfectly parallel edges, 0 for no preferred direction
+    static final double MIN_COHERENCE = 0.7;
+    // How far a cell's angle may be from the dominant one and still belong to the region
+    static final double ANGLE_TOLERANCE_DEGREES = 12;
+    static final int MIN_CELLS = 4;
+    // Codes within this of upright already decode on the full frame
+    static final double MIN_ROTATION_DEGREES = 10;
+    // Room around the bars for the quiet zone: across the bars, and along them
+    static final int QUIET_ZONE = 48;
+    static final int END_MARGIN = 8;
+    // Rotated regions are padded to a multiple of this, so the binarizer can keep its buffers
+    static final int REGION_ALIGN = 64;
+
+    private static final int ANGLE_BINS = 72;
+    private static final int SAMPLES_PER_CELL = (CELL_SIZE / SAMPLE_STEP) * (CELL_SIZE / SAMPLE_STEP);
+    private static final double MIN_ENERGY = (double) MIN_GRADIENT * MIN_GRADIENT
+            * SCHARR_SCALE * SCHARR_SCALE * SAMPLES_PER_CELL;
+
+    /**
+     * Dominant orientation of a frame and the region that has it
+     */
+    public static class Candidate {
+        private final double angle;
+        private final double coherence;
+        private final int cells;
+        private final double cos;
+        private final double sin;
+        private final double originU;
+        private final double originV;
+        private final int width;
+        private final int height;
+
+        Candidate(double angle, double coherence, int cells, double originU, double originV, int width, int height) {
+            this.angle = angle;
+            this.coherence = coherence;
+            this.cells = cells;
+            this.cos = Math.cos(Math.toRadians(angle));
+            this.sin = Math.sin(Math.toRadians(angle));
+            this.originU = originU;
+            this.originV = originV;
+            this.width = width;
+            this.height = height;
+        }
+
+        /**
+         * Direction across the bars in degrees, in (-90, 90]: 0 for upright bars, 90 for a code on its side
+         */
+        public double getAngle() { return angle; }
+
+        /**
+         * Weighted mean coherence of the region's cells, 0 to 1
+         */
+        public double getCoherence() { return coherence; }
+
+        public int getCells() { return cells; }
+
+        /**
+         * Size of the upright region {@link #rotate} produces
+         */
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+
+        /**
+         * True when the code is turned far enough that the full-frame decode would miss it
+         */
+        public boolean needsRotation() {
+            return Math.abs(angle) >= MIN_ROTATION_DEGREES;
+        }
+
+        /**
+         * Map a point found in the upright region back to frame coordinates
+         */
+        public ResultPoint toFrame(ResultPoint point) {
+            double u = originU + point.getX();
+            double v = originV + point.getY();
+            return new ResultPoint((float) (u * cos - v * sin), (float) (u * sin + v * cos));
+        }
+    }
+
+    // Per-cell structure tensor: Jxx - Jyy, 2 * Jxy and Jxx + Jyy
+    private long[] diff = new long[0];
+    private long[] cross = new long[0];
+    private long[] energy = new long[0];
+    private int[] labels = new int[0];
+    private int[] queue = new int[0];
+    private final double[] histogram = new double[ANGLE_BINS];
+    private byte[] region = new byte[0];
+
+    // Metrics
+    private long estimates = 0;
+    private long candidates = 0;
+
+    /**
+     * Estimate the dominant orientation of a row-major luma plane, or null when nothing
+     * in the frame looks like a 1D code
+     */
+    public Candidate estimate(byte[] luma, int width, int height) {
+        estimates++;
+        int cellsX = width / CELL_SIZE;
+        int cellsY = height / CELL_SIZE;
+        int cellCount = cellsX * cellsY;
+        if (cellCount < MIN_CELLS) {
+            return null;
+        }
+        if (diff.length < cellCount) {
+            diff = new long[cellCount];
+            cross = new long[cellCount];
+            energy = new long[cellCount];
+            labels = new int[cellCount];
+            queue = new int[cellCount];
+        }
+
+        cellTensors(luma, width, height, cellsX, cellsY);
+        double dominant = dominantAngle(cellCount);
+        if (Double.isNaN(dominant)) {
+            return null;
+        }
+        Candidate candidate = region(dominant, cellsX, cellsY);
+        if (candidate != null) {
+            candidates++;
+        }
+        return candidate;
+    }
+
+    private void cellTensors(byte[] luma, int width, int height, int cellsX, int cellsY) {
+        for (int cy = 0, cell = 0; cy < cellsY; cy++) {
+            for (int cx = 0; cx < cellsX; cx++, cell++) {
+                long xx = 0, yy = 0, xy = 0;
+                // Scharr gradients, keeping one pixel clear of the frame edge. Simple differences
+                // bias the angle by several degrees at bar widths of a few pixels; Scharr's
+                // 3-10-3 smoothing keeps it within a fraction of a degree.
+                int y0 = Math.max(1, cy * CELL_SIZE);
+                int y1 = Math.min(height - 1, (cy + 1) * CELL_SIZE);
+                int x0 = Math.max(1, cx * CELL_SIZE);
+                int x1 = Math.min(width - 1, (cx + 1) * CELL_SIZE);
+                for (int y = y0; y < y1; y += SAMPLE_STEP) {
+                    int offset = y * width;
+                    for (int x = x0; x < x1; x += SAMPLE_STEP) {
+                        int i = offset + x;
+                        int up = i - width, down = i + width;
+                        int upLeft = luma[up - 1] & 0xFF, upRight = luma[up + 1] & 0xFF;
+                        int downLeft = luma[down - 1] & 0xFF, downRight = luma[down + 1] & 0xFF;
+                        int gx = 3 * (upRight - upLeft + downRight - downLeft)
+                                + 10 * ((luma[i + 1] & 0xFF) - (luma[i - 1] & 0xFF));
+                        int gy = 3 * (downLeft - upLeft + downRight - upRight)
+                                + 10 * ((luma[down] & 0xFF) - (luma[up] & 0xFF));
+                        xx += gx * gx;
+                        yy += gy * gy;
+                        xy += gx * gy;
+                    }
+                }
+                diff[cell] = xx - yy;
+                cross[cell] = 2 * xy;
+                energy[cell] = xx + yy;
+            }
+        }
+    }
+
+    /**
+     * True for a textured cell whose gradients mostly share one direction
+     */
+    private boolean oriented(int cell) {
+        double e = energy[cell];
+        double d = diff[cell], c = cross[cell];
+        return e >= MIN_ENERGY && d * d + c * c >= MIN_COHERENCE * MIN_COHERENCE * e * e;
+    }
+
+    private double anisotropy(int cell) {
+        return Math.hypot(diff[cell], cross[cell]);
+    }
+
+    /**
+     * Peak of the anisotropy-weighted histogram of doubled cell angles (so 0 and 180 coincide),
+     * refined to the mean of the cells around it; NaN when no cell is oriented
+     */
+    private double dominantAngle(int cellCount) {
+        Arrays.fill(histogram, 0);
+        boolean any = false;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (oriented(cell)) {
+                histogram[bin(Math.atan2(cross[cell], diff[cell]))] += anisotropy(cell);
+                any = true;
+            }
+        }
+        if (!any) {
+            return Double.NaN;
+        }
+
+        int peak = 0;
+        double best = -1;
+        for (int bin = 0; bin < ANGLE_BINS; bin++) {
+            double smoothed = histogram[(bin + ANGLE_BINS - 1) % ANGLE_BINS] + histogram[bin]
+                    + histogram[(bin + 1) % ANGLE_BINS];
+            if (smoothed > best) {
+                best = smoothed;
+                peak = bin;
+            }
+        }
+
+        double peakAngle = (peak + 0.5) * 2 * Math.PI / ANGLE_BINS - Math.PI;
+        double sumX = 0, sumY = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (oriented(cell) && agrees(cell, peakAngle)) {
+                sumX += diff[cell];
+                sumY += cross[cell];
+            }
+        }
+        return Math.atan2(sumY, sumX);
+    }
+
+    private static int bin(double doubledAngle) {
+        int bin = (int) ((doubledAngle + Math.PI) * ANGLE_BINS / (2 * Math.PI));
+        return Math.min(bin, ANGLE_BINS - 1);
+    }
+
+    private boolean agrees(int cell, double doubledAngle) {
+        double delta = Math.atan2(cross[cell], diff[cell]) - doubledAngle;
+        delta = Math.abs(Math.atan2(Math.sin(delta), Math.cos(delta)));
+        return delta <= Math.toRadians(2 * ANGLE_TOLERANCE_DEGREES);
+    }
+
+    /**
+     * Heaviest 8-connected group of cells agreeing with the dominant angle, as a rectangle
+     * in the rotated frame with room for the quiet zone
+     */
+    private Candidate region(double doubledAngle, int cellsX, int cellsY) {
+        int cellCount = cellsX * cellsY;
+        for (int cell = 0; cell < cellCount; cell++) {
+            labels[cell] = oriented(cell) && agrees(cell, doubledAngle) ? -1 : 0;
+        }
+
+        int bestLabel = 0, bestCells = 0;
+        double bestWeight = 0, bestCoherence = 0;
+        int label = 0;
+        for (int seed = 0; seed < cellCount; seed++) {
+            if (labels[seed] != -1) {
+                continue;
+            }
+            label++;
+            int head = 0, tail = 0;
+            queue[tail++] = seed;
+            labels[seed] = label;
+            double weight = 0, coherence = 0;
+            while (head < tail) {
+                int cell = queue[head++];
+                double a = anisotropy(cell);
+                weight += a;
+                coherence += a * a / energy[cell];
+                int cx = cell % cellsX, cy = cell / cellsX;
+                for (int ny = Math.max(0, cy - 1); ny <= Math.min(cellsY - 1, cy + 1); ny++) {
+                    for (int nx = Math.max(0, cx - 1); nx <= Math.min(cellsX - 1, cx + 1); nx++) {
+                        int neighbour = ny * cellsX + nx;
+                        if (labels[neighbour] == -1) {
+                            labels[neighbour] = label;
+                            queue[tail++] = neighbour;
+                        }
+                    }
+                }
+            }
+            if (weight > bestWeight) {
+                bestWeight = weight;
+                bestLabel = label;
+                bestCells = tail;
+                bestCoherence = coherence / weight;
+            }
+        }
+        if (bestCells < MIN_CELLS) {
+            return null;
+        }
+
+        // Angle across the bars in (-90, 90]; u runs that way, v along the bars
+        double angle = Math.toDegrees(doubledAngle / 2);
+        if (angle <= -90) {
+            angle += 180;
+        }
+        double cos = Math.cos(Math.toRadians(angle));
+        double sin = Math.sin(Math.toRadians(angle));
+        double minU = Double.MAX_VALUE, maxU = -Double.MAX_VALUE;
+        double minV = Double.MAX_VALUE, maxV = -Double.MAX_VALUE;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (labels[cell] != bestLabel) {
+                continue;
+            }
+            double x = (cell % cellsX + 0.5) * CELL_SIZE;
+            double y = (cell / cellsX + 0.5) * CELL_SIZE;
+            double u = x * cos + y * sin;
+            double v = -x * sin + y * cos;
+            minU = Math.min(minU, u);
+            maxU = Math.max(maxU, u);
+            minV = Math.min(minV, v);
+            maxV = Math.max(maxV, v);
+        }
+
+        double marginU = CELL_SIZE / 2.0 + QUIET_ZONE;
+        double marginV = CELL_SIZE / 2.0 + END_MARGIN;
+        int regionWidth = align(maxU - minU + 2 * marginU);
+        int regionHeight = align(maxV - minV + 2 * marginV);
+        double originU = (minU + maxU - regionWidth) / 2;
+        double originV = (minV + maxV - regionHeight) / 2;
+        return new Candidate(angle, bestCoherence, bestCells, originU, originV, regionWidth, regionHeight);
+    }
+
+    private static int align(double size) {
+        return ((int) Math.ceil(size) + REGION_ALIGN - 1) / REGION_ALIGN * REGION_ALIGN;
+    }
+
+    /**
+     * Resample the candidate region upright (bars vertical) with bilinear interpolation.
+     * Points outside the frame repeat its edge.
+     */
+    public LuminanceSource rotate(byte[] luma, int width, int height, Candidate candidate) {
+        int regionWidth = candidate.width;
+        int regionHeight = candidate.height;
+        int size = regionWidth * regionHeight;
+        if (region.length < size) {
+            region = new byte[size];
+        }
+
+        // Frame position of region pixel (0, 0) and per-pixel steps, in 1/65536ths of a pixel
+        double cos = candidate.cos, sin = candidate.sin;
+        int maxX = (width - 1) << 16, maxY = (height - 1) << 16;
+        int stepXu = fixed(cos), stepYu = fixed(sin);
+        int stepXv = fixed(-sin), stepYv = fixed(cos);
+        int rowX = fixed(candidate.originU * cos - candidate.originV * sin);
+        int rowY = fixed(candidate.originU * sin + candidate.originV * cos);
+
+        for (int v = 0, out = 0; v < regionHeight; v++, rowX += stepXv, rowY += stepYv) {
+            int fx = rowX, fy = rowY;
+            for (int u = 0; u < regionWidth; u++, fx += stepXu, fy += stepYu, out++) {
+                int x = fx < 0 ? 0 : (fx > maxX ? maxX : fx);
+                int y = fy < 0 ? 0 : (fy > maxY ? maxY : fy);
+                int x0 = x >> 16, y0 = y >> 16;
+                int wx = (x >> 8) & 0xFF, wy = (y >> 8) & 0xFF;
+                int i = y0 * width + x0;
+                int right = x0 + 1 < width ? 1 : 0;
+                int down = y0 + 1 < height ? width : 0;
+                int top = (luma[i] & 0xFF) * (256 - wx) + (luma[i + right] & 0xFF) * wx;
+                int bottom = (luma[i + down] & 0xFF) * (256 - wx) + (luma[i + down + right] & 0xFF) * wx;
+                region[out] = (byte) ((top * (256 - wy) + bottom * wy + 0x8000) >> 16);
+            }
+        }
+        return new PlanarYUVLuminanceSource(region, regionWidth, regionHeight, 0, 0, regionWidth, regionHeight, false);
+    }
+
+    private static int fixed(double pixels) {
+        return (int) Math.round(pixels * 65536);
+    }
+
+    /**
+     * Frames estimated by this instance
+     */
+    public long getEstimates() {
+        return estimates;
+    }
+
+    /**
+     * Frames in which a candidate region was found
+     */
+    public long getCandidates() {
+        return candidates;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.barcodescanner;
+
+import java.util.Random;
+
+/**
+ * Scalar against SIMD pixel kernels on 640x480 and 1920x1080 frames.
+ * Run with --add-modules jdk.incubator.vector to include the vector kernels.
+ *
+ * Usage: PixelKernelBenchmark [iterations]
+ */
+public class PixelKernelBenchmark {
+
+    private static final int[][] SIZES = {{640, 480}, {1920, 1080}};
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        PixelKernels scalar = new PixelKernels.Scalar();
+        PixelKernels fastest = PixelKernels.get();
+
+        System.out.println("=== Pixel Kernel Benchmark ===");
+        System.out.println("Selected kernels: " + fastest.describe());
+        if (fastest == scalar || fastest instanceof PixelKernels.Scalar) {
+            System.out.println("(start the JVM with --add-modules jdk.incubator.vector to compare SIMD)");
+        }
+
+        for (int[] size : SIZES) {
+            int width = size[0];
+            int height = size[1];
+            int pixels = width * height;
+            Random random = new Random(42);
+            byte[] rgb = new byte[pixels * 3];
+            random.nextBytes(rgb);
+            byte[] luma = new byte[pixels];
+            scalar.rgbToLuma(rgb, luma, pixels);
+            byte[] thresholds = new byte[width];
+            random.nextBytes(thresholds);
+            int blocks = (width / PixelKernels.BLOCK_SIZE) * (height / PixelKernels.BLOCK_SIZE);
+            int[] sums = new int[blocks];
+            int[] mins = new int[blocks];
+            int[] maxs = new int[blocks];
+            int[] words = new int[width / 32];
+
+            System.out.printf("%n%dx%d%n", width, height);
+            for (PixelKernels kernels : new PixelKernels[] {scalar, fastest}) {
+                if (kernels == fastest && fastest instanceof PixelKernels.Scalar) {
+                    break;
+                }
+                byte[] out = new byte[pixels];
+                double rgbMs = time(iterations, () -> kernels.rgbToLuma(rgb, out, pixels));
+                double statsMs = time(iterations, () -> kernels.blockStats(luma, width, height, sums, mins, maxs));
+                double thresholdMs = time(iterations, () -> {
+                    for (int y = 0; y < height; y++) {
+                        kernels.thresholdRow(luma, y * width, thresholds, width, words);
+                    }
+                });
+                System.out.printf("  %-26s rgbToLuma %6.3f ms  blockStats %6.3f ms  threshold %6.3f ms%n",
+                        kernels.describe(), rgbMs, statsMs, thresholdMs);
+            }
+        }
+    }
+
+    /**
+     * Mean milliseconds per call after a warm-up of the same length
+     */
+    private static double time(int iterations, Runnable kernel) {
+        for (int i = 0; i < iterations; i++) {
+            kernel.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            kernel.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / iterations;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.barcodescanner;
+
+/**
+ * Whole-frame pixel loops: RGB/BGR to luma, 8x8 block statistics and thresholding.
+ *
+ * There are two implementations. {@link Scalar} runs anywhere. VectorPixelKernels uses the
+ * jdk.incubator.vector API; it is only compiled by the opt-in vector Maven profile
+ * ({@code mvn -Pvector}, JDK 16+) and used when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}. {@code -Dscanner.simd=false} forces scalar.
+ * Both produce identical output.
+ */
+abstract class PixelKernels {
+
+    static final int BLOCK_SIZE = 8;
+
+    private static final PixelKernels INSTANCE = select();
+
+    /**
+     * The fastest implementation available on this JVM
+     */
+    static PixelKernels get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Luma of interleaved R, G, B bytes, with ZXing's integer weights
+     */
+    abstract void rgbToLuma(byte[] rgb, byte[] luma, int pixels);
+
+    /**
+     * Luma of interleaved B, G, R bytes (TYPE_3BYTE_BGR)
+     */
+    abstract void bgrToLuma(byte[] bgr, byte[] luma, int pixels);
+
+    /**
+     * Sum, minimum and maximum of every 8x8 block. Width and height must be multiples of 8;
+     * results are stored row-major, one entry per block.
+     */
+    abstract void blockStats(byte[] luma, int width, int height, int[] sums, int[] mins, int[] maxs);
+
+    /**
+     * Pack one row into BitMatrix-style words (bit x%32 of word x/32 set = black).
+     * A pixel is black when its luma is at most its threshold; thresholds has one entry per pixel.
+     * Width must be a multiple of 32.
+     */
+    abstract void thresholdRow(byte[] luma, int offset, byte[] thresholds, int width, int[] words);
+
+    abstract String describe();
+
+    static PixelKernels select() {
+        if (!Boolean.parseBoolean(System.getProperty("scanner.simd", "true"))
+                || !ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            return new Scalar();
+        }
+        try {
+            return (PixelKernels) Class.forName("com.example.barcodescanner.VectorPixelKernels")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Built without the vector profile
+            return new Scalar();
+        }
+    }
+
+    static class Scalar extends PixelKernels {
+
+        @Override
+        void rgbToLuma(byte[] rgb, byte[] luma, int pixels) {
+            for (int i = 0, p = 0; i < pixels; i++, p += 3) {
+                luma[i] = (byte) ((306 * (rgb[p] & 0xFF) + 601 * (rgb[p + 1] & 0xFF) + 117 * (rgb[p + 2] & 0xFF) + 0x200) >> 10);
+            }
+        }
+
+        @Override
+        void bgrToLuma(byte[] bgr, byte[] luma, int pixels) {
+            for (int i = 0, p = 0; i < pixels; i++, p += 3) {
+                luma[i] = (byte) ((306 * (bgr[p + 2] & 0xFF) + 601 * (bgr[p + 1] & 0xFF) + 117 * (bgr[p] & 0xFF) + 0x200) >> 10);
+            }
+        }
+
+        @Override
+        void blockStats(byte[] luma, int width, int height, int[] sums, int[] mins, int[] maxs) {
+            int blocksX = width / BLOCK_SIZE;
+            for (int by = 0; by < height / BLOCK_SIZE; by++) {
+                for (int bx = 0; bx < blocksX; bx++) {
+                    int sum = 0;
+                    int min = 0xFF;
+                    int max = 0;
+                    for (int y = 0, offset = by * BLOCK_SIZE * width + bx * BLOCK_SIZE; y < BLOCK_SIZE; y++, offset += width) {
+                        for (int x = 0; x < BLOCK_SIZE; x++) {
+                            int pixel = luma[offset + x] & 0xFF;
+                            sum += pixel;
+                            min = Math.min(min, pixel);
+                            max = Math.max(max, pixel);
+                        }
+                    }
+                    int block = by * blocksX + bx;
+                    sums[block] = sum;
+                    mins[block] = min;
+                    maxs[block] = max;
+                }
+            }
+        }
+
+        @Override
+        void thresholdRow(byte[] luma, int offset, byte[] thresholds, int width, int[] words) {
+            for (int word = 0, x = 0; x < width; word++) {
+                int bits = 0;
+                for (int bit = 0; bit < 32; bit++, x++) {
+                    if ((luma[offset + x] & 0xFF) <= (thresholds[x] & 0xFF)) {
+                        bits |= 1 << bit;
+                    }
+                }
+                words[word] = bits;
+            }
+        }
+
+        @Override
+        String describe() {
+            return "scalar";
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.barcodescanner;
+
+import java.util.Arrays;
+
+/**
+ * Decides before decoding whether a frame's code is dark-on-light or light-on-dark, so an
+ * inverted code can be decoded in one attempt rather than by ZXing's ALSO_INVERTED, which
+ * decodes every frame that fails a second time on a flipped matrix.
+ *
+ * The frame is cut into 16x16 cells, each with its mean luma and mean absolute gradient.
+ * The code is the largest group of cells clearly more textured than the frame's median
+ * cell, and the cells around its bounding box are its quiet zone, which is always the
+ * code's light colour. A quiet zone darker than the code means the code is inverted.
+ *
+ * One detector per decoding thread; cell statistics are reused from frame to frame.
+ */
+public class PolarityDetector {
+
+    static final int CELL_SIZE = 16;
+    static final int SAMPLE_STEP = 2;
+    // How far above the frame's typical cell a textured cell's mean |gx| + |gy| must be, in
+    // grey levels; the typical cell is background, so this tracks the sensor noise
+    static final int MIN_TEXTURE = 24;
+    private static final int MAX_TEXTURE = 2 * 255;
+    static final int MIN_CELLS = 4;
+    // How much darker or lighter the quiet zone must be than the code to call it
+    static final int MIN_CONTRAST = 16;
+
+    /**
+     * Which way round a frame's code is
+     */
+    public enum Polarity {
+        /** Dark modules on a light background, as printed */
+        NORMAL,
+        /** Light modules on a dark background */
+        INVERTED,
+        /** No code-like region, or no quiet zone to judge it by */
+        UNKNOWN
+    }
+
+    private int[] means = new int[0];
+    private int[] textures = new int[0];
+    private int[] labels = new int[0];
+    private int[] queue = new int[0];
+    private int[] zone = new int[0];
+    private final int[] textureCounts = new int[MAX_TEXTURE + 1];
+
+    // Metrics
+    private long frames = 0;
+    private long inverted = 0;
+
+    /**
+     * Judge the polarity of a row-major luma plane
+     */
+    public Polarity detect(byte[] luma, int width, int height) {
+        frames++;
+        int cellsX = width / CELL_SIZE;
+        int cellsY = height / CELL_SIZE;
+        int cellCount = cellsX * cellsY;
+        if (cellCount < MIN_CELLS) {
+            return Polarity.UNKNOWN;
+        }
+        if (means.length < cellCount) {
+            means = new int[cellCount];
+            textures = new int[cellCount];
+            labels = new int[cellCount];
+            queue = new int[cellCount];
+            zone = new int[cellCount];
+        }
+
+        cellStatistics(luma, width, height, cellsX, cellsY);
+        int threshold = medianTexture(cellCount) + MIN_TEXTURE;
+        int code = largestTexturedRegion(cellsX, cellsY, threshold);
+        if (code == 0) {
+            return Polarity.UNKNOWN;
+        }
+
+        // Everything inside the code's bounding box is code; the ring of cells just outside
+        // it is the quiet zone. The ring's median ignores the odd cell clipping the code.
+        int left = cellsX, top = cellsY, right = -1, bottom = -1;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (labels[cell] == code) {
+                left = Math.min(left, cell % cellsX);
+                right = Math.max(right, cell % cellsX);
+                top = Math.min(top, cell / cellsX);
+                bottom = Math.max(bottom, cell / cellsX);
+            }
+        }
+        long codeSum = 0;
+        int codeCells = 0, zoneCells = 0;
+        for (int cy = Math.max(0, top - 1); cy <= Math.min(cellsY - 1, bottom + 1); cy++) {
+            for (int cx = Math.max(0, left - 1); cx <= Math.min(cellsX - 1, right + 1); cx++) {
+                int mean = means[cy * cellsX + cx];
+                if (cx >= left && cx <= right && cy >= top && cy <= bottom) {
+                    codeSum += mean;
+                    codeCells++;
+                } else {
+                    zone[zoneCells++] = mean;
+                }
+            }
+        }
+        if (zoneCells == 0) {
+            return Polarity.UNKNOWN;
+        }
+        Arrays.sort(zone, 0, zoneCells);
+        long difference = zone[zoneCells / 2] - codeSum / codeCells;
+        if (difference >= MIN_CONTRAST) {
+            return Polarity.NORMAL;
+        }
+        if (difference <= -MIN_CONTRAST) {
+            inverted++;
+            return Polarity.INVERTED;
+        }
+        return Polarity.UNKNOWN;
+    }
+
+    private void cellStatistics(byte[] luma, int width, int height, int cellsX, int cellsY) {
+        for (int cy = 0, cell = 0; cy < cellsY; cy++) {
+            for (int cx = 0; cx < cellsX; cx++, cell++) {
+                int sum = 0, texture = 0, samples = 0;
+                // Differences over two pixels, so no edge falls between samples; one pixel
+                // is kept clear of the frame edge
+                int y0 = Math.max(1, cy * CELL_SIZE);
+                int y1 = Math.min(height - 1, (cy + 1) * CELL_SIZE);
+                int x0 = Math.max(1, cx * CELL_SIZE);
+                int x1 = Math.min(width - 1, (cx + 1) * CELL_SIZE);
+                for (int y = y0; y < y1; y += SAMPLE_STEP) {
+                    int offset = y * width;
+                    for (int x = x0; x < x1; x += SAMPLE_STEP, samples++) {
+                        int i = offset + x;
+                        sum += luma[i] & 0xFF;
+                        texture += Math.abs((luma[i + 1] & 0xFF) - (luma[i - 1] & 0xFF))
+                                + Math.abs((luma[i + width] & 0xFF) - (luma[i - width] & 0xFF));
+                    }
+                }
+                means[cell] = sum / samples;
+                textures[cell] = texture / samples;
+            }
+        }
+    }
+
+    private int medianTexture(int cellCount) {
+        Arrays.fill(textureCounts, 0);
+        for (int cell = 0; cell < cellCount; cell++) {
+            textureCounts[textures[cell]]++;
+        }
+        for (int texture = 0, seen = 0; texture <= MAX_TEXTURE; texture++) {
+            seen += textureCounts[texture];
+            if (seen * 2 >= cellCount) {
+                return texture;
+            }
+        }
+        return MAX_TEXTURE;
+    }
+
+    /**
+     * Label groups of textured cells, bridging one-cell gaps (a cell inside a wide bar is
+     * flat); returns the largest group's label, or 0 if none has enough cells
+     */
+    private int largestTexturedRegion(int cellsX, int cellsY, int threshold) {
+        int cellCount = cellsX * cellsY;
+        for (int cell = 0; cell < cellCount; cell++) {
+            labels[cell] = textures[cell] >= threshold ? -1 : 0;
+        }
+        int best = 0, bestCells = MIN_CELLS - 1, label = 0;
+        for (int seed = 0; seed < cellCount; seed++) {
+            if (labels[seed] != -1) {
+                continue;
+            }
+            label++;
+            int head = 0, tail = 0;
+            queue[tail++] = seed;
+            labels[seed] = label;
+            while (head < tail) {
+                int cell = queue[head++];
+                int cx = cell % cellsX, cy = cell / cellsX;
+                for (int ny = Math.max(0, cy - 2); ny <= Math.min(cellsY - 1, cy + 2); ny++) {
+                    for (int nx = Math.max(0, cx - 2); nx <= Math.min(cellsX - 1, cx + 2); nx++) {
+                        int neighbour = ny * cellsX + nx;
+                        if (labels[neighbour] == -1) {
+                            labels[neighbour] = label;
+                            queue[tail++] = neighbour;
+                        }
+                    }
+                }
+            }
+            if (tail > bestCells) {
+                bestCells = tail;
+                best = label;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Frames judged by this instance
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Frames judged to hold an inverted code
+     */
+    public long getInverted() {
+        return inverted;
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.barcodescanner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, asynchronous delivery of scan events to subscribers.
+ *
+ * The detection thread only enqueues; a single dispatcher thread drains the queue
+ * in batches and hands each batch to every subscriber in turn, so a slow consumer
+ * (database insert, POS call) delays delivery rather than decoding.
+ */
+public class ResultBus {
+
+    /**
+     * Receives batches of events on the dispatcher thread
+     */
+    @FunctionalInterface
+    public interface Subscriber {
+        void onScanEvents(List<ScanEvent> events);
+    }
+
+    /**
+     * What publish does when the queue is full
+     */
+    public enum OverflowPolicy {
+        /** Discard the event being published */
+        DROP_NEWEST,
+        /** Discard the oldest queued event to make room */
+        DROP_OLDEST,
+        /** Wait for space (back-pressures the detector) */
+        BLOCK
+    }
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_BATCH = 64;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+    private final BlockingQueue<ScanEvent> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final int maxBatch;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private Thread dispatcherThread;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong subscriberErrors = new AtomicLong();
+    private volatile int maxQueueDepth = 0;
+    private final LatencyStats deliveryLatency = new LatencyStats();
+    private final ScanLatencyReport latencyReport = new ScanLatencyReport();
+    private final Object progressLock = new Object();
+
+    public ResultBus() {
+        this(DEFAULT_CAPACITY, OverflowPolicy.DROP_OLDEST, DEFAULT_MAX_BATCH);
+    }
+
+    public ResultBus(int capacity, OverflowPolicy overflowPolicy, int maxBatch) {
+        if (capacity <= 0 || maxBatch <= 0) {
+            throw new IllegalArgumentException("capacity and maxBatch must be positive");
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.maxBatch = maxBatch;
+    }
+
+    public void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Start the dispatcher thread; called automatically on the first publish, so a bus
+     * nothing is published to never holds a thread
+     */
+    public synchronized void start() {
+        if (running.get()) {
+            return;
+        }
+        running.set(true);
+        dispatcherThread = ScannerThreads.newThread("ResultBus-dispatcher", this::dispatchLoop);
+        dispatcherThread.start();
+    }
+
+    /**
+     * Stop the dispatcher once the events already queued have been delivered. A subscriber
+     * still stuck after a few seconds is interrupted. A later publish starts the bus again.
+     */
+    public synchronized void shutdown() {
+        running.set(false);
+        if (dispatcherThread == null) {
+            return;
+        }
+        try {
+            dispatcherThread.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dispatcherThread.interrupt();
+        dispatcherThread = null;
+    }
+
+    /**
+     * Queue an event for delivery. Returns false if the event itself was dropped.
+     */
+    public boolean publish(ScanEvent event) {
+        if (!running.get()) {
+            start();
+        }
+        published.incrementAndGet();
+
+        boolean queued;
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    queue.put(event);
+                    queued = true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    queued = false;
+                }
+                break;
+            case DROP_OLDEST:
+                queued = queue.offer(event);
+                while (!queued) {
+                    if (queue.poll() != null) {
+                        markDropped(1);
+                    }
+                    queued = queue.offer(event);
+                }
+                break;
+            default:
+                queued = queue.offer(event);
+                break;
+        }
+
+        if (!queued) {
+            markDropped(1);
+            return false;
+        }
+
+        int depth = queue.size();
+        if (depth > maxQueueDepth) {
+            maxQueueDepth = depth;
+        }
+        return true;
+    }
+
+    /**
+     * Wait until everything published so far has been delivered or dropped
+     */
+    public boolean flush(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (progressLock) {
+            while (delivered.get() + dropped.get() < published.get()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(progressLock, remaining);
+            }
+        }
+        return true;
+    }
+
+    private void dispatchLoop() {
+        List<ScanEvent> batch = new ArrayList<>(maxBatch);
+
+        while (true) {
+            try {
+                ScanEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (!running.get()) {
+                        break; // shut down and drained
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+
+                List<ScanEvent> view = Collections.unmodifiableList(batch);
+                long emitted = System.nanoTime();
+                for (ScanEvent event : batch) {
+                    latencyReport.record(event, emitted);
+                }
+                for (Subscriber subscriber : subscribers) {
+                    try {
+                        subscriber.onScanEvents(view);
+                    } catch (Exception e) {
+                        subscriberErrors.incrementAndGet();
+                        System.err.println("Scan subscriber failed: " + e.getMessage());
+                    }
+                }
+
+                long now = System.nanoTime();
+                for (ScanEvent event : batch) {
+                    deliveryLatency.record(now - event.getPublishedNanos());
+                }
+                batches.incrementAndGet();
+                delivered.addAndGet(batch.size());
+                batch.clear();
+                signalProgress();
+
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    private void markDropped(int count) {
+        dropped.addAndGet(count);
+        signalProgress();
+    }
+
+    private void signalProgress() {
+        synchronized (progressLock) {
+            progressLock.notifyAll();
+        }
+    }
+
+    /**
+     * True while the dispatcher thread is running
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getSubscriberErrorCount() {
+        return subscriberErrors.get();
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * Time from publish to the end of delivery to all subscribers
+     */
+    public LatencyStats getDeliveryLatency() {
+        return deliveryLatency;
+    }
+
+    /**
+     * Capture-to-subscriber latency of stamped events, by stage, taken as each batch is handed out
+     */
+    public ScanLatencyReport getLatencyReport() {
+        return latencyReport;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+}
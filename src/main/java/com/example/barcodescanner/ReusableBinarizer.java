@@ -0,0 +1,417 @@
+package com.example.barcodescanner;
+
+import com.google.zxing.Binarizer;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.common.HybridBinarizer;
+
+import java.util.Arrays;
+
+/**
+ * Drop-in replacement for HybridBinarizer and GlobalHistogramBinarizer that writes into
+ * buffers kept in a {@link Workspace}: the BitMatrix, block statistics, black points and
+ * row scratch are allocated once per frame size instead of once per frame.
+ *
+ * Output is bit-for-bit what the ZXing binarizer of the same kind produces. The 8x8 block
+ * statistics and row thresholding run on {@link PixelKernels} when the frame is a multiple
+ * of 8 pixels in both directions, as camera resolutions are.
+ *
+ * The matrix belongs to the workspace, so it is only valid until the next frame is
+ * binarized with the same workspace. Cropped and rotated bitmaps (multi-barcode search,
+ * TRY_HARDER) get a plain ZXing binarizer and never share it.
+ */
+public class ReusableBinarizer extends Binarizer {
+
+    // Same constants as HybridBinarizer and GlobalHistogramBinarizer
+    private static final int BLOCK_SIZE_POWER = 3;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SIZE_POWER;
+    private static final int MINIMUM_DIMENSION = BLOCK_SIZE * 5;
+    private static final int MIN_DYNAMIC_RANGE = 24;
+    private static final int LUMINANCE_SHIFT = 3;
+    private static final int LUMINANCE_BUCKETS = 1 << (8 - LUMINANCE_SHIFT);
+
+    /**
+     * Buffers reused from frame to frame; one per decoding thread, not thread-safe
+     */
+    public static class Workspace {
+        private int width = -1;
+        private int height = -1;
+        private BitMatrix matrix;
+        private BitArray row;
+        private byte[] thresholds;
+        private int[] sums;
+        private int[] mins;
+        private int[] maxs;
+        private int[] blackPoints;
+        private byte[] rowLuma;
+        private byte[] mappedLuma = new byte[0];
+        private final int[] buckets = new int[LUMINANCE_BUCKETS];
+
+        // Metrics
+        private long frames = 0;
+        private long reshapes = 0;
+
+        void prepare(int width, int height) {
+            frames++;
+            if (width == this.width && height == this.height) {
+                return;
+            }
+            reshapes++;
+            int blocks = ((width + BLOCK_SIZE - 1) >> BLOCK_SIZE_POWER) * ((height + BLOCK_SIZE - 1) >> BLOCK_SIZE_POWER);
+            matrix = new BitMatrix(width, height);
+            row = new BitArray(width);
+            thresholds = new byte[width];
+            rowLuma = new byte[width];
+            sums = new int[blocks];
+            mins = new int[blocks];
+            maxs = new int[blocks];
+            blackPoints = new int[blocks];
+            this.width = width;
+            this.height = height;
+        }
+
+        byte[] mappedLuma(int size) {
+            if (mappedLuma.length < size) {
+                mappedLuma = new byte[size];
+            }
+            return mappedLuma;
+        }
+
+        /**
+         * Frames binarized with this workspace
+         */
+        public long getFrames() {
+            return frames;
+        }
+
+        /**
+         * Times the buffers were (re)allocated for a new frame size
+         */
+        public long getReshapes() {
+            return reshapes;
+        }
+    }
+
+    private final Workspace workspace;
+    private final AdaptivePreprocessor.BinarizerChoice mode;
+    private BitMatrix matrix;
+
+    public ReusableBinarizer(LuminanceSource source, Workspace workspace) {
+        this(source, workspace, AdaptivePreprocessor.BinarizerChoice.HYBRID);
+    }
+
+    /**
+     * @param mode which ZXing binarizer to reproduce
+     */
+    public ReusableBinarizer(LuminanceSource source, Workspace workspace, AdaptivePreprocessor.BinarizerChoice mode) {
+        super(source);
+        this.workspace = workspace;
+        this.mode = mode;
+    }
+
+    @Override
+    public BitMatrix getBlackMatrix() throws NotFoundException {
+        if (matrix != null) {
+            return matrix;
+        }
+        LuminanceSource source = getLuminanceSource();
+        int width = source.getWidth();
+        int height = source.getHeight();
+        workspace.prepare(width, height);
+        byte[] luminances = luminances(source);
+
+        if (mode == AdaptivePreprocessor.BinarizerChoice.HYBRID
+                && width >= MINIMUM_DIMENSION && height >= MINIMUM_DIMENSION) {
+            hybrid(luminances, width, height);
+        } else {
+            // HybridBinarizer also falls back to the global histogram on tiny frames
+            global(luminances, width, height);
+        }
+        matrix = workspace.matrix;
+        return matrix;
+    }
+
+    /**
+     * GlobalHistogramBinarizer's row, with the scratch row and buckets taken from the workspace
+     */
+    @Override
+    public BitArray getBlackRow(int y, BitArray row) throws NotFoundException {
+        LuminanceSource source = getLuminanceSource();
+        int width = source.getWidth();
+        if (row == null || row.getSize() < width) {
+            row = new BitArray(width);
+        } else {
+            row.clear();
+        }
+        byte[] scratch = workspace.rowLuma;
+        if (scratch == null || scratch.length < width) {
+            scratch = workspace.rowLuma = new byte[width];
+        }
+        byte[] luminances = source.getRow(y, scratch);
+        int[] buckets = workspace.buckets;
+        Arrays.fill(buckets, 0);
+        for (int x = 0; x < width; x++) {
+            buckets[(luminances[x] & 0xFF) >> LUMINANCE_SHIFT]++;
+        }
+        int blackPoint = estimateBlackPoint(buckets);
+
+        if (width < 3) {
+            for (int x = 0; x < width; x++) {
+                if ((luminances[x] & 0xFF) < blackPoint) {
+                    row.set(x);
+                }
+            }
+        } else {
+            // Simple -1 4 -1 sharpening filter, as in GlobalHistogramBinarizer
+            int left = luminances[0] & 0xFF;
+            int center = luminances[1] & 0xFF;
+            for (int x = 1; x < width - 1; x++) {
+                int right = luminances[x + 1] & 0xFF;
+                if (((center * 4) - left - right) / 2 < blackPoint) {
+                    row.set(x);
+                }
+                left = center;
+                center = right;
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Crops and rotations get an ordinary binarizer so they never overwrite this frame's matrix
+     */
+    @Override
+    public Binarizer createBinarizer(LuminanceSource source) {
+        return mode == AdaptivePreprocessor.BinarizerChoice.GLOBAL_HISTOGRAM
+                ? new GlobalHistogramBinarizer(source)
+                : new HybridBinarizer(source);
+    }
+
+    private byte[] luminances(LuminanceSource source) {
+        if (source instanceof LutLuminanceSource) {
+            return ((LutLuminanceSource) source).getMatrix(
+                    workspace.mappedLuma(source.getWidth() * source.getHeight()));
+        }
+        return source.getMatrix();
+    }
+
+    private void hybrid(byte[] luminances, int width, int height) {
+        int subWidth = (width + BLOCK_SIZE - 1) >> BLOCK_SIZE_POWER;
+        int subHeight = (height + BLOCK_SIZE - 1) >> BLOCK_SIZE_POWER;
+        Workspace ws = workspace;
+        boolean aligned = (width & (BLOCK_SIZE - 1)) == 0 && (height & (BLOCK_SIZE - 1)) == 0;
+
+        if (aligned) {
+            PixelKernels.get().blockStats(luminances, width, height, ws.sums, ws.mins, ws.maxs);
+        } else {
+            edgeBlockStats(luminances, width, height, subWidth, subHeight);
+        }
+        blackPoints(subWidth, subHeight);
+
+        if (aligned) {
+            // Expand each block row's thresholds to one per pixel, then pack 8 rows at once
+            int[] words = ws.row.getBitArray();
+            for (int by = 0; by < subHeight; by++) {
+                int top = cap(by, subHeight - 3);
+                for (int bx = 0; bx < subWidth; bx++) {
+                    byte threshold = (byte) blockThreshold(top, cap(bx, subWidth - 3), subWidth);
+                    Arrays.fill(ws.thresholds, bx << BLOCK_SIZE_POWER, (bx + 1) << BLOCK_SIZE_POWER, threshold);
+                }
+                for (int y = by << BLOCK_SIZE_POWER, end = y + BLOCK_SIZE; y < end; y++) {
+                    packRow(luminances, y * width, ws.thresholds, width, words);
+                    ws.matrix.setRow(y, ws.row);
+                }
+            }
+        } else {
+            // Edge blocks overlap their neighbours, so OR each block in exactly as HybridBinarizer does
+            ws.matrix.clear();
+            int maxYOffset = height - BLOCK_SIZE;
+            int maxXOffset = width - BLOCK_SIZE;
+            for (int by = 0; by < subHeight; by++) {
+                int yoffset = Math.min(by << BLOCK_SIZE_POWER, maxYOffset);
+                int top = cap(by, subHeight - 3);
+                for (int bx = 0; bx < subWidth; bx++) {
+                    int xoffset = Math.min(bx << BLOCK_SIZE_POWER, maxXOffset);
+                    int threshold = blockThreshold(top, cap(bx, subWidth - 3), subWidth);
+                    for (int y = 0, offset = yoffset * width + xoffset; y < BLOCK_SIZE; y++, offset += width) {
+                        for (int x = 0; x < BLOCK_SIZE; x++) {
+                            if ((luminances[offset + x] & 0xFF) <= threshold) {
+                                ws.matrix.set(xoffset + x, yoffset + y);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Block statistics when the last block row or column overlaps the one before it
+     */
+    private void edgeBlockStats(byte[] luminances, int width, int height, int subWidth, int subHeight) {
+        int maxYOffset = height - BLOCK_SIZE;
+        int maxXOffset = width - BLOCK_SIZE;
+        for (int by = 0; by < subHeight; by++) {
+            int yoffset = Math.min(by << BLOCK_SIZE_POWER, maxYOffset);
+            for (int bx = 0; bx < subWidth; bx++) {
+                int xoffset = Math.min(bx << BLOCK_SIZE_POWER, maxXOffset);
+                int sum = 0;
+                int min = 0xFF;
+                int max = 0;
+                for (int y = 0, offset = yoffset * width + xoffset; y < BLOCK_SIZE; y++, offset += width) {
+                    for (int x = 0; x < BLOCK_SIZE; x++) {
+                        int pixel = luminances[offset + x] & 0xFF;
+                        sum += pixel;
+                        min = Math.min(min, pixel);
+                        max = Math.max(max, pixel);
+                    }
+                }
+                int block = by * subWidth + bx;
+                workspace.sums[block] = sum;
+                workspace.mins[block] = min;
+                workspace.maxs[block] = max;
+            }
+        }
+    }
+
+    /**
+     * HybridBinarizer's black point per block. Low-contrast blocks take half their minimum,
+     * raised to the neighbours' black point so a flat block inside a symbol stays consistent.
+     * (ZXing stops tracking min/max once the range passes the limit; the result is the same.)
+     */
+    private void blackPoints(int subWidth, int subHeight) {
+        int[] sums = workspace.sums;
+        int[] mins = workspace.mins;
+        int[] maxs = workspace.maxs;
+        int[] blackPoints = workspace.blackPoints;
+        for (int by = 0; by < subHeight; by++) {
+            for (int bx = 0; bx < subWidth; bx++) {
+                int block = by * subWidth + bx;
+                int min = mins[block];
+                int average = sums[block] >> (BLOCK_SIZE_POWER * 2);
+                if (maxs[block] - min <= MIN_DYNAMIC_RANGE) {
+                    average = min / 2;
+                    if (by > 0 && bx > 0) {
+                        int neighbors = (blackPoints[block - subWidth] + 2 * blackPoints[block - 1]
+                                + blackPoints[block - subWidth - 1]) / 4;
+                        if (min < neighbors) {
+                            average = neighbors;
+                        }
+                    }
+                }
+                blackPoints[block] = average;
+            }
+        }
+    }
+
+    /**
+     * Mean black point of the 5x5 blocks centred on (left, top)
+     */
+    private int blockThreshold(int top, int left, int subWidth) {
+        int[] blackPoints = workspace.blackPoints;
+        int sum = 0;
+        for (int z = -2; z <= 2; z++) {
+            int row = (top + z) * subWidth + left;
+            sum += blackPoints[row - 2] + blackPoints[row - 1] + blackPoints[row]
+                    + blackPoints[row + 1] + blackPoints[row + 2];
+        }
+        return sum / 25;
+    }
+
+    private static int cap(int value, int max) {
+        return value < 2 ? 2 : Math.min(value, max);
+    }
+
+    private void global(byte[] luminances, int width, int height) throws NotFoundException {
+        int[] buckets = workspace.buckets;
+        Arrays.fill(buckets, 0);
+        for (int y = 1; y < 5; y++) {
+            int offset = (height * y / 5) * width;
+            int right = (width * 4) / 5;
+            for (int x = width / 5; x < right; x++) {
+                buckets[(luminances[offset + x] & 0xFF) >> LUMINANCE_SHIFT]++;
+            }
+        }
+        // Black is strictly below the black point, i.e. at most one less
+        Arrays.fill(workspace.thresholds, (byte) (estimateBlackPoint(buckets) - 1));
+        int[] words = workspace.row.getBitArray();
+        for (int y = 0; y < height; y++) {
+            packRow(luminances, y * width, workspace.thresholds, width, words);
+            workspace.matrix.setRow(y, workspace.row);
+        }
+    }
+
+    /**
+     * Threshold one row into BitMatrix words: whole 32-pixel words on the kernels, the rest here
+     */
+    private static void packRow(byte[] luminances, int offset, byte[] thresholds, int width, int[] words) {
+        int whole = width & ~31;
+        if (whole > 0) {
+            PixelKernels.get().thresholdRow(luminances, offset, thresholds, whole, words);
+        }
+        if (whole < width) {
+            int bits = 0;
+            for (int x = whole; x < width; x++) {
+                if ((luminances[offset + x] & 0xFF) <= (thresholds[x] & 0xFF)) {
+                    bits |= 1 << (x & 31);
+                }
+            }
+            words[whole >> 5] = bits;
+        }
+    }
+
+    /**
+     * GlobalHistogramBinarizer's valley search between the two tallest, well separated peaks
+     */
+    private static int estimateBlackPoint(int[] buckets) throws NotFoundException {
+        int numBuckets = buckets.length;
+        int maxBucketCount = 0;
+        int firstPeak = 0;
+        int firstPeakSize = 0;
+        for (int x = 0; x < numBuckets; x++) {
+            if (buckets[x] > firstPeakSize) {
+                firstPeak = x;
+                firstPeakSize = buckets[x];
+            }
+            if (buckets[x] > maxBucketCount) {
+                maxBucketCount = buckets[x];
+            }
+        }
+
+        // Second peak: tall and far from the first
+        int secondPeak = 0;
+        int secondPeakScore = 0;
+        for (int x = 0; x < numBuckets; x++) {
+            int distanceToBiggest = x - firstPeak;
+            int score = buckets[x] * distanceToBiggest * distanceToBiggest;
+            if (score > secondPeakScore) {
+                secondPeak = x;
+                secondPeakScore = score;
+            }
+        }
+        if (firstPeak > secondPeak) {
+            int temp = firstPeak;
+            firstPeak = secondPeak;
+            secondPeak = temp;
+        }
+        if (secondPeak - firstPeak <= numBuckets / 16) {
+            throw NotFoundException.getNotFoundInstance();
+        }
+
+        // Deepest valley between them, biased towards the white peak
+        int bestValley = secondPeak - 1;
+        int bestValleyScore = -1;
+        for (int x = secondPeak - 1; x > firstPeak; x--) {
+            int fromFirst = x - firstPeak;
+            int score = fromFirst * fromFirst * (secondPeak - x) * (maxBucketCount - buckets[x]);
+            if (score > bestValleyScore) {
+                bestValley = x;
+                bestValleyScore = score;
+            }
+        }
+        return bestValley << LUMINANCE_SHIFT;
+    }
+}
@@ -2,7 +2,6 @@ package com.example.barcodescanner;
 
 import com.google.zxing.*;
 import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
-import com.google.zxing.common.HybridBinarizer;
 
 import javax.swing.*;
 import java.awt.*;
@@ -11,8 +10,6 @@ import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -23,12 +20,13 @@ public class SafeBarcodeScanner extends JFrame {
     
     private Object webcam; // Using Object to avoid import issues
     private JLabel cameraLabel;
-    private JTextArea resultArea;
+    private ScanHistoryPanel historyPanel;
     private JButton startButton;
     private JButton stopButton;
     private JLabel statusLabel;
     private Timer cameraTimer;
     private MultiFormatReader barcodeReader;
+    private final ReusableBinarizer.Workspace binarizerWorkspace = new ReusableBinarizer.Workspace();
     
     private boolean isScanning = false;
     private boolean webcamAvailable = false;
@@ -37,6 +35,7 @@ public class SafeBarcodeScanner extends JFrame {
     private static final long DETECTION_COOLDOWN_MS = 2000;
     
     public SafeBarcodeScanner() {
+        long startNanos = System.nanoTime();
         System.out.println("Initializing Safe Barcode Scanner...");
         
         try {
@@ -46,7 +45,7 @@ public class SafeBarcodeScanner extends JFrame {
             setupEventHandlers();
             checkWebcamAvailability();
             
-            System.out.println("GUI initialization complete!");
+            System.out.printf("GUI initialization complete in %d ms%n", (System.nanoTime() - startNanos) / 1_000_000);
         } catch (Exception e) {
             System.err.println("Error during initialization: " + e.getMessage());
             e.printStackTrace();
@@ -143,17 +142,12 @@ public class SafeBarcodeScanner extends JFrame {
         resultPanel.setBorder(BorderFactory.createTitledBorder("Scan Results"));
         resultPanel.setPreferredSize(new java.awt.Dimension(0, 150));
         
-        resultArea = new JTextArea();
-        resultArea.setEditable(false);
-        resultArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
-        resultArea.setText("Barcode Scanner Ready!\n");
-        resultArea.append("Click 'Start Scanning' to begin.\n");
-        resultArea.append("Scanned barcodes will appear here...\n");
+        historyPanel = new ScanHistoryPanel();
+        historyPanel.setText("Barcode Scanner Ready!\n");
+        historyPanel.appendText("Click 'Start Scanning' to begin.\n");
+        historyPanel.appendText("Scanned barcodes will appear here...\n");
         
-        JScrollPane scrollPane = new JScrollPane(resultArea);
-        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
-        
-        resultPanel.add(scrollPane, BorderLayout.CENTER);
+        resultPanel.add(historyPanel, BorderLayout.CENTER);
         
         // Layout
         add(cameraPanel, BorderLayout.CENTER);
@@ -162,7 +156,7 @@ public class SafeBarcodeScanner extends JFrame {
         
         // Event handlers for buttons
         clearButton.addActionListener(e -> {
-            resultArea.setText("Results cleared.\nReady for new scans...\n");
+            historyPanel.setText("Results cleared.\nReady for new scans...\n");
             updateStatus("Results cleared", Color.BLUE);
         });
         
@@ -188,28 +182,38 @@ public class SafeBarcodeScanner extends JFrame {
     }
     
     private void checkWebcamAvailability() {
-        try {
-            // Try to load webcam capture class
-            Class<?> webcamClass = Class.forName("com.github.sarxos.webcam.Webcam");
-            Object defaultWebcam = webcamClass.getMethod("getDefault").invoke(null);
-            
-            if (defaultWebcam != null) {
-                webcamAvailable = true;
-                updateStatus("Webcam detected - Ready to scan", Color.GREEN);
-                resultArea.append("✓ Webcam available\n");
-            } else {
-                webcamAvailable = false;
-                updateStatus("No webcam found", Color.ORANGE);
-                resultArea.append("⚠ No webcam detected\n");
-                startButton.setText("No Camera");
-                startButton.setEnabled(false);
-            }
-        } catch (Exception e) {
+        // Enumerate in the background so the window comes up without waiting for drivers
+        updateStatus("Looking for cameras...", Color.BLUE);
+        startButton.setEnabled(false);
+        WebcamDiscovery.getInstance().addListener(inventory ->
+                SwingUtilities.invokeLater(() -> onWebcamInventory(inventory)));
+        WebcamDiscovery.getInstance().discover();
+    }
+    
+    private void onWebcamInventory(WebcamDiscovery.Inventory inventory) {
+        if (isScanning) {
+            return;
+        }
+        webcam = inventory.getDefaultWebcam();
+        
+        if (webcam != null) {
+            webcamAvailable = true;
+            updateStatus("Webcam detected - Ready to scan", Color.GREEN);
+            historyPanel.appendText("✓ Webcam available\n");
+            startButton.setText("Start Scanning");
+            startButton.setEnabled(true);
+        } else if (inventory.getError() != null) {
             webcamAvailable = false;
-            updateStatus("Webcam library error: " + e.getMessage(), Color.RED);
-            resultArea.append("❌ Webcam library error: " + e.getMessage() + "\n");
+            updateStatus("Webcam library error: " + inventory.getError(), Color.RED);
+            historyPanel.appendText("❌ Webcam library error: " + inventory.getError() + "\n");
             startButton.setText("Camera Error");
             startButton.setEnabled(false);
+        } else {
+            webcamAvailable = false;
+            updateStatus("No webcam found", Color.ORANGE);
+            historyPanel.appendText("⚠ No webcam detected\n");
+            startButton.setText("No Camera");
+            startButton.setEnabled(false);
         }
     }
     
@@ -227,7 +231,7 @@ public class SafeBarcodeScanner extends JFrame {
             
             // Use reflection to avoid import issues
             Class<?> webcamClass = Class.forName("com.github.sarxos.webcam.Webcam");
-            webcam = webcamClass.getMethod("getDefault").invoke(null);
+            webcam = WebcamDiscovery.getInstance().awaitInventory().getDefaultWebcam();
             
             if (webcam == null) {
                 throw new RuntimeException("No webcam found");
@@ -304,7 +308,7 @@ public class SafeBarcodeScanner extends JFrame {
     private void detectBarcode(BufferedImage image) {
         try {
             LuminanceSource source = new BufferedImageLuminanceSource(image);
-            BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
+            BinaryBitmap bitmap = new BinaryBitmap(new ReusableBinarizer(source, binarizerWorkspace));
             
             Result result = barcodeReader.decode(bitmap);
             String barcodeText = result.getText();
@@ -319,12 +323,7 @@ public class SafeBarcodeScanner extends JFrame {
                 lastDetectionTime = currentTime;
                 
                 // Add to results
-                String timestamp = LocalDateTime.now().format(
-                    DateTimeFormatter.ofPattern("HH:mm:ss")
-                );
-                String resultText = String.format("[%s] %s: %s\n", timestamp, format, barcodeText);
-                resultArea.append(resultText);
-                resultArea.setCaretPosition(resultArea.getDocument().getLength());
+                historyPanel.addScan(format, barcodeText, null);
                 
                 updateStatus("Barcode detected: " + format, Color.GREEN);
                 
@@ -346,9 +345,7 @@ public class SafeBarcodeScanner extends JFrame {
     }
     
     private void testBarcodeDetection() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-        resultArea.append("[" + timestamp + "] TEST: Barcode detection system is working!\n");
-        resultArea.setCaretPosition(resultArea.getDocument().getLength());
+        historyPanel.appendText("TEST: Barcode detection system is working!\n");
         updateStatus("Test completed", Color.BLUE);
         
         JOptionPane.showMessageDialog(this, 
@@ -0,0 +1,147 @@
+package com.example.barcodescanner;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded, thread-safe duplicate filter for barcode reads.
+ *
+ * Entries are keyed by (format, text) and expire once a code has not been seen
+ * for the cooldown period. Every sighting refreshes the entry, so a code held in
+ * front of the camera produces exactly one event no matter how long it stays there,
+ * while other codes in the same frame are tracked independently.
+ */
+public class ScanDedupCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private final int maxEntries;
+    private final Map<Key, Long> lastSeen;
+    private long cooldownNanos;
+    private long accepted = 0;
+    private long suppressed = 0;
+    private long evicted = 0;
+
+    public ScanDedupCache(long cooldownMillis) {
+        this(cooldownMillis, DEFAULT_MAX_ENTRIES);
+    }
+
+    public ScanDedupCache(long cooldownMillis, int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.cooldownNanos = millisToNanos(cooldownMillis);
+        // Access order gives LRU eviction when more distinct codes are in play than we track
+        this.lastSeen = new LinkedHashMap<Key, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Long> eldest) {
+                if (size() > ScanDedupCache.this.maxEntries) {
+                    evicted++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Record a sighting and return true if it should be emitted as a new scan
+     */
+    public boolean tryAccept(String format, String text) {
+        return tryAccept(format, text, System.nanoTime());
+    }
+
+    /**
+     * Record a sighting at the given System.nanoTime() timestamp
+     */
+    public synchronized boolean tryAccept(String format, String text, long nowNanos) {
+        Key key = new Key(format, text);
+        Long previous = lastSeen.put(key, nowNanos);
+
+        if (previous != null && nowNanos - previous < cooldownNanos) {
+            suppressed++;
+            return false;
+        }
+
+        accepted++;
+        return true;
+    }
+
+    /**
+     * Change the cooldown; existing entries are judged against the new value
+     */
+    public synchronized void setCooldownMillis(long cooldownMillis) {
+        this.cooldownNanos = millisToNanos(cooldownMillis);
+    }
+
+    public synchronized long getCooldownMillis() {
+        return cooldownNanos / 1_000_000L;
+    }
+
+    /**
+     * Drop expired entries; sightings do this lazily, so this is only needed to reclaim memory
+     */
+    public synchronized void purgeExpired(long nowNanos) {
+        lastSeen.values().removeIf(seen -> nowNanos - seen >= cooldownNanos);
+    }
+
+    public synchronized void clear() {
+        lastSeen.clear();
+    }
+
+    public synchronized int size() {
+        return lastSeen.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public synchronized long getAcceptedCount() {
+        return accepted;
+    }
+
+    public synchronized long getSuppressedCount() {
+        return suppressed;
+    }
+
+    public synchronized long getEvictedCount() {
+        return evicted;
+    }
+
+    private static long millisToNanos(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Cooldown must not be negative");
+        }
+        return millis * 1_000_000L;
+    }
+
+    private static final class Key {
+        private final String format;
+        private final String text;
+
+        Key(String format, String text) {
+            this.format = format;
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(format, other.format) && Objects.equals(text, other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(format) + Objects.hashCode(text);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.barcodescanner;
+
+/**
+ * A barcode read that has passed consensus and duplicate filtering
+ */
+public class ScanEvent {
+
+    /**
+     * Where the read came from in the pipeline: the frame it was decoded from, when that frame
+     * was captured and how long decoding took. All times are System.nanoTime().
+     */
+    public static class Timing {
+        private final long frameSequence;
+        private final long captureNanos;
+        private final long decodeStartNanos;
+        private final long decodeEndNanos;
+        private final String strategy;
+
+        /**
+         * @param frameSequence position of the frame in its camera's stream, or -1 if unknown
+         * @param strategy how the frame was decoded, e.g. "Brighten/Hybrid multi"
+         */
+        public Timing(long frameSequence, long captureNanos, long decodeStartNanos, long decodeEndNanos,
+                      String strategy) {
+            this.frameSequence = frameSequence;
+            this.captureNanos = captureNanos;
+            this.decodeStartNanos = decodeStartNanos;
+            this.decodeEndNanos = decodeEndNanos;
+            this.strategy = strategy;
+        }
+
+        public long getFrameSequence() { return frameSequence; }
+        public long getCaptureNanos() { return captureNanos; }
+        public long getDecodeStartNanos() { return decodeStartNanos; }
+        public long getDecodeEndNanos() { return decodeEndNanos; }
+        public String getStrategy() { return strategy; }
+
+        /**
+         * Time the frame waited between capture and a decode worker picking it up
+         */
+        public long getQueueNanos() {
+            return decodeStartNanos - captureNanos;
+        }
+
+        public long getDecodeNanos() {
+            return decodeEndNanos - decodeStartNanos;
+        }
+    }
+
+    private final String text;
+    private final String format;
+    private final String camera;
+    private final long timestampMillis;
+    private final long publishedNanos;
+    private final Timing timing;
+
+    public ScanEvent(String text, String format) {
+        this(text, format, null);
+    }
+
+    public ScanEvent(String text, String format, String camera) {
+        this(text, format, camera, System.currentTimeMillis(), System.nanoTime());
+    }
+
+    public ScanEvent(String text, String format, String camera, Timing timing) {
+        this(text, format, camera, System.currentTimeMillis(), System.nanoTime(), timing);
+    }
+
+    public ScanEvent(String text, String format, String camera, long timestampMillis, long publishedNanos) {
+        this(text, format, camera, timestampMillis, publishedNanos, null);
+    }
+
+    public ScanEvent(String text, String format, String camera, long timestampMillis, long publishedNanos,
+                     Timing timing) {
+        this.text = text;
+        this.format = format;
+        this.camera = camera;
+        this.timestampMillis = timestampMillis;
+        this.publishedNanos = publishedNanos;
+        this.timing = timing;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * Name of the webcam that produced the read, or null when not from a live camera
+     */
+    public String getCamera() {
+        return camera;
+    }
+
+    /**
+     * Wall-clock time of the detection
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * System.nanoTime() when the event was handed to the result bus
+     */
+    public long getPublishedNanos() {
+        return publishedNanos;
+    }
+
+    /**
+     * Frame and decode timestamps, or null for reads not stamped by the pipeline
+     */
+    public Timing getTiming() {
+        return timing;
+    }
+
+    @Override
+    public String toString() {
+        return camera != null ? format + " = " + text + " [" + camera + "]" : format + " = " + text;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.barcodescanner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed-capacity, thread-safe ring buffer of scan history rows.
+ *
+ * Once full, each new row overwrites the oldest, so memory stays bounded no
+ * matter how long a shift runs. Views poll {@link #getVersion()} on their own
+ * refresh pulse instead of being notified per row, which coalesces bursts of
+ * scans into a single repaint.
+ */
+public class ScanHistory {
+
+    public static final int DEFAULT_CAPACITY = 500;
+
+    /**
+     * One history row; informational messages have a null format
+     */
+    public static class Entry {
+        private final long timestampMillis;
+        private final String format;
+        private final String text;
+        private final String detail;
+
+        public Entry(long timestampMillis, String format, String text, String detail) {
+            this.timestampMillis = timestampMillis;
+            this.format = format;
+            this.text = text;
+            this.detail = detail;
+        }
+
+        public long getTimestampMillis() { return timestampMillis; }
+        public String getFormat() { return format; }
+        public String getText() { return text; }
+        public String getDetail() { return detail; }
+
+        public boolean isMessage() {
+            return format == null;
+        }
+    }
+
+    private final Entry[] ring;
+    private int head = 0; // index of the oldest row
+    private int size = 0;
+    private long version = 0;
+    private long totalAdded = 0;
+
+    public ScanHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ScanHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.ring = new Entry[capacity];
+    }
+
+    public void addScan(String format, String text, String detail) {
+        add(new Entry(System.currentTimeMillis(), format, text, detail));
+    }
+
+    public void addMessage(String message) {
+        add(new Entry(System.currentTimeMillis(), null, message, null));
+    }
+
+    public synchronized void add(Entry entry) {
+        int tail = (head + size) % ring.length;
+        ring[tail] = entry;
+        if (size < ring.length) {
+            size++;
+        } else {
+            head = (head + 1) % ring.length;
+        }
+        totalAdded++;
+        version++;
+    }
+
+    /**
+     * Row by age, 0 being the oldest retained row
+     */
+    public synchronized Entry get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        return ring[(head + index) % ring.length];
+    }
+
+    /**
+     * Copy of the retained rows, oldest first
+     */
+    public synchronized List<Entry> snapshot() {
+        List<Entry> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(ring[(head + i) % ring.length]);
+        }
+        return rows;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(ring, null);
+        head = 0;
+        size = 0;
+        version++;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+     * Rows ever added, including those that have been overwritten
+     */
+    public synchronized long getTotalAdded() {
+        return totalAdded;
+    }
+
+    /**
+     * Changes whenever the contents change; views compare it on each refresh pulse
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.barcodescanner;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Swing scan-history view: a virtualized JTable over a bounded {@link ScanHistory}.
+ *
+ * Rows can be added from any thread. The table only refreshes on its own
+ * frame-rate pulse and only when the history changed, so a burst of scans
+ * costs one repaint and the view never grows past the history capacity.
+ */
+public class ScanHistoryPanel extends JPanel {
+
+    private static final long serialVersionUID = 1L;
+    private static final int REFRESH_PULSE_MS = 33;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final ScanHistory history;
+    private final HistoryTableModel tableModel = new HistoryTableModel();
+    private final JTable table;
+    private final Timer refreshTimer;
+    private long shownVersion = -1;
+
+    public ScanHistoryPanel() {
+        this(new ScanHistory());
+    }
+
+    public ScanHistoryPanel(ScanHistory history) {
+        super(new BorderLayout());
+        this.history = history;
+
+        table = new JTable(tableModel);
+        table.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        table.setFillsViewportHeight(true);
+        table.setAutoResizeMode(JTable.AUTO_RESIZE_LAST_COLUMN);
+        table.getColumnModel().getColumn(0).setPreferredWidth(70);
+        table.getColumnModel().getColumn(0).setMaxWidth(90);
+        table.getColumnModel().getColumn(1).setPreferredWidth(110);
+        table.getColumnModel().getColumn(1).setMaxWidth(160);
+        table.getColumnModel().getColumn(2).setPreferredWidth(400);
+
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
+        add(scrollPane, BorderLayout.CENTER);
+
+        refreshTimer = new Timer(REFRESH_PULSE_MS, e -> refresh());
+        refreshTimer.start();
+    }
+
+    /**
+     * Add a decoded barcode row
+     */
+    public void addScan(String format, String text, String detail) {
+        history.addScan(format, text, detail);
+    }
+
+    /**
+     * Add informational text; each non-blank line becomes its own row
+     */
+    public void appendText(String text) {
+        for (String line : text.split("\n")) {
+            if (!line.trim().isEmpty()) {
+                history.addMessage(line);
+            }
+        }
+    }
+
+    /**
+     * Clear the history and optionally show some informational text
+     */
+    public void setText(String text) {
+        history.clear();
+        appendText(text);
+    }
+
+    public ScanHistory getHistory() {
+        return history;
+    }
+
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        refreshTimer.start();
+    }
+
+    private void refresh() {
+        long version = history.getVersion();
+        if (version == shownVersion) {
+            return;
+        }
+        shownVersion = version;
+        tableModel.setRows(history.snapshot());
+
+        // Keep the newest row in view, as the text areas did with setCaretPosition
+        int last = tableModel.getRowCount() - 1;
+        if (last >= 0) {
+            table.scrollRectToVisible(table.getCellRect(last, 0, true));
+        }
+    }
+
+    private static class HistoryTableModel extends AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+        private static final String[] COLUMNS = {"Time", "Format", "Value", "Info"};
+        private List<ScanHistory.Entry> rows = Collections.emptyList();
+
+        void setRows(List<ScanHistory.Entry> rows) {
+            this.rows = rows;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            ScanHistory.Entry entry = rows.get(row);
+            switch (column) {
+                case 0:
+                    return LocalTime.ofInstant(Instant.ofEpochMilli(entry.getTimestampMillis()),
+                            ZoneId.systemDefault()).format(TIME_FORMAT);
+                case 1:
+                    return entry.isMessage() ? "" : entry.getFormat();
+                case 2:
+                    return entry.getText();
+                default:
+                    return entry.getDetail() != null ? entry.getDetail() : "";
+            }
+        }
+    }
+}
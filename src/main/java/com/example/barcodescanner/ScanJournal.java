@@ -0,0 +1,815 @@
+package com.example.barcodescanner;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Durable, append-only record of every scan, so what each lane read and when can be audited.
+ *
+ * Events go into memory-mapped segment files, like FrameRecorder's frames. Each record is
+ * marker, body length, body (sequence, wall-clock timestamp, capture-to-publish latency,
+ * camera, format, text) and a CRC32 of the body; a zero marker or a record that fails its
+ * checksum ends a segment, so a record torn by a crash is simply not there on reopen. A full
+ * segment is sealed and the next one started, and the first append of every run starts a new
+ * segment rather than appending after a possibly torn tail.
+ *
+ * Subscribed to a {@link ResultBus}, the journal writes on the bus's dispatcher thread, never
+ * a decode thread, and forces each delivered batch to disk once: scans arriving in a burst
+ * share one flush (group commit), so the cost per scan falls as the rate rises.
+ *
+ * An in-memory index, rebuilt from the segments on open, finds records by code text and by
+ * time range. Only the active segment is mapped; sealed ones are read through their files,
+ * because a file cannot be deleted on Windows while a mapping of it is alive, and there is
+ * no way to unmap one short of garbage collection. Segments are written at full size however
+ * little they hold, so {@link #compact(long)} packs sealed ones into dense files and can drop
+ * records past retention.
+ *
+ * A packed file is named for the range of segment indices it replaces (scans-00003-00007.seg)
+ * and is never written over a file that may still be mapped. Once it is in place its inputs
+ * are deleted; one that cannot be deleted yet, such as a segment sealed this run whose
+ * mapping has not been collected, is covered by the packed file's name, so it is ignored
+ * and deleted on a later compaction or open.
+ */
+public class ScanJournal implements ResultBus.Subscriber, Closeable {
+
+    static final int RECORD_MARKER = 0x53434E31; // "SCN1"
+    static final int HEADER_BYTES = 4 + 4;
+    static final int FIXED_BODY_BYTES = 8 + 8 + 8 + 3 * 2;
+    static final int CHECKSUM_BYTES = 4;
+    static final String SEGMENT_PREFIX = "scans-";
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final String COMPACT_SUFFIX = ".tmp";
+    // The time index keeps one block per this many records
+    static final int INDEX_INTERVAL = 64;
+    // Sealed segments are read this much at a time: enough for a time block's records in one
+    // read, or for a typical record on its own when looking up scattered ones by code
+    static final int BLOCK_READ_BYTES = 16 * 1024;
+    static final int RECORD_READ_BYTES = 256;
+    // Field lengths are unsigned shorts; the largest marks a null field
+    private static final int NULL_FIELD = 0xFFFF;
+    private static final int MAX_FIELD_BYTES = NULL_FIELD - 1;
+
+    public static final long DEFAULT_SEGMENT_BYTES = 4L * 1024 * 1024;
+
+    /**
+     * One journaled scan
+     */
+    public static class Entry {
+        private final long sequence;
+        private final long timestampMillis;
+        private final long latencyNanos;
+        private final String camera;
+        private final String format;
+        private final String text;
+
+        Entry(long sequence, long timestampMillis, long latencyNanos, String camera, String format, String text) {
+            this.sequence = sequence;
+            this.timestampMillis = timestampMillis;
+            this.latencyNanos = latencyNanos;
+            this.camera = camera;
+            this.format = format;
+            this.text = text;
+        }
+
+        /** Position in the journal, counting from 0 and never reused */
+        public long getSequence() { return sequence; }
+        public long getTimestampMillis() { return timestampMillis; }
+        /** Capture to publish, or -1 for events not stamped by the pipeline */
+        public long getLatencyNanos() { return latencyNanos; }
+        public String getCamera() { return camera; }
+        public String getFormat() { return format; }
+        public String getText() { return text; }
+    }
+
+    /**
+     * A sealed segment file, covering segment indices first to last; read, never mapped
+     */
+    private static class SegmentFile {
+        final Path path;
+        final int first;
+        final int last;
+        final boolean packed;
+        FileChannel channel;
+        ByteBuffer cache = ByteBuffer.allocate(0);
+        long cacheStart;
+
+        SegmentFile(Path path, int first, int last, boolean packed) {
+            this.path = path;
+            this.first = first;
+            this.last = last;
+            this.packed = packed;
+        }
+
+        /**
+         * Make sure the whole record at offset is in the cache, reading at least readAhead
+         * bytes if it is not; returns where the record starts in the cache
+         */
+        int load(int offset, int readAhead) throws IOException {
+            if (!cached(offset, HEADER_BYTES)) {
+                fill(offset, readAhead);
+            }
+            int length = HEADER_BYTES + cache.getInt((int) (offset - cacheStart) + 4) + CHECKSUM_BYTES;
+            if (!cached(offset, length)) {
+                fill(offset, length);
+            }
+            return (int) (offset - cacheStart);
+        }
+
+        private boolean cached(long offset, int length) {
+            return offset >= cacheStart && offset + length <= cacheStart + cache.limit();
+        }
+
+        private void fill(long offset, int length) throws IOException {
+            int size = (int) Math.min(length, channel.size() - offset);
+            if (cache.capacity() < size) {
+                cache = ByteBuffer.allocate(size);
+            }
+            cache.clear().limit(size);
+            while (cache.hasRemaining()) {
+                if (channel.read(cache, offset + cache.position()) < 0) {
+                    throw new EOFException("Scan record cut short in " + path.getFileName());
+                }
+            }
+            cache.flip();
+            cacheStart = offset;
+        }
+
+        /**
+         * True if this file's records are all in the other: it covers a wider range of
+         * indices, or the same one as a packed file replacing a plain segment
+         */
+        boolean supersededBy(SegmentFile other) {
+            return other != this && other.first <= first && last <= other.last
+                    && (other.last - other.first > last - first || other.packed && !packed);
+        }
+    }
+
+    /**
+     * Growable list of record locations, each (segment index << 32 | offset)
+     */
+    private static class Locations {
+        long[] items = new long[2];
+        int size;
+
+        void add(long location) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = location;
+        }
+    }
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final CRC32 crc = new CRC32();
+    // Every readable segment, sealed and active, in journal order, by the first index it covers
+    private final List<Integer> segments = new ArrayList<>();
+    private final Map<Integer, SegmentFile> sealed = new HashMap<>();
+    // Superseded files that could not be deleted yet
+    private final List<SegmentFile> obsolete = new ArrayList<>();
+    // The active segment, created by the first append after open or roll
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int segmentIndex = 0;
+    private long nextSequence = 0;
+    private boolean dirty = false;
+    private boolean closed = false;
+
+    // Index: locations by code text, and blocks of INDEX_INTERVAL records by time. A block's
+    // maximum is the running maximum over the journal so far, so it never decreases.
+    private final Map<String, Locations> byCode = new HashMap<>();
+    private long[] blockStart = new long[16];
+    private long[] blockMin = new long[16];
+    private long[] blockMax = new long[16];
+    private int[] blockCount = new int[16];
+    private int blocks = 0;
+    private boolean blockOpen = false;
+    private long latestTimestamp = Long.MIN_VALUE;
+
+    // Metrics
+    private long events = 0;
+    private long commits = 0;
+    private long skipped = 0;
+    private long bytesWritten = 0;
+    private final LatencyStats commitTimes = new LatencyStats();
+
+    public ScanJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public ScanJournal(Path directory, long segmentBytes) throws IOException {
+        if (segmentBytes <= HEADER_BYTES + FIXED_BODY_BYTES + CHECKSUM_BYTES + 4 || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid segment size: " + segmentBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+
+        // Output of a compaction that never finished; its inputs are all still there
+        try (var files = Files.list(directory)) {
+            for (Path file : files.filter(p -> p.getFileName().toString().endsWith(COMPACT_SUFFIX))
+                    .collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+        loadSegments();
+    }
+
+    /**
+     * Write one event; it is durable once {@link #commit()} returns
+     */
+    public synchronized void append(ScanEvent event) throws IOException {
+        if (closed) {
+            throw new IOException("Journal is closed");
+        }
+        byte[] camera = field(event.getCamera());
+        byte[] format = field(event.getFormat());
+        byte[] text = field(event.getText());
+        int body = FIXED_BODY_BYTES + length(camera) + length(format) + length(text);
+        int record = HEADER_BYTES + body + CHECKSUM_BYTES;
+        // Keep room for the terminating zero marker
+        if (record + 4 > segmentBytes) {
+            throw new IOException("Scan record of " + record + " bytes does not fit in a " + segmentBytes
+                    + " byte segment");
+        }
+        if (segment != null && segment.remaining() < record + 4) {
+            roll();
+        }
+        if (segment == null) {
+            openSegment();
+        }
+
+        ScanEvent.Timing timing = event.getTiming();
+        int offset = segment.position();
+        segment.putInt(RECORD_MARKER);
+        segment.putInt(body);
+        segment.putLong(nextSequence);
+        segment.putLong(event.getTimestampMillis());
+        segment.putLong(timing != null ? event.getPublishedNanos() - timing.getCaptureNanos() : -1);
+        putField(camera);
+        putField(format);
+        putField(text);
+        segment.putInt(checksum(segment, offset + HEADER_BYTES, body));
+
+        index(location(segmentIndex, offset), event.getTimestampMillis(), event.getText());
+        nextSequence++;
+        events++;
+        bytesWritten += record;
+        dirty = true;
+    }
+
+    /**
+     * Force everything appended since the last commit to disk
+     */
+    public synchronized void commit() {
+        if (!dirty) {
+            return;
+        }
+        long start = System.nanoTime();
+        segment.force();
+        commitTimes.record(System.nanoTime() - start);
+        commits++;
+        dirty = false;
+    }
+
+    /**
+     * Journal a batch from the result bus with a single commit. An event that cannot be
+     * written (a field or record too large) is counted and skipped; the rest still go in.
+     */
+    @Override
+    public synchronized void onScanEvents(List<ScanEvent> batch) {
+        if (closed) {
+            skipped += batch.size();
+            return;
+        }
+        try {
+            for (ScanEvent event : batch) {
+                try {
+                    append(event);
+                } catch (IOException | IllegalArgumentException e) {
+                    skipped++;
+                    System.err.println("Scan journal skipped " + event.getFormat() + " event: " + e.getMessage());
+                }
+            }
+        } finally {
+            if (!closed) {
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Seal the active segment; the next append starts a new one
+     */
+    public synchronized void roll() throws IOException {
+        if (closed) {
+            throw new IOException("Journal is closed");
+        }
+        commit();
+        if (segment == null) {
+            return;
+        }
+        // Read back through the file from now on; the mapping goes whenever it is collected
+        SegmentFile file = new SegmentFile(segmentPath(segmentIndex), segmentIndex, segmentIndex, false);
+        file.channel = FileChannel.open(file.path, StandardOpenOption.READ);
+        sealed.put(segmentIndex, file);
+        segment = null;
+        channel.close();
+        channel = null;
+        segmentIndex++;
+    }
+
+    /**
+     * Every record of this code text, in journal order
+     */
+    public synchronized List<Entry> findByCode(String text) throws IOException {
+        Locations locations = byCode.get(text);
+        if (locations == null) {
+            return Collections.emptyList();
+        }
+        List<Entry> found = new ArrayList<>(locations.size);
+        for (int i = 0; i < locations.size; i++) {
+            long location = locations.items[i];
+            int index = (int) (location >>> 32);
+            int offset = (int) location;
+            if (index == segmentIndex) {
+                found.add(read(segment, offset));
+            } else {
+                SegmentFile file = sealed.get(index);
+                int position = file.load(offset, RECORD_READ_BYTES);
+                found.add(read(file.cache, position));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Every record stamped from fromMillis (inclusive) to toMillis (exclusive), in journal order
+     */
+    public synchronized List<Entry> findByTime(long fromMillis, long toMillis) throws IOException {
+        List<Entry> found = new ArrayList<>();
+        // Every block before the first whose running maximum reaches fromMillis is too early
+        int low = 0, high = blocks;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blockMax[mid] < fromMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        // Decode threads publish slightly out of order, so later blocks are checked, not assumed
+        for (int block = low; block < blocks; block++) {
+            if (blockMin[block] >= toMillis) {
+                continue;
+            }
+            int index = (int) (blockStart[block] >>> 32);
+            SegmentFile file = sealed.get(index);
+            int offset = (int) blockStart[block];
+            for (int i = 0; i < blockCount[block]; i++) {
+                int position = file != null ? file.load(offset, BLOCK_READ_BYTES) : offset;
+                ByteBuffer buffer = file != null ? file.cache : segment;
+                long timestamp = buffer.getLong(position + HEADER_BYTES + 8);
+                if (timestamp >= fromMillis && timestamp < toMillis) {
+                    found.add(read(buffer, position));
+                }
+                offset += HEADER_BYTES + buffer.getInt(position + 4) + CHECKSUM_BYTES;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Pack the sealed segments into dense files, dropping records stamped before
+     * retainFromMillis (Long.MIN_VALUE keeps everything). Returns the bytes freed on disk.
+     *
+     * Each packed file is named for the indices it replaces and moved into place before its
+     * inputs are deleted, so a crash in between leaves inputs that the next open recognises
+     * as superseded. Where nothing is kept, an empty packed file stands in until they are gone.
+     */
+    public synchronized long compact(long retainFromMillis) throws IOException {
+        if (closed) {
+            throw new IOException("Journal is closed");
+        }
+        deleteObsolete();
+        List<SegmentFile> inputs = new ArrayList<>();
+        for (int index : segments) {
+            if (sealed.containsKey(index)) {
+                inputs.add(sealed.get(index));
+            }
+        }
+        long before = diskBytes(inputs) + diskBytes(obsolete);
+
+        int next = 0;
+        while (next < inputs.size()) {
+            // Greedily group the segments whose kept records fit in one packed file
+            int first = next;
+            long packedBytes = 0;
+            boolean dropped = false;
+            List<long[]> kept = new ArrayList<>(); // {first index, offset, length} per record
+            for (; next < inputs.size(); next++) {
+                SegmentFile input = inputs.get(next);
+                ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(input.path));
+                List<long[]> records = new ArrayList<>();
+                long bytes = 0;
+                int offset = 0;
+                for (int length; (length = recordLength(buffer, offset)) > 0; offset += length) {
+                    if (buffer.getLong(offset + HEADER_BYTES + 8) >= retainFromMillis) {
+                        records.add(new long[] {input.first, offset, length});
+                        bytes += length;
+                    }
+                }
+                if (next > first && packedBytes + bytes > segmentBytes) {
+                    break;
+                }
+                dropped |= bytes < buffer.capacity();
+                kept.addAll(records);
+                packedBytes += bytes;
+            }
+            List<SegmentFile> group = inputs.subList(first, next);
+            if (!dropped && group.size() == 1 && group.get(0).packed) {
+                continue; // already dense, and nothing past retention
+            }
+
+            Path target = directory.resolve(packedName(group.get(0).first, group.get(group.size() - 1).last));
+            Path packed = directory.resolve(target.getFileName() + COMPACT_SUFFIX);
+            try (FileChannel out = FileChannel.open(packed, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                for (long[] record : kept) {
+                    FileChannel source = sealed.get((int) record[0]).channel;
+                    for (long done = 0; done < record[2]; ) {
+                        done += source.transferTo(record[1] + done, record[2] - done, out);
+                    }
+                }
+                out.force(true);
+            }
+            // The target is only ever an earlier packed file being repacked: read, never mapped
+            for (SegmentFile input : group) {
+                input.channel.close();
+            }
+            Files.move(packed, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            boolean inputsGone = true;
+            for (SegmentFile input : group) {
+                if (!input.path.equals(target)) {
+                    inputsGone &= deleteOrDefer(input);
+                }
+            }
+            if (kept.isEmpty() && inputsGone) {
+                Files.delete(target);
+            }
+        }
+
+        // Packed files replace their inputs, so every location moves; index them afresh
+        int active = segmentIndex;
+        long sequence = nextSequence;
+        segments.clear();
+        sealed.clear();
+        byCode.clear();
+        blocks = 0;
+        latestTimestamp = Long.MIN_VALUE;
+        nextSequence = 0;
+        loadSegments();
+        if (segment != null) {
+            segments.add(active);
+            indexSegment(active, segment);
+        }
+        segmentIndex = active;
+        nextSequence = sequence;
+        return before - diskBytes(new ArrayList<>(sealed.values())) - diskBytes(obsolete);
+    }
+
+    /**
+     * Records journaled by this instance
+     */
+    public synchronized long getEventCount() {
+        return events;
+    }
+
+    /**
+     * Records in the journal, including those from earlier runs
+     */
+    public synchronized long getSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Flushes to disk; each covers every event appended since the one before
+     */
+    public synchronized long getCommitCount() {
+        return commits;
+    }
+
+    /**
+     * Bus events that could not be journaled
+     */
+    public synchronized long getSkippedCount() {
+        return skipped;
+    }
+
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Segment files in the journal, the active one included
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Time taken by each commit's flush
+     */
+    public LatencyStats getCommitTimes() {
+        return commitTimes;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        commit();
+        closed = true;
+        segment = null;
+        if (channel != null) {
+            channel.close();
+        }
+        for (SegmentFile file : sealed.values()) {
+            file.channel.close();
+        }
+    }
+
+    private void openSegment() throws IOException {
+        channel = FileChannel.open(segmentPath(segmentIndex), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        segments.add(segmentIndex);
+        blockOpen = false; // no time block spans two segments
+    }
+
+    /**
+     * Open and index every sealed segment in the directory, in index order. Files that a
+     * packed file supersedes, and files with no records, are deleted before they are read.
+     */
+    private void loadSegments() throws IOException {
+        List<SegmentFile> files = listSegments();
+        List<SegmentFile> live = new ArrayList<>();
+        for (SegmentFile file : files) {
+            if (segment != null && !file.packed && file.first == segmentIndex) {
+                continue; // the active segment, when compaction reloads the rest
+            }
+            segmentIndex = Math.max(segmentIndex, file.last + 1);
+            boolean superseded = false;
+            for (SegmentFile other : files) {
+                superseded |= file.supersededBy(other);
+            }
+            if (superseded) {
+                deleteOrDefer(file);
+            } else {
+                live.add(file);
+            }
+        }
+        for (SegmentFile file : live) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.path));
+            if (recordLength(buffer, 0) == 0) {
+                // Never written, or an empty packed file; one still standing in for inputs stays
+                boolean covering = false;
+                for (SegmentFile other : obsolete) {
+                    covering |= other.supersededBy(file);
+                }
+                if (!covering) {
+                    deleteOrDefer(file);
+                }
+                continue;
+            }
+            file.channel = FileChannel.open(file.path, StandardOpenOption.READ);
+            segments.add(file.first);
+            sealed.put(file.first, file);
+            indexSegment(file.first, buffer);
+        }
+    }
+
+    /**
+     * Delete a superseded file, or keep it for later if it cannot go yet (on Windows, while a
+     * mapping of it has not been collected). Returns true if it is gone.
+     */
+    private boolean deleteOrDefer(SegmentFile file) {
+        obsolete.removeIf(other -> other.path.equals(file.path));
+        try {
+            Files.deleteIfExists(file.path);
+            return true;
+        } catch (IOException e) {
+            obsolete.add(file);
+            return false;
+        }
+    }
+
+    private void deleteObsolete() {
+        for (SegmentFile file : new ArrayList<>(obsolete)) {
+            deleteOrDefer(file);
+        }
+    }
+
+    private static long diskBytes(List<SegmentFile> files) throws IOException {
+        long bytes = 0;
+        for (SegmentFile file : files) {
+            if (Files.exists(file.path)) {
+                bytes += Files.size(file.path);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Index every intact record of a segment, stopping at its end or at a torn record
+     */
+    private void indexSegment(int index, ByteBuffer buffer) {
+        blockOpen = false; // no time block spans two segments
+        for (int offset = 0, length; (length = recordLength(buffer, offset)) > 0; offset += length) {
+            index(location(index, offset), buffer.getLong(offset + HEADER_BYTES + 8), readText(buffer, offset));
+            nextSequence = buffer.getLong(offset + HEADER_BYTES) + 1;
+        }
+    }
+
+    private void index(long location, long timestampMillis, String text) {
+        if (text != null) {
+            byCode.computeIfAbsent(text, key -> new Locations()).add(location);
+        }
+        latestTimestamp = Math.max(latestTimestamp, timestampMillis);
+        if (!blockOpen || blockCount[blocks - 1] == INDEX_INTERVAL) {
+            if (blocks == blockStart.length) {
+                blockStart = Arrays.copyOf(blockStart, blocks * 2);
+                blockMin = Arrays.copyOf(blockMin, blocks * 2);
+                blockMax = Arrays.copyOf(blockMax, blocks * 2);
+                blockCount = Arrays.copyOf(blockCount, blocks * 2);
+            }
+            blockStart[blocks] = location;
+            blockMin[blocks] = timestampMillis;
+            blockCount[blocks] = 0;
+            blocks++;
+            blockOpen = true;
+        }
+        blockMin[blocks - 1] = Math.min(blockMin[blocks - 1], timestampMillis);
+        blockMax[blocks - 1] = latestTimestamp;
+        blockCount[blocks - 1]++;
+    }
+
+    private int checksum(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer body = buffer.duplicate();
+        body.limit(offset + length).position(offset);
+        crc.reset();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Length of the whole record at offset, or 0 if there is none: the segment ended, was
+     * never written this far, or the record is torn
+     */
+    private int recordLength(ByteBuffer buffer, int offset) {
+        if (offset < 0 || buffer.limit() - offset < HEADER_BYTES || buffer.getInt(offset) != RECORD_MARKER) {
+            return 0;
+        }
+        int body = buffer.getInt(offset + 4);
+        if (body < FIXED_BODY_BYTES || body > buffer.limit() - offset - HEADER_BYTES - CHECKSUM_BYTES) {
+            return 0;
+        }
+        if (buffer.getInt(offset + HEADER_BYTES + body) != checksum(buffer, offset + HEADER_BYTES, body)) {
+            return 0;
+        }
+        return HEADER_BYTES + body + CHECKSUM_BYTES;
+    }
+
+    private static Entry read(ByteBuffer buffer, int offset) {
+        int position = offset + HEADER_BYTES;
+        long sequence = buffer.getLong(position);
+        long timestamp = buffer.getLong(position + 8);
+        long latency = buffer.getLong(position + 16);
+        position += 24;
+        String camera = readField(buffer, position);
+        position += 2 + length(buffer, position);
+        String format = readField(buffer, position);
+        position += 2 + length(buffer, position);
+        return new Entry(sequence, timestamp, latency, camera, format, readField(buffer, position));
+    }
+
+    private static String readText(ByteBuffer buffer, int offset) {
+        int position = offset + HEADER_BYTES + 24;
+        position += 2 + length(buffer, position);
+        position += 2 + length(buffer, position);
+        return readField(buffer, position);
+    }
+
+    private static String readField(ByteBuffer buffer, int position) {
+        int length = buffer.getShort(position) & 0xFFFF;
+        if (length == NULL_FIELD) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(position + 2);
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int length(ByteBuffer buffer, int position) {
+        int length = buffer.getShort(position) & 0xFFFF;
+        return length == NULL_FIELD ? 0 : length;
+    }
+
+    private static byte[] field(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_FIELD_BYTES) {
+            throw new IllegalArgumentException("Scan field of " + bytes.length + " bytes is too long to journal");
+        }
+        return bytes;
+    }
+
+    private static int length(byte[] field) {
+        return field != null ? field.length : 0;
+    }
+
+    private void putField(byte[] field) {
+        if (field == null) {
+            segment.putShort((short) NULL_FIELD);
+        } else {
+            segment.putShort((short) field.length);
+            segment.put(field);
+        }
+    }
+
+    private static long location(int segmentIndex, int offset) {
+        return (long) segmentIndex << 32 | offset;
+    }
+
+    /**
+     * Every segment file in the directory, by the first index it covers, packed files first
+     */
+    private List<SegmentFile> listSegments() throws IOException {
+        List<SegmentFile> found = new ArrayList<>();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                String name = file.getFileName().toString();
+                if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+                    continue;
+                }
+                String[] range = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())
+                        .split("-", -1);
+                int first = parseSegmentIndex(range[0]);
+                int last = range.length == 2 ? parseSegmentIndex(range[1]) : first;
+                if (range.length <= 2 && first >= 0 && last >= first) {
+                    found.add(new SegmentFile(file, first, last, range.length == 2));
+                }
+            }
+        }
+        found.sort((a, b) -> a.first != b.first ? Integer.compare(a.first, b.first) : Boolean.compare(b.packed, a.packed));
+        return found;
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(segmentName(index));
+    }
+
+    static String segmentName(int index) {
+        return String.format("%s%05d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Name of a packed file holding what segments first to last held
+     */
+    static String packedName(int first, int last) {
+        return String.format("%s%05d-%05d%s", SEGMENT_PREFIX, first, last, SEGMENT_SUFFIX);
+    }
+
+    static int parseSegmentIndex(String digits) {
+        try {
+            return Integer.parseInt(digits);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
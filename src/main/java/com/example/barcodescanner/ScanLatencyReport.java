@@ -0,0 +1,107 @@
+package com.example.barcodescanner;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Capture-to-callback latency of scan events, split by pipeline stage:
+ * waiting for a decode worker, decoding, consensus and dedup up to the result bus,
+ * and bus delivery up to the subscriber. Events without {@link ScanEvent.Timing} only
+ * count towards the untimed total.
+ */
+public class ScanLatencyReport {
+
+    private final LatencyStats queue = new LatencyStats();
+    private final LatencyStats decode = new LatencyStats();
+    private final LatencyStats publish = new LatencyStats();
+    private final LatencyStats delivery = new LatencyStats();
+    private final LatencyStats endToEnd = new LatencyStats();
+    private final Map<String, AtomicLong> strategies = new ConcurrentHashMap<>();
+    private final AtomicLong untimed = new AtomicLong();
+
+    /**
+     * Record one event as it reaches a subscriber at emitNanos (System.nanoTime())
+     */
+    public void record(ScanEvent event, long emitNanos) {
+        ScanEvent.Timing timing = event.getTiming();
+        if (timing == null) {
+            untimed.incrementAndGet();
+            return;
+        }
+        queue.record(timing.getQueueNanos());
+        decode.record(timing.getDecodeNanos());
+        publish.record(event.getPublishedNanos() - timing.getDecodeEndNanos());
+        delivery.record(emitNanos - event.getPublishedNanos());
+        endToEnd.record(emitNanos - timing.getCaptureNanos());
+        if (timing.getStrategy() != null) {
+            strategies.computeIfAbsent(timing.getStrategy(), key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    /**
+     * Capture to subscriber
+     */
+    public LatencyStats getEndToEnd() {
+        return endToEnd;
+    }
+
+    public LatencyStats getQueue() {
+        return queue;
+    }
+
+    public LatencyStats getDecode() {
+        return decode;
+    }
+
+    /**
+     * End of decode to the event entering the result bus (consensus and duplicate filtering)
+     */
+    public LatencyStats getPublish() {
+        return publish;
+    }
+
+    public LatencyStats getDelivery() {
+        return delivery;
+    }
+
+    public long getUntimedCount() {
+        return untimed.get();
+    }
+
+    /**
+     * Events per decode strategy, sorted by name
+     */
+    public Map<String, Long> getStrategyCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        strategies.forEach((strategy, count) -> counts.put(strategy, count.get()));
+        return counts;
+    }
+
+    /**
+     * Percentile table in milliseconds, one row per stage
+     */
+    public String format() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-22s %6s %8s %8s %8s %8s%n", "Latency (ms)", "n", "p50", "p90", "p99", "max"));
+        row(report, "capture -> decode", queue);
+        row(report, "decode", decode);
+        row(report, "decode -> publish", publish);
+        row(report, "publish -> callback", delivery);
+        row(report, "capture -> callback", endToEnd);
+        if (!strategies.isEmpty()) {
+            report.append("Strategies: ").append(getStrategyCounts()).append(System.lineSeparator());
+        }
+        if (untimed.get() > 0) {
+            report.append("Untimed events: ").append(untimed.get()).append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    private static void row(StringBuilder report, String stage, LatencyStats stats) {
+        report.append(String.format("  %-20s %6d %8.2f %8.2f %8.2f %8.2f%n", stage, stats.getCount(),
+                stats.getPercentileNanos(50) / 1e6, stats.getPercentileNanos(90) / 1e6,
+                stats.getPercentileNanos(99) / 1e6, stats.getMaxNanos() / 1e6));
+    }
+}
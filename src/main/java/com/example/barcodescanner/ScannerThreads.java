@@ -0,0 +1,154 @@
+package com.example.barcodescanner;
+
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the scanner's long-running threads: camera capture loops, decode workers,
+ * the result bus dispatcher and the HTTP service threads.
+ *
+ * On Java 21 these can be virtual threads. The sources still compile for Java 11, so
+ * the virtual-thread API is looked up reflectively; the java21 Maven profile turns the
+ * mode on by default and {@code -Dscanner.virtualThreads=true|false} overrides it.
+ * On older runtimes the setting is ignored and platform daemon threads are used.
+ */
+public final class ScannerThreads {
+
+    public static final String PROPERTY = "scanner.virtualThreads";
+
+    private static final MethodHandle OF_VIRTUAL;          // Thread.ofVirtual()
+    private static final MethodHandle BUILDER_NAME;        // Thread.Builder.name(String)
+    private static final MethodHandle BUILDER_UNSTARTED;   // Thread.Builder.unstarted(Runnable)
+    private static final MethodHandle IS_VIRTUAL;          // Thread.isVirtual()
+    private static final MethodHandle PER_TASK_EXECUTOR;   // Executors.newThreadPerTaskExecutor(ThreadFactory)
+    private static final boolean VIRTUAL;
+
+    static {
+        MethodHandle ofVirtual = null;
+        MethodHandle name = null;
+        MethodHandle unstarted = null;
+        MethodHandle isVirtual = null;
+        MethodHandle perTask = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            Class<?> ofVirtualBuilder = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualBuilder));
+            name = lookup.findVirtual(ofVirtualBuilder, "name", MethodType.methodType(ofVirtualBuilder, String.class));
+            unstarted = lookup.findVirtual(builder, "unstarted", MethodType.methodType(Thread.class, Runnable.class));
+            isVirtual = lookup.findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+            perTask = lookup.findStatic(Executors.class, "newThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+        } catch (ReflectiveOperationException e) {
+            // Pre-21 runtime: platform threads only
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_UNSTARTED = unstarted;
+        IS_VIRTUAL = isVirtual;
+        PER_TASK_EXECUTOR = perTask;
+        VIRTUAL = OF_VIRTUAL != null && Boolean.parseBoolean(System.getProperty(PROPERTY, buildDefault()));
+    }
+
+    private ScannerThreads() {
+    }
+
+    /**
+     * Whether this runtime can create virtual threads at all
+     */
+    public static boolean isVirtualSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Whether {@link #newThread} hands out virtual threads
+     */
+    public static boolean isVirtual() {
+        return VIRTUAL;
+    }
+
+    /**
+     * Unstarted daemon thread in the configured mode
+     */
+    public static Thread newThread(String name, Runnable task) {
+        return newThread(name, task, VIRTUAL);
+    }
+
+    /**
+     * Unstarted thread of the requested kind, e.g. for benchmarks that compare both.
+     * Falls back to a platform thread when virtual threads are unavailable.
+     */
+    static Thread newThread(String name, Runnable task, boolean virtual) {
+        if (virtual && OF_VIRTUAL != null) {
+            try {
+                Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(), name);
+                return (Thread) BUILDER_UNSTARTED.invoke(builder, task);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to create virtual thread " + name, e);
+            }
+        }
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Thread factory naming threads prefix-0, prefix-1, ...
+     */
+    public static ThreadFactory factory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return task -> newThread(prefix + "-" + counter.getAndIncrement(), task);
+    }
+
+    /**
+     * Executor for connection-style work that mostly waits: one virtual thread per task
+     * in virtual mode, otherwise a cached pool of daemon threads
+     */
+    public static ExecutorService newPerTaskExecutor(String prefix) {
+        if (VIRTUAL) {
+            try {
+                return (ExecutorService) PER_TASK_EXECUTOR.invoke(factory(prefix));
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to create virtual-thread executor " + prefix, e);
+            }
+        }
+        return Executors.newCachedThreadPool(factory(prefix));
+    }
+
+    /**
+     * Whether the calling thread is virtual (per-thread caches should not be used on it)
+     */
+    public static boolean isCurrentThreadVirtual() {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invoke(Thread.currentThread());
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * Default baked in at build time by the Maven profile (false unless built with -Pjava21)
+     */
+    private static String buildDefault() {
+        try (InputStream in = ScannerThreads.class.getResourceAsStream("/scanner-build.properties")) {
+            if (in == null) {
+                return "false";
+            }
+            Properties properties = new Properties();
+            properties.load(in);
+            return properties.getProperty("virtualThreads", "false").trim();
+        } catch (Exception e) {
+            return "false";
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.example.barcodescanner;
 import com.github.sarxos.webcam.Webcam;
 import com.google.zxing.*;
 import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
-import com.google.zxing.common.HybridBinarizer;
 
 import javax.swing.*;
 import java.awt.*;
@@ -12,8 +11,6 @@ import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -25,12 +22,13 @@ public class SwingBarcodeScanner extends JFrame {
     
     private Webcam webcam;
     private JLabel cameraLabel;
-    private JTextArea resultArea;
+    private ScanHistoryPanel historyPanel;
     private JButton startButton;
     private JButton stopButton;
     private JLabel statusLabel;
     private Timer cameraTimer;
     private MultiFormatReader barcodeReader;
+    private final ReusableBinarizer.Workspace binarizerWorkspace = new ReusableBinarizer.Workspace();
     
     private final AtomicBoolean isScanning = new AtomicBoolean(false);
     private String lastDetectedBarcode = "";
@@ -38,6 +36,9 @@ public class SwingBarcodeScanner extends JFrame {
     private static final long DETECTION_COOLDOWN_MS = 2000;
     
     public SwingBarcodeScanner() {
+        // Start enumerating webcams now so Start doesn't wait for drivers
+        WebcamDiscovery.getInstance().discover();
+        
         initializeComponents();
         setupBarcodeReader();
         setupUI();
@@ -133,15 +134,10 @@ public class SwingBarcodeScanner extends JFrame {
         resultPanel.setBorder(BorderFactory.createTitledBorder("Scan Results"));
         resultPanel.setPreferredSize(new java.awt.Dimension(0, 150));
         
-        resultArea = new JTextArea();
-        resultArea.setEditable(false);
-        resultArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
-        resultArea.setText("Scanned barcodes will appear here...\n");
-        
-        JScrollPane scrollPane = new JScrollPane(resultArea);
-        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
+        historyPanel = new ScanHistoryPanel();
+        historyPanel.setText("Scanned barcodes will appear here...\n");
         
-        resultPanel.add(scrollPane, BorderLayout.CENTER);
+        resultPanel.add(historyPanel, BorderLayout.CENTER);
         
         // Layout
         add(cameraPanel, BorderLayout.CENTER);
@@ -150,7 +146,7 @@ public class SwingBarcodeScanner extends JFrame {
         
         // Event handlers
         clearButton.addActionListener(e -> {
-            resultArea.setText("Scanned barcodes will appear here...\n");
+            historyPanel.setText("Scanned barcodes will appear here...\n");
             updateStatus("Results cleared", Color.BLUE);
         });
     }
@@ -171,8 +167,8 @@ public class SwingBarcodeScanner extends JFrame {
         try {
             updateStatus("Starting camera...", Color.BLUE);
             
-            // Get webcam
-            webcam = Webcam.getDefault();
+            // Get webcam from the cached inventory
+            webcam = WebcamDiscovery.getInstance().awaitInventory().getDefaultWebcam();
             if (webcam == null) {
                 throw new RuntimeException("No webcam found");
             }
@@ -231,7 +227,7 @@ public class SwingBarcodeScanner extends JFrame {
     private void detectBarcode(BufferedImage image) {
         try {
             LuminanceSource source = new BufferedImageLuminanceSource(image);
-            BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
+            BinaryBitmap bitmap = new BinaryBitmap(new ReusableBinarizer(source, binarizerWorkspace));
             
             Result result = barcodeReader.decode(bitmap);
             String barcodeText = result.getText();
@@ -246,12 +242,7 @@ public class SwingBarcodeScanner extends JFrame {
                 lastDetectionTime = currentTime;
                 
                 // Add to results
-                String timestamp = LocalDateTime.now().format(
-                    DateTimeFormatter.ofPattern("HH:mm:ss")
-                );
-                String resultText = String.format("[%s] %s: %s\n", timestamp, format, barcodeText);
-                resultArea.append(resultText);
-                resultArea.setCaretPosition(resultArea.getDocument().getLength());
+                historyPanel.addScan(format, barcodeText, null);
                 
                 updateStatus("Barcode detected: " + format, Color.GREEN);
                 
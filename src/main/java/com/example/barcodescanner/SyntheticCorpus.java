@@ -0,0 +1,291 @@
+package com.example.barcodescanner;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates camera-like frames containing known barcodes, for benchmarks and
+ * misread measurements without a webcam. Frames are 3-byte BGR like the ones
+ * webcam-capture returns, with random placement, lighting, contrast and sensor noise.
+ */
+public class SyntheticCorpus {
+
+    /**
+     * A rendered frame together with its ground truth
+     */
+    public static class Sample {
+        private final BarcodeFormat format;
+        private final String text;
+        private final BufferedImage image;
+        private final boolean inverted;
+
+        Sample(BarcodeFormat format, String text, BufferedImage image, boolean inverted) {
+            this.format = format;
+            this.text = text;
+            this.image = image;
+            this.inverted = inverted;
+        }
+
+        public BarcodeFormat getFormat() { return format; }
+        public String getText() { return text; }
+        public BufferedImage getImage() { return image; }
+
+        /**
+         * True for a light code on a dark background
+         */
+        public boolean isInverted() { return inverted; }
+    }
+
+    public static final BarcodeFormat[] DEFAULT_FORMATS = {
+        BarcodeFormat.EAN_13,
+        BarcodeFormat.UPC_A,
+        BarcodeFormat.CODE_128,
+        BarcodeFormat.CODE_39,
+        BarcodeFormat.ITF,
+        BarcodeFormat.QR_CODE,
+        BarcodeFormat.DATA_MATRIX
+    };
+
+    private static final String ALPHANUMERIC = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    private final Random random;
+    private final MultiFormatWriter writer = new MultiFormatWriter();
+    private int width = 640;
+    private int height = 480;
+    private BarcodeFormat[] formats = DEFAULT_FORMATS;
+    private double noise = 4.0;
+    private double blankRatio = 0.0;
+    private double maxRotation = 0.0;
+    private double invertedRatio = 0.0;
+
+    public SyntheticCorpus(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public SyntheticCorpus withFrameSize(int width, int height) {
+        this.width = width;
+        this.height = height;
+        return this;
+    }
+
+    public SyntheticCorpus withFormats(BarcodeFormat... formats) {
+        this.formats = formats.clone();
+        return this;
+    }
+
+    /**
+     * Standard deviation of the additive sensor noise, in gray levels
+     */
+    public SyntheticCorpus withNoise(double noise) {
+        this.noise = noise;
+        return this;
+    }
+
+    /**
+     * Fraction of frames that contain no barcode at all
+     */
+    public SyntheticCorpus withBlankRatio(double blankRatio) {
+        this.blankRatio = blankRatio;
+        return this;
+    }
+
+    /**
+     * Turn codes by a random angle of up to maxDegrees either way (0 keeps them upright)
+     */
+    public SyntheticCorpus withRotation(double maxDegrees) {
+        this.maxRotation = maxDegrees;
+        return this;
+    }
+
+    /**
+     * Fraction of frames rendered light-on-dark, like a code on a phone in dark mode
+     */
+    public SyntheticCorpus withInvertedRatio(double invertedRatio) {
+        this.invertedRatio = invertedRatio;
+        return this;
+    }
+
+    public int getFrameWidth() {
+        return width;
+    }
+
+    public int getFrameHeight() {
+        return height;
+    }
+
+    /**
+     * Generate a list of independent samples
+     */
+    public List<Sample> generate(int count) {
+        List<Sample> samples = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            samples.add(next());
+        }
+        return samples;
+    }
+
+    /**
+     * Render the next random sample; blank samples have a null format and text
+     */
+    public Sample next() {
+        if (random.nextDouble() < blankRatio) {
+            return new Sample(null, null, render(null, false), false);
+        }
+        BarcodeFormat format = formats[random.nextInt(formats.length)];
+        String text = randomContent(format);
+        BitMatrix code = encode(format, text);
+        boolean inverted = invertedRatio > 0 && random.nextDouble() < invertedRatio;
+        return new Sample(format, expectedText(format, text), render(code, inverted), inverted);
+    }
+
+    /**
+     * Render another camera frame of the same code, as a held-up barcode would produce
+     */
+    public Sample reshoot(Sample sample) {
+        if (sample.getFormat() == null) {
+            return new Sample(null, null, render(null, false), false);
+        }
+        String content = sample.getText();
+        if (sample.getFormat() == BarcodeFormat.EAN_13 || sample.getFormat() == BarcodeFormat.UPC_A) {
+            content = content.substring(0, content.length() - 1);
+        }
+        return new Sample(sample.getFormat(), sample.getText(),
+                render(encode(sample.getFormat(), content), sample.isInverted()), sample.isInverted());
+    }
+
+    private BitMatrix encode(BarcodeFormat format, String text) {
+        Map<EncodeHintType, Object> hints = new HashMap<>();
+        hints.put(EncodeHintType.MARGIN, 0);
+        try {
+            boolean is2D = format == BarcodeFormat.QR_CODE || format == BarcodeFormat.DATA_MATRIX;
+            return writer.encode(text, format, is2D ? 0 : 1, is2D ? 0 : 1, hints);
+        } catch (WriterException e) {
+            throw new IllegalStateException("Cannot encode " + format + " '" + text + "'", e);
+        }
+    }
+
+    private BufferedImage render(BitMatrix code, boolean inverted) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+
+        // Uneven lighting: a horizontal brightness ramp around a random base level
+        int base = 90 + random.nextInt(110);
+        int ramp = random.nextInt(60) - 30;
+        int contrast = 90 + random.nextInt(90);
+        int[] background = new int[width];
+        for (int x = 0; x < width; x++) {
+            background[x] = clamp(base + ramp * x / width);
+        }
+
+        int left = 0, top = 0, codeWidth = 0, codeHeight = 0, module = 1;
+        boolean is1D = false;
+        // Rotated codes are drawn by turning each pixel back into the code's frame around its centre
+        double cos = 1, sin = 0, centreX = 0, centreY = 0;
+        if (code != null) {
+            is1D = code.getHeight() == 1;
+            double angle = maxRotation > 0 ? Math.toRadians((random.nextDouble() * 2 - 1) * maxRotation) : 0;
+            cos = Math.cos(angle);
+            sin = Math.sin(angle);
+            int room = maxRotation > 0 ? Math.min(width, height) : width;
+            int maxModule = Math.max(1, (int) (room * 0.8) / code.getWidth());
+            module = Math.max(1, Math.min(maxModule, 3 + random.nextInt(3)));
+            codeWidth = code.getWidth() * module;
+            codeHeight = is1D ? Math.min(height / 2, 60 + random.nextInt(80)) : code.getHeight() * module;
+            int quiet = 10 * module;
+            int boxWidth = (int) Math.ceil(Math.abs(codeWidth * cos) + Math.abs(codeHeight * sin));
+            int boxHeight = (int) Math.ceil(Math.abs(codeWidth * sin) + Math.abs(codeHeight * cos));
+            left = quiet + random.nextInt(Math.max(1, width - boxWidth - 2 * quiet));
+            top = quiet + random.nextInt(Math.max(1, height - boxHeight - 2 * quiet));
+            centreX = left + boxWidth / 2.0;
+            centreY = top + boxHeight / 2.0;
+        }
+
+        for (int y = 0, i = 0; y < height; y++) {
+            for (int x = 0; x < width; x++, i += 3) {
+                int value = background[x];
+                if (code != null) {
+                    int cx, cy;
+                    if (sin == 0) {
+                        cx = x - left;
+                        cy = y - top;
+                    } else {
+                        double dx = x + 0.5 - centreX;
+                        double dy = y + 0.5 - centreY;
+                        cx = (int) Math.floor(dx * cos + dy * sin + codeWidth / 2.0);
+                        cy = (int) Math.floor(-dx * sin + dy * cos + codeHeight / 2.0);
+                    }
+                    if (cx >= 0 && cx < codeWidth && cy >= 0 && cy < codeHeight
+                            && code.get(cx / module, is1D ? 0 : cy / module)) {
+                        value = clamp(value - contrast);
+                    }
+                }
+                if (noise > 0) {
+                    value = clamp(value + (int) Math.round(random.nextGaussian() * noise));
+                }
+                byte b = (byte) (inverted ? 255 - value : value);
+                pixels[i] = b;
+                pixels[i + 1] = b;
+                pixels[i + 2] = b;
+            }
+        }
+        return image;
+    }
+
+    private String randomContent(BarcodeFormat format) {
+        switch (format) {
+            case EAN_13:
+                // A leading zero would make it a UPC-A code, which ZXing reports as such
+                return (1 + random.nextInt(9)) + randomDigits(11);
+            case UPC_A:
+                return randomDigits(11);
+            case EAN_8:
+                return randomDigits(7);
+            case ITF:
+                return randomDigits(10);
+            case CODE_39:
+                return randomString(ALPHANUMERIC, 6 + random.nextInt(5));
+            case CODE_128:
+                return randomString(ALPHANUMERIC + "abcdefghijklmnopqrstuvwxyz-", 8 + random.nextInt(5));
+            default:
+                return "SKU-" + randomString(ALPHANUMERIC, 8 + random.nextInt(8));
+        }
+    }
+
+    private static String expectedText(BarcodeFormat format, String content) {
+        switch (format) {
+            case EAN_13:
+            case UPC_A:
+            case EAN_8:
+                return content + ConsensusFilter.gtinCheckDigit(content);
+            default:
+                return content;
+        }
+    }
+
+    private String randomDigits(int length) {
+        return randomString("0123456789", length);
+    }
+
+    private String randomString(String alphabet, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.barcodescanner;
+
+import com.google.zxing.Result;
+
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Compares the platform-thread pipeline with the virtual-thread one (Java 21).
+ *
+ * Simulates many cameras, each a capture loop at 30 FPS feeding a latest-frame slot,
+ * with a small pool of decode workers round-robining over the slots (the same shape as
+ * CameraChannel and BarcodeDetector). Then decodes a batch of images with decodeAll.
+ * Run once per mode; the mode must be chosen before any scanner thread is created.
+ *
+ * Usage: ThreadModeBenchmark [platform|virtual] [cameras] [seconds] [batchImages]
+ */
+public class ThreadModeBenchmark {
+
+    private static final long CAPTURE_INTERVAL_MS = 33;
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "platform";
+        int cameras = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int batchImages = args.length > 3 ? Integer.parseInt(args[3]) : 96;
+        System.setProperty(ScannerThreads.PROPERTY, String.valueOf("virtual".equals(mode)));
+
+        System.out.println("=== Thread Mode Benchmark ===");
+        System.out.println("Java " + System.getProperty("java.version") + ", cores: "
+                + Runtime.getRuntime().availableProcessors());
+        if ("virtual".equals(mode) && !ScannerThreads.isVirtualSupported()) {
+            System.out.println("Virtual threads need Java 21; running platform threads instead");
+        }
+        System.out.println("Mode: " + (ScannerThreads.isVirtual() ? "virtual" : "platform")
+                + ", cameras: " + cameras + ", seconds: " + seconds);
+
+        List<BufferedImage> corpus = new ArrayList<>();
+        for (SyntheticCorpus.Sample sample : new SyntheticCorpus(38).generate(32)) {
+            corpus.add(sample.getImage());
+        }
+        BarcodeDetector detector = new BarcodeDetector();
+        detector.setDecodeProfile(BarcodeDetector.DecodeProfile.FAST);
+        detector.decodeAll(corpus); // warm up
+
+        long heapBefore = usedHeapAfterGc();
+        runCameras(detector, corpus, cameras, seconds);
+
+        System.out.println();
+        List<BufferedImage> batch = new ArrayList<>();
+        for (int i = 0; i < batchImages; i++) {
+            batch.add(corpus.get(i % corpus.size()));
+        }
+        long start = System.nanoTime();
+        int found = 0;
+        for (Result[] results : detector.decodeAll(batch)) {
+            if (results.length > 0) {
+                found++;
+            }
+        }
+        double batchSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Batch decodeAll:   %8.1f images/s (%d/%d read)%n",
+                batchImages / batchSeconds, found, batchImages);
+        System.out.printf("Heap growth:       %8.1f MB%n", (usedHeapAfterGc() - heapBefore) / 1e6);
+    }
+
+    private static void runCameras(BarcodeDetector detector, List<BufferedImage> corpus,
+                                   int cameras, int seconds) throws Exception {
+        List<AtomicReference<BufferedImage>> slots = new ArrayList<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong captured = new AtomicLong();
+        AtomicLong decoded = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+        LatencyStats decodeTimes = new LatencyStats();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int c = 0; c < cameras; c++) {
+            AtomicReference<BufferedImage> slot = new AtomicReference<>();
+            slots.add(slot);
+            int offset = c;
+            threads.add(ScannerThreads.newThread("Camera-sim-" + c, () -> {
+                int next = offset;
+                while (running.get()) {
+                    captured.incrementAndGet();
+                    if (slot.getAndSet(corpus.get(next++ % corpus.size())) != null) {
+                        skipped.incrementAndGet();
+                    }
+                    try {
+                        Thread.sleep(CAPTURE_INTERVAL_MS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }));
+        }
+
+        AtomicLong nextSlot = new AtomicLong();
+        int workers = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        for (int w = 0; w < workers; w++) {
+            threads.add(ScannerThreads.newThread("BarcodeDetector-decode-sim-" + w, () -> {
+                while (running.get()) {
+                    BufferedImage frame = slots.get((int) (nextSlot.getAndIncrement() % slots.size())).getAndSet(null);
+                    if (frame == null) {
+                        Thread.yield();
+                        continue;
+                    }
+                    long start = System.nanoTime();
+                    detector.decodeFrame(frame);
+                    decodeTimes.record(System.nanoTime() - start);
+                    decoded.incrementAndGet();
+                }
+            }));
+        }
+
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep(seconds * 1000L);
+        int liveThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+        String rss = residentSetSize();
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Captured:          %8.1f frames/s (%d cameras, target %.0f)%n",
+                captured.get() / elapsed, cameras, cameras * 1000.0 / CAPTURE_INTERVAL_MS);
+        System.out.printf("Decoded:           %8.1f frames/s, skipped %d%n", decoded.get() / elapsed, skipped.get());
+        System.out.println("Decode time:       " + decodeTimes.summary());
+        System.out.println("Platform threads:  " + liveThreads);
+        System.out.println("Resident memory:   " + rss);
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Process RSS from /proc (includes platform thread stacks, which the heap does not)
+     */
+    private static String residentSetSize() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return line.substring("VmRSS:".length()).trim();
+                }
+            }
+        } catch (Exception e) {
+            // Not Linux
+        }
+        return "n/a";
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.barcodescanner;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD versions of {@link PixelKernels} on the jdk.incubator.vector API.
+ * Loaded reflectively, so it is only touched when the module is present.
+ *
+ * Bytes are unsigned pixels but vector compares and min/max are signed, so values are
+ * flipped with XOR 0x80 first, which maps 0..255 onto -128..127 in the same order.
+ */
+class VectorPixelKernels extends PixelKernels {
+
+    // 32 byte lanes: one BitMatrix word, or four 8-pixel blocks, per vector
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_256;
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_256;
+    private static final int LANES = 32;
+    private static final byte SIGN = (byte) 0x80;
+
+    private static final VectorMask<Byte>[] BLOCK_MASKS = blockMasks();
+    private static final VectorMask<Short>[] HALF_BLOCK_MASKS = halfBlockMasks();
+    // Bit (lane % 8) in each lane, so a lane group of 8 sums to one packed byte
+    private static final ByteVector LANE_BITS = laneBits();
+    private static final long BYTE_SUM = 0x0101010101010101L;
+
+    private final PixelKernels scalar = new Scalar();
+
+    /**
+     * Stride-3 RGB needs byte gathers, which the Vector API emulates lane by lane on
+     * current hardware; measured slower than the scalar loop, so this stays scalar
+     */
+    @Override
+    void rgbToLuma(byte[] rgb, byte[] luma, int pixels) {
+        scalar.rgbToLuma(rgb, luma, pixels);
+    }
+
+    @Override
+    void bgrToLuma(byte[] bgr, byte[] luma, int pixels) {
+        scalar.bgrToLuma(bgr, luma, pixels);
+    }
+
+    @Override
+    void blockStats(byte[] luma, int width, int height, int[] sums, int[] mins, int[] maxs) {
+        int blocksX = width / BLOCK_SIZE;
+        int stripEnd = width - width % LANES;
+        for (int by = 0; by < height / BLOCK_SIZE; by++) {
+            int rowStart = by * BLOCK_SIZE * width;
+            for (int x = 0; x < stripEnd; x += LANES) {
+                ByteVector min = ByteVector.broadcast(BYTES, Byte.MAX_VALUE);
+                ByteVector max = ByteVector.broadcast(BYTES, Byte.MIN_VALUE);
+                ShortVector sumLow = ShortVector.zero(SHORTS);
+                ShortVector sumHigh = ShortVector.zero(SHORTS);
+                for (int y = 0, offset = rowStart + x; y < BLOCK_SIZE; y++, offset += width) {
+                    ByteVector pixels = ByteVector.fromArray(BYTES, luma, offset);
+                    ByteVector flipped = pixels.lanewise(VectorOperators.XOR, SIGN);
+                    min = min.min(flipped);
+                    max = max.max(flipped);
+                    // Widen to shorts (0..255) for the sums: lanes 0-15, then 16-31
+                    sumLow = sumLow.add(((ShortVector) pixels.convertShape(VectorOperators.B2S, SHORTS, 0))
+                            .lanewise(VectorOperators.AND, (short) 0xFF));
+                    sumHigh = sumHigh.add(((ShortVector) pixels.convertShape(VectorOperators.B2S, SHORTS, 1))
+                            .lanewise(VectorOperators.AND, (short) 0xFF));
+                }
+                int block = by * blocksX + x / BLOCK_SIZE;
+                for (int b = 0; b < LANES / BLOCK_SIZE; b++) {
+                    mins[block + b] = (min.reduceLanes(VectorOperators.MIN, BLOCK_MASKS[b]) ^ SIGN) & 0xFF;
+                    maxs[block + b] = (max.reduceLanes(VectorOperators.MAX, BLOCK_MASKS[b]) ^ SIGN) & 0xFF;
+                    ShortVector sum = b < 2 ? sumLow : sumHigh;
+                    sums[block + b] = sum.reduceLanes(VectorOperators.ADD, HALF_BLOCK_MASKS[b & 1]);
+                }
+            }
+        }
+        if (stripEnd < width) {
+            tailBlockStats(luma, width, height, stripEnd, sums, mins, maxs);
+        }
+    }
+
+    /**
+     * Blocks right of the last full 32-pixel strip
+     */
+    private static void tailBlockStats(byte[] luma, int width, int height, int fromX,
+                                       int[] sums, int[] mins, int[] maxs) {
+        int blocksX = width / BLOCK_SIZE;
+        for (int by = 0; by < height / BLOCK_SIZE; by++) {
+            for (int bx = fromX / BLOCK_SIZE; bx < blocksX; bx++) {
+                int sum = 0;
+                int min = 0xFF;
+                int max = 0;
+                for (int y = 0, offset = by * BLOCK_SIZE * width + bx * BLOCK_SIZE; y < BLOCK_SIZE; y++, offset += width) {
+                    for (int x = 0; x < BLOCK_SIZE; x++) {
+                        int pixel = luma[offset + x] & 0xFF;
+                        sum += pixel;
+                        min = Math.min(min, pixel);
+                        max = Math.max(max, pixel);
+                    }
+                }
+                int block = by * blocksX + bx;
+                sums[block] = sum;
+                mins[block] = min;
+                maxs[block] = max;
+            }
+        }
+    }
+
+    @Override
+    void thresholdRow(byte[] luma, int offset, byte[] thresholds, int width, int[] words) {
+        for (int x = 0, word = 0; x < width; x += LANES, word++) {
+            ByteVector pixels = ByteVector.fromArray(BYTES, luma, offset + x).lanewise(VectorOperators.XOR, SIGN);
+            ByteVector limits = ByteVector.fromArray(BYTES, thresholds, x).lanewise(VectorOperators.XOR, SIGN);
+            // Lane N lands in bit N, the same order BitMatrix uses within a word. VectorMask.toLong
+            // is not intrinsic on JDK 17 and allocates, so pack by hand: keep each black lane's
+            // bit, then sum every 8 lanes into the top byte of a long with one multiply.
+            ByteVector black = ByteVector.zero(BYTES).blend(LANE_BITS, pixels.compare(VectorOperators.LE, limits));
+            LongVector bytes = ((LongVector) black.reinterpretAsLongs())
+                    .lanewise(VectorOperators.MUL, BYTE_SUM)
+                    .lanewise(VectorOperators.LSHR, 56);
+            words[word] = (int) (bytes.lane(0) | bytes.lane(1) << 8 | bytes.lane(2) << 16 | bytes.lane(3) << 24);
+        }
+    }
+
+    @Override
+    String describe() {
+        return "vector " + BYTES.vectorBitSize() + "-bit";
+    }
+
+    private static ByteVector laneBits() {
+        byte[] bits = new byte[LANES];
+        for (int i = 0; i < LANES; i++) {
+            bits[i] = (byte) (1 << (i % 8));
+        }
+        return ByteVector.fromArray(BYTES, bits, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static VectorMask<Byte>[] blockMasks() {
+        VectorMask<Byte>[] masks = new VectorMask[LANES / BLOCK_SIZE];
+        for (int b = 0; b < masks.length; b++) {
+            boolean[] lanes = new boolean[LANES];
+            for (int i = b * BLOCK_SIZE; i < (b + 1) * BLOCK_SIZE; i++) {
+                lanes[i] = true;
+            }
+            masks[b] = VectorMask.fromArray(BYTES, lanes, 0);
+        }
+        return masks;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static VectorMask<Short>[] halfBlockMasks() {
+        VectorMask<Short>[] masks = new VectorMask[2];
+        for (int b = 0; b < 2; b++) {
+            boolean[] lanes = new boolean[SHORTS.length()];
+            for (int i = b * BLOCK_SIZE; i < (b + 1) * BLOCK_SIZE; i++) {
+                lanes[i] = true;
+            }
+            masks[b] = VectorMask.fromArray(SHORTS, lanes, 0);
+        }
+        return masks;
+    }
+}
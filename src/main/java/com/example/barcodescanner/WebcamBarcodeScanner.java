@@ -2,7 +2,6 @@ package com.example.barcodescanner;
 
 import com.google.zxing.*;
 import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
-import com.google.zxing.common.HybridBinarizer;
 
 import javax.swing.*;
 import java.awt.*;
@@ -11,8 +10,6 @@ import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -25,12 +22,13 @@ public class WebcamBarcodeScanner extends JFrame {
     
     private Object webcam; // Using Object to avoid direct dependency
     private JLabel cameraLabel;
-    private JTextArea resultArea;
+    private ScanHistoryPanel historyPanel;
     private JButton startButton;
     private JButton stopButton;
     private JLabel statusLabel;
     private Timer cameraTimer;
     private MultiFormatReader barcodeReader;
+    private final ReusableBinarizer.Workspace binarizerWorkspace = new ReusableBinarizer.Workspace();
     
     private final AtomicBoolean isScanning = new AtomicBoolean(false);
     private boolean webcamAvailable = false;
@@ -39,7 +37,6 @@ public class WebcamBarcodeScanner extends JFrame {
     private static final long DETECTION_COOLDOWN_MS = 2000;
     
     // Reflection methods for webcam operations
-    private Method webcamGetDefaultMethod;
     private Method webcamOpenMethod;
     private Method webcamCloseMethod;
     private Method webcamGetImageMethod;
@@ -48,6 +45,7 @@ public class WebcamBarcodeScanner extends JFrame {
     private Method webcamGetViewSizesMethod;
     
     public WebcamBarcodeScanner() {
+        long startNanos = System.nanoTime();
         System.out.println("Initializing Webcam Barcode Scanner...");
         
         try {
@@ -58,7 +56,7 @@ public class WebcamBarcodeScanner extends JFrame {
             setupEventHandlers();
             checkWebcamAvailability();
             
-            System.out.println("GUI initialization complete!");
+            System.out.printf("GUI initialization complete in %d ms%n", (System.nanoTime() - startNanos) / 1_000_000);
         } catch (Exception e) {
             System.err.println("Error during initialization: " + e.getMessage());
             e.printStackTrace();
@@ -68,7 +66,6 @@ public class WebcamBarcodeScanner extends JFrame {
     private void initializeWebcamReflection() {
         try {
             Class<?> webcamClass = Class.forName("com.github.sarxos.webcam.Webcam");
-            webcamGetDefaultMethod = webcamClass.getMethod("getDefault");
             webcamOpenMethod = webcamClass.getMethod("open");
             webcamCloseMethod = webcamClass.getMethod("close");
             webcamGetImageMethod = webcamClass.getMethod("getImage");
@@ -183,17 +180,12 @@ public class WebcamBarcodeScanner extends JFrame {
         resultPanel.setBorder(BorderFactory.createTitledBorder("Live Scan Results"));
         resultPanel.setPreferredSize(new java.awt.Dimension(0, 150));
         
-        resultArea = new JTextArea();
-        resultArea.setEditable(false);
-        resultArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
-        resultArea.setText("Webcam Barcode Scanner Ready!\n");
-        resultArea.append("Click 'Start Camera' to begin live scanning.\n");
-        resultArea.append("Point your camera at any barcode for automatic detection.\n\n");
+        historyPanel = new ScanHistoryPanel();
+        historyPanel.setText("Webcam Barcode Scanner Ready!\n");
+        historyPanel.appendText("Click 'Start Camera' to begin live scanning.\n");
+        historyPanel.appendText("Point your camera at any barcode for automatic detection.\n\n");
         
-        JScrollPane scrollPane = new JScrollPane(resultArea);
-        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
-        
-        resultPanel.add(scrollPane, BorderLayout.CENTER);
+        resultPanel.add(historyPanel, BorderLayout.CENTER);
         
         // Layout
         add(cameraPanel, BorderLayout.CENTER);
@@ -202,7 +194,7 @@ public class WebcamBarcodeScanner extends JFrame {
         
         // Event handlers for buttons
         clearButton.addActionListener(e -> {
-            resultArea.setText("Results cleared.\nReady for live scanning...\n");
+            historyPanel.setText("Results cleared.\nReady for live scanning...\n");
             updateStatus("Results cleared", Color.BLUE);
         });
         
@@ -226,26 +218,38 @@ public class WebcamBarcodeScanner extends JFrame {
     }
     
     private void checkWebcamAvailability() {
-        try {
-            webcam = webcamGetDefaultMethod.invoke(null);
-            
-            if (webcam != null) {
-                webcamAvailable = true;
-                updateStatus("Camera detected - Ready to start", Color.GREEN);
-                resultArea.append("✓ Camera available and ready\n");
-            } else {
-                webcamAvailable = false;
-                updateStatus("No camera found", Color.ORANGE);
-                resultArea.append("⚠ No camera detected\n");
-                startButton.setText("No Camera");
-                startButton.setEnabled(false);
-            }
-        } catch (Exception e) {
+        // Enumerate in the background so the window comes up without waiting for drivers
+        updateStatus("Looking for cameras...", Color.BLUE);
+        startButton.setEnabled(false);
+        WebcamDiscovery.getInstance().addListener(inventory ->
+                SwingUtilities.invokeLater(() -> onWebcamInventory(inventory)));
+        WebcamDiscovery.getInstance().discover();
+    }
+    
+    private void onWebcamInventory(WebcamDiscovery.Inventory inventory) {
+        if (isScanning.get()) {
+            return;
+        }
+        webcam = inventory.getDefaultWebcam();
+        
+        if (webcam != null) {
+            webcamAvailable = true;
+            updateStatus("Camera detected - Ready to start", Color.GREEN);
+            historyPanel.appendText("✓ Camera available and ready\n");
+            startButton.setText("Start Camera");
+            startButton.setEnabled(true);
+        } else if (inventory.getError() != null) {
             webcamAvailable = false;
-            updateStatus("Camera error: " + e.getMessage(), Color.RED);
-            resultArea.append("❌ Camera error: " + e.getMessage() + "\n");
+            updateStatus("Camera error: " + inventory.getError(), Color.RED);
+            historyPanel.appendText("❌ Camera error: " + inventory.getError() + "\n");
             startButton.setText("Camera Error");
             startButton.setEnabled(false);
+        } else {
+            webcamAvailable = false;
+            updateStatus("No camera found", Color.ORANGE);
+            historyPanel.appendText("⚠ No camera detected\n");
+            startButton.setText("No Camera");
+            startButton.setEnabled(false);
         }
     }
     
@@ -293,8 +297,7 @@ public class WebcamBarcodeScanner extends JFrame {
             updateStatus("Camera active - Scanning for barcodes...", Color.GREEN);
             cameraLabel.setText("Camera starting...");
             
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-            resultArea.append("[" + timestamp + "] Camera started - Live scanning active\n");
+            historyPanel.appendText("Camera started - Live scanning active\n");
             
         } catch (Exception ex) {
             updateStatus("Error: " + ex.getMessage(), Color.RED);
@@ -334,8 +337,7 @@ public class WebcamBarcodeScanner extends JFrame {
         stopButton.setEnabled(false);
         updateStatus("Camera stopped", Color.ORANGE);
         
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-        resultArea.append("[" + timestamp + "] Camera stopped\n");
+        historyPanel.appendText("Camera stopped\n");
     }
     
     private void captureAndProcessFrame() {
@@ -361,7 +363,7 @@ public class WebcamBarcodeScanner extends JFrame {
     private void detectBarcode(BufferedImage image) {
         try {
             LuminanceSource source = new BufferedImageLuminanceSource(image);
-            BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
+            BinaryBitmap bitmap = new BinaryBitmap(new ReusableBinarizer(source, binarizerWorkspace));
             
             Result result = barcodeReader.decode(bitmap);
             String barcodeText = result.getText();
@@ -376,12 +378,7 @@ public class WebcamBarcodeScanner extends JFrame {
                 lastDetectionTime = currentTime;
                 
                 // Add to results
-                String timestamp = LocalDateTime.now().format(
-                    DateTimeFormatter.ofPattern("HH:mm:ss")
-                );
-                String resultText = String.format("[%s] %s: %s\n", timestamp, format, barcodeText);
-                resultArea.append(resultText);
-                resultArea.setCaretPosition(resultArea.getDocument().getLength());
+                historyPanel.addScan(format, barcodeText, null);
                 
                 updateStatus("DETECTED: " + format, Color.GREEN);
                 
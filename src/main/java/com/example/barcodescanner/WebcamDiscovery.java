@@ -0,0 +1,312 @@
+package com.example.barcodescanner;
+
+import com.github.sarxos.webcam.Webcam;
+import com.github.sarxos.webcam.WebcamDiscoveryEvent;
+import com.github.sarxos.webcam.WebcamDiscoveryListener;
+
+import java.awt.Dimension;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Background webcam enumeration with a cached device inventory.
+ *
+ * Driver enumeration can block for seconds, so it runs once on a daemon thread with a
+ * timeout and the result is cached for every front end and the {@link CameraService}.
+ * Listeners hear about the first inventory and about any later change (devices plugged
+ * in or removed, or a manual {@link #refresh()}). Listeners run on the discovery thread;
+ * Swing and JavaFX callers must hop to their UI thread themselves.
+ */
+public class WebcamDiscovery {
+
+    public static final long DEFAULT_TIMEOUT_MS = 10_000;
+
+    private static final WebcamDiscovery INSTANCE = new WebcamDiscovery();
+
+    /**
+     * One webcam as seen at discovery time
+     */
+    public static class DeviceInfo {
+        private final String name;
+        private final List<Dimension> viewSizes;
+        private final Webcam webcam;
+
+        DeviceInfo(String name, List<Dimension> viewSizes, Webcam webcam) {
+            this.name = name;
+            this.viewSizes = Collections.unmodifiableList(viewSizes);
+            this.webcam = webcam;
+        }
+
+        public String getName() { return name; }
+        public List<Dimension> getViewSizes() { return viewSizes; }
+        public Webcam getWebcam() { return webcam; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof DeviceInfo)) {
+                return false;
+            }
+            DeviceInfo other = (DeviceInfo) o;
+            return name.equals(other.name) && viewSizes.equals(other.viewSizes);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() * 31 + viewSizes.hashCode();
+        }
+    }
+
+    /**
+     * Result of one enumeration; {@link #getError()} is set when it failed or timed out
+     */
+    public static class Inventory {
+        private final List<DeviceInfo> devices;
+        private final String error;
+        private final long discoveryMillis;
+
+        Inventory(List<DeviceInfo> devices, String error, long discoveryMillis) {
+            this.devices = Collections.unmodifiableList(devices);
+            this.error = error;
+            this.discoveryMillis = discoveryMillis;
+        }
+
+        public List<DeviceInfo> getDevices() { return devices; }
+        public String getError() { return error; }
+        /** How long the enumeration took */
+        public long getDiscoveryMillis() { return discoveryMillis; }
+
+        public boolean isEmpty() {
+            return devices.isEmpty();
+        }
+
+        /**
+         * First device, the one Webcam.getDefault() would return; null if none
+         */
+        public DeviceInfo getDefaultDevice() {
+            return devices.isEmpty() ? null : devices.get(0);
+        }
+
+        public Webcam getDefaultWebcam() {
+            DeviceInfo device = getDefaultDevice();
+            return device != null ? device.getWebcam() : null;
+        }
+
+        public DeviceInfo getDevice(String name) {
+            for (DeviceInfo device : devices) {
+                if (device.getName().equals(name)) {
+                    return device;
+                }
+            }
+            return null;
+        }
+
+        public String[] getNames() {
+            return devices.stream().map(DeviceInfo::getName).toArray(String[]::new);
+        }
+
+        boolean sameDevicesAs(Inventory other) {
+            return other != null && devices.equals(other.devices) && (error == null) == (other.error == null);
+        }
+    }
+
+    /**
+     * Called with the first inventory and whenever it changes
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void onInventory(Inventory inventory);
+    }
+
+    /**
+     * Lists the attached webcams; the driver's list unless a test supplies its own
+     */
+    @FunctionalInterface
+    interface Enumerator {
+        List<Webcam> getWebcams(long timeoutMillis) throws TimeoutException;
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "WebcamDiscovery");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Enumerator enumerator;
+    // Only touched on the discovery thread, so a listener cannot be added halfway through a notification
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile long timeoutMillis = DEFAULT_TIMEOUT_MS;
+    private volatile Inventory inventory;
+    private CompletableFuture<Inventory> pending;
+    private boolean pendingStarted = false;
+    private boolean hotplugRegistered = false;
+
+    public static WebcamDiscovery getInstance() {
+        return INSTANCE;
+    }
+
+    WebcamDiscovery() {
+        this(Webcam::getWebcams);
+    }
+
+    WebcamDiscovery(Enumerator enumerator) {
+        this.enumerator = enumerator;
+    }
+
+    /**
+     * Start enumeration if it has not run yet; returns immediately
+     */
+    public synchronized CompletableFuture<Inventory> discover() {
+        if (pending == null) {
+            schedule();
+        }
+        return pending;
+    }
+
+    /**
+     * Enumerate again, e.g. from a "rescan cameras" action or a hot-plug event.
+     * A request during an enumeration queues one more after it, since that one may have
+     * listed the devices before the change; requests while that is still queued share it.
+     */
+    public synchronized CompletableFuture<Inventory> refresh() {
+        if (pending != null && !pending.isDone() && !pendingStarted) {
+            return pending;
+        }
+        schedule();
+        return pending;
+    }
+
+    private void schedule() {
+        pendingStarted = false;
+        pending = CompletableFuture.supplyAsync(this::enumerate, executor);
+    }
+
+    private synchronized void markStarted() {
+        pendingStarted = true;
+    }
+
+    /**
+     * Cached inventory, or null while the first enumeration is still running
+     */
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Wait (bounded) for the inventory, starting discovery if needed.
+     * For callers that genuinely cannot continue without it, never the UI thread.
+     */
+    public Inventory awaitInventory() {
+        try {
+            return discover().get(timeoutMillis + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Inventory(Collections.emptyList(), "Interrupted", 0);
+        } catch (ExecutionException | TimeoutException e) {
+            return new Inventory(Collections.emptyList(), "Webcam discovery did not complete", 0);
+        }
+    }
+
+    /**
+     * Register a listener; if an inventory is already cached it is delivered straight away.
+     * Registration runs on the discovery thread, between enumerations, so the listener hears
+     * about each inventory exactly once.
+     */
+    public void addListener(Listener listener) {
+        executor.execute(() -> {
+            listeners.add(listener);
+            Inventory current = inventory;
+            if (current != null) {
+                deliver(listener, current);
+            }
+        });
+    }
+
+    public void removeListener(Listener listener) {
+        executor.execute(() -> listeners.remove(listener));
+    }
+
+    /**
+     * How long one enumeration may take before it is reported as failed
+     */
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    private Inventory enumerate() {
+        markStarted();
+        long start = System.nanoTime();
+        Inventory result;
+        try {
+            List<DeviceInfo> devices = new ArrayList<>();
+            for (Webcam webcam : enumerator.getWebcams(timeoutMillis)) {
+                Dimension[] sizes = webcam.getViewSizes();
+                devices.add(new DeviceInfo(webcam.getName(),
+                        sizes != null ? Arrays.asList(sizes) : Collections.emptyList(), webcam));
+            }
+            result = new Inventory(devices, null, elapsedMillis(start));
+            // Hot-plug events are driver-wide; only the shared instance follows them
+            if (this == INSTANCE) {
+                registerHotplug();
+            }
+        } catch (TimeoutException e) {
+            result = new Inventory(Collections.emptyList(),
+                    "Webcam discovery timed out after " + timeoutMillis + " ms", elapsedMillis(start));
+        } catch (Throwable e) {
+            // Includes a missing or broken native driver (LinkageError)
+            result = new Inventory(Collections.emptyList(), String.valueOf(e.getMessage()), elapsedMillis(start));
+        }
+
+        System.out.println("Webcam discovery: " + result.getDevices().size() + " device(s) in "
+                + result.getDiscoveryMillis() + " ms" + (result.getError() != null ? " (" + result.getError() + ")" : ""));
+
+        Inventory previous = inventory;
+        inventory = result;
+        if (!result.sameDevicesAs(previous)) {
+            for (Listener listener : listeners) {
+                deliver(listener, result);
+            }
+        }
+        return result;
+    }
+
+    private static void deliver(Listener listener, Inventory inventory) {
+        try {
+            listener.onInventory(inventory);
+        } catch (Exception e) {
+            System.err.println("Webcam discovery listener failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Re-enumerate when the driver reports hot-plug events
+     */
+    private synchronized void registerHotplug() {
+        if (hotplugRegistered) {
+            return;
+        }
+        hotplugRegistered = true;
+        Webcam.addDiscoveryListener(new WebcamDiscoveryListener() {
+            @Override
+            public void webcamFound(WebcamDiscoveryEvent event) {
+                refresh();
+            }
+
+            @Override
+            public void webcamGone(WebcamDiscoveryEvent event) {
+                refresh();
+            }
+        });
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
@@ -3,7 +3,6 @@ package com.example.barcodescanner;
 import com.github.sarxos.webcam.Webcam;
 import com.google.zxing.*;
 import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
-import com.google.zxing.common.HybridBinarizer;
 
 import javax.swing.*;
 import java.awt.*;
@@ -12,8 +11,6 @@ import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -25,12 +22,13 @@ public class WorkingWebcamScanner extends JFrame {
     
     private Webcam webcam;
     private JLabel cameraLabel;
-    private JTextArea resultArea;
+    private ScanHistoryPanel historyPanel;
     private JButton startButton;
     private JButton stopButton;
     private JLabel statusLabel;
     private Timer cameraTimer;
     private MultiFormatReader barcodeReader;
+    private final ReusableBinarizer.Workspace binarizerWorkspace = new ReusableBinarizer.Workspace();
     
     private final AtomicBoolean isScanning = new AtomicBoolean(false);
     private String lastDetectedBarcode = "";
@@ -38,6 +36,7 @@ public class WorkingWebcamScanner extends JFrame {
     private static final long DETECTION_COOLDOWN_MS = 2000;
     
     public WorkingWebcamScanner() {
+        long startNanos = System.nanoTime();
         System.out.println("Initializing Working Webcam Barcode Scanner...");
         
         initializeComponents();
@@ -46,7 +45,7 @@ public class WorkingWebcamScanner extends JFrame {
         setupEventHandlers();
         checkWebcamAvailability();
         
-        System.out.println("GUI initialization complete!");
+        System.out.printf("GUI initialization complete in %d ms%n", (System.nanoTime() - startNanos) / 1_000_000);
     }
     
     private void initializeComponents() {
@@ -165,19 +164,14 @@ public class WorkingWebcamScanner extends JFrame {
         resultPanel.setBorder(BorderFactory.createTitledBorder("🎯 Live Scan Results"));
         resultPanel.setPreferredSize(new java.awt.Dimension(0, 150));
         
-        resultArea = new JTextArea();
-        resultArea.setEditable(false);
-        resultArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
-        resultArea.setText("🎉 Working Webcam Barcode Scanner Ready!\n\n");
-        resultArea.append("📹 Click 'Start Live Scanning' to begin\n");
-        resultArea.append("🎯 Point camera at any barcode for automatic detection\n");
-        resultArea.append("🔊 Listen for beep sound when barcode is detected\n\n");
-        resultArea.append("Supported: QR Code, Code 128, EAN-13, UPC-A, and more!\n");
+        historyPanel = new ScanHistoryPanel();
+        historyPanel.setText("🎉 Working Webcam Barcode Scanner Ready!\n\n");
+        historyPanel.appendText("📹 Click 'Start Live Scanning' to begin\n");
+        historyPanel.appendText("🎯 Point camera at any barcode for automatic detection\n");
+        historyPanel.appendText("🔊 Listen for beep sound when barcode is detected\n\n");
+        historyPanel.appendText("Supported: QR Code, Code 128, EAN-13, UPC-A, and more!\n");
         
-        JScrollPane scrollPane = new JScrollPane(resultArea);
-        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
-        
-        resultPanel.add(scrollPane, BorderLayout.CENTER);
+        resultPanel.add(historyPanel, BorderLayout.CENTER);
         
         // Layout
         add(cameraPanel, BorderLayout.CENTER);
@@ -186,7 +180,7 @@ public class WorkingWebcamScanner extends JFrame {
         
         // Event handlers for buttons
         clearButton.addActionListener(e -> {
-            resultArea.setText("Results cleared.\nReady for live scanning...\n");
+            historyPanel.setText("Results cleared.\nReady for live scanning...\n");
             updateStatus("Results cleared", Color.BLUE);
         });
         
@@ -210,23 +204,35 @@ public class WorkingWebcamScanner extends JFrame {
     }
     
     private void checkWebcamAvailability() {
-        try {
-            webcam = Webcam.getDefault();
-            
-            if (webcam != null) {
-                updateStatus("✅ Camera detected: " + webcam.getName(), Color.GREEN);
-                resultArea.append("✅ Camera found: " + webcam.getName() + "\n");
-            } else {
-                updateStatus("❌ No camera found", Color.RED);
-                resultArea.append("❌ No camera detected\n");
-                startButton.setText("❌ No Camera");
-                startButton.setEnabled(false);
-            }
-        } catch (Exception e) {
-            updateStatus("❌ Camera error: " + e.getMessage(), Color.RED);
-            resultArea.append("❌ Camera error: " + e.getMessage() + "\n");
+        // Enumerate in the background so the window comes up without waiting for drivers
+        updateStatus("🔍 Looking for cameras...", Color.BLUE);
+        startButton.setEnabled(false);
+        WebcamDiscovery.getInstance().addListener(inventory ->
+                SwingUtilities.invokeLater(() -> onWebcamInventory(inventory)));
+        WebcamDiscovery.getInstance().discover();
+    }
+    
+    private void onWebcamInventory(WebcamDiscovery.Inventory inventory) {
+        if (isScanning.get()) {
+            return;
+        }
+        webcam = inventory.getDefaultWebcam();
+        
+        if (webcam != null) {
+            updateStatus("✅ Camera detected: " + inventory.getDefaultDevice().getName(), Color.GREEN);
+            historyPanel.appendText("✅ Camera found: " + inventory.getDefaultDevice().getName() + "\n");
+            startButton.setText("🚀 Start Live Scanning");
+            startButton.setEnabled(true);
+        } else if (inventory.getError() != null) {
+            updateStatus("❌ Camera error: " + inventory.getError(), Color.RED);
+            historyPanel.appendText("❌ Camera error: " + inventory.getError() + "\n");
             startButton.setText("❌ Camera Error");
             startButton.setEnabled(false);
+        } else {
+            updateStatus("❌ No camera found", Color.RED);
+            historyPanel.appendText("❌ No camera detected\n");
+            startButton.setText("❌ No Camera");
+            startButton.setEnabled(false);
         }
     }
     
@@ -268,8 +274,7 @@ public class WorkingWebcamScanner extends JFrame {
             updateStatus("🎯 Live scanning active - Point at barcode!", Color.GREEN);
             cameraLabel.setText("📹 Camera starting...");
             
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-            resultArea.append("[" + timestamp + "] 🚀 Live scanning started\n");
+            historyPanel.appendText("🚀 Live scanning started\n");
             
         } catch (Exception ex) {
             updateStatus("❌ Error: " + ex.getMessage(), Color.RED);
@@ -303,8 +308,7 @@ public class WorkingWebcamScanner extends JFrame {
         
         updateStatus("⏹ Scanning stopped", Color.ORANGE);
         
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-        resultArea.append("[" + timestamp + "] ⏹ Live scanning stopped\n");
+        historyPanel.appendText("⏹ Live scanning stopped\n");
     }
     
     private void captureAndProcessFrame() {
@@ -330,7 +334,7 @@ public class WorkingWebcamScanner extends JFrame {
     private void detectBarcodeInFrame(BufferedImage image) {
         try {
             LuminanceSource source = new BufferedImageLuminanceSource(image);
-            BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
+            BinaryBitmap bitmap = new BinaryBitmap(new ReusableBinarizer(source, binarizerWorkspace));
             
             Result result = barcodeReader.decode(bitmap);
             String barcodeText = result.getText();
@@ -345,10 +349,7 @@ public class WorkingWebcamScanner extends JFrame {
                 lastDetectionTime = currentTime;
                 
                 // Add to results
-                String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-                String resultText = String.format("[%s] 🎯 %s: %s\n", timestamp, format, barcodeText);
-                resultArea.append(resultText);
-                resultArea.setCaretPosition(resultArea.getDocument().getLength());
+                historyPanel.addScan(format, barcodeText, null);
                 
                 updateStatus("🎉 DETECTED: " + format, Color.GREEN);
                 
@@ -0,0 +1,119 @@
+import com.example.barcodescanner.AdaptivePreprocessor;
+import com.example.barcodescanner.FrameQualityEstimator;
+import com.example.barcodescanner.LutLuminanceSource;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.RGBLuminanceSource;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AdaptivePreprocessor and LutLuminanceSource
+ */
+public class AdaptivePreprocessorTest {
+
+    @Test
+    void testPlanFollowsFrameHistogram() {
+        FrameQualityEstimator estimator = new FrameQualityEstimator();
+        AdaptivePreprocessor preprocessor = new AdaptivePreprocessor();
+
+        // Dark, clean frame: brighten and keep the local binarizer
+        AdaptivePreprocessor.Plan dark = preprocessor.plan(estimator.estimate(stripes(20, 90, 0)));
+        assertEquals(AdaptivePreprocessor.ToneCurve.BRIGHTEN, dark.getToneCurve());
+        assertEquals(AdaptivePreprocessor.BinarizerChoice.HYBRID, dark.getBinarizer());
+
+        // Mid-grey, noisy frame: no tone curve, single global threshold
+        AdaptivePreprocessor.Plan noisy = preprocessor.plan(estimator.estimate(stripes(60, 200, 40)));
+        assertEquals(AdaptivePreprocessor.ToneCurve.IDENTITY, noisy.getToneCurve());
+        assertEquals(AdaptivePreprocessor.BinarizerChoice.GLOBAL_HISTOGRAM, noisy.getBinarizer());
+    }
+
+    @Test
+    void testLutSourceMapsRowsMatrixAndCrops() {
+        int[] pixels = new int[4 * 2];
+        for (int i = 0; i < pixels.length; i++) {
+            int v = i * 30;
+            pixels[i] = (v << 16) | (v << 8) | v;
+        }
+        LuminanceSource base = new RGBLuminanceSource(4, 2, pixels);
+        byte[] invert = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            invert[i] = (byte) (255 - i);
+        }
+        LutLuminanceSource mapped = new LutLuminanceSource(base, invert);
+
+        byte[] original = base.getMatrix().clone();
+        byte[] matrix = mapped.getMatrix();
+        for (int i = 0; i < matrix.length; i++) {
+            assertEquals(255 - (original[i] & 0xFF), matrix[i] & 0xFF);
+        }
+        // The delegate's own pixels must be untouched
+        assertArrayEquals(original, base.getMatrix());
+
+        LuminanceSource cropped = mapped.crop(1, 1, 2, 1);
+        byte[] row = cropped.getRow(0, null);
+        assertEquals(255 - (original[5] & 0xFF), row[0] & 0xFF);
+        assertEquals(255 - (original[6] & 0xFF), row[1] & 0xFF);
+    }
+
+    @Test
+    void testInvertedPlanAndSourceFlipLuma() {
+        FrameQualityEstimator estimator = new FrameQualityEstimator();
+        AdaptivePreprocessor.Plan dark = new AdaptivePreprocessor().plan(estimator.estimate(stripes(20, 90, 0)));
+        AdaptivePreprocessor.Plan inverted = dark.inverted();
+        assertTrue(inverted.isInverted());
+        assertFalse(dark.isInverted());
+        assertSame(inverted, inverted.inverted());
+        assertEquals(dark.getToneCurve(), inverted.getToneCurve());
+        assertEquals(dark.describe() + "/Inverted", inverted.describe());
+
+        int[] pixels = new int[4 * 2];
+        for (int i = 0; i < pixels.length; i++) {
+            int v = i * 30;
+            pixels[i] = (v << 16) | (v << 8) | v;
+        }
+        LuminanceSource base = new RGBLuminanceSource(4, 2, pixels);
+        byte[] original = base.getMatrix().clone();
+
+        // The brightened view, inverted, is the brightened luma turned light-for-dark
+        LuminanceSource brightened = dark.createBinarizer(base).getLuminanceSource();
+        LuminanceSource both = inverted.createBinarizer(base).getLuminanceSource();
+        byte[] expected = brightened.getMatrix();
+        byte[] actual = both.getMatrix();
+        for (int i = 0; i < actual.length; i++) {
+            assertEquals(255 - (expected[i] & 0xFF), actual[i] & 0xFF);
+        }
+
+        // Inverting a LUT source keeps it a LUT source over the same delegate
+        byte[] identity = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            identity[i] = (byte) i;
+        }
+        LuminanceSource flipped = new LutLuminanceSource(base, identity).invert();
+        assertTrue(flipped instanceof LutLuminanceSource);
+        byte[] row = flipped.getRow(1, null);
+        assertEquals(255 - (original[5] & 0xFF), row[1] & 0xFF);
+        assertArrayEquals(original, base.getMatrix());
+    }
+
+    /**
+     * Vertical bars alternating between two levels, with optional uniform noise
+     */
+    private static BufferedImage stripes(int dark, int light, int noise) {
+        Random random = new Random(1);
+        BufferedImage image = new BufferedImage(320, 240, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int v = (x / 8) % 2 == 0 ? dark : light;
+                if (noise > 0) {
+                    v = Math.max(0, Math.min(255, v + random.nextInt(2 * noise + 1) - noise));
+                }
+                image.setRGB(x, y, (v << 16) | (v << 8) | v);
+            }
+        }
+        return image;
+    }
+}
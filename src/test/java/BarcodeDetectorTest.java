@@ -1,8 +1,24 @@
 import com.example.barcodescanner.BarcodeDetector;
+import com.example.barcodescanner.ScanEvent;
+import com.example.barcodescanner.ScanJournal;
+import com.example.barcodescanner.SyntheticCorpus;
 import com.google.zxing.BarcodeFormat;
+import com.google.zxing.NotFoundException;
 import com.google.zxing.Result;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.oned.Code128Writer;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -18,6 +34,11 @@ public class BarcodeDetectorTest {
         barcodeDetector = new BarcodeDetector();
     }
     
+    @AfterEach
+    void tearDown() {
+        barcodeDetector.close();
+    }
+    
     @Test
     void testBarcodeDetectorInitialization() {
         assertNotNull(barcodeDetector);
@@ -70,4 +91,258 @@ public class BarcodeDetectorTest {
         
         assertFalse(barcodeDetector.isDetecting());
     }
+    
+    @Test
+    void testDecodeAllKeepsInputOrder() throws Exception {
+        List<BufferedImage> images = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            images.add(i % 4 == 3
+                    ? new BufferedImage(200, 200, BufferedImage.TYPE_BYTE_GRAY)
+                    : MatrixToImageWriter.toBufferedImage(
+                            new QRCodeWriter().encode("item-" + i, BarcodeFormat.QR_CODE, 200, 200)));
+        }
+        
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            List<Result[]> batch = barcodeDetector.decodeAll(images, pool);
+            List<Result[]> streamed = new ArrayList<>();
+            barcodeDetector.decodeStream(images.iterator(), streamed::add, pool);
+            
+            for (List<Result[]> results : List.of(batch, streamed)) {
+                assertEquals(images.size(), results.size());
+                for (int i = 0; i < images.size(); i++) {
+                    if (i % 4 == 3) {
+                        assertEquals(0, results.get(i).length);
+                    } else {
+                        assertEquals("item-" + i, results.get(i)[0].getText());
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testScanEventsCarryPipelineTimestamps() throws Exception {
+        List<ScanEvent> events = Collections.synchronizedList(new ArrayList<>());
+        barcodeDetector.getResultBus().subscribe(events::addAll);
+        
+        long before = System.nanoTime();
+        barcodeDetector.processFrame(MatrixToImageWriter.toBufferedImage(
+                new QRCodeWriter().encode("timed", BarcodeFormat.QR_CODE, 200, 200)));
+        assertTrue(barcodeDetector.getResultBus().flush(5000));
+        
+        assertEquals(1, events.size());
+        ScanEvent.Timing timing = events.get(0).getTiming();
+        assertNotNull(timing);
+        assertTrue(before <= timing.getCaptureNanos());
+        assertTrue(timing.getCaptureNanos() <= timing.getDecodeStartNanos());
+        assertTrue(timing.getDecodeStartNanos() < timing.getDecodeEndNanos());
+        assertTrue(timing.getDecodeEndNanos() <= events.get(0).getPublishedNanos());
+        assertTrue(timing.getStrategy().endsWith("multi") || timing.getStrategy().endsWith("single"));
+        assertEquals(1, barcodeDetector.getResultBus().getLatencyReport().getEndToEnd().getCount());
+    }
+
+    @Test
+    void testRotatedCodesDecodeFromUprightRegion() {
+        List<SyntheticCorpus.Sample> samples = new SyntheticCorpus(47)
+                .withFormats(BarcodeFormat.EAN_13, BarcodeFormat.CODE_128, BarcodeFormat.CODE_39)
+                .withRotation(90)
+                .generate(20);
+        
+        barcodeDetector.setOrientationEstimation(false);
+        int fullFrameOnly = correctReads(samples);
+        assertEquals(0, barcodeDetector.getRotatedDecodes());
+        
+        barcodeDetector.setOrientationEstimation(true);
+        int withOrientation = correctReads(samples);
+        assertTrue(withOrientation >= 16, "read " + withOrientation + " of 20");
+        assertTrue(withOrientation > fullFrameOnly);
+        assertEquals(withOrientation - fullFrameOnly, barcodeDetector.getRotatedReads());
+        
+        // The static image path gets the same fallback
+        int fromImage = 0;
+        for (SyntheticCorpus.Sample sample : samples) {
+            try {
+                if (barcodeDetector.detectBarcodeFromImage(sample.getImage()).getText().equals(sample.getText())) {
+                    fromImage++;
+                }
+            } catch (NotFoundException e) {
+                // counted as a miss
+            }
+        }
+        assertEquals(withOrientation, fromImage);
+        
+        // A blank frame has no oriented region, so it costs no second decode
+        long attempts = barcodeDetector.getRotatedDecodes();
+        assertEquals(0, barcodeDetector.decodeFrame(new BufferedImage(640, 480, BufferedImage.TYPE_BYTE_GRAY)).length);
+        assertEquals(attempts, barcodeDetector.getRotatedDecodes());
+    }
+    
+    @Test
+    void testInvertedCodesReadOnlyWhenEnabled() {
+        List<SyntheticCorpus.Sample> samples = new SyntheticCorpus(48)
+                .withFormats(BarcodeFormat.EAN_13, BarcodeFormat.CODE_128, BarcodeFormat.QR_CODE)
+                .withInvertedRatio(1.0)
+                .generate(10);
+        
+        assertFalse(barcodeDetector.isInvertedCodes());
+        int asPrinted = correctReads(samples);
+        assertEquals(0, barcodeDetector.getInvertedFrames());
+        
+        barcodeDetector.setInvertedCodes(true);
+        int withPolarity = correctReads(samples);
+        assertTrue(withPolarity >= 8, "read " + withPolarity + " of 10");
+        assertTrue(withPolarity > asPrinted);
+        assertTrue(barcodeDetector.getInvertedFrames() >= withPolarity);
+        
+        // Codes as printed still read with the option on
+        List<SyntheticCorpus.Sample> normal = new SyntheticCorpus(48)
+                .withFormats(BarcodeFormat.EAN_13, BarcodeFormat.CODE_128, BarcodeFormat.QR_CODE)
+                .generate(10);
+        assertTrue(correctReads(normal) >= 8);
+    }
+    
+    @Test
+    void testCloseDeliversQueuedReadsAndStopsTheBus() throws Exception {
+        // The console subscriber alone must not start a thread
+        assertFalse(barcodeDetector.getResultBus().isRunning());
+        
+        List<String> texts = Collections.synchronizedList(new ArrayList<>());
+        barcodeDetector.setBarcodeDetectedCallback((text, format) -> texts.add(text));
+        barcodeDetector.processFrame(MatrixToImageWriter.toBufferedImage(
+                new QRCodeWriter().encode("queued", BarcodeFormat.QR_CODE, 200, 200)));
+        assertTrue(barcodeDetector.getResultBus().isRunning());
+        
+        barcodeDetector.close();
+        assertEquals(List.of("queued"), texts);
+        assertFalse(barcodeDetector.getResultBus().isRunning());
+    }
+    
+    @Test
+    void testJournalRecordsPublishedReadsWhenEnabled(@TempDir Path journalDir) throws Exception {
+        assertNull(barcodeDetector.getJournal());
+        barcodeDetector.setJournalDirectory(journalDir);
+        barcodeDetector.processFrame(MatrixToImageWriter.toBufferedImage(
+                new QRCodeWriter().encode("journaled", BarcodeFormat.QR_CODE, 200, 200)));
+        barcodeDetector.close();
+        assertNull(barcodeDetector.getJournal());
+        
+        try (ScanJournal journal = new ScanJournal(journalDir)) {
+            List<ScanJournal.Entry> entries = journal.findByCode("journaled");
+            assertEquals(1, entries.size());
+            assertEquals("QR_CODE", entries.get(0).getFormat());
+        }
+    }
+    
+    @Test
+    void testHeldCodeReusesCachedDecode() throws Exception {
+        List<ScanEvent> events = Collections.synchronizedList(new ArrayList<>());
+        barcodeDetector.getResultBus().subscribe(events::addAll);
+        barcodeDetector.setDetectionCooldown(0); // publish every read, so cached ones can be seen
+        BufferedImage held = MatrixToImageWriter.toBufferedImage(
+                new QRCodeWriter().encode("held", BarcodeFormat.QR_CODE, 200, 200));
+        
+        for (int i = 0; i < 3; i++) {
+            barcodeDetector.processFrame(held);
+        }
+        // A new code in the same place is decoded, not served from the cache
+        barcodeDetector.processFrame(MatrixToImageWriter.toBufferedImage(
+                new QRCodeWriter().encode("moved", BarcodeFormat.QR_CODE, 200, 200)));
+        assertTrue(barcodeDetector.getResultBus().flush(5000));
+        
+        assertEquals(4, events.size());
+        assertEquals("held", events.get(2).getText());
+        assertFalse(events.get(0).getTiming().getStrategy().equals("Cached"));
+        assertEquals("Cached", events.get(1).getTiming().getStrategy());
+        assertEquals("Cached", events.get(2).getTiming().getStrategy());
+        assertEquals("moved", events.get(3).getText());
+        assertFalse(events.get(3).getTiming().getStrategy().equals("Cached"));
+        assertEquals(2, barcodeDetector.getResultCache().getHits());
+        
+        barcodeDetector.setResultCaching(false);
+        barcodeDetector.processFrame(held);
+        assertEquals(4, barcodeDetector.getResultCache().getLookups());
+    }
+    
+    @Test
+    void testPendingReadIsDecodedUntilConfirmed() throws Exception {
+        List<ScanEvent> events = Collections.synchronizedList(new ArrayList<>());
+        barcodeDetector.getResultBus().subscribe(events::addAll);
+        barcodeDetector.setDecodeProfile(BarcodeDetector.DecodeProfile.FAST);
+        BufferedImage frame = MatrixToImageWriter.toBufferedImage(
+                new QRCodeWriter().encode("one decode", BarcodeFormat.QR_CODE, 200, 200));
+        
+        // One vote is not enough, and the read is not cached, so the next frame is a real decode
+        barcodeDetector.processFrame(frame);
+        assertTrue(barcodeDetector.getResultBus().flush(5000));
+        assertTrue(events.isEmpty());
+        barcodeDetector.processFrame(frame);
+        assertTrue(barcodeDetector.getResultBus().flush(5000));
+        assertEquals(1, events.size());
+        assertFalse(events.get(0).getTiming().getStrategy().equals("Cached"));
+        assertEquals(0, barcodeDetector.getResultCache().getHits());
+        
+        // Confirmed reads are cached as usual
+        barcodeDetector.processFrame(frame);
+        assertEquals(1, barcodeDetector.getResultCache().getHits());
+    }
+    
+    @Test
+    void testHeldCodeIsPublishedUnderFastProfileOnceWarm() throws Exception {
+        List<ScanEvent> events = Collections.synchronizedList(new ArrayList<>());
+        barcodeDetector.getResultBus().subscribe(events::addAll);
+        BufferedImage held = MatrixToImageWriter.toBufferedImage(
+                new QRCodeWriter().encode("held still", BarcodeFormat.QR_CODE, 200, 200));
+        barcodeDetector.setDecodeProfile(BarcodeDetector.DecodeProfile.FAST);
+        // Warm the JIT, so decodes are quick enough for the cache to answer most frames
+        for (int i = 0; i < 200; i++) {
+            barcodeDetector.decodeFrame(held);
+        }
+        
+        // A 20 FPS camera pointed at a code for longer than the consensus window and the cache age
+        for (int i = 0; i < 30; i++) {
+            barcodeDetector.processFrame(held);
+            Thread.sleep(50);
+        }
+        assertTrue(barcodeDetector.getResultBus().flush(5000));
+        assertFalse(events.isEmpty(), "a held code was never published");
+        assertEquals("held still", events.get(0).getText());
+        assertTrue(barcodeDetector.getResultCache().getHits() > 0);
+    }
+    
+    @Test
+    void testSidewaysCodeIsReadByTryHarderRetry() {
+        barcodeDetector.setOrientationEstimation(false);
+        Result[] results = barcodeDetector.decodeFrame(sideways("SIDEWAYS-128"));
+        assertEquals(1, results.length);
+        assertEquals("SIDEWAYS-128", results[0].getText());
+    }
+    
+    /**
+     * A Code 128 turned a quarter turn clockwise, on a grey image like the camera's
+     */
+    private static BufferedImage sideways(String text) {
+        BufferedImage upright = MatrixToImageWriter.toBufferedImage(
+                new Code128Writer().encode(text, BarcodeFormat.CODE_128, 400, 120));
+        BufferedImage turned = new BufferedImage(upright.getHeight(), upright.getWidth(), BufferedImage.TYPE_BYTE_GRAY);
+        for (int y = 0; y < upright.getHeight(); y++) {
+            for (int x = 0; x < upright.getWidth(); x++) {
+                turned.setRGB(upright.getHeight() - 1 - y, x, upright.getRGB(x, y));
+            }
+        }
+        return turned;
+    }
+    
+    private int correctReads(List<SyntheticCorpus.Sample> samples) {
+        int correct = 0;
+        for (SyntheticCorpus.Sample sample : samples) {
+            Result[] results = barcodeDetector.decodeFrame(sample.getImage());
+            if (results.length > 0 && results[0].getText().equals(sample.getText())) {
+                correct++;
+            }
+        }
+        return correct;
+    }
 }
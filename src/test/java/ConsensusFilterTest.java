@@ -0,0 +1,121 @@
+import com.example.barcodescanner.ConsensusFilter;
+import com.google.zxing.BarcodeFormat;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ConsensusFilter
+ */
+public class ConsensusFilterTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void testReadNeedsRequiredVotes() {
+        ConsensusFilter filter = new ConsensusFilter(3, 500);
+
+        assertFalse(filter.accept(BarcodeFormat.QR_CODE, "hello", 0));
+        assertFalse(filter.accept(BarcodeFormat.QR_CODE, "hello", 50 * MS));
+        assertTrue(filter.accept(BarcodeFormat.QR_CODE, "hello", 100 * MS));
+        // Further sightings inside the window stay accepted
+        assertTrue(filter.accept(BarcodeFormat.QR_CODE, "hello", 150 * MS));
+
+        assertEquals(2, filter.getPendingCount());
+        assertEquals(2, filter.getAcceptedCount());
+    }
+
+    @Test
+    void testVotesOutsideTheWindowDoNotCount() {
+        ConsensusFilter filter = new ConsensusFilter(2, 500);
+
+        assertFalse(filter.accept(BarcodeFormat.CODE_128, "ABC", 0));
+        // The first vote has expired, so this starts a new window
+        assertFalse(filter.accept(BarcodeFormat.CODE_128, "ABC", 600 * MS));
+        assertTrue(filter.accept(BarcodeFormat.CODE_128, "ABC", 1000 * MS));
+    }
+
+    @Test
+    void testDifferentReadsDoNotShareVotes() {
+        ConsensusFilter filter = new ConsensusFilter(2, 500);
+
+        assertFalse(filter.accept(BarcodeFormat.CODE_128, "ABC", 0));
+        assertFalse(filter.accept(BarcodeFormat.CODE_128, "ABD", 10 * MS));
+        assertFalse(filter.accept(BarcodeFormat.CODE_39, "ABC", 20 * MS));
+        assertTrue(filter.accept(BarcodeFormat.CODE_128, "ABC", 30 * MS));
+    }
+
+    @Test
+    void testValidGtinIsAcceptedOnOneRead() {
+        ConsensusFilter filter = new ConsensusFilter(3, 500);
+
+        assertTrue(filter.accept(BarcodeFormat.EAN_13, "4006381333931", 0));
+        assertTrue(filter.accept(BarcodeFormat.EAN_8, "96385074", 0));
+        assertTrue(filter.accept(BarcodeFormat.UPC_A, "036000291452", 0));
+        assertEquals(3, filter.getAcceptedCount());
+        assertEquals(0, filter.getPendingCount());
+    }
+
+    @Test
+    void testBadGtinCheckDigitIsNeverAccepted() {
+        ConsensusFilter filter = new ConsensusFilter(2, 500);
+
+        for (int i = 0; i < 5; i++) {
+            assertFalse(filter.accept(BarcodeFormat.EAN_13, "4006381333932", i * 10 * MS));
+        }
+        assertFalse(filter.accept(BarcodeFormat.UPC_A, "03600029145X", 0));
+        assertEquals(6, filter.getRejectedChecksumCount());
+        assertEquals(0, filter.getAcceptedCount());
+    }
+
+    @Test
+    void testUpcECheckDigitIsCheckedOnExpandedCode() {
+        ConsensusFilter filter = new ConsensusFilter(2, 500);
+
+        // 04252614 expands to UPC-A 042100005264; a mod-10 check on the short form would say 0
+        assertTrue(filter.accept(BarcodeFormat.UPC_E, "04252614", 0));
+        assertFalse(filter.accept(BarcodeFormat.UPC_E, "04252610", 0));
+        assertEquals(1, filter.getRejectedChecksumCount());
+    }
+
+    @Test
+    void testGtinVotesWithoutChecksumShortcut() {
+        ConsensusFilter filter = new ConsensusFilter(2, 500, false);
+
+        assertFalse(filter.accept(BarcodeFormat.EAN_13, "4006381333931", 0));
+        assertTrue(filter.accept(BarcodeFormat.EAN_13, "4006381333931", 10 * MS));
+        // The checksum still has to be valid, however many frames agree
+        assertFalse(filter.accept(BarcodeFormat.EAN_13, "4006381333932", 20 * MS));
+        assertFalse(filter.accept(BarcodeFormat.EAN_13, "4006381333932", 30 * MS));
+    }
+
+    @Test
+    void testIsConfirmedDoesNotVote() {
+        ConsensusFilter filter = new ConsensusFilter(2, 500);
+
+        assertFalse(filter.accept(BarcodeFormat.QR_CODE, "held", 0));
+        for (int i = 1; i <= 3; i++) {
+            assertFalse(filter.isConfirmed(BarcodeFormat.QR_CODE, "held", i * 10 * MS));
+        }
+        assertTrue(filter.accept(BarcodeFormat.QR_CODE, "held", 50 * MS));
+        assertTrue(filter.isConfirmed(BarcodeFormat.QR_CODE, "held", 60 * MS));
+        assertFalse(filter.isConfirmed(BarcodeFormat.QR_CODE, "held", 600 * MS), "confirmation expires with the window");
+
+        assertTrue(filter.isConfirmed(BarcodeFormat.EAN_13, "4006381333931", 0));
+        assertFalse(filter.isConfirmed(BarcodeFormat.EAN_13, "4006381333932", 0));
+    }
+
+    @Test
+    void testResetForgetsVotes() {
+        ConsensusFilter filter = new ConsensusFilter(2, 500);
+
+        assertFalse(filter.accept(BarcodeFormat.QR_CODE, "hello", 0));
+        filter.reset();
+        assertFalse(filter.accept(BarcodeFormat.QR_CODE, "hello", 10 * MS));
+    }
+
+    @Test
+    void testRequiredVotesMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsensusFilter(0, 500));
+    }
+}
@@ -0,0 +1,88 @@
+import com.example.barcodescanner.ConsoleBarcodeTest;
+import com.example.barcodescanner.FrameRecorder;
+import com.example.barcodescanner.FrameSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the headless benchmark runner
+ */
+public class ConsoleBarcodeTestTest {
+
+    @Test
+    void testOptionsParse() {
+        ConsoleBarcodeTest.Options options = ConsoleBarcodeTest.Options.parse(
+                "--source", "synthetic:8", "--frames", "20", "--seconds", "0", "--fps", "15", "--profile", "fast");
+        assertEquals("synthetic:8", options.getSource());
+        assertEquals(20, options.getFrames());
+        assertEquals(0, options.getSeconds());
+        assertEquals(15, options.getFps());
+        assertEquals("FAST", options.getProfile().name());
+
+        ConsoleBarcodeTest.Options defaults = ConsoleBarcodeTest.Options.parse();
+        assertEquals("webcam", defaults.getSource());
+        assertEquals(30, defaults.getSeconds());
+        assertEquals(0, defaults.getFps());
+
+        assertThrows(IllegalArgumentException.class, () -> ConsoleBarcodeTest.Options.parse("--frames"));
+        assertThrows(IllegalArgumentException.class, () -> ConsoleBarcodeTest.Options.parse("--bogus", "1"));
+        assertThrows(IllegalArgumentException.class, () -> FrameSource.parse("camera:0"));
+    }
+
+    @Test
+    void testSyntheticRunReportsHitRateAndJson() throws Exception {
+        ConsoleBarcodeTest.Options options = ConsoleBarcodeTest.Options.parse("--frames", "6", "--seconds", "0");
+        try (FrameSource source = FrameSource.parse("synthetic:3")) {
+            ConsoleBarcodeTest.Report report = ConsoleBarcodeTest.run(source, options);
+
+            // The three samples are cycled, so the frame limit is what stops the run
+            assertEquals(6, report.getFrames());
+            assertEquals(6, report.getDecodeTimes().getCount());
+            assertEquals(report.getFramesWithReads(), report.getReadLatency().getEndToEnd().getCount());
+            assertTrue(report.getCorrect() > 0, report.toText());
+            assertEquals(0, report.getMisreads());
+            assertTrue(report.getFramesPerSecond() > 0);
+
+            String json = report.toJson();
+            assertTrue(json.startsWith("{\"source\":\"synthetic:3\""), json);
+            assertTrue(json.contains("\"frames\":6,"), json);
+            assertTrue(json.contains("\"decodeMs\":{\"n\":6,"), json);
+            assertTrue(json.endsWith("}"), json);
+            assertFalse(json.contains(",}"), json);
+        }
+    }
+
+    @Test
+    void testReplayKeepsRecordedCaptureSpacing(@TempDir Path recordingDir) throws Exception {
+        long spacing = TimeUnit.MILLISECONDS.toNanos(50);
+        try (FrameRecorder recorder = new FrameRecorder(recordingDir)) {
+            for (int i = 0; i < 4; i++) {
+                recorder.record(new BufferedImage(8, 8, BufferedImage.TYPE_BYTE_GRAY), 1_000_000_000L + i * spacing);
+            }
+        }
+
+        try (FrameSource source = FrameSource.parse("replay:" + recordingDir)) {
+            assertNotNull(source.nextFrame());
+            long first = source.getCaptureNanos();
+            assertTrue(System.nanoTime() - first < TimeUnit.SECONDS.toNanos(1), "not on this run's clock");
+
+            // Read slower than recorded: the frames keep their recorded capture times
+            Thread.sleep(120);
+            source.nextFrame();
+            assertEquals(spacing, source.getCaptureNanos() - first);
+            source.nextFrame();
+            assertEquals(2 * spacing, source.getCaptureNanos() - first);
+
+            // Read faster than recorded: never captured after it was read
+            source.nextFrame();
+            assertTrue(source.getCaptureNanos() <= System.nanoTime());
+            assertNull(source.nextFrame());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import com.example.barcodescanner.BarcodeDetector;
+import com.example.barcodescanner.DecodeHttpServer;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DecodeHttpServer
+ */
+public class DecodeHttpServerTest {
+
+    private DecodeHttpServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new DecodeHttpServer(new BarcodeDetector(), 2, 16, 4);
+        server.start(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void testDecodeReturnsResultsAsJson() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        MatrixToImageWriter.writeToStream(
+                new QRCodeWriter().encode("station \"7\"", BarcodeFormat.QR_CODE, 200, 200), "png", png);
+
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(uri("/decode?budgetMs=5000"))
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(png.toByteArray())).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"format\":\"QR_CODE\""), response.body());
+        assertTrue(response.body().contains("\"text\":\"station \\\"7\\\"\""), response.body());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void testRejectsBadRequests() throws Exception {
+        HttpResponse<String> notPost = client.send(HttpRequest.newBuilder(uri("/decode")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, notPost.statusCode());
+
+        HttpResponse<String> notImage = client.send(
+                HttpRequest.newBuilder(uri("/decode"))
+                        .POST(HttpRequest.BodyPublishers.ofString("not an image")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, notImage.statusCode());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+}
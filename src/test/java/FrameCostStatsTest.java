@@ -0,0 +1,51 @@
+import com.example.barcodescanner.FrameCostStats;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FrameCostStats
+ */
+public class FrameCostStatsTest {
+
+    @Test
+    void testRollingMeansAndOutliers() {
+        FrameCostStats stats = new FrameCostStats(64);
+        for (int i = 0; i < 100; i++) {
+            stats.record(10_000_000, 8_000_000, 100_000, "Cam A");
+        }
+        assertEquals(8_000_000, stats.getMeanCpuNanos(), 1e-6);
+        assertEquals(100_000, stats.getMeanAllocatedBytes(), 1e-6);
+        assertEquals(0, stats.getOutlierCount());
+
+        // One frame allocating ten times the usual amount
+        stats.record(10_000_000, 8_000_000, 1_000_000, "Cam B");
+        assertEquals(1, stats.getOutlierCount());
+        assertEquals("Cam B", stats.getRecentOutliers().get(0).getCamera());
+        assertEquals(100, stats.getRecentOutliers().get(0).getFrame());
+
+        // The window rolls: after 64 cheaper frames the old ones no longer count
+        for (int i = 0; i < 64; i++) {
+            stats.record(5_000_000, 4_000_000, 50_000, "Cam A");
+        }
+        assertEquals(50_000, stats.getMeanAllocatedBytes(), 1e-6);
+        assertEquals(165, stats.getCount());
+    }
+
+    @Test
+    void testProbeMeasuresCurrentThread() {
+        FrameCostStats stats = new FrameCostStats();
+        FrameCostStats.Probe probe = FrameCostStats.begin();
+        byte[][] garbage = new byte[64][];
+        for (int i = 0; i < garbage.length; i++) {
+            garbage[i] = new byte[16 * 1024];
+        }
+        probe.end(stats, null);
+
+        assertEquals(1, stats.getCount());
+        assertTrue(garbage[63].length > 0);
+        if (FrameCostStats.isSupported()) {
+            assertTrue(stats.getMeanAllocatedBytes() >= 64 * 16 * 1024);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+import com.example.barcodescanner.BarcodeDetector;
+import com.example.barcodescanner.FramePool;
+import com.example.barcodescanner.FrameRecorder;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.Result;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FramePool
+ */
+public class FramePoolTest {
+
+    @Test
+    void testBufferReturnsToPoolAfterLastRelease() {
+        FramePool pool = new FramePool(320, 240, 4);
+
+        for (int i = 0; i < 50; i++) {
+            // Capture hands one reference each to decode and preview, then drops its own
+            FramePool.Frame frame = pool.acquire();
+            FramePool.Frame forDecode = frame.retain();
+            FramePool.Frame forPreview = frame.retain();
+            frame.release();
+            forDecode.release();
+            forPreview.release();
+        }
+
+        assertEquals(50, pool.getAcquired());
+        assertEquals(1, pool.getAllocated());
+
+        FramePool.Frame held = pool.acquire();
+        FramePool.Frame other = pool.acquire();
+        assertNotSame(held.getImage(), other.getImage());
+        assertEquals(2, pool.getAllocated());
+
+        held.release();
+        assertThrows(IllegalStateException.class, held::release);
+        assertThrows(IllegalStateException.class, held::retain);
+        other.release();
+    }
+
+    @Test
+    void testPooledRgbFrameDecodes() throws Exception {
+        BufferedImage code = MatrixToImageWriter.toBufferedImage(
+                new QRCodeWriter().encode("pooled", BarcodeFormat.QR_CODE, 240, 240));
+        FramePool pool = new FramePool(240, 240, 2);
+        FramePool.Frame frame = pool.acquire();
+        frame.getImage().getGraphics().drawImage(code, 0, 0, null);
+
+        Result[] results = new BarcodeDetector().decodeFrame(frame.getImage());
+        frame.release();
+
+        assertEquals(1, results.length);
+        assertEquals("pooled", results[0].getText());
+    }
+
+    @Test
+    void testLumaPoolHoldsGreyFrames() {
+        FramePool pool = new FramePool(64, 48, FrameRecorder.PixelFormat.LUMA, 2);
+        FramePool.Frame frame = pool.acquire();
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, frame.getImage().getType());
+        assertEquals(64, frame.getImage().getWidth());
+        frame.release();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new FramePool(64, 48, FrameRecorder.PixelFormat.BGR, 2));
+    }
+}
@@ -0,0 +1,165 @@
+import com.example.barcodescanner.BarcodeDetector;
+import com.example.barcodescanner.FrameQualityEstimator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FrameQualityEstimator and the debounced quality warnings
+ */
+public class FrameQualityEstimatorTest {
+
+    private final FrameQualityEstimator estimator = new FrameQualityEstimator();
+    private BarcodeDetector detector;
+
+    @AfterEach
+    void tearDown() {
+        if (detector != null) {
+            detector.close();
+        }
+    }
+
+    @Test
+    void testSpreadIsP1ToP99() {
+        FrameQualityEstimator.FrameQuality ramp = estimator.estimate(frame((x, y) -> x * 255 / 319));
+        assertTrue(ramp.getHistogramSpread() >= 245, "spread " + ramp.getHistogramSpread());
+
+        // A few dark specks on grey widen the min-max range but not p1-p99
+        FrameQualityEstimator.FrameQuality specks = estimator.estimate(
+                frame((x, y) -> x % 20 == 0 && y % 20 == 0 ? 0 : 128));
+        assertEquals(0, specks.getHistogramSpread());
+        assertTrue(specks.getWarnings().contains(FrameQualityEstimator.Warning.LOW_CONTRAST));
+    }
+
+    @Test
+    void testBrightnessWarnings() {
+        assertEquals(Set.of(FrameQualityEstimator.Warning.TOO_DARK, FrameQualityEstimator.Warning.LOW_CONTRAST),
+                estimator.estimate(frame((x, y) -> 20)).getWarnings());
+        assertTrue(estimator.estimate(frame((x, y) -> 230)).getWarnings()
+                .contains(FrameQualityEstimator.Warning.TOO_BRIGHT));
+        assertTrue(estimator.estimate(stripes(40, 220, 0)).isGood());
+    }
+
+    @Test
+    void testNoiseIsMedianNeighbourStep() {
+        assertEquals(0, estimator.estimate(stripes(40, 220, 0)).getNoise());
+
+        // Two independent samples of sigma-4 noise differ by about 4 at the median
+        Random random = new Random(1);
+        double noise = estimator.estimate(frame((x, y) -> 128 + (int) Math.round(random.nextGaussian() * 4)))
+                .getNoise();
+        assertTrue(noise >= 3 && noise <= 6, "noise " + noise);
+    }
+
+    @Test
+    void testBlurIsNotConfusedWithNoise() {
+        FrameQualityEstimator.FrameQuality sharp = estimator.estimate(stripes(40, 220, 0));
+        FrameQualityEstimator.FrameQuality blurred = estimator.estimate(blur(stripes(40, 220, 0), 3));
+        FrameQualityEstimator.FrameQuality noisy = estimator.estimate(stripes(40, 220, 12));
+
+        assertTrue(sharp.getSharpness() > 0.8, "sharp " + sharp.getSharpness());
+        assertFalse(sharp.getWarnings().contains(FrameQualityEstimator.Warning.BLURRY));
+
+        assertTrue(blurred.getWarnings().contains(FrameQualityEstimator.Warning.BLURRY),
+                "blurred " + blurred.getSharpness());
+        assertEquals(0, blurred.getNoise(), 1);
+
+        // Noise makes neighbours differ everywhere, but the edges are still crisp
+        assertFalse(noisy.getWarnings().contains(FrameQualityEstimator.Warning.BLURRY),
+                "noisy " + noisy.getSharpness());
+        assertTrue(noisy.getNoise() >= 5, "noise " + noisy.getNoise());
+    }
+
+    @Test
+    void testWarningIsReportedOnceItPersists() {
+        detector = new BarcodeDetector();
+        List<FrameQualityEstimator.FrameQuality> reported = new ArrayList<>();
+        detector.setQualityWarningListener(reported::add);
+        BufferedImage dark = frame((x, y) -> 20);
+
+        for (int i = 0; i < 9; i++) {
+            detector.processFrame(dark);
+        }
+        assertTrue(reported.isEmpty(), "warned before the warning persisted");
+        detector.processFrame(dark);
+        assertEquals(1, reported.size());
+        assertTrue(reported.get(0).getWarnings().contains(FrameQualityEstimator.Warning.TOO_DARK));
+
+        // Still dark: nothing new to report
+        for (int i = 0; i < 10; i++) {
+            detector.processFrame(dark);
+        }
+        assertEquals(1, reported.size());
+    }
+
+    @Test
+    void testSingleOddFrameDoesNotFlapTheWarning() {
+        detector = new BarcodeDetector();
+        List<FrameQualityEstimator.FrameQuality> reported = new ArrayList<>();
+        detector.setQualityWarningListener(reported::add);
+        BufferedImage dark = frame((x, y) -> 20);
+        BufferedImage good = stripes(40, 220, 0);
+
+        for (int i = 0; i < 10; i++) {
+            detector.processFrame(dark);
+        }
+        // One good frame among dark ones restarts the count but clears nothing
+        detector.processFrame(good);
+        for (int i = 0; i < 10; i++) {
+            detector.processFrame(dark);
+        }
+        assertEquals(1, reported.size());
+
+        // A run of good frames clears the warning
+        for (int i = 0; i < 10; i++) {
+            detector.processFrame(good);
+        }
+        assertEquals(2, reported.size());
+        assertTrue(reported.get(1).getWarnings().isEmpty());
+    }
+
+    private interface Luma {
+        int at(int x, int y);
+    }
+
+    private static BufferedImage frame(Luma luma) {
+        BufferedImage image = new BufferedImage(320, 240, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int v = Math.max(0, Math.min(255, luma.at(x, y)));
+                image.setRGB(x, y, (v << 16) | (v << 8) | v);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Vertical 7-pixel stripes; an odd width so the estimator's sampling grid crosses the edges
+     */
+    private static BufferedImage stripes(int dark, int light, int noise) {
+        Random random = new Random(1);
+        return frame((x, y) -> ((x / 7) % 2 == 0 ? dark : light)
+                + (noise > 0 ? random.nextInt(2 * noise + 1) - noise : 0));
+    }
+
+    /**
+     * Horizontal box blur, which smears the vertical stripe edges over 2 * radius + 1 pixels
+     */
+    private static BufferedImage blur(BufferedImage image, int radius) {
+        return frame((x, y) -> {
+            int sum = 0;
+            for (int dx = -radius; dx <= radius; dx++) {
+                int sx = Math.max(0, Math.min(image.getWidth() - 1, x + dx));
+                sum += image.getRGB(sx, y) & 0xFF;
+            }
+            return sum / (2 * radius + 1);
+        });
+    }
+}
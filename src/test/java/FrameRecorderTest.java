@@ -0,0 +1,75 @@
+import com.example.barcodescanner.FrameRecorder;
+import com.example.barcodescanner.FrameReplayer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FrameRecorder and FrameReplayer
+ */
+public class FrameRecorderTest {
+
+    @TempDir
+    Path recordingDir;
+
+    @Test
+    void testRoundTripAcrossSegments() throws Exception {
+        // Small segments so the frames roll over several files
+        try (FrameRecorder recorder = new FrameRecorder(recordingDir, 4096)) {
+            for (int i = 0; i < 10; i++) {
+                BufferedImage image = new BufferedImage(40, 30, BufferedImage.TYPE_BYTE_GRAY);
+                byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+                pixels[0] = (byte) i;
+                recorder.record(image, 1000L * i);
+            }
+            assertEquals(10, recorder.getFrameCount());
+        }
+
+        assertTrue(Files.list(recordingDir).count() > 1, "Frames should span multiple segments");
+
+        List<FrameReplayer.RecordedFrame> frames = new FrameReplayer(recordingDir).readAll();
+        assertEquals(10, frames.size());
+        for (int i = 0; i < frames.size(); i++) {
+            FrameReplayer.RecordedFrame frame = frames.get(i);
+            assertEquals(i, frame.getSequence());
+            assertEquals(1000L * i, frame.getTimestampNanos());
+            assertEquals(FrameRecorder.PixelFormat.LUMA, frame.getFormat());
+            assertEquals(i, frame.getData()[0]);
+        }
+    }
+
+    @Test
+    void testDirectoryHoldsOneRecording() throws Exception {
+        try (FrameRecorder recorder = new FrameRecorder(recordingDir)) {
+            recorder.record(new BufferedImage(4, 2, BufferedImage.TYPE_BYTE_GRAY), 42L);
+        }
+
+        // A second session would restart the sequence and the clock under the first one
+        assertThrows(IOException.class, () -> new FrameRecorder(recordingDir));
+        List<FrameReplayer.RecordedFrame> frames = new FrameReplayer(recordingDir).readAll();
+        assertEquals(1, frames.size());
+        assertEquals(42L, frames.get(0).getTimestampNanos());
+    }
+
+    @Test
+    void testNonRawImageIsRecordedAsRgb() throws Exception {
+        BufferedImage image = new BufferedImage(4, 2, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(1, 1, 0x123456);
+
+        try (FrameRecorder recorder = new FrameRecorder(recordingDir)) {
+            recorder.record(image, 42L);
+        }
+
+        FrameReplayer.RecordedFrame frame = new FrameReplayer(recordingDir).readAll().get(0);
+        assertEquals(FrameRecorder.PixelFormat.RGB, frame.getFormat());
+        assertEquals(0x123456, frame.toBufferedImage().getRGB(1, 1) & 0xFFFFFF);
+    }
+}
@@ -0,0 +1,97 @@
+import com.example.barcodescanner.FrameResultCache;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.Result;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FrameResultCache
+ */
+public class FrameResultCacheTest {
+
+    private static final long MS = 1_000_000L;
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 240;
+
+    @Test
+    void testNoisyRepeatReusesResultUntilLimits() {
+        FrameResultCache cache = new FrameResultCache(8, 3, 1, 500);
+        Random random = new Random(1);
+        Result[] read = {new Result("12345", null, null, BarcodeFormat.CODE_128)};
+
+        assertNull(cache.lookup("cam", signature(bars(7, 0, 10, random)), 0));
+        cache.store("cam", signature(bars(7, 0, 10, random)), read, 0);
+
+        // Fresh sensor noise and a small exposure shift are still the same frame
+        for (int i = 1; i <= 3; i++) {
+            assertSame(read, cache.lookup("cam", signature(bars(7, 6, 10, random)), i * 30 * MS));
+        }
+        // Reused three times in a row: the next frame must be decoded
+        assertNull(cache.lookup("cam", signature(bars(7, 0, 10, random)), 120 * MS));
+
+        cache.store("cam", signature(bars(7, 0, 10, random)), read, 150 * MS);
+        assertNotNull(cache.lookup("cam", signature(bars(7, 0, 10, random)), 200 * MS));
+        // Too old, however similar
+        assertNull(cache.lookup("cam", signature(bars(7, 0, 10, random)), 650 * MS));
+
+        // Other cameras have their own entries, and a miss is reused fewer times
+        assertNull(cache.lookup("other", signature(bars(7, 0, 10, random)), 200 * MS));
+        cache.store("other", signature(bars(7, 0, 10, random)), new Result[0], 200 * MS);
+        assertEquals(0, cache.lookup("other", signature(bars(7, 0, 10, random)), 230 * MS).length);
+        assertNull(cache.lookup("other", signature(bars(7, 0, 10, random)), 260 * MS));
+
+        assertEquals(10, cache.getLookups());
+        assertEquals(5, cache.getHits());
+        assertEquals(0.5, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void testDifferentCodeInSamePlaceIsAMiss() {
+        FrameResultCache cache = new FrameResultCache();
+        Random random = new Random(2);
+        cache.store("cam", signature(bars(7, 0, 10, random)), new Result[0], 0);
+        assertNotNull(cache.lookup("cam", signature(bars(7, 0, 10, random)), MS));
+
+        // Same place, same size, different bars
+        assertNull(cache.lookup("cam", signature(bars(11, 0, 10, random)), 2 * MS));
+        // A frame of another size never matches
+        FrameResultCache.Signature small = new FrameResultCache.Signature();
+        small.compute(new byte[160 * 120], 160, 120);
+        assertNull(cache.lookup("cam", small, 3 * MS));
+
+        cache.clear();
+        assertNull(cache.lookup("cam", signature(bars(7, 0, 10, random)), 4 * MS));
+    }
+
+    /**
+     * A grey frame with a block of bars in the middle whose widths follow the seed
+     */
+    private static byte[] bars(long seed, int exposure, int noise, Random random) {
+        Random pattern = new Random(seed);
+        boolean[] dark = new boolean[200];
+        for (int x = 0; x < dark.length; ) {
+            boolean value = pattern.nextBoolean();
+            for (int run = 2 + pattern.nextInt(6); run > 0 && x < dark.length; run--) {
+                dark[x++] = value;
+            }
+        }
+        byte[] luma = new byte[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                boolean bar = y >= 70 && y < 170 && x >= 60 && x < 260 && dark[x - 60];
+                int value = (bar ? 40 : 180) + exposure + (int) Math.round(random.nextGaussian() * noise);
+                luma[y * WIDTH + x] = (byte) Math.max(0, Math.min(255, value));
+            }
+        }
+        return luma;
+    }
+
+    private static FrameResultCache.Signature signature(byte[] luma) {
+        FrameResultCache.Signature signature = new FrameResultCache.Signature();
+        signature.compute(luma, WIDTH, HEIGHT);
+        return signature;
+    }
+}
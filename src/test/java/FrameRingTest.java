@@ -0,0 +1,147 @@
+import com.example.barcodescanner.FrameRing;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FrameRing
+ */
+public class FrameRingTest {
+
+    @Test
+    void testPollTakesNewestFrameAndSkipsOlderOnes() {
+        FrameRing ring = new FrameRing(8, 4);
+        FrameRing.Reader reader = new FrameRing.Reader();
+        assertFalse(ring.poll(reader));
+
+        for (int i = 0; i < 3; i++) {
+            ring.publish(filled(32, i), 1000 + i);
+        }
+        assertTrue(ring.poll(reader));
+        assertEquals(2, reader.getSequence());
+        assertEquals(1002, reader.getCaptureNanos());
+        BufferedImage image = reader.getImage();
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, image.getType());
+        assertEquals(8, image.getWidth());
+        assertEquals(4, image.getHeight());
+        assertArrayEquals(filled(32, 2), data(image));
+
+        // Each frame goes to one consumer only
+        assertFalse(ring.poll(reader));
+        assertEquals(3, ring.getPublished());
+        assertEquals(2, ring.getSkipped());
+
+        // The reader's buffer is reused from frame to frame
+        ring.publish(filled(32, 7), 0);
+        assertTrue(ring.poll(reader));
+        assertSame(image, reader.getImage());
+        assertArrayEquals(filled(32, 7), data(image));
+    }
+
+    @Test
+    void testDiscardDropsPublishedFrames() {
+        FrameRing ring = new FrameRing(4, 4, 2);
+        FrameRing.Reader reader = new FrameRing.Reader();
+        ring.publish(filled(16, 1), 0);
+        ring.publish(filled(16, 2), 0);
+        ring.discard();
+        assertFalse(ring.poll(reader));
+
+        ring.publish(filled(16, 3), 0);
+        assertTrue(ring.poll(reader));
+        assertEquals(2, reader.getSequence());
+    }
+
+    @Test
+    void testRejectsBadSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new FrameRing(4, 4, 1));
+        assertThrows(IllegalArgumentException.class, () -> new FrameRing(0, 4));
+        FrameRing ring = new FrameRing(4, 4);
+        assertThrows(IllegalArgumentException.class, () -> ring.publish(new byte[15], 0));
+    }
+
+    @Test
+    void testConcurrentConsumersNeverSeeTornOrDuplicateFrames() throws Exception {
+        // Two small slots so the producer laps consumers as often as possible
+        FrameRing ring = new FrameRing(64, 48, 2);
+        int frames = 20000;
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicReference<String> failure = new AtomicReference<>();
+        List<List<Long>> consumed = new ArrayList<>();
+        List<Thread> consumers = new ArrayList<>();
+
+        for (int c = 0; c < 3; c++) {
+            List<Long> sequences = new ArrayList<>();
+            consumed.add(sequences);
+            Thread consumer = new Thread(() -> {
+                FrameRing.Reader reader = new FrameRing.Reader();
+                while (true) {
+                    boolean finished = done.get();
+                    if (!ring.poll(reader)) {
+                        if (finished) {
+                            return;
+                        }
+                        Thread.yield();
+                        continue;
+                    }
+                    long sequence = reader.getSequence();
+                    byte[] pixels = data(reader.getImage());
+                    for (byte pixel : pixels) {
+                        if (pixel != (byte) sequence) {
+                            failure.compareAndSet(null, "torn frame " + sequence);
+                        }
+                    }
+                    if (reader.getCaptureNanos() != sequence) {
+                        failure.compareAndSet(null, "wrong metadata for frame " + sequence);
+                    }
+                    if (!sequences.isEmpty() && sequences.get(sequences.size() - 1) >= sequence) {
+                        failure.compareAndSet(null, "out of order frame " + sequence);
+                    }
+                    sequences.add(sequence);
+                }
+            });
+            consumers.add(consumer);
+            consumer.start();
+        }
+
+        byte[] plane = new byte[64 * 48];
+        for (int i = 0; i < frames; i++) {
+            Arrays.fill(plane, (byte) i);
+            ring.publish(plane, i);
+        }
+        done.set(true);
+        for (Thread consumer : consumers) {
+            consumer.join(10000);
+        }
+
+        assertNull(failure.get());
+        Set<Long> unique = new HashSet<>();
+        for (List<Long> sequences : consumed) {
+            unique.addAll(sequences);
+        }
+        int total = consumed.stream().mapToInt(List::size).sum();
+        assertEquals(total, unique.size(), "a frame went to two consumers");
+        // Every published frame was either delivered, skipped or lost to a lap
+        assertEquals(frames, total + ring.getSkipped() + ring.getLapped());
+    }
+
+    private static byte[] filled(int size, int value) {
+        byte[] data = new byte[size];
+        Arrays.fill(data, (byte) value);
+        return data;
+    }
+
+    private static byte[] data(BufferedImage image) {
+        return ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+    }
+}
@@ -0,0 +1,102 @@
+import com.example.barcodescanner.OrientationEstimator;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.ResultPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OrientationEstimator
+ */
+public class OrientationEstimatorTest {
+
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 240;
+
+    @Test
+    void testEstimatesBarAngle() {
+        OrientationEstimator estimator = new OrientationEstimator();
+        for (double angle : new double[] {0, 17, -35, 60, 90}) {
+            OrientationEstimator.Candidate candidate = estimator.estimate(bars(angle), WIDTH, HEIGHT);
+            assertNotNull(candidate, "no candidate at " + angle);
+            double error = Math.abs(candidate.getAngle() - angle);
+            assertTrue(Math.min(error, 180 - error) < 1.5, "estimated " + candidate.getAngle() + " for " + angle);
+            assertTrue(candidate.getCoherence() > 0.9);
+            assertEquals(Math.abs(angle) >= 10, candidate.needsRotation());
+            assertEquals(0, candidate.getWidth() % 64);
+        }
+    }
+
+    @Test
+    void testNoCandidateWithoutBars() {
+        OrientationEstimator estimator = new OrientationEstimator();
+        assertNull(estimator.estimate(new byte[WIDTH * HEIGHT], WIDTH, HEIGHT));
+
+        // Noise is strong but has no preferred direction
+        byte[] noise = new byte[WIDTH * HEIGHT];
+        new Random(47).nextBytes(noise);
+        assertNull(estimator.estimate(noise, WIDTH, HEIGHT));
+        assertEquals(2, estimator.getEstimates());
+        assertEquals(0, estimator.getCandidates());
+    }
+
+    @Test
+    void testRotateTurnsBarsUpright() {
+        OrientationEstimator estimator = new OrientationEstimator();
+        byte[] luma = bars(40);
+        OrientationEstimator.Candidate candidate = estimator.estimate(luma, WIDTH, HEIGHT);
+        LuminanceSource upright = estimator.rotate(luma, WIDTH, HEIGHT, candidate);
+        assertEquals(candidate.getWidth(), upright.getWidth());
+        assertEquals(candidate.getHeight(), upright.getHeight());
+
+        // Columns through the middle of the bars hardly change from row to row
+        int centreY = upright.getHeight() / 2;
+        byte[] matrix = upright.getMatrix();
+        int changes = 0;
+        for (int x = 0; x < upright.getWidth(); x++) {
+            int above = matrix[(centreY - 8) * upright.getWidth() + x] & 0xFF;
+            int below = matrix[(centreY + 8) * upright.getWidth() + x] & 0xFF;
+            if (Math.abs(above - below) > 100) {
+                changes++;
+            }
+        }
+        assertTrue(changes < upright.getWidth() / 10, changes + " columns not upright");
+
+        // The region's centre maps back to the centre of the bars in the frame
+        ResultPoint centre = candidate.toFrame(new ResultPoint(upright.getWidth() / 2f, centreY));
+        assertEquals(WIDTH / 2.0, centre.getX(), 16);
+        assertEquals(HEIGHT / 2.0, centre.getY(), 16);
+    }
+
+    /**
+     * A 160x160 patch of 4-pixel bars in the middle of a grey frame, gradient at the given
+     * angle, antialiased like a camera image (4x4 supersampling)
+     */
+    private static byte[] bars(double angle) {
+        byte[] luma = new byte[WIDTH * HEIGHT];
+        double cos = Math.cos(Math.toRadians(angle));
+        double sin = Math.sin(Math.toRadians(angle));
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int sum = 0;
+                for (int sy = 0; sy < 4; sy++) {
+                    for (int sx = 0; sx < 4; sx++) {
+                        double dx = x + (sx + 0.5) / 4 - WIDTH / 2.0;
+                        double dy = y + (sy + 0.5) / 4 - HEIGHT / 2.0;
+                        double u = dx * cos + dy * sin;
+                        double v = -dx * sin + dy * cos;
+                        if (Math.abs(u) < 80 && Math.abs(v) < 80) {
+                            sum += ((int) Math.floor(u / 4) & 1) == 0 ? 40 : 220;
+                        } else {
+                            sum += 180;
+                        }
+                    }
+                }
+                luma[y * WIDTH + x] = (byte) (sum / 16);
+            }
+        }
+        return luma;
+    }
+}
@@ -0,0 +1,53 @@
+import com.example.barcodescanner.PolarityDetector;
+import com.example.barcodescanner.SyntheticCorpus;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PolarityDetector
+ */
+public class PolarityDetectorTest {
+
+    @Test
+    void testCorpusPolarityIsRecognised() {
+        PolarityDetector detector = new PolarityDetector();
+        int correct = 0, wrong = 0, frames = 40;
+        for (SyntheticCorpus.Sample sample : new SyntheticCorpus(48).withInvertedRatio(0.5).generate(frames)) {
+            PolarityDetector.Polarity polarity = detect(detector, sample.getImage());
+            PolarityDetector.Polarity expected = sample.isInverted()
+                    ? PolarityDetector.Polarity.INVERTED : PolarityDetector.Polarity.NORMAL;
+            if (polarity == expected) {
+                correct++;
+            } else if (polarity != PolarityDetector.Polarity.UNKNOWN) {
+                wrong++;
+            }
+        }
+        assertTrue(correct >= 36, "judged " + correct + " of " + frames);
+        assertEquals(0, wrong);
+        assertEquals(frames, detector.getFrames());
+    }
+
+    @Test
+    void testFramesWithoutCodesAreUnknown() {
+        PolarityDetector detector = new PolarityDetector();
+        for (SyntheticCorpus.Sample sample : new SyntheticCorpus(49).withBlankRatio(1.0).generate(10)) {
+            assertEquals(PolarityDetector.Polarity.UNKNOWN, detect(detector, sample.getImage()));
+        }
+        assertEquals(PolarityDetector.Polarity.UNKNOWN, detector.detect(new byte[32 * 16], 32, 16));
+        assertEquals(0, detector.getInverted());
+    }
+
+    private static PolarityDetector.Polarity detect(PolarityDetector detector, BufferedImage image) {
+        // Corpus frames are grey BGR, so any channel is the luma
+        byte[] bgr = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        byte[] luma = new byte[image.getWidth() * image.getHeight()];
+        for (int i = 0; i < luma.length; i++) {
+            luma[i] = bgr[i * 3];
+        }
+        return detector.detect(luma, image.getWidth(), image.getHeight());
+    }
+}
@@ -0,0 +1,120 @@
+import com.example.barcodescanner.ResultBus;
+import com.example.barcodescanner.ScanEvent;
+import com.example.barcodescanner.ScanLatencyReport;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ResultBus
+ */
+public class ResultBusTest {
+
+    @Test
+    void testEventsReachEverySubscriberInOrder() throws Exception {
+        ResultBus bus = new ResultBus();
+        List<String> first = Collections.synchronizedList(new ArrayList<>());
+        List<String> second = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribe(events -> events.forEach(e -> first.add(e.getText())));
+        bus.subscribe(events -> events.forEach(e -> second.add(e.getText())));
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(bus.publish(new ScanEvent("code-" + i, "QR_CODE")));
+        }
+        assertTrue(bus.flush(5000));
+
+        assertEquals(100, first.size());
+        assertEquals(first, second);
+        assertEquals("code-0", first.get(0));
+        assertEquals("code-99", first.get(99));
+        assertEquals(100, bus.getDeliveryLatency().getCount());
+        bus.shutdown();
+    }
+
+    @Test
+    void testSlowSubscriberDoesNotBlockPublisher() throws Exception {
+        ResultBus bus = new ResultBus(4, ResultBus.OverflowPolicy.DROP_NEWEST, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        bus.subscribe(events -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 50; i++) {
+            bus.publish(new ScanEvent("code-" + i, "CODE_128"));
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "publish must not wait on subscribers");
+        assertTrue(bus.getDroppedCount() > 0);
+        assertTrue(bus.getMaxQueueDepth() <= 4);
+
+        release.countDown();
+        assertTrue(bus.flush(5000));
+        assertEquals(50, bus.getDeliveredCount() + bus.getDroppedCount());
+        bus.shutdown();
+    }
+
+    @Test
+    void testLatencyReportSplitsStampedEventsByStage() throws Exception {
+        ResultBus bus = new ResultBus();
+        bus.subscribe(events -> { });
+        long now = System.nanoTime();
+        long ms = TimeUnit.MILLISECONDS.toNanos(1);
+        for (int i = 0; i < 10; i++) {
+            // Captured 20ms ago, picked up 5ms later, decoded in 10ms
+            ScanEvent.Timing timing = new ScanEvent.Timing(i, now - 20 * ms, now - 15 * ms, now - 5 * ms, "Identity/Hybrid single");
+            bus.publish(new ScanEvent("code-" + i, "QR_CODE", "cam", timing));
+        }
+        bus.publish(new ScanEvent("untimed", "QR_CODE"));
+        assertTrue(bus.flush(5000));
+
+        ScanLatencyReport report = bus.getLatencyReport();
+        assertEquals(10, report.getEndToEnd().getCount());
+        assertEquals(1, report.getUntimedCount());
+        assertEquals(5 * ms, report.getQueue().getPercentileNanos(50));
+        assertEquals(10 * ms, report.getDecode().getPercentileNanos(99));
+        assertTrue(report.getEndToEnd().getPercentileNanos(50) >= 20 * ms);
+        assertEquals(10L, report.getStrategyCounts().get("Identity/Hybrid single"));
+        assertTrue(report.format().contains("capture -> callback"));
+        bus.shutdown();
+    }
+
+    @Test
+    void testShutdownDeliversQueuedEvents() throws Exception {
+        ResultBus bus = new ResultBus(256, ResultBus.OverflowPolicy.BLOCK, 8);
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribe(events -> {
+            try {
+                Thread.sleep(5); // slow enough that most events are still queued at shutdown
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.forEach(e -> received.add(e.getText()));
+        });
+        assertFalse(bus.isRunning(), "subscribing alone must not start the dispatcher");
+
+        for (int i = 0; i < 100; i++) {
+            bus.publish(new ScanEvent("code-" + i, "QR_CODE"));
+        }
+        bus.shutdown();
+
+        assertFalse(bus.isRunning());
+        assertEquals(100, received.size());
+        assertEquals(100, bus.getDeliveredCount());
+
+        // Publishing again restarts delivery
+        bus.publish(new ScanEvent("late", "QR_CODE"));
+        assertTrue(bus.flush(5000));
+        assertEquals("late", received.get(100));
+        bus.shutdown();
+    }
+}
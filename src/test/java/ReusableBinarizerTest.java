@@ -0,0 +1,149 @@
+import com.example.barcodescanner.AdaptivePreprocessor;
+import com.example.barcodescanner.LutLuminanceSource;
+import com.example.barcodescanner.ReusableBinarizer;
+import com.example.barcodescanner.SyntheticCorpus;
+import com.google.zxing.Binarizer;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.common.HybridBinarizer;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReusableBinarizer: output must match ZXing's binarizers exactly
+ */
+public class ReusableBinarizerTest {
+
+    @Test
+    void testHybridMatchesZxingOnCameraSizedFrames() throws Exception {
+        ReusableBinarizer.Workspace workspace = new ReusableBinarizer.Workspace();
+        SyntheticCorpus corpus = new SyntheticCorpus(43).withFrameSize(640, 480).withNoise(12);
+        for (SyntheticCorpus.Sample sample : corpus.generate(6)) {
+            LuminanceSource source = luma(sample.getImage());
+            assertMatrixEquals(new HybridBinarizer(source).getBlackMatrix(),
+                    new ReusableBinarizer(source, workspace).getBlackMatrix());
+        }
+        // Same size every frame: buffers allocated once
+        assertEquals(6, workspace.getFrames());
+        assertEquals(1, workspace.getReshapes());
+    }
+
+    @Test
+    void testHybridMatchesZxingOnUnalignedAndTinyFrames() throws Exception {
+        ReusableBinarizer.Workspace workspace = new ReusableBinarizer.Workspace();
+        Random random = new Random(7);
+        // Odd sizes take the overlapping-edge-block path; under 40 pixels falls back to global
+        for (int[] size : new int[][] {{203, 157}, {96, 61}, {41, 40}, {36, 50}, {640, 480}}) {
+            LuminanceSource source = gradientWithBlobs(size[0], size[1], random);
+            assertMatrixEquals(new HybridBinarizer(source).getBlackMatrix(),
+                    new ReusableBinarizer(source, workspace).getBlackMatrix());
+        }
+        assertEquals(5, workspace.getReshapes());
+    }
+
+    @Test
+    void testGlobalModeAndRowsMatchGlobalHistogramBinarizer() throws Exception {
+        ReusableBinarizer.Workspace workspace = new ReusableBinarizer.Workspace();
+        SyntheticCorpus corpus = new SyntheticCorpus(44).withFrameSize(330, 250).withNoise(20);
+        for (SyntheticCorpus.Sample sample : corpus.generate(4)) {
+            LuminanceSource source = luma(sample.getImage());
+            Binarizer expected = new GlobalHistogramBinarizer(source);
+            Binarizer actual = new ReusableBinarizer(source, workspace,
+                    AdaptivePreprocessor.BinarizerChoice.GLOBAL_HISTOGRAM);
+            assertMatrixEquals(expected.getBlackMatrix(), actual.getBlackMatrix());
+
+            BitArray row = new BitArray(source.getWidth());
+            for (int y = 0; y < source.getHeight(); y += 17) {
+                assertEquals(expected.getBlackRow(y, null), actual.getBlackRow(y, row), "row " + y);
+            }
+        }
+    }
+
+    @Test
+    void testLutSourceIsMappedIntoWorkspace() throws Exception {
+        byte[] invert = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            invert[i] = (byte) (255 - i);
+        }
+        LuminanceSource source = new LutLuminanceSource(gradientWithBlobs(320, 240, new Random(3)), invert);
+        assertMatrixEquals(new HybridBinarizer(source).getBlackMatrix(),
+                new ReusableBinarizer(source, new ReusableBinarizer.Workspace()).getBlackMatrix());
+    }
+
+    @Test
+    void testCropsDoNotShareTheWorkspaceMatrix() throws Exception {
+        ReusableBinarizer.Workspace workspace = new ReusableBinarizer.Workspace();
+        BinaryBitmap bitmap = new BinaryBitmap(new ReusableBinarizer(
+                gradientWithBlobs(320, 240, new Random(5)), workspace));
+        BitMatrix full = bitmap.getBlackMatrix();
+        BitMatrix fullCopy = full.clone();
+
+        BinaryBitmap cropped = bitmap.crop(40, 40, 200, 120);
+        assertNotSame(full, cropped.getBlackMatrix());
+        assertEquals(fullCopy, full);
+        assertEquals(1, workspace.getFrames());
+    }
+
+    @Test
+    void testFlatFrameHasNoGlobalBlackPoint() {
+        byte[] flat = new byte[64 * 64];
+        LuminanceSource source = new PlanarYUVLuminanceSource(flat, 64, 64, 0, 0, 64, 64, false);
+        assertThrows(NotFoundException.class, () -> new ReusableBinarizer(source, new ReusableBinarizer.Workspace(),
+                AdaptivePreprocessor.BinarizerChoice.GLOBAL_HISTOGRAM).getBlackMatrix());
+    }
+
+    private static void assertMatrixEquals(BitMatrix expected, BitMatrix actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                if (expected.get(x, y) != actual.get(x, y)) {
+                    fail("pixel (" + x + ", " + y + ") differs");
+                }
+            }
+        }
+    }
+
+    private static LuminanceSource luma(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        byte[] data = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                data[y * width + x] = (byte) (image.getRGB(x, y) & 0xFF);
+            }
+        }
+        return new PlanarYUVLuminanceSource(data, width, height, 0, 0, width, height, false);
+    }
+
+    /**
+     * Lighting gradient with dark blobs and flat patches, so both black-point rules are hit
+     */
+    private static LuminanceSource gradientWithBlobs(int width, int height, Random random) {
+        byte[] data = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int value = 90 + 120 * x / width;
+                if (((x / 13) + (y / 11)) % 3 == 0) {
+                    value -= 70;
+                }
+                if (y > height / 2 && x < width / 4) {
+                    value = 128; // flat region
+                } else {
+                    value += random.nextInt(15) - 7;
+                }
+                data[y * width + x] = (byte) Math.max(0, Math.min(255, value));
+            }
+        }
+        return new PlanarYUVLuminanceSource(data, width, height, 0, 0, width, height, false);
+    }
+}
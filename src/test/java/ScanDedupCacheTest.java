@@ -0,0 +1,66 @@
+import com.example.barcodescanner.ScanDedupCache;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ScanDedupCache
+ */
+public class ScanDedupCacheTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void testAlternatingCodesAreEachReportedOnce() {
+        ScanDedupCache cache = new ScanDedupCache(2000);
+
+        assertTrue(cache.tryAccept("EAN_13", "4006381333931", 0));
+        assertTrue(cache.tryAccept("QR_CODE", "hello", 100 * MS));
+
+        // Alternating between the two codes must not defeat the cooldown
+        for (int i = 2; i < 20; i++) {
+            String text = i % 2 == 0 ? "4006381333931" : "hello";
+            String format = i % 2 == 0 ? "EAN_13" : "QR_CODE";
+            assertFalse(cache.tryAccept(format, text, i * 100 * MS));
+        }
+
+        assertEquals(2, cache.getAcceptedCount());
+        assertEquals(18, cache.getSuppressedCount());
+    }
+
+    @Test
+    void testCodeIsReportedAgainAfterLeavingView() {
+        ScanDedupCache cache = new ScanDedupCache(2000);
+
+        assertTrue(cache.tryAccept("CODE_128", "ABC", 0));
+        // Still in view: each sighting extends the window
+        assertFalse(cache.tryAccept("CODE_128", "ABC", 1500 * MS));
+        assertFalse(cache.tryAccept("CODE_128", "ABC", 3000 * MS));
+        // Out of view for longer than the cooldown
+        assertTrue(cache.tryAccept("CODE_128", "ABC", 5500 * MS));
+    }
+
+    @Test
+    void testSameTextDifferentFormatIsDistinct() {
+        ScanDedupCache cache = new ScanDedupCache(2000);
+
+        assertTrue(cache.tryAccept("CODE_128", "12345", 0));
+        assertTrue(cache.tryAccept("CODE_39", "12345", 0));
+    }
+
+    @Test
+    void testLeastRecentlySeenEntryIsEvicted() {
+        ScanDedupCache cache = new ScanDedupCache(2000, 2);
+
+        cache.tryAccept("QR_CODE", "a", 0);
+        cache.tryAccept("QR_CODE", "b", 0);
+        cache.tryAccept("QR_CODE", "a", 10 * MS);
+        cache.tryAccept("QR_CODE", "c", 20 * MS);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictedCount());
+        // "b" was evicted, so it is treated as new
+        assertTrue(cache.tryAccept("QR_CODE", "b", 30 * MS));
+        assertFalse(cache.tryAccept("QR_CODE", "c", 40 * MS));
+    }
+}
@@ -0,0 +1,126 @@
+import com.example.barcodescanner.ScanHistory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ScanHistory
+ */
+public class ScanHistoryTest {
+
+    private static List<String> texts(List<ScanHistory.Entry> rows) {
+        List<String> texts = new ArrayList<>();
+        for (ScanHistory.Entry row : rows) {
+            texts.add(row.getText());
+        }
+        return texts;
+    }
+
+    @Test
+    void testRowsAreKeptOldestFirst() {
+        ScanHistory history = new ScanHistory(5);
+        history.addScan("QR_CODE", "a", null);
+        history.addMessage("camera started");
+        history.addScan("EAN_13", "4006381333931", "left");
+
+        assertEquals(3, history.size());
+        assertEquals(List.of("a", "camera started", "4006381333931"), texts(history.snapshot()));
+        assertFalse(history.get(0).isMessage());
+        assertTrue(history.get(1).isMessage());
+        assertNull(history.get(1).getFormat());
+        assertEquals("left", history.get(2).getDetail());
+    }
+
+    @Test
+    void testOverflowDropsOldestRows() {
+        ScanHistory history = new ScanHistory(3);
+        for (int i = 0; i < 8; i++) {
+            history.addScan("QR_CODE", "row" + i, null);
+        }
+
+        assertEquals(3, history.size());
+        assertEquals(3, history.getCapacity());
+        assertEquals(8, history.getTotalAdded());
+        assertEquals(List.of("row5", "row6", "row7"), texts(history.snapshot()));
+        assertEquals("row5", history.get(0).getText());
+        assertEquals("row7", history.get(2).getText());
+        assertThrows(IndexOutOfBoundsException.class, () -> history.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> history.get(-1));
+    }
+
+    @Test
+    void testClearEmptiesAndRefillsInOrder() {
+        ScanHistory history = new ScanHistory(3);
+        for (int i = 0; i < 5; i++) {
+            history.addScan("QR_CODE", "old" + i, null);
+        }
+        history.clear();
+
+        assertEquals(0, history.size());
+        assertTrue(history.snapshot().isEmpty());
+        assertEquals(5, history.getTotalAdded(), "clear does not forget the running total");
+
+        // The ring starts over from the front after a clear
+        for (int i = 0; i < 4; i++) {
+            history.addScan("QR_CODE", "new" + i, null);
+        }
+        assertEquals(List.of("new1", "new2", "new3"), texts(history.snapshot()));
+    }
+
+    @Test
+    void testVersionChangesWithContents() {
+        ScanHistory history = new ScanHistory(2);
+        long version = history.getVersion();
+        assertEquals(version, history.getVersion(), "polling does not change the version");
+
+        history.addScan("QR_CODE", "a", null);
+        assertNotEquals(version, history.getVersion());
+        version = history.getVersion();
+
+        // Overwriting a row when full is still a change
+        history.addScan("QR_CODE", "b", null);
+        history.addScan("QR_CODE", "c", null);
+        assertNotEquals(version, history.getVersion());
+        version = history.getVersion();
+
+        history.snapshot();
+        history.get(0);
+        assertEquals(version, history.getVersion());
+
+        history.clear();
+        assertNotEquals(version, history.getVersion());
+    }
+
+    @Test
+    void testConcurrentAddsAreAllCounted() throws Exception {
+        ScanHistory history = new ScanHistory(50);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    history.addScan("QR_CODE", "x", null);
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(4000, history.getTotalAdded());
+        assertEquals(50, history.size());
+        for (ScanHistory.Entry row : history.snapshot()) {
+            assertNotNull(row);
+        }
+    }
+
+    @Test
+    void testCapacityMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new ScanHistory(0));
+        assertEquals(ScanHistory.DEFAULT_CAPACITY, new ScanHistory().getCapacity());
+    }
+}
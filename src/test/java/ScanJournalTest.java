@@ -0,0 +1,221 @@
+import com.example.barcodescanner.ResultBus;
+import com.example.barcodescanner.ScanEvent;
+import com.example.barcodescanner.ScanJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ScanJournal
+ */
+public class ScanJournalTest {
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void testIndexSurvivesReopenAcrossSegments() throws Exception {
+        // Small segments so the scans roll over several files
+        try (ScanJournal journal = new ScanJournal(journalDir, 2048)) {
+            for (int i = 0; i < 200; i++) {
+                ScanEvent.Timing timing = new ScanEvent.Timing(i, 1_000, 2_000, 3_000, "Identity/Hybrid single");
+                journal.append(new ScanEvent("CODE-" + (i % 10), "CODE_128", "lane-" + (i % 2),
+                        10_000L + i, 6_000, timing));
+            }
+            journal.commit();
+            assertTrue(journal.getSegmentCount() > 3, "scans should span several segments");
+            assertEquals(20, journal.findByCode("CODE-3").size());
+        }
+
+        try (ScanJournal journal = new ScanJournal(journalDir, 2048)) {
+            List<ScanJournal.Entry> code = journal.findByCode("CODE-3");
+            assertEquals(20, code.size());
+            ScanJournal.Entry first = code.get(0);
+            assertEquals(3, first.getSequence());
+            assertEquals(10_003L, first.getTimestampMillis());
+            assertEquals("lane-1", first.getCamera());
+            assertEquals("CODE_128", first.getFormat());
+            assertEquals(5_000, first.getLatencyNanos());
+            assertTrue(journal.findByCode("CODE-X").isEmpty());
+
+            List<ScanJournal.Entry> range = journal.findByTime(10_050, 10_150);
+            assertEquals(100, range.size());
+            assertEquals(50, range.get(0).getSequence());
+            assertEquals(149, range.get(99).getSequence());
+
+            // Numbering carries on from the earlier run
+            journal.append(new ScanEvent("late", "QR_CODE", null, 10_100, 0));
+            assertEquals(201, journal.getSequence());
+            ScanJournal.Entry late = journal.findByCode("late").get(0);
+            assertEquals(200, late.getSequence());
+            assertNull(late.getCamera());
+            assertEquals(-1, late.getLatencyNanos());
+            assertEquals(101, journal.findByTime(10_050, 10_150).size());
+        }
+    }
+
+    @Test
+    void testTornRecordIsDroppedOnReopen() throws Exception {
+        try (ScanJournal journal = new ScanJournal(journalDir)) {
+            journal.append(new ScanEvent("kept", "EAN_13", "lane-1", 1_000, 0));
+            journal.append(new ScanEvent("torn", "EAN_13", "lane-1", 2_000, 0));
+            journal.commit();
+        }
+        // Damage the last record's text, as a crash mid-write would
+        Path segment;
+        try (var files = Files.list(journalDir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(segment);
+        int torn = new String(bytes, "ISO-8859-1").indexOf("torn");
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(torn);
+            file.write('T');
+        }
+
+        try (ScanJournal journal = new ScanJournal(journalDir)) {
+            assertEquals(1, journal.findByCode("kept").size());
+            assertTrue(journal.findByCode("torn").isEmpty());
+            assertTrue(journal.findByCode("Torn").isEmpty());
+            assertEquals(1, journal.getSequence());
+        }
+    }
+
+    @Test
+    void testCompactionPacksSegmentsAndAppliesRetention() throws Exception {
+        // Each run leaves one sparse, full-size segment
+        for (int run = 0; run < 4; run++) {
+            try (ScanJournal journal = new ScanJournal(journalDir, 64 * 1024)) {
+                for (int i = 0; i < 10; i++) {
+                    journal.append(new ScanEvent("run-" + run, "QR_CODE", "lane-1", run * 1_000L + i, 0));
+                }
+            }
+        }
+
+        try (ScanJournal journal = new ScanJournal(journalDir, 64 * 1024)) {
+            // The active segment is created by the first append
+            assertEquals(4, journal.getSegmentCount());
+            journal.append(new ScanEvent("active", "QR_CODE", "lane-1", 5_000, 0));
+            assertEquals(5, journal.getSegmentCount());
+
+            // Drop the first run; the rest fit in one packed segment next to the active one
+            long freed = journal.compact(1_000);
+            assertTrue(freed > 3 * 64 * 1024, "freed " + freed);
+            assertEquals(2, journal.getSegmentCount());
+            assertTrue(journal.findByCode("run-0").isEmpty());
+            assertEquals(10, journal.findByCode("run-3").size());
+            assertEquals(1, journal.findByCode("active").size());
+            assertEquals(31, journal.findByTime(0, Long.MAX_VALUE).size());
+
+            journal.append(new ScanEvent("after", "QR_CODE", "lane-1", 6_000, 0));
+            assertEquals(42, journal.getSequence());
+        }
+
+        try (ScanJournal journal = new ScanJournal(journalDir, 64 * 1024)) {
+            assertEquals(32, journal.findByTime(0, Long.MAX_VALUE).size());
+            assertEquals(41, journal.findByCode("after").get(0).getSequence());
+        }
+    }
+
+    @Test
+    void testEmptyRunLeavesNoSegment() throws Exception {
+        try (ScanJournal journal = new ScanJournal(journalDir)) {
+            journal.roll();
+            assertEquals(0, journal.getSegmentCount());
+        }
+        try (var files = Files.list(journalDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testInputsLeftByCompactionAreIgnoredOnReopen() throws Exception {
+        for (int run = 0; run < 3; run++) {
+            try (ScanJournal journal = new ScanJournal(journalDir, 64 * 1024)) {
+                for (int i = 0; i < 10; i++) {
+                    journal.append(new ScanEvent("run-" + run, "QR_CODE", "lane-1", run * 1_000L + i, 0));
+                }
+            }
+        }
+        Path saved = Files.createDirectory(journalDir.resolve("saved"));
+        List<Path> inputs = new ArrayList<>();
+        try (var files = Files.list(journalDir)) {
+            files.filter(Files::isRegularFile).forEach(inputs::add);
+        }
+        for (Path input : inputs) {
+            Files.copy(input, saved.resolve(input.getFileName()));
+        }
+
+        try (ScanJournal journal = new ScanJournal(journalDir, 64 * 1024)) {
+            journal.compact(1_000);
+            assertEquals(1, journal.getSegmentCount());
+        }
+        // As if the inputs could not be deleted: still mapped on Windows, or a crash
+        for (Path input : inputs) {
+            Files.copy(saved.resolve(input.getFileName()), input);
+        }
+
+        try (ScanJournal journal = new ScanJournal(journalDir, 64 * 1024)) {
+            assertEquals(1, journal.getSegmentCount());
+            assertTrue(journal.findByCode("run-0").isEmpty(), "records past retention came back");
+            assertEquals(10, journal.findByCode("run-2").size());
+            assertEquals(20, journal.findByTime(0, Long.MAX_VALUE).size());
+            journal.append(new ScanEvent("next", "QR_CODE", "lane-1", 9_000, 0));
+            assertEquals(30, journal.findByCode("next").get(0).getSequence());
+        }
+        for (Path input : inputs) {
+            assertFalse(Files.exists(input), input + " was not deleted");
+        }
+    }
+
+    @Test
+    void testBusBatchesAreGroupCommitted() throws Exception {
+        ResultBus bus = new ResultBus();
+        try (ScanJournal journal = new ScanJournal(journalDir)) {
+            bus.subscribe(journal);
+            bus.start();
+            List<ScanEvent> events = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                events.add(new ScanEvent("code-" + i, "CODE_39", "lane-1"));
+            }
+            for (ScanEvent event : events) {
+                assertTrue(bus.publish(event));
+            }
+            assertTrue(bus.flush(5000));
+
+            assertEquals(500, journal.getEventCount());
+            assertEquals(bus.getBatchCount(), journal.getCommitCount());
+            assertEquals(1, journal.findByCode("code-499").size());
+        } finally {
+            bus.shutdown();
+        }
+    }
+
+    @Test
+    void testBadEventDoesNotAbortTheBatch() throws Exception {
+        try (ScanJournal journal = new ScanJournal(journalDir, 2048)) {
+            journal.onScanEvents(List.of(
+                    new ScanEvent("before", "QR_CODE", "lane-1"),
+                    new ScanEvent("x".repeat(70_000), "QR_CODE", "lane-1"), // field over 64 KB
+                    new ScanEvent("y".repeat(3_000), "QR_CODE", "lane-1"),  // record over a segment
+                    new ScanEvent("after", "QR_CODE", "lane-1")));
+
+            assertEquals(2, journal.getSkippedCount());
+            assertEquals(2, journal.getEventCount());
+            assertEquals(1, journal.getCommitCount());
+            assertEquals(0, journal.findByCode("before").get(0).getSequence());
+            assertEquals(1, journal.findByCode("after").get(0).getSequence());
+        }
+
+        try (ScanJournal journal = new ScanJournal(journalDir, 2048)) {
+            assertEquals(2, journal.findByTime(0, Long.MAX_VALUE).size());
+        }
+    }
+}
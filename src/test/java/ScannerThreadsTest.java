@@ -0,0 +1,36 @@
+import com.example.barcodescanner.ScannerThreads;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ScannerThreads
+ */
+public class ScannerThreadsTest {
+    
+    @Test
+    void testThreadsAreNamedDaemonsInEitherMode() throws Exception {
+        String[] seen = new String[1];
+        Thread thread = ScannerThreads.newThread("Camera-test", () -> seen[0] = Thread.currentThread().getName());
+        assertEquals("Camera-test", thread.getName());
+        assertTrue(thread.isDaemon());
+        assertFalse(thread.isAlive());
+        
+        thread.start();
+        thread.join(5000);
+        assertEquals("Camera-test", seen[0]);
+        
+        ExecutorService executor = ScannerThreads.newPerTaskExecutor("Batch-test");
+        try {
+            String name = executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+            assertTrue(name.startsWith("Batch-test-"));
+        } finally {
+            executor.shutdown();
+        }
+        
+        assertTrue(!ScannerThreads.isVirtual() || ScannerThreads.isVirtualSupported());
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.barcodescanner;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CameraChannel, on a stub webcam; the channel API is package-private
+ */
+public class CameraChannelTest {
+
+    private CameraChannel channel;
+    private StubWebcam webcam;
+
+    @AfterEach
+    void tearDown() {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private CameraChannel open(String name) {
+        webcam = new StubWebcam(name, StubWebcam.scene(null));
+        channel = new CameraChannel(webcam, FrameRecorder.PixelFormat.LUMA, null);
+        channel.open();
+        return channel;
+    }
+
+    private static void awaitFrames(CameraChannel channel, long published) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (channel.getFrameRing().getPublished() < published) {
+            assertTrue(System.nanoTime() < deadline, "camera published no frames");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void testCapturedFramesReachTheRing() throws Exception {
+        CameraChannel channel = open("stub");
+        awaitFrames(channel, 2);
+
+        FrameRing.Reader reader = new FrameRing.Reader();
+        assertTrue(channel.pollFrame(0, reader));
+        assertEquals(StubWebcam.SIZE.width, reader.getImage().getWidth());
+        assertNotNull(channel.getCurrentFrame());
+        assertTrue(channel.getFramesCaptured() >= 2);
+    }
+
+    @Test
+    void testDecodeIntervalIsClaimedByOneWorker() throws Exception {
+        CameraChannel channel = open("stub");
+        awaitFrames(channel, 1);
+
+        // Workers race for the camera for a third of a second with a 100 ms interval
+        long interval = TimeUnit.MILLISECONDS.toNanos(100);
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(330);
+        AtomicInteger claimed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread worker = new Thread(() -> {
+                FrameRing.Reader reader = new FrameRing.Reader();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.nanoTime() < end) {
+                    if (channel.pollFrame(interval, reader)) {
+                        claimed.incrementAndGet();
+                    }
+                    Thread.yield();
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertTrue(claimed.get() >= 1, "nobody decoded the camera");
+        assertTrue(claimed.get() <= 4, "decoded " + claimed.get() + " times in three intervals");
+    }
+
+    @Test
+    void testPollWithoutNewFrameKeepsTheCameraDue() throws Exception {
+        CameraChannel channel = open("stub");
+        channel.setStandby(true);
+        FrameRing.Reader reader = new FrameRing.Reader();
+        long interval = TimeUnit.SECONDS.toNanos(10);
+        assertFalse(channel.pollFrame(interval, reader), "standby discards the ring");
+
+        // The failed poll must not have used up the interval
+        long published = channel.getFrameRing().getPublished();
+        channel.setStandby(false);
+        awaitFrames(channel, published + 1);
+        assertTrue(channel.pollFrame(interval, reader));
+        assertFalse(channel.pollFrame(interval, reader));
+    }
+
+    @Test
+    void testStandbyDiscardsRingAndSlowsCapture() throws Exception {
+        CameraChannel channel = open("stub");
+        awaitFrames(channel, 2);
+
+        channel.setStandby(true);
+        assertTrue(channel.isStandby());
+        assertFalse(channel.pollFrame(0, new FrameRing.Reader()), "queued frames must not be decoded after standby");
+
+        // Keep-alive grabs only: about one a second instead of thirty
+        int grabs = webcam.getGrabs();
+        long captured = channel.getFramesCaptured();
+        Thread.sleep(500);
+        assertTrue(webcam.getGrabs() - grabs <= 2, "grabbed " + (webcam.getGrabs() - grabs) + " frames in standby");
+        assertEquals(captured, channel.getFramesCaptured());
+    }
+
+    @Test
+    void testGrabInProgressAtStandbyIsNotDecoded() throws Exception {
+        CameraChannel channel = open("stub");
+        awaitFrames(channel, 1);
+        webcam.setGrabDelay(200);
+
+        // Enter standby while a full-rate grab is stuck in the driver
+        int grabs = webcam.getGrabs();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+        while (webcam.getGrabs() == grabs) {
+            assertTrue(System.nanoTime() < deadline, "no grab");
+            Thread.sleep(1);
+        }
+        long captured = channel.getFramesCaptured();
+        channel.setStandby(true);
+
+        Thread.sleep(300);
+        assertEquals(captured, channel.getFramesCaptured());
+        assertFalse(channel.pollFrame(0, new FrameRing.Reader()), "the late frame reached the ring");
+    }
+
+    @Test
+    void testCloseWaitsForGrabInProgress() throws Exception {
+        CameraChannel channel = open("stub");
+        awaitFrames(channel, 1);
+        webcam.setGrabDelay(300);
+        channel.setStandby(true);
+
+        // Close while a keep-alive grab is stuck in the driver
+        int grabs = webcam.getGrabs();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+        while (webcam.getGrabs() == grabs) {
+            assertTrue(System.nanoTime() < deadline, "no keep-alive grab");
+            Thread.sleep(5);
+        }
+        channel.close();
+
+        // The grab finishing late must not leave its frame in the released slot
+        Thread.sleep(400);
+        assertNull(channel.getCurrentFrame());
+        assertFalse(channel.isRunning());
+        assertEquals(grabs + 1, webcam.getGrabs(), "capture went on after close");
+    }
+}
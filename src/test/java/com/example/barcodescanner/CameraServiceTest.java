@@ -0,0 +1,136 @@
+package com.example.barcodescanner;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CameraService and the decode scheduling across its cameras, on stub webcams
+ */
+public class CameraServiceTest {
+
+    private CameraService service;
+    private BarcodeDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        service = new CameraService();
+        detector = new BarcodeDetector();
+    }
+
+    @AfterEach
+    void tearDown() {
+        detector.close();
+        service.stopCamera();
+    }
+
+    private static BufferedImage qrScene(String text) throws Exception {
+        return StubWebcam.scene(MatrixToImageWriter.toBufferedImage(
+                new QRCodeWriter().encode(text, BarcodeFormat.QR_CODE, 200, 200)));
+    }
+
+    @Test
+    void testEveryCameraIsDecodedBySharedWorkers() throws Exception {
+        CameraChannel left = service.openChannel(new StubWebcam("left", qrScene("left-code")));
+        CameraChannel right = service.openChannel(new StubWebcam("right", qrScene("right-code")));
+        CameraChannel third = service.openChannel(new StubWebcam("third", qrScene("third-code")));
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        detector.setBarcodeDetectedCallback((text, format) -> seen.add(text));
+
+        // Fewer workers than cameras, so the round robin has to share them out
+        detector.setDecodeThreads(2);
+        detector.setDecodeInterval(50);
+        detector.startDetection(service);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (seen.size() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        detector.stopDetection();
+
+        assertEquals(Set.of("left-code", "right-code", "third-code"), seen);
+        for (CameraChannel channel : service.getChannels()) {
+            assertTrue(channel.getFramesDecoded() > 0, channel.getName() + " was never decoded");
+            assertTrue(channel.getScansReported() >= 1, channel.getName() + " reported no scans");
+        }
+        assertSame(left, service.getChannel("left"));
+        assertSame(right, service.getChannel("right"));
+        assertSame(third, service.getChannel("third"));
+    }
+
+    @Test
+    void testDecodeIntervalLimitsEachCamera() throws Exception {
+        CameraChannel channel = service.openChannel(new StubWebcam("only", qrScene("code")));
+        detector.setDecodeThreads(2);
+        detector.setDecodeInterval(200);
+        detector.startDetection(service);
+        Thread.sleep(700);
+        detector.stopDetection();
+
+        // Frames arrive every 33 ms, but the camera is due only every 200 ms
+        long decoded = channel.getFramesDecoded();
+        assertTrue(decoded >= 1 && decoded <= 4, "decoded " + decoded + " frames in 700 ms");
+        assertTrue(channel.getFramesCaptured() > decoded);
+    }
+
+    @Test
+    void testStandbySuspendsAndResumeRestartsCapture() throws Exception {
+        service.setStandbyTimeout(10_000);
+        CameraChannel channel = service.openChannel(new StubWebcam("cam", qrScene("code")));
+        assertTrue(service.isRunning());
+
+        service.standby();
+        assertTrue(service.isStandby());
+        assertFalse(service.isRunning());
+        long captured = channel.getFramesCaptured();
+        Thread.sleep(200);
+        assertEquals(captured, channel.getFramesCaptured());
+
+        // startCamera resumes the open devices instead of reopening them
+        service.startCamera(null);
+        assertFalse(service.isStandby());
+        assertTrue(service.isRunning());
+        assertSame(channel, service.getChannel("cam"));
+        Thread.sleep(200);
+        assertTrue(channel.getFramesCaptured() > captured, "capture did not resume");
+        assertFalse(service.resume(), "nothing left in standby");
+    }
+
+    @Test
+    void testStandbyTimeoutClosesCameras() throws Exception {
+        service.setStandbyTimeout(100);
+        CameraChannel channel = service.openChannel(new StubWebcam("cam", qrScene("code")));
+        service.standby();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!service.getChannels().isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(service.getChannels().isEmpty(), "standby did not time out");
+        assertFalse(channel.isRunning());
+        assertFalse(service.isStandby());
+        assertFalse(service.resume(), "expired cameras cannot be resumed");
+    }
+
+    @Test
+    void testResumeCancelsStandbyTimeout() throws Exception {
+        service.setStandbyTimeout(200);
+        CameraChannel channel = service.openChannel(new StubWebcam("cam", qrScene("code")));
+        service.standby();
+        assertTrue(service.resume());
+
+        Thread.sleep(400);
+        assertSame(channel, service.getChannel("cam"));
+        assertTrue(channel.isRunning());
+        assertTrue(service.isRunning());
+    }
+}
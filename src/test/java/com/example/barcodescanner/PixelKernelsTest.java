@@ -0,0 +1,96 @@
+package com.example.barcodescanner;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * Unit tests for PixelKernels; the kernels are package-private, so this lives in their package.
+ * The vector comparisons only run in a build with the vector profile (mvn -Pvector test).
+ */
+public class PixelKernelsTest {
+
+    private final PixelKernels scalar = new PixelKernels.Scalar();
+
+    private static PixelKernels vectorKernels() {
+        PixelKernels kernels = PixelKernels.select();
+        assumeFalse(kernels instanceof PixelKernels.Scalar, "vector kernels not built or module not added");
+        return kernels;
+    }
+
+    /**
+     * Random pixels with the values either side of the signed-byte flip mixed in
+     */
+    private static byte[] pixels(int length, long seed) {
+        Random random = new Random(seed);
+        byte[] luma = new byte[length];
+        random.nextBytes(luma);
+        int[] edges = {0, 1, 127, 128, 254, 255};
+        for (int i = 0; i < length; i += 7) {
+            luma[i] = (byte) edges[random.nextInt(edges.length)];
+        }
+        return luma;
+    }
+
+    @Test
+    void testBlockStatsMatchScalar() {
+        PixelKernels vector = vectorKernels();
+        // Widths that are not multiples of the 32-lane vector leave a scalar tail
+        int[][] sizes = {{8, 8}, {24, 16}, {40, 8}, {72, 24}, {200, 56}, {648, 480}};
+        for (int[] size : sizes) {
+            int width = size[0], height = size[1];
+            byte[] luma = pixels(width * height, width * 31L + height);
+            int blocks = (width / 8) * (height / 8);
+            int[] sums = new int[blocks], mins = new int[blocks], maxs = new int[blocks];
+            int[] vSums = new int[blocks], vMins = new int[blocks], vMaxs = new int[blocks];
+
+            scalar.blockStats(luma, width, height, sums, mins, maxs);
+            vector.blockStats(luma, width, height, vSums, vMins, vMaxs);
+
+            String label = width + "x" + height;
+            assertArrayEquals(sums, vSums, "sums " + label);
+            assertArrayEquals(mins, vMins, "mins " + label);
+            assertArrayEquals(maxs, vMaxs, "maxs " + label);
+        }
+    }
+
+    @Test
+    void testThresholdRowMatchesScalar() {
+        PixelKernels vector = vectorKernels();
+        // Odd row offsets so loads do not start on a vector boundary
+        int[] widths = {32, 64, 96, 640};
+        int[] offsets = {0, 1, 3, 17, 33};
+        for (int width : widths) {
+            byte[] thresholds = pixels(width, width);
+            for (int offset : offsets) {
+                byte[] luma = pixels(offset + width + 5, width * 7L + offset);
+                int[] words = new int[width / 32];
+                int[] vWords = new int[width / 32];
+
+                scalar.thresholdRow(luma, offset, thresholds, width, words);
+                vector.thresholdRow(luma, offset, thresholds, width, vWords);
+
+                assertArrayEquals(words, vWords, "width " + width + " offset " + offset);
+            }
+        }
+    }
+
+    @Test
+    void testScalarThresholdRowPacksBitsLowFirst() {
+        byte[] luma = new byte[32];
+        byte[] thresholds = new byte[32];
+        Arrays.fill(luma, (byte) 200);
+        Arrays.fill(thresholds, (byte) 128);
+        luma[0] = (byte) 128;  // equal to the threshold counts as black
+        luma[31] = 10;
+        int[] words = new int[1];
+
+        scalar.thresholdRow(luma, 0, thresholds, 32, words);
+
+        assertEquals(1 | (1 << 31), words[0]);
+    }
+}
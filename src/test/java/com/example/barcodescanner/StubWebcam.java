@@ -0,0 +1,155 @@
+package com.example.barcodescanner;
+
+import com.github.sarxos.webcam.Webcam;
+import com.github.sarxos.webcam.WebcamDevice;
+import com.github.sarxos.webcam.WebcamDriver;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A webcam with no hardware behind it, for testing channels and the camera service.
+ * Every grab returns a copy of the scene; {@link #getGrabs()} counts them.
+ *
+ * Webcam needs a driver to open a device, so loading this class installs one with no
+ * devices of its own; stubs are never found by enumeration.
+ */
+class StubWebcam extends Webcam {
+
+    static final Dimension SIZE = new Dimension(640, 480);
+
+    static {
+        Webcam.setDriver(new WebcamDriver() {
+            @Override
+            public List<WebcamDevice> getDevices() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public boolean isThreadSafe() {
+                return true;
+            }
+        });
+    }
+
+    private final Device device;
+
+    StubWebcam(String name, BufferedImage scene) {
+        this(new Device(name, scene));
+    }
+
+    private StubWebcam(Device device) {
+        super(device);
+        this.device = device;
+        // No lock files in the temp directory for a device that does not exist
+        getLock().disable();
+    }
+
+    void setScene(BufferedImage scene) {
+        device.scene.set(scene);
+    }
+
+    int getGrabs() {
+        return device.grabs.get();
+    }
+
+    /**
+     * Make every grab take this long, ignoring interrupts like a driver blocked in native code
+     */
+    void setGrabDelay(long millis) {
+        device.grabDelayMillis = millis;
+    }
+
+    /**
+     * A blank 640x480 frame with the image drawn in its centre
+     */
+    static BufferedImage scene(BufferedImage content) {
+        BufferedImage frame = new BufferedImage(SIZE.width, SIZE.height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = frame.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, SIZE.width, SIZE.height);
+        if (content != null) {
+            g.drawImage(content, (SIZE.width - content.getWidth()) / 2, (SIZE.height - content.getHeight()) / 2, null);
+        }
+        g.dispose();
+        return frame;
+    }
+
+    private static class Device implements WebcamDevice {
+        private final String name;
+        private final AtomicReference<BufferedImage> scene;
+        private final AtomicInteger grabs = new AtomicInteger();
+        private volatile boolean open;
+        private volatile long grabDelayMillis;
+
+        Device(String name, BufferedImage scene) {
+            this.name = name;
+            this.scene = new AtomicReference<>(scene);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Dimension[] getResolutions() {
+            return new Dimension[] {SIZE};
+        }
+
+        @Override
+        public Dimension getResolution() {
+            return SIZE;
+        }
+
+        @Override
+        public void setResolution(Dimension size) {
+        }
+
+        @Override
+        public BufferedImage getImage() {
+            grabs.incrementAndGet();
+            long end = System.nanoTime() + grabDelayMillis * 1_000_000L;
+            boolean interrupted = false;
+            for (long left; (left = end - System.nanoTime()) > 0; ) {
+                try {
+                    Thread.sleep(Math.max(1, left / 1_000_000L));
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            BufferedImage source = scene.get();
+            BufferedImage copy = new BufferedImage(source.getWidth(), source.getHeight(), source.getType());
+            copy.setData(source.getRaster());
+            return copy;
+        }
+
+        @Override
+        public void open() {
+            open = true;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+
+        @Override
+        public void dispose() {
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+    }
+}
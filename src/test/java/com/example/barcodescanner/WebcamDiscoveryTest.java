@@ -0,0 +1,167 @@
+package com.example.barcodescanner;
+
+import com.github.sarxos.webcam.Webcam;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WebcamDiscovery, with a scripted enumerator in place of the driver
+ */
+public class WebcamDiscoveryTest {
+
+    /**
+     * Returns the current device list; can be held mid-enumeration
+     */
+    private static class ScriptedEnumerator implements WebcamDiscovery.Enumerator {
+        final AtomicReference<List<Webcam>> devices = new AtomicReference<>(Collections.emptyList());
+        final AtomicInteger calls = new AtomicInteger();
+        volatile CountDownLatch entered = new CountDownLatch(1);
+        volatile CountDownLatch release = new CountDownLatch(0);
+
+        @Override
+        public List<Webcam> getWebcams(long timeoutMillis) throws TimeoutException {
+            calls.incrementAndGet();
+            List<Webcam> listed = devices.get();
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return listed;
+        }
+
+        void hold() {
+            entered = new CountDownLatch(1);
+            release = new CountDownLatch(1);
+        }
+    }
+
+    private static Webcam webcam(String name) {
+        return new StubWebcam(name, StubWebcam.scene(null));
+    }
+
+    private static List<String> names(List<WebcamDiscovery.Inventory> inventories) {
+        List<String> names = new ArrayList<>();
+        for (WebcamDiscovery.Inventory inventory : inventories) {
+            names.add(String.join(",", inventory.getNames()));
+        }
+        return names;
+    }
+
+    /**
+     * Wait until everything queued on the discovery thread so far has run: a listener
+     * added now hears the cached inventory after all of it
+     */
+    private static void settle(WebcamDiscovery discovery) throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        discovery.addListener(inventory -> done.countDown());
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testInventoryIsCachedAndDescribesDevices() throws Exception {
+        ScriptedEnumerator enumerator = new ScriptedEnumerator();
+        enumerator.devices.set(List.of(webcam("front"), webcam("side")));
+        WebcamDiscovery discovery = new WebcamDiscovery(enumerator);
+        assertNull(discovery.getInventory());
+
+        WebcamDiscovery.Inventory inventory = discovery.awaitInventory();
+        assertNull(inventory.getError());
+        assertArrayEquals(new String[] {"front", "side"}, inventory.getNames());
+        assertEquals("front", inventory.getDefaultDevice().getName());
+        assertEquals(List.of(StubWebcam.SIZE), inventory.getDevice("side").getViewSizes());
+        assertSame(inventory, discovery.getInventory());
+
+        // Asking again does not enumerate again
+        assertSame(inventory, discovery.discover().get());
+        assertEquals(1, enumerator.calls.get());
+    }
+
+    @Test
+    void testTimeoutIsReportedAsAnEmptyInventory() {
+        WebcamDiscovery discovery = new WebcamDiscovery(timeout -> {
+            throw new TimeoutException();
+        });
+        discovery.setTimeoutMillis(50);
+        WebcamDiscovery.Inventory inventory = discovery.awaitInventory();
+        assertTrue(inventory.isEmpty());
+        assertTrue(inventory.getError().contains("timed out"));
+        assertNull(inventory.getDefaultWebcam());
+    }
+
+    @Test
+    void testListenerAddedDuringEnumerationHearsItOnce() throws Exception {
+        ScriptedEnumerator enumerator = new ScriptedEnumerator();
+        enumerator.devices.set(List.of(webcam("front")));
+        enumerator.hold();
+        WebcamDiscovery discovery = new WebcamDiscovery(enumerator);
+        List<WebcamDiscovery.Inventory> heard = Collections.synchronizedList(new ArrayList<>());
+
+        CompletableFuture<WebcamDiscovery.Inventory> first = discovery.discover();
+        assertTrue(enumerator.entered.await(5, TimeUnit.SECONDS));
+        discovery.addListener(heard::add);
+        enumerator.release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        settle(discovery);
+
+        assertEquals(List.of("front"), names(heard));
+    }
+
+    @Test
+    void testListenersHearOnlyChanges() throws Exception {
+        ScriptedEnumerator enumerator = new ScriptedEnumerator();
+        enumerator.devices.set(List.of(webcam("front")));
+        WebcamDiscovery discovery = new WebcamDiscovery(enumerator);
+        discovery.awaitInventory();
+        List<WebcamDiscovery.Inventory> heard = Collections.synchronizedList(new ArrayList<>());
+        WebcamDiscovery.Listener listener = heard::add;
+        discovery.addListener(listener);
+
+        // Same devices: nothing new to hear
+        discovery.refresh().get(5, TimeUnit.SECONDS);
+        enumerator.devices.set(List.of(webcam("front"), webcam("side")));
+        discovery.refresh().get(5, TimeUnit.SECONDS);
+        settle(discovery);
+        assertEquals(List.of("front", "front,side"), names(heard));
+
+        discovery.removeListener(listener);
+        enumerator.devices.set(Collections.emptyList());
+        discovery.refresh().get(5, TimeUnit.SECONDS);
+        settle(discovery);
+        assertEquals(2, heard.size());
+    }
+
+    @Test
+    void testRefreshDuringEnumerationRunsAnotherOne() throws Exception {
+        ScriptedEnumerator enumerator = new ScriptedEnumerator();
+        enumerator.hold();
+        WebcamDiscovery discovery = new WebcamDiscovery(enumerator);
+
+        CompletableFuture<WebcamDiscovery.Inventory> first = discovery.discover();
+        assertTrue(enumerator.entered.await(5, TimeUnit.SECONDS));
+        // A camera is plugged in after the running enumeration listed the devices
+        enumerator.devices.set(List.of(webcam("new")));
+        CompletableFuture<WebcamDiscovery.Inventory> second = discovery.refresh();
+        CompletableFuture<WebcamDiscovery.Inventory> third = discovery.refresh();
+        assertNotSame(first, second);
+        assertSame(second, third, "refreshes while one is queued share it");
+
+        enumerator.release.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS).isEmpty());
+        assertArrayEquals(new String[] {"new"}, second.get(5, TimeUnit.SECONDS).getNames());
+        assertEquals(2, enumerator.calls.get());
+        assertArrayEquals(new String[] {"new"}, discovery.getInventory().getNames());
+    }
+}